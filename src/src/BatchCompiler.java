@@ -0,0 +1,577 @@
+package src;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+import src.wci.frontend.*;
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.DefinitionImpl;
+import src.wci.backend.*;
+import src.wci.backend.compiler.BuildCache;
+import src.wci.backend.compiler.CodeLoader;
+import src.wci.message.*;
+import src.wci.util.AbortException;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.ROUTINE_ICODE;
+import static src.wci.message.MessageType.*;
+
+/**
+ * <h1>BatchCompiler</h1>
+ *
+ * <p>Compile many source files in parallel.  The files are the source
+ * files of a directory or the files named in a list file.  Each line of
+ * a list file is a path, optionally followed by the language, Pascal or
+ * SubC.  Otherwise the name tells the language: a .pas or .in file is
+ * Pascal and a .c file is SubC, and a file whose name without the
+ * extension ends with Pascal, Pas or SubC, such as ifSubC.txt, is in that
+ * language.  A file whose language is unclear fails without being parsed,
+ * since parsing it with the wrong front end would report errors that
+ * aren't there.  Each file that has no syntax errors is compiled to a
+ * Jasmin assembly (.j) file and assembled to a class file, both named
+ * after the program, unless a build cache has the files that the same
+ * source generated before.  The tasks run on a fork-join pool.  The
+ * report lists the diagnostics of each file in input order, followed by a
+ * summary of the whole batch.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BatchCompiler
+{
+    // Compiler options that are part of the build cache keys.
+    private static final String CACHE_OPTIONS = "compile -j -class";
+
+    // Build cache info of the number of source lines.
+    private static final String LINE_COUNT_INFO = "lines";
+
+    // Extensions of the source files of a directory.
+    private static final String SOURCE_EXTENSIONS[] =
+        {".pas", ".c", ".txt", ".in"};
+
+    private ForkJoinPool pool;    // runs the compilation tasks
+    private File outputDirectory; // directory of the generated files
+    private BuildCache cache;     // build cache, or null
+
+    // Programs whose files were generated: entry key is a program name,
+    //                                      entry value is its source file.
+    private ConcurrentHashMap<String, File> programs =
+        new ConcurrentHashMap<String, File>();
+
+    /**
+     * The outcome of compiling one source file.
+     */
+    private enum Status
+    {
+        COMPILED, CACHED, SYNTAX_ERRORS, ABORTED, FAILED
+    }
+
+    /**
+     * The result of compiling one source file.
+     */
+    static class Unit
+    {
+        File file;                 // source file
+        String language;           // "Pascal", "SubC", or null if unclear
+        Status status;             // outcome
+        int lineCount;             // source lines
+        int errorCount;            // syntax errors
+        int instructionCount;      // generated instructions
+        StringBuilder diagnostics = new StringBuilder();
+
+        Unit(File file, String language)
+        {
+            this.file = file;
+            this.language = language;
+        }
+    }
+
+    /**
+     * Constructor.
+     * @param threadCount the number of files to compile at the same time.
+     * @param outputDirectory the directory of the generated files.
+     * @param cache the build cache, or null.
+     */
+    public BatchCompiler(int threadCount, File outputDirectory,
+                         BuildCache cache)
+    {
+        this.pool = new ForkJoinPool(threadCount);
+        this.outputDirectory = outputDirectory;
+        this.cache = cache;
+    }
+
+    /**
+     * Compile source files and print the report.
+     * @param units the source files to compile.
+     * @return true if every file compiled.
+     */
+    boolean compileAll(List<Unit> units)
+    {
+        long startTime = System.currentTimeMillis();
+        ArrayList<ForkJoinTask<Unit>> tasks =
+            new ArrayList<ForkJoinTask<Unit>>();
+
+        for (Unit unit : units) {
+            tasks.add(pool.submit(() -> compile(unit)));
+        }
+
+        for (ForkJoinTask<Unit> task : tasks) {
+            printUnit(task.join());
+        }
+
+        float elapsedTime = (System.currentTimeMillis() - startTime)/1000f;
+        return printSummary(units, elapsedTime);
+    }
+
+    /**
+     * Compile a source file.
+     * @param unit the source file to compile.
+     * @return the unit with the result.
+     */
+    private Unit compile(Unit unit)
+    {
+        File file = unit.file;
+        String language = unit.language;
+
+        if (language == null) {
+            unit.diagnostics.append("*** Unknown source language: Name the ")
+                .append("file *Pascal or *SubC, or give its language ")
+                .append("in a list file\n");
+            unit.status = Status.FAILED;
+            return unit;
+        }
+
+        try {
+            String cacheKey = null;
+
+            // Restore the files that the same source generated before.
+            if (cache != null) {
+                cacheKey = cache.key(file, language, CACHE_OPTIONS);
+                String programName = cache.lookup(cacheKey);
+
+                if (programName != null) {
+                    if (!claim(unit, programName)) {
+                        return unit;
+                    }
+                    if (cache.restore(cacheKey, outputDirectory) != null) {
+                        String lines = cache.info(cacheKey)
+                                           .getProperty(LINE_COUNT_INFO);
+                        if (lines != null) {
+                            unit.lineCount = Integer.parseInt(lines);
+                        }
+
+                        unit.status = Status.CACHED;
+                        return unit;
+                    }
+                }
+            }
+
+            Source source = new FileSource(file);
+            Parser parser = FrontendFactory.createParser(language,
+                                                         "top-down", source);
+            parser.addMessageListener(new UnitMessageListener(unit));
+
+            // A SubC program is named after its source file.
+            if (language.equals("SubC")) {
+                String programName = baseName(file);
+                SymTabStack symTabStack = parser.getSymTabStack();
+                SymTabEntry programId = symTabStack.enterLocal(programName);
+                programId.setDefinition(DefinitionImpl.PROGRAM);
+                symTabStack.setProgramId(programId);
+            }
+
+            try {
+                parser.parse();
+            }
+            catch (AbortException ex) {
+                // No parser summary: Count the lines parsed so far.
+                unit.lineCount =
+                    parser.getScanner().currentToken().getLineNumber();
+                throw ex;
+            }
+            finally {
+                parser.getScanner().close();
+                source.close();
+            }
+
+            if (parser.getErrorCount() > 0) {
+                unit.status = Status.SYNTAX_ERRORS;
+                return unit;
+            }
+
+            SymTabStack symTabStack = parser.getSymTabStack();
+            SymTabEntry programId = symTabStack.getProgramId();
+            String programName = programId.getName();
+            ICode iCode = (ICode) programId.getAttribute(ROUTINE_ICODE);
+
+            if (!claim(unit, programName)) {
+                return unit;
+            }
+
+            BackendContext context = new BackendContext();
+            context.outputDirectory = outputDirectory;
+            Backend backend = BackendFactory.createBackend("compile",
+                                                           context);
+            backend.addMessageListener(new UnitMessageListener(unit),
+                                       EnumSet.of(COMPILER_SUMMARY));
+            backend.process(iCode, symTabStack);
+
+            // Assemble the class file.
+            File assemblyFile = new File(outputDirectory, programName + ".j");
+            String assemblyCode =
+                new String(Files.readAllBytes(assemblyFile.toPath()),
+                           StandardCharsets.UTF_8);
+            byte code[] = CodeLoader.assemble(programName, assemblyCode);
+            Files.write(new File(outputDirectory,
+                                 programName + ".class").toPath(), code);
+
+            if (cache != null) {
+                Properties info = new Properties();
+                info.setProperty(LINE_COUNT_INFO,
+                                 Integer.toString(unit.lineCount));
+                cache.store(cacheKey, programName, outputDirectory, info);
+            }
+
+            unit.status = Status.COMPILED;
+        }
+        catch (AbortException ex) {
+            unit.status = Status.ABORTED;
+        }
+        catch (Throwable ex) {
+            unit.diagnostics.append("*** ").append(ex.toString())
+                .append('\n');
+            unit.status = Status.FAILED;
+        }
+
+        return unit;
+    }
+
+    /**
+     * Claim a program name for a source file, so that two files don't
+     * overwrite each other's generated files.
+     * @param unit the source file being compiled.
+     * @param programName the program name.
+     * @return true if the name was claimed, false if another file has it.
+     */
+    private boolean claim(Unit unit, String programName)
+    {
+        File other = programs.putIfAbsent(programName, unit.file);
+
+        if ((other != null) && !other.equals(unit.file)) {
+            unit.diagnostics.append("*** Program ").append(programName)
+                .append(" was already generated from ")
+                .append(other.getPath()).append('\n');
+            unit.status = Status.FAILED;
+            return false;
+        }
+
+        return true;
+    }
+
+    private static final String DIAGNOSTIC_FORMAT = "%s:%d:%d: %s";
+
+    /**
+     * Listener that records the messages of one source file.
+     */
+    private class UnitMessageListener implements MessageListener
+    {
+        private Unit unit;  // the result of compiling the file
+
+        /**
+         * Constructor.
+         * @param unit the result of compiling the file.
+         */
+        UnitMessageListener(Unit unit)
+        {
+            this.unit = unit;
+        }
+
+        /**
+         * Called by the parser or the back end whenever it produces a
+         * message.
+         * @param message the message.
+         */
+        public void messageReceived(Message message)
+        {
+            MessageType type = message.getType();
+
+            switch (type) {
+
+                // A parser that aborts sends no summary, so count the
+                // syntax errors one by one.
+                case PARSER_SUMMARY: {
+                    Number body[] = (Number[]) message.getBody();
+                    unit.lineCount = (Integer) body[0];
+                    break;
+                }
+
+                case SYNTAX_ERROR: {
+                    Object body[] = (Object []) message.getBody();
+                    int lineNumber = (Integer) body[0];
+                    int position = (Integer) body[1];
+                    String tokenText = (String) body[2];
+                    String errorMessage = (String) body[3];
+
+                    // The fatal error of an abort has no line.
+                    if (lineNumber > 0) {
+                        ++unit.errorCount;
+                    }
+                    unit.diagnostics.append(
+                        String.format(DIAGNOSTIC_FORMAT, unit.file.getPath(),
+                                      lineNumber, position, errorMessage));
+
+                    // Text, if any, of the bad token.
+                    if ((tokenText != null) && !tokenText.isEmpty()) {
+                        unit.diagnostics.append(" [at \"").append(tokenText)
+                            .append("\"]");
+                    }
+                    unit.diagnostics.append('\n');
+                    break;
+                }
+
+                case COMPILER_SUMMARY: {
+                    Number body[] = (Number[]) message.getBody();
+                    unit.instructionCount = (Integer) body[0];
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final String UNIT_FORMAT = "%-14s %s\n";
+
+    /**
+     * Print the diagnostics and the outcome of one source file.
+     * @param unit the result of compiling the file.
+     */
+    private void printUnit(Unit unit)
+    {
+        System.out.print(unit.diagnostics);
+        System.out.printf(UNIT_FORMAT, unit.status, unit.file.getPath());
+    }
+
+    private static final String SUMMARY_FORMAT =
+        "\n%,20d source files." +
+        "\n%,20d compiled." +
+        "\n%,20d restored from the build cache." +
+        "\n%,20d with syntax errors." +
+        "\n%,20d aborted." +
+        "\n%,20d failed." +
+        "\n%,20d source lines." +
+        "\n%,20d syntax errors." +
+        "\n%,20d instructions generated." +
+        "\n%,20d threads." +
+        "\n%,20.2f seconds total batch time.\n";
+
+    /**
+     * Print the summary of the batch.
+     * @param units the results of compiling the files.
+     * @param elapsedTime the elapsed time of the batch in seconds.
+     * @return true if every file compiled or was restored.
+     */
+    private boolean printSummary(List<Unit> units, float elapsedTime)
+    {
+        EnumMap<Status, Integer> counts =
+            new EnumMap<Status, Integer>(Status.class);
+        int lineCount = 0;
+        int errorCount = 0;
+        int instructionCount = 0;
+
+        for (Status status : Status.values()) {
+            counts.put(status, 0);
+        }
+
+        for (Unit unit : units) {
+            counts.put(unit.status, counts.get(unit.status) + 1);
+            lineCount += unit.lineCount;
+            errorCount += unit.errorCount;
+            instructionCount += unit.instructionCount;
+        }
+
+        System.out.printf(SUMMARY_FORMAT, units.size(),
+                          counts.get(Status.COMPILED),
+                          counts.get(Status.CACHED),
+                          counts.get(Status.SYNTAX_ERRORS),
+                          counts.get(Status.ABORTED),
+                          counts.get(Status.FAILED),
+                          lineCount, errorCount, instructionCount,
+                          pool.getParallelism(), elapsedTime);
+
+        return counts.get(Status.COMPILED) + counts.get(Status.CACHED)
+                   == units.size();
+    }
+
+    /**
+     * Return the source files of a directory or of a list file.
+     * @param input the directory or the list file.
+     * @return the source files to compile, sorted by name for a directory.
+     * @throws IOException if an I/O error occurred.
+     */
+    static List<Unit> sourceFiles(File input)
+        throws IOException
+    {
+        ArrayList<Unit> units = new ArrayList<Unit>();
+
+        if (input.isDirectory()) {
+            File entries[] = input.listFiles();
+            Arrays.sort(entries);
+
+            for (File entry : entries) {
+                String name = entry.getName().toLowerCase();
+
+                if (entry.isFile()) {
+                    for (String extension : SOURCE_EXTENSIONS) {
+                        if (name.endsWith(extension)) {
+                            units.add(new Unit(entry, languageOf(entry)));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        // List file: One path and an optional language per line.
+        // Skip blank lines and # comments.
+        else {
+            for (String line : Files.readAllLines(input.toPath())) {
+                line = line.trim();
+
+                if (!line.isEmpty() && (line.charAt(0) != '#')) {
+                    String fields[] = line.split("\\s+");
+                    File file = new File(fields[0]);
+                    String language = fields.length > 1
+                                          ? languageName(fields[1])
+                                          : languageOf(file);
+
+                    units.add(new Unit(file, language));
+                }
+            }
+        }
+
+        return units;
+    }
+
+    /**
+     * Return the language of a source file from its name.
+     * @param file the source file.
+     * @return "Pascal", "SubC", or null if the name doesn't tell.
+     */
+    private static String languageOf(File file)
+    {
+        String name = file.getName().toLowerCase();
+        String base = baseName(file).toLowerCase();
+
+        if (name.endsWith(".pas") || name.endsWith(".in")) {
+            return "Pascal";
+        }
+        else if (name.endsWith(".c") || base.endsWith("subc")) {
+            return "SubC";
+        }
+        else if (base.endsWith("pascal") || base.endsWith("pas")) {
+            return "Pascal";
+        }
+        else {
+            return null;
+        }
+    }
+
+    /**
+     * Return the language named in a list file.
+     * @param name the name.
+     * @return "Pascal", "SubC", or null if the name is neither.
+     */
+    private static String languageName(String name)
+    {
+        if (name.equalsIgnoreCase("Pascal")) {
+            return "Pascal";
+        }
+        else if (name.equalsIgnoreCase("SubC")) {
+            return "SubC";
+        }
+        else {
+            return null;
+        }
+    }
+
+    /**
+     * Return the name of a file without its extension.
+     * @param file the file.
+     * @return the name.
+     */
+    private static String baseName(File file)
+    {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static final String USAGE =
+        "Usage: BatchCompiler [-threads <count>] [-d <output directory>] " +
+        "[-cache <cache directory> [-cachesize <megabytes>]] " +
+        "<directory or list file>";
+
+    /**
+     * The main method.
+     * @param args command-line arguments: optional thread count and
+     *             output directory followed by the directory or list file.
+     */
+    public static void main(String args[])
+    {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        File outputDirectory = null;
+        File cacheDirectory = null;
+        long cacheSize = BuildCache.DEFAULT_MAX_SIZE;
+        File input;
+
+        try {
+            int i = 0;
+
+            while (args[i].charAt(0) == '-') {
+                if (args[i].equals("-threads")) {
+                    threadCount = Integer.parseInt(args[++i]);
+                }
+                else if (args[i].equals("-d")) {
+                    outputDirectory = new File(args[++i]);
+                }
+                else if (args[i].equals("-cache")) {
+                    cacheDirectory = new File(args[++i]);
+                }
+                else if (args[i].equals("-cachesize")) {
+                    cacheSize = Long.parseLong(args[++i])*1024*1024;
+                }
+                else {
+                    throw new Exception();
+                }
+                ++i;
+            }
+
+            if (i != args.length - 1) {
+                throw new Exception();
+            }
+            input = new File(args[i]);
+        }
+        catch (Exception ex) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        try {
+            BuildCache cache = cacheDirectory != null
+                                   ? new BuildCache(cacheDirectory, cacheSize)
+                                   : null;
+            BatchCompiler compiler =
+                new BatchCompiler(threadCount, outputDirectory, cache);
+            boolean compiled = compiler.compileAll(sourceFiles(input));
+
+            System.exit(compiled ? 0 : 1);
+        }
+        catch (IOException ex) {
+            System.out.println("*** Cannot read " + input.getPath() + ": " +
+                               ex.getMessage());
+            System.exit(-1);
+        }
+    }
+}
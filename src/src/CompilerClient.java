@@ -0,0 +1,177 @@
+package src;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * <h1>CompilerClient</h1>
+ *
+ * <p>A thin client of CompilerDaemon that takes the same arguments as the
+ * command line of SubC.  It sends the request to the daemon, relays its
+ * standard input to the daemon and the program's output back, and exits
+ * with the program's exit status.  The system property daemon.port sets
+ * the daemon's port.  The client sends the token that the daemon wrote to
+ * the user's token file, so it works only for the user who started the
+ * daemon.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class CompilerClient
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The main method.
+     * @param args command-line arguments: the operation followed by
+     *             optional flags, the source file path, and the language.
+     */
+    public static void main(String args[])
+    {
+        int port = Integer.getInteger("daemon.port",
+                                      CompilerDaemon.DEFAULT_PORT);
+        int status;
+        String token;
+
+        try {
+            token = new String(Files.readAllBytes(
+                                   CompilerDaemon.tokenFile().toPath()),
+                               StandardCharsets.UTF_8);
+        }
+        catch (IOException ex) {
+            System.err.println("*** Cannot read the compiler daemon's " +
+                               "token file " + CompilerDaemon.tokenFile() +
+                               ": " + ex.getMessage());
+            System.exit(-1);
+            return;
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                                        port)) {
+            DataInputStream in = new DataInputStream(
+                                     new BufferedInputStream(
+                                         socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                                       new BufferedOutputStream(
+                                           socket.getOutputStream()));
+
+            sendRequest(token, args, out);
+            startInputRelay(out);
+            status = receiveOutput(in);
+        }
+        catch (EOFException ex) {
+            System.err.println("*** The compiler daemon on port " + port +
+                               " closed the connection.  Was it started " +
+                               "by another user?");
+            status = -1;
+        }
+        catch (IOException ex) {
+            System.err.println("*** Cannot reach the compiler daemon on port " +
+                               port + ": " + ex.getMessage());
+            status = -1;
+        }
+
+        System.exit(status);
+    }
+
+    /**
+     * Send the token, the working directory, and the arguments.  The
+     * daemon has its own working directory, so make the source file path
+     * absolute.
+     * @param token the daemon's token.
+     * @param args the command-line arguments.
+     * @param out the connection.
+     * @throws IOException if an I/O error occurred.
+     */
+    private static void sendRequest(String token, String args[],
+                                    DataOutputStream out)
+        throws IOException
+    {
+        String directory = new File("").getAbsolutePath();
+        boolean pathSeen = false;
+
+        out.writeUTF(token);
+        out.writeUTF(directory);
+        out.writeInt(args.length);
+
+        // The operation, then flags, then the source file path.
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+
+            if (   (i > 0) && !pathSeen
+                && !arg.isEmpty() && (arg.charAt(0) != '-')) {
+                arg = new File(arg).getAbsolutePath();
+                pathSeen = true;
+            }
+
+            out.writeUTF(arg);
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Start a thread that relays the standard input to the daemon.  The
+     * thread doesn't keep the client from exiting.
+     * @param out the connection.
+     */
+    private static void startInputRelay(final DataOutputStream out)
+    {
+        Thread relay = new Thread(() -> {
+            byte buffer[] = new byte[BUFFER_SIZE];
+
+            try {
+                int length;
+                while ((length = System.in.read(buffer)) > 0) {
+                    out.writeInt(length);
+                    out.write(buffer, 0, length);
+                    out.flush();
+                }
+
+                out.writeInt(-1);
+                out.flush();
+            }
+            catch (IOException ex) {
+                // The daemon closed the connection.
+            }
+        });
+
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Relay the output frames until the exit frame.
+     * @param in the connection.
+     * @return the exit status.
+     * @throws IOException if an I/O error occurred.
+     */
+    private static int receiveOutput(DataInputStream in)
+        throws IOException
+    {
+        byte buffer[] = new byte[BUFFER_SIZE];
+
+        while (true) {
+            int channel = in.readByte();
+
+            if (channel == CompilerDaemon.EXIT) {
+                System.out.flush();
+                System.err.flush();
+                return in.readInt();
+            }
+
+            int length = in.readInt();
+            if (length > buffer.length) {
+                buffer = new byte[length];
+            }
+            in.readFully(buffer, 0, length);
+
+            PrintStream stream = channel == CompilerDaemon.STDERR
+                                     ? System.err : System.out;
+            stream.write(buffer, 0, length);
+            stream.flush();
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package src;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import src.wci.backend.BackendContext;
+import src.wci.util.AbortException;
+
+/**
+ * <h1>CompilerDaemon</h1>
+ *
+ * <p>A long-lived server that compiles and executes programs for clients
+ * that connect to a local socket, so that the clients don't each pay for
+ * starting a JVM and loading the translator.  Each connection carries one
+ * request with the same arguments as the command line, and a worker
+ * thread of a pool serves it.  The program's standard input, output, and
+ * error streams are relayed over the connection, followed by the exit
+ * status.  CompilerClient is the matching client.</p>
+ *
+ * <p>Only the user who started the daemon can use it.  The daemon writes
+ * a random token to a file in the user's home directory that only the
+ * user can read, and a client must send the token before its request.
+ * Generated files are written only to directories under the root that
+ * the daemon serves, which is the user's home directory by default.</p>
+ *
+ * <p>Protocol: The client sends the token, its working directory, and its
+ * arguments (a count followed by each argument) as UTF strings, and then
+ * the frames of its standard input.  The server sends frames of standard
+ * output and standard error, and ends with an exit frame.  A frame is a
+ * channel byte, a length, and that many bytes; an exit frame is the EXIT
+ * channel byte and the status.  A standard input frame has no channel
+ * byte, and a negative length marks the end of the input.  The server
+ * closes the connection without a reply if the token is wrong.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class CompilerDaemon
+{
+    public static final int DEFAULT_PORT = 7979;
+    public static final String TOKEN_FILE_NAME = ".wci-daemon-token";
+
+    // Channels of the frames that the server sends.
+    static final int EXIT   = 0;
+    static final int STDOUT = 1;
+    static final int STDERR = 2;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DRAIN_TIMEOUT = 10000;  // milliseconds
+    private static final int TOKEN_TIMEOUT = 10000;  // milliseconds
+    private static final int TOKEN_SIZE = 32;        // random bytes
+
+    // The standard streams of the process, which route the reads and
+    // writes of each worker thread to the connection that it serves.
+    private static RoutedInputStream routedIn;
+    private static RoutedOutputStream routedOut;
+    private static RoutedOutputStream routedErr;
+
+    private ServerSocket serverSocket;  // listens for connections
+    private ExecutorService workers;    // serve the requests
+    private byte token[];               // token that clients must send
+    private Path root;                  // root of the output directories
+
+    /**
+     * Constructor.
+     * @param port the port on the loopback interface to listen to.
+     * @param workerCount the number of requests to serve at the same time.
+     * @param root the directory under which generated files may be
+     *             written.
+     * @throws IOException if the socket could not be opened or the token
+     *                     file could not be written.
+     */
+    public CompilerDaemon(int port, int workerCount, File root)
+        throws IOException
+    {
+        this.root = root.getCanonicalFile().toPath();
+        this.token = writeToken();
+        this.serverSocket = new ServerSocket(port, 50,
+                                             InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    /**
+     * @return the file with the token in the user's home directory.
+     */
+    public static File tokenFile()
+    {
+        return new File(System.getProperty("user.home"), TOKEN_FILE_NAME);
+    }
+
+    /**
+     * Create a random token and write it to the token file, which only
+     * the user can read and write.
+     * @return the token.
+     * @throws IOException if an I/O error occurred.
+     */
+    private static byte[] writeToken()
+        throws IOException
+    {
+        byte random[] = new byte[TOKEN_SIZE];
+        new SecureRandom().nextBytes(random);
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : random) {
+            hex.append(String.format("%02x", b));
+        }
+        byte token[] = hex.toString().getBytes(StandardCharsets.UTF_8);
+
+        // Create a new file, so that no one else can have it open.
+        Path path = tokenFile().toPath();
+        Files.deleteIfExists(path);
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(
+                                       PosixFilePermissions.fromString(
+                                           "rw-------")));
+        }
+        catch (UnsupportedOperationException ex) {
+            File file = Files.createFile(path).toFile();
+            file.setReadable(false, false);
+            file.setWritable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(true, true);
+        }
+
+        Files.write(path, token);
+        path.toFile().deleteOnExit();
+
+        return token;
+    }
+
+    /**
+     * Check the token that a client sent.
+     * @param clientToken the token.
+     * @return true if it is the daemon's token, else false.
+     */
+    private boolean isAuthentic(String clientToken)
+    {
+        return MessageDigest.isEqual(
+                   token, clientToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param directory a directory that a client asked for.
+     * @return true if it is under the root, else false.
+     * @throws IOException if an I/O error occurred.
+     */
+    private boolean isServed(File directory)
+        throws IOException
+    {
+        return directory.getCanonicalFile().toPath().startsWith(root);
+    }
+
+    /**
+     * Accept connections and serve their requests until the process ends.
+     * @throws IOException if an I/O error occurred.
+     */
+    public void serve()
+        throws IOException
+    {
+        routeStandardStreams();
+
+        while (true) {
+            Socket socket = serverSocket.accept();
+            workers.execute(new Session(socket));
+        }
+    }
+
+    /**
+     * Replace the standard streams of the process by ones that route
+     * each thread's reads and writes.
+     */
+    private static synchronized void routeStandardStreams()
+    {
+        if (routedIn == null) {
+            routedIn  = new RoutedInputStream(System.in);
+            routedOut = new RoutedOutputStream(System.out);
+            routedErr = new RoutedOutputStream(System.err);
+
+            System.setIn(routedIn);
+            System.setOut(new PrintStream(routedOut, true));
+            System.setErr(new PrintStream(routedErr, true));
+        }
+    }
+
+    /**
+     * Serve the request of one connection.
+     */
+    private class Session implements Runnable
+    {
+        private Socket socket;  // the connection
+
+        /**
+         * Constructor.
+         * @param socket the connection.
+         */
+        Session(Socket socket)
+        {
+            this.socket = socket;
+        }
+
+        /**
+         * Read the request, translate the program, and send the output
+         * and the exit status.
+         */
+        public void run()
+        {
+            try {
+                DataInputStream in = new DataInputStream(
+                                         new BufferedInputStream(
+                                             socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(
+                                           new BufferedOutputStream(
+                                               socket.getOutputStream()));
+
+                // Drop a client that doesn't send the token in time.
+                socket.setSoTimeout(TOKEN_TIMEOUT);
+                if (!isAuthentic(in.readUTF())) {
+                    return;
+                }
+                socket.setSoTimeout(0);
+
+                File directory = new File(in.readUTF());
+                String args[] = new String[in.readInt()];
+                for (int i = 0; i < args.length; ++i) {
+                    args[i] = in.readUTF();
+                }
+
+                FrameOutputStream stdout = new FrameOutputStream(out, STDOUT);
+                FrameOutputStream stderr = new FrameOutputStream(out, STDERR);
+                FrameInputStream stdin = new FrameInputStream(in, stdout);
+
+                int status;
+                if (isServed(directory)) {
+                    BackendContext context = new BackendContext();
+                    context.outputDirectory = directory;
+
+                    status = translate(args, context, stdin, stdout, stderr);
+                }
+                else {
+                    PrintStream err = new PrintStream(stderr, true);
+                    err.println("*** The compiler daemon doesn't write to " +
+                                directory + ", which isn't under " + root +
+                                ".");
+                    status = -1;
+                }
+
+                stdout.flush();
+                stderr.flush();
+                out.writeByte(EXIT);
+                out.writeInt(status);
+                out.flush();
+
+                // Read any unread input until the client closes the
+                // connection, so that closing it doesn't reset it and
+                // discard the output.
+                socket.shutdownOutput();
+                socket.setSoTimeout(DRAIN_TIMEOUT);
+                while (in.read() != -1) {
+                }
+            }
+            catch (IOException ex) {
+                // The client went away: Nothing left to do.
+            }
+            finally {
+                try {
+                    socket.close();
+                }
+                catch (IOException ex) {
+                }
+            }
+        }
+
+        /**
+         * Translate a program with this thread's standard streams routed
+         * to the connection.
+         * @param args the command-line arguments.
+         * @param context the context for the back end.
+         * @param stdin the standard input.
+         * @param stdout the standard output.
+         * @param stderr the standard error.
+         * @return the exit status.
+         */
+        private int translate(String args[], BackendContext context,
+                              InputStream stdin, OutputStream stdout,
+                              OutputStream stderr)
+        {
+            routedIn.route(stdin);
+            routedOut.route(stdout);
+            routedErr.route(stderr);
+
+            try {
+                SubC.translate(args, context);
+                return 0;
+            }
+            catch (AbortException ex) {
+                return ex.getStatus();
+            }
+            catch (Throwable ex) {
+                System.out.println("***** Internal translator error. *****");
+                ex.printStackTrace();
+                return 1;
+            }
+            finally {
+                System.out.flush();
+                System.err.flush();
+
+                routedIn.route(null);
+                routedOut.route(null);
+                routedErr.route(null);
+            }
+        }
+    }
+
+    /**
+     * An input stream that reads from the stream set for the current
+     * thread, or else from the default stream.
+     */
+    private static class RoutedInputStream extends InputStream
+    {
+        private InputStream defaultStream;
+        private ThreadLocal<InputStream> streams =
+            new ThreadLocal<InputStream>();
+
+        RoutedInputStream(InputStream defaultStream)
+        {
+            this.defaultStream = defaultStream;
+        }
+
+        void route(InputStream stream)
+        {
+            if (stream != null) {
+                streams.set(stream);
+            }
+            else {
+                streams.remove();
+            }
+        }
+
+        private InputStream stream()
+        {
+            InputStream stream = streams.get();
+            return stream != null ? stream : defaultStream;
+        }
+
+        public int read()
+            throws IOException
+        {
+            return stream().read();
+        }
+
+        public int read(byte buffer[], int offset, int length)
+            throws IOException
+        {
+            return stream().read(buffer, offset, length);
+        }
+
+        public int available()
+            throws IOException
+        {
+            return stream().available();
+        }
+    }
+
+    /**
+     * An output stream that writes to the stream set for the current
+     * thread, or else to the default stream.
+     */
+    private static class RoutedOutputStream extends OutputStream
+    {
+        private OutputStream defaultStream;
+        private ThreadLocal<OutputStream> streams =
+            new ThreadLocal<OutputStream>();
+
+        RoutedOutputStream(OutputStream defaultStream)
+        {
+            this.defaultStream = defaultStream;
+        }
+
+        void route(OutputStream stream)
+        {
+            if (stream != null) {
+                streams.set(stream);
+            }
+            else {
+                streams.remove();
+            }
+        }
+
+        private OutputStream stream()
+        {
+            OutputStream stream = streams.get();
+            return stream != null ? stream : defaultStream;
+        }
+
+        public void write(int b)
+            throws IOException
+        {
+            stream().write(b);
+        }
+
+        public void write(byte buffer[], int offset, int length)
+            throws IOException
+        {
+            stream().write(buffer, offset, length);
+        }
+
+        public void flush()
+            throws IOException
+        {
+            stream().flush();
+        }
+    }
+
+    /**
+     * An output stream that buffers bytes and sends them as the frames
+     * of a channel.
+     */
+    private static class FrameOutputStream extends OutputStream
+    {
+        private DataOutputStream out;  // the connection
+        private int channel;           // the channel of the frames
+        private byte buffer[] = new byte[BUFFER_SIZE];
+        private int count = 0;         // number of bytes in the buffer
+
+        FrameOutputStream(DataOutputStream out, int channel)
+        {
+            this.out = out;
+            this.channel = channel;
+        }
+
+        public void write(int b)
+            throws IOException
+        {
+            if (count == buffer.length) {
+                sendFrame();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        public void write(byte bytes[], int offset, int length)
+            throws IOException
+        {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    sendFrame();
+                }
+
+                int n = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, n);
+                count += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void flush()
+            throws IOException
+        {
+            if (count > 0) {
+                sendFrame();
+            }
+            out.flush();
+        }
+
+        private void sendFrame()
+            throws IOException
+        {
+            out.writeByte(channel);
+            out.writeInt(count);
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * An input stream that receives the standard input frames.  It
+     * flushes the standard output before it waits for input, so that
+     * the client sees any prompt.
+     */
+    private static class FrameInputStream extends InputStream
+    {
+        private DataInputStream in;     // the connection
+        private OutputStream prompter;  // flushed before waiting for input
+        private int remaining = 0;      // unread bytes of the current frame
+        private boolean atEof = false;  // true after the last frame
+
+        FrameInputStream(DataInputStream in, OutputStream prompter)
+        {
+            this.in = in;
+            this.prompter = prompter;
+        }
+
+        /**
+         * Receive the next frame if the current one is used up.
+         * @return false at the end of the input.
+         * @throws IOException if an I/O error occurred.
+         */
+        private boolean fill()
+            throws IOException
+        {
+            while ((remaining == 0) && !atEof) {
+                prompter.flush();
+
+                int length = in.readInt();
+                if (length < 0) {
+                    atEof = true;
+                }
+                else {
+                    remaining = length;
+                }
+            }
+
+            return remaining > 0;
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (!fill()) {
+                return -1;
+            }
+
+            --remaining;
+            return in.read();
+        }
+
+        public int read(byte buffer[], int offset, int length)
+            throws IOException
+        {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+
+            int n = in.read(buffer, offset, Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        public int available()
+        {
+            return remaining;
+        }
+    }
+
+    private static final String USAGE =
+        "Usage: CompilerDaemon [-port <port>] [-workers <count>] " +
+        "[-root <directory>]";
+
+    /**
+     * The main method.
+     * @param args command-line arguments: optional port, worker count,
+     *             and root of the output directories.
+     */
+    public static void main(String args[])
+    {
+        int port = DEFAULT_PORT;
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        File root = new File(System.getProperty("user.home"));
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i].equals("-port")) {
+                    port = Integer.parseInt(args[i+1]);
+                }
+                else if (args[i].equals("-workers")) {
+                    workerCount = Integer.parseInt(args[i+1]);
+                }
+                else if (args[i].equals("-root")) {
+                    root = new File(args[i+1]);
+                }
+                else {
+                    throw new Exception();
+                }
+            }
+        }
+        catch (Exception ex) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        try {
+            CompilerDaemon daemon = new CompilerDaemon(port, workerCount,
+                                                       root);
+            System.out.println("Compiler daemon listening on port " + port +
+                               " with " + workerCount + " worker(s), " +
+                               "writing under " + daemon.root + ".");
+            daemon.serve();
+        }
+        catch (IOException ex) {
+            System.out.println("*** Compiler daemon failed: " +
+                               ex.getMessage());
+            System.exit(-1);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package src;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.util.EnumSet;
 
 import src.wci.frontend.*;
 import src.wci.intermediate.*;
 import src.wci.backend.*;
+import src.wci.backend.compiler.BuildCache;
 import src.wci.message.*;
 import src.wci.util.*;
 
@@ -34,14 +35,30 @@ public class Pascal
     private boolean fetch;            // true to print value fetch tracing
     private boolean call;             // true to print routine call tracing
     private boolean returnn;     // backend
+    private boolean save;             // true to save the parsed program
 
     /**
      * Compile or interpret a Pascal source program.
-     * @param operation either "compile" or "execute".
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute".
      * @param filePath the source file path.
      * @param flags the command line flags.
      */
     public Pascal(String operation, String filePath, String flags)
+    {
+        this(operation, filePath, flags, new BackendContext());
+    }
+
+    /**
+     * Compile or interpret a Pascal source program.
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute".
+     * @param filePath the source file path.
+     * @param flags the command line flags.
+     * @param context the context for the back end.
+     */
+    public Pascal(String operation, String filePath, String flags,
+                  BackendContext context)
     {
         try {
             intermediate = flags.indexOf('i') > -1;
@@ -51,48 +68,119 @@ public class Pascal
             fetch        = flags.indexOf('f') > -1;
             call         = flags.indexOf('c') > -1;
             returnn      = flags.indexOf('r') > -1;
+            save         = flags.indexOf('s') > -1;
+
+            // Reuse the files that compiling the same source generated
+            // before, unless listings are requested or the parsed program
+            // is saved.
+            BuildCache cache = null;
+            String cacheKey = null;
+            if (   operation.equalsIgnoreCase("compile")
+                && !intermediate && !xref && !save) {
+                cache = BuildCache.fromProperties();
+            }
+            if (cache != null) {
+                cacheKey = cache.key(new File(filePath), "Pascal",
+                                     operation + " " + flags);
+                String programName = cache.restore(cacheKey,
+                                                   context.outputDirectory);
+                if (programName != null) {
+                    System.out.printf(CACHED_FORMAT, programName);
+                    return;
+                }
+            }
 
-            source = new Source(new BufferedReader(new FileReader(filePath)));
-            source.addMessageListener(new SourceMessageListener());
+            backend = BackendFactory.createBackend(operation, context);
+            backend.addMessageListener(new BackendMessageListener(),
+                                       backendMessageTypes());
+
+            if (filePath.endsWith(ProgramWriter.EXTENSION)) {
+                // Start from a program that was parsed and saved before.
+                symTabStack = new ProgramReader().read(new File(filePath));
+            }
+            else {
+                source = new FileSource(new File(filePath));
+                source.addMessageListener(new SourceMessageListener());
 
-            parser = FrontendFactory.createParser("Pascal", "top-down", source);
-            parser.addMessageListener(new ParserMessageListener());
+                parser = FrontendFactory.createParser("Pascal", "top-down",
+                                                      source);
+                parser.addMessageListener(new ParserMessageListener());
 
-            backend = BackendFactory.createBackend(operation);
-            backend.addMessageListener(new BackendMessageListener());
+                try {
+                    parser.parse();
+                }
+                finally {
+                    parser.getScanner().close();
+                    source.close();
+                }
 
-            parser.parse();
-            source.close();
+                if (parser.getErrorCount() > 0) {
+                    return;
+                }
 
-            if (parser.getErrorCount() == 0) {
                 symTabStack = parser.getSymTabStack();
+            }
 
-                SymTabEntry programId = symTabStack.getProgramId();
-                iCode = (ICode) programId.getAttribute(ROUTINE_ICODE);
+            SymTabEntry programId = symTabStack.getProgramId();
+            iCode = (ICode) programId.getAttribute(ROUTINE_ICODE);
 
-                if (xref) {
-                    CrossReferencer crossReferencer = new CrossReferencer();
-                    crossReferencer.print(symTabStack);
-                }
+            if (save) {
+                File file = new File(context.outputDirectory,
+                                     programId.getName() +
+                                     ProgramWriter.EXTENSION);
+                new ProgramWriter().write(symTabStack, file);
+                System.out.printf(SAVED_FORMAT, file.getName());
+            }
 
-                if (intermediate) {
-                    ParseTreePrinter treePrinter =
-                                         new ParseTreePrinter(System.out);
-                    treePrinter.print(symTabStack);
-                }
+            if (xref) {
+                CrossReferencer crossReferencer = new CrossReferencer();
+                crossReferencer.print(symTabStack);
+            }
 
-                backend.process(iCode, symTabStack);
+            if (intermediate) {
+                ParseTreePrinter treePrinter = new ParseTreePrinter(System.out);
+                treePrinter.print(symTabStack);
+            }
+
+            backend.process(iCode, symTabStack);
+
+            if (cache != null) {
+                cache.store(cacheKey, programId.getName(),
+                            context.outputDirectory);
             }
         }
+        catch (AbortException ex) {
+            throw ex;
+        }
         catch (Exception ex) {
             System.out.println("***** Internal translator error. *****");
             ex.printStackTrace();
         }
     }
 
-    private static final String FLAGS = "[-ixlafcr]";
+    /**
+     * Return the back end message types that the flags request.  The back
+     * end does not construct trace messages that have no listener.
+     * @return the set of message types.
+     */
+    private EnumSet<MessageType> backendMessageTypes()
+    {
+        EnumSet<MessageType> messageTypes =
+            EnumSet.of(RUNTIME_ERROR, INTERPRETER_SUMMARY, COMPILER_SUMMARY);
+
+        if (lines)   messageTypes.add(SOURCE_LINE);
+        if (assign)  messageTypes.add(ASSIGN);
+        if (fetch)   messageTypes.add(FETCH);
+        if (call)    messageTypes.add(CALL);
+        if (returnn) messageTypes.add(RETURN);
+
+        return messageTypes;
+    }
+
+    private static final String FLAGS = "[-ixlafcrs]";
     private static final String USAGE =
-        "Usage: Pascal execute|compile " + FLAGS + " <source file path>";
+        "Usage: Pascal execute|fastexecute|tieredexecute|compile|run " +
+        FLAGS + " <source file path>";
 
     
 
@@ -200,6 +288,12 @@ public class Pascal
         "\n%,20d instructions generated." +
         "\n%,20.2f seconds total code generation time.\n";
 
+    private static final String CACHED_FORMAT =
+        "\nRestored %s.j from the build cache.\n";
+
+    private static final String SAVED_FORMAT =
+        "\nSaved the parsed program in %s.\n";
+
     private static final String LINE_FORMAT =
         ">>> AT LINE %03d\n";
 
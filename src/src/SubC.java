@@ -12,14 +12,14 @@ package src;
  */
 
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.util.EnumSet;
 import src.wci.backend.Backend;
 
 import src.wci.frontend.*;
 import src.wci.intermediate.*;
 import src.wci.backend.*;
+import src.wci.backend.compiler.BuildCache;
 import src.wci.frontend.FrontendFactory;
 import src.wci.frontend.Parser;
 import src.wci.frontend.Source;
@@ -29,8 +29,11 @@ import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.ROUTINE_ICODE;
 import src.wci.message.*;
 
 import static src.wci.message.MessageType.*;
+import src.wci.util.AbortException;
 import src.wci.util.CrossReferencer;
 import src.wci.util.ParseTreePrinter;
+import src.wci.util.ProgramReader;
+import src.wci.util.ProgramWriter;
 
 /**
  * <h1>Pascal</h1>
@@ -50,53 +53,122 @@ public class SubC
 
     /**
      * Compile or interpret a Pascal source program.
-     * @param operation either "compile" or "execute".
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute".
      * @param filePath the source file path.
      * @param flags the command line flags.
      */
     public SubC(String operation, String filePath, String flags)
+    {
+        this(operation, filePath, flags, new BackendContext());
+    }
+
+    /**
+     * Compile or interpret a SubC source program.
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute".
+     * @param filePath the source file path.
+     * @param flags the command line flags.
+     * @param context the context for the back end.
+     */
+    public SubC(String operation, String filePath, String flags,
+                BackendContext context)
     {
         try {
             boolean intermediate = flags.indexOf('i') > -1;
             boolean xref         = flags.indexOf('x') > -1;
+            boolean save         = flags.indexOf('s') > -1;
+
+            // Reuse the files that compiling the same source generated
+            // before, unless listings are requested or the parsed program
+            // is saved.
+            BuildCache cache = null;
+            String cacheKey = null;
+            if (   operation.equalsIgnoreCase("compile")
+                && !intermediate && !xref && !save) {
+                cache = BuildCache.fromProperties();
+            }
+            if (cache != null) {
+                cacheKey = cache.key(new File(filePath), "SubC",
+                                     operation + " " + flags);
+                String programName = cache.restore(cacheKey,
+                                                   context.outputDirectory);
+                if (programName != null) {
+                    System.out.printf(CACHED_FORMAT, programName);
+                    return;
+                }
+            }
 
-            source = new Source(new BufferedReader(new FileReader(filePath)));
-            source.addMessageListener(new SourceMessageListener());
-
-            parser = FrontendFactory.createParser("SubC", "top-down", source);
-            parser.addMessageListener(new ParserMessageListener());
-
-            backend = BackendFactory.createBackend(operation);
-            backend.addMessageListener(new BackendMessageListener());
-            
-            // Create a dummy program identifier symbol table entry.
-            String progName = new File(filePath).getName().replace(".c", "");
-            SymTabEntry routineId = parser.getSymTabStack().enterLocal(progName);
-            routineId.setDefinition(DefinitionImpl.PROGRAM);
-            parser.getSymTabStack().setProgramId(routineId);
-
-            parser.parse();
-            source.close();
-			
-            if (parser.getErrorCount() == 0) {
-                symTabStack = parser.getSymTabStack();
-
-                SymTabEntry programId = symTabStack.getProgramId();
-                iCode = (ICode) programId.getAttribute(ROUTINE_ICODE);
+            backend = BackendFactory.createBackend(operation, context);
+            backend.addMessageListener(new BackendMessageListener(),
+                                       EnumSet.of(INTERPRETER_SUMMARY,
+                                                  COMPILER_SUMMARY));
 
-                if (xref) {
-                    CrossReferencer crossReferencer = new CrossReferencer();
-                    crossReferencer.print(symTabStack);
+            if (filePath.endsWith(ProgramWriter.EXTENSION)) {
+                // Start from a program that was parsed and saved before.
+                symTabStack = new ProgramReader().read(new File(filePath));
+            }
+            else {
+                source = new FileSource(new File(filePath));
+                source.addMessageListener(new SourceMessageListener());
+
+                parser = FrontendFactory.createParser("SubC", "top-down",
+                                                      source);
+                parser.addMessageListener(new ParserMessageListener());
+
+                // Create a dummy program identifier symbol table entry.
+                String progName = new File(filePath).getName()
+                                      .replace(".c", "");
+                SymTabEntry routineId =
+                    parser.getSymTabStack().enterLocal(progName);
+                routineId.setDefinition(DefinitionImpl.PROGRAM);
+                parser.getSymTabStack().setProgramId(routineId);
+
+                try {
+                    parser.parse();
+                }
+                finally {
+                    parser.getScanner().close();
+                    source.close();
                 }
 
-                if (intermediate) {
-                    ParseTreePrinter treePrinter =
-                                         new ParseTreePrinter(System.out);
-                    treePrinter.print(symTabStack);
+                if (parser.getErrorCount() > 0) {
+                    return;
                 }
 
-                backend.process(iCode, symTabStack);
+                symTabStack = parser.getSymTabStack();
             }
+
+            SymTabEntry programId = symTabStack.getProgramId();
+            iCode = (ICode) programId.getAttribute(ROUTINE_ICODE);
+
+            if (save) {
+                File file = new File(context.outputDirectory,
+                                     programId.getName() +
+                                     ProgramWriter.EXTENSION);
+                new ProgramWriter().write(symTabStack, file);
+                System.out.printf(SAVED_FORMAT, file.getName());
+            }
+
+            if (xref) {
+                CrossReferencer crossReferencer = new CrossReferencer();
+                crossReferencer.print(symTabStack);
+            }
+
+            if (intermediate) {
+                ParseTreePrinter treePrinter = new ParseTreePrinter(System.out);
+                treePrinter.print(symTabStack);
+            }
+
+            backend.process(iCode, symTabStack);
+
+            if (cache != null) {
+                cache.store(cacheKey, programId.getName(),
+                            context.outputDirectory);
+            }
+        }
+        catch (AbortException ex) {
+            throw ex;
         }
         catch (Exception ex) {
             System.out.println("***** Internal translator error. *****");
@@ -107,9 +179,10 @@ public class SubC
     
     
 
-    private static final String FLAGS = "[-ix]";
+    private static final String FLAGS = "[-ixs]";
     private static final String USAGE =
-        "Usage: Sub C execute|compile " + FLAGS + " <source file path>";
+        "Usage: Sub C execute|fastexecute|tieredexecute|compile|run " +
+        FLAGS + " <source file path>";
 
     /**
      * The main method.
@@ -117,13 +190,34 @@ public class SubC
      *             optional flags followed by the source file path.
      */
     public static void main(String args[])
+    {
+        try {
+            translate(args, new BackendContext());
+        }
+        catch (AbortException ex) {
+            System.exit(ex.getStatus());
+        }
+    }
+
+    /**
+     * Compile or interpret a source program as the command-line arguments
+     * direct, or print the usage message if they are invalid.
+     * @param args command-line arguments: "compile" or "execute" followed by
+     *             optional flags, the source file path, and the language.
+     * @param context the context for the back end.
+     * @throws AbortException if the translation or execution was aborted.
+     */
+    public static void translate(String args[], BackendContext context)
     {
         try {
             String operation = args[0];
 
             // Operation.
             if (!(   operation.equalsIgnoreCase("compile")
-                  || operation.equalsIgnoreCase("execute"))) {
+                  || operation.equalsIgnoreCase("run")
+                  || operation.equalsIgnoreCase("execute")
+                  || operation.equalsIgnoreCase("fastexecute")
+                  || operation.equalsIgnoreCase("tieredexecute"))) {
                 throw new Exception();
             }
 
@@ -138,17 +232,20 @@ public class SubC
             // Source path.
             if (i < args.length && args[i+1].equals("SubC") || args[i+1].equals("subC")) {
                 String path = args[i];
-                new SubC(operation, path, flags);
+                new SubC(operation, path, flags, context);
             }
             else if(i < args.length && args[i+1].equals("Pascal") || args[i+1].equals("pascal"))
             {
                 String path = args[i];
-                new Pascal(operation, path, flags);
+                new Pascal(operation, path, flags, context);
             }
             else {
                 throw new Exception();
             }
         }
+        catch (AbortException ex) {
+            throw ex;
+        }
         catch (Exception ex) {
             System.out.println(USAGE);
         }
@@ -257,6 +354,12 @@ private static final int PREFIX_WIDTH = 5;
         "\n%,20d instructions generated." +
         "\n%,20.2f seconds total code generation time.\n";
 
+    private static final String CACHED_FORMAT =
+        "\nRestored %s.j from the build cache.\n";
+
+    private static final String SAVED_FORMAT =
+        "\nSaved the parsed program in %s.\n";
+
     /**
      * Listener for back end messages.
      */
@@ -1,5 +1,7 @@
 package src.wci.backend;
 
+import java.util.EnumSet;
+
 import src.wci.intermediate.ICode;
 import src.wci.intermediate.SymTabStack;
 import src.wci.message.*;
@@ -14,14 +16,41 @@ import src.wci.message.*;
  */
 public abstract class Backend implements MessageProducer
 {
-    protected static SymTabStack symTabStack;        // symbol table stack
-    protected static MessageHandler messageHandler;  // message handler delegate
+    protected BackendContext context;         // state shared by components
+    protected SymTabStack symTabStack;        // symbol table stack
+    protected MessageHandler messageHandler;  // message handler delegate
+
+    protected ICode iCode;  // intermediate code
 
-    static {
-        messageHandler = new MessageHandler();
+    /**
+     * Constructor.
+     * @param context the context of the program to process.
+     */
+    protected Backend(BackendContext context)
+    {
+        this.context = context;
+        this.messageHandler = context.messageHandler;
     }
 
-    protected ICode iCode;  // intermediate code
+    /**
+     * Constructor for subclasses.
+     * @param parent the parent back end component.
+     */
+    protected Backend(Backend parent)
+    {
+        this.context = parent.context;
+        this.symTabStack = parent.symTabStack;
+        this.messageHandler = parent.messageHandler;
+    }
+
+    /**
+     * Getter.
+     * @return the context of the program being processed.
+     */
+    public BackendContext getContext()
+    {
+        return context;
+    }
 
     /**
      * Getter.
@@ -78,6 +107,17 @@ public abstract class Backend implements MessageProducer
         messageHandler.addListener(listener);
     }
 
+    /**
+     * Add a back end message listener for some message types.
+     * @param listener the message listener to add.
+     * @param messageTypes the message types that the listener receives.
+     */
+    public void addMessageListener(MessageListener listener,
+                                   EnumSet<MessageType> messageTypes)
+    {
+        messageHandler.addListener(listener, messageTypes);
+    }
+
     /**
      * Remove a parser message listener.
      * @param listener the message listener to remove.
@@ -0,0 +1,71 @@
+package src.wci.backend;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import src.wci.frontend.Scanner;
+import src.wci.message.MessageHandler;
+import src.wci.backend.interpreter.*;
+import src.wci.backend.interpreter.executors.*;
+
+/**
+ * <h1>BackendContext</h1>
+ *
+ * <p>The state that the components of a back end share while they process
+ * one program.  Each back end created by the factory has its own context,
+ * which the executors or code generators it creates share through their
+ * parent, so several programs can be processed one after another or at
+ * the same time.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BackendContext
+{
+    public MessageHandler messageHandler;  // message handler delegate
+
+    // Interpreter.
+    public int executionCount;                // count of executed statements
+    public RuntimeStack runtimeStack;         // runtime stack
+    public RuntimeErrorHandler errorHandler;  // runtime error handler
+    public Scanner standardIn;                // standard input, or null
+    public PrintWriter standardOut;           // standard output, or null
+    public SlotResolver slotResolver;         // activation record layouts
+
+    // Shared executors.  The executors keep no per-node state, so each
+    // kind is created once and reused for every node it executes.
+    public StatementExecutor statementExecutor;
+    public ExpressionExecutor expressionExecutor;
+    public CompoundExecutor compoundExecutor;
+    public AssignmentExecutor assignmentExecutor;
+    public LoopExecutor loopExecutor;
+    public IfExecutor ifExecutor;
+    public SelectExecutor selectExecutor;
+    public CallExecutor callExecutor;
+    public CallDeclaredExecutor callDeclaredExecutor;
+    public CallStandardExecutor callStandardExecutor;
+
+    // Profiler and compiler of hot routines, or null if not tiered.
+    public TieredCompiler tieredCompiler;
+
+    // Compiler.
+    public int instructionCount;  // count of generated instructions
+    public int labelCount;        // count of generated labels
+    public File outputDirectory;  // directory of the assembly file, or null
+                                  //   for the current directory
+
+    /**
+     * Constructor.
+     * The interpreter's standard input and output are opened when the
+     * program starts executing unless they are set before.
+     */
+    public BackendContext()
+    {
+        this.messageHandler = new MessageHandler();
+        this.executionCount = 0;
+        this.runtimeStack = MemoryFactory.createRuntimeStack();
+        this.errorHandler = new RuntimeErrorHandler();
+        this.instructionCount = 0;
+        this.labelCount = 0;
+    }
+}
@@ -1,9 +1,13 @@
 package src.wci.backend;
 
 import src.wci.backend.compiler.CodeGenerator;
+import src.wci.backend.compiler.CodeRunner;
 import src.wci.backend.interpreter.Executor;
+import src.wci.backend.interpreter.TieredExecutor;
+import src.wci.backend.interpreter.closures.ClosureExecutor;
 import src.wci.intermediate.TypeSpec;
 import src.wci.intermediate.symtabimpl.Predefined;
+import src.wci.intermediate.typeimpl.TypeFormImpl;
 
 /**
  * <h1>BackendFactory</h1>
@@ -17,18 +21,43 @@ public class BackendFactory
 {
     /**
      * Create a compiler or an interpreter back end component.
-     * @param operation either "compile" or "execute"
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute"
      * @return a compiler or an interpreter back end component.
      * @throws Exception if an error occurred.
      */
     public static Backend createBackend(String operation)
         throws Exception
+    {
+        return createBackend(operation, new BackendContext());
+    }
+
+    /**
+     * Create a compiler or an interpreter back end component.
+     * @param operation "compile", "run", "execute", "fastexecute",
+     *                  or "tieredexecute"
+     * @param context the context of the program to process.
+     * @return a compiler or an interpreter back end component.
+     * @throws Exception if an error occurred.
+     */
+    public static Backend createBackend(String operation,
+                                        BackendContext context)
+        throws Exception
     {
         if (operation.equalsIgnoreCase("compile")) {
-            return new CodeGenerator();
+            return new CodeGenerator(context);
+        }
+        else if (operation.equalsIgnoreCase("run")) {
+            return new CodeRunner(context);
         }
         else if (operation.equalsIgnoreCase("execute")) {
-            return new Executor();
+            return new Executor(context);
+        }
+        else if (operation.equalsIgnoreCase("fastexecute")) {
+            return new ClosureExecutor(context);
+        }
+        else if (operation.equalsIgnoreCase("tieredexecute")) {
+            return new TieredExecutor(context);
         }
         else {
             throw new Exception("Backend factory: Invalid operation '" +
@@ -45,16 +74,19 @@ public class BackendFactory
         type = type.baseType();
 
         if (type == Predefined.integerType) {
-            return new Integer(0);
+            return Integer.valueOf(0);
         }
         else if (type == Predefined.realType) {
-            return new Float(0.0f);
+            return Float.valueOf(0.0f);
         }
         else if (type == Predefined.booleanType) {
-            return new Boolean(false);
+            return Boolean.valueOf(false);
         }
         else if (type == Predefined.charType) {
-            return new Character('#');
+            return Character.valueOf('#');
+        }
+        else if (type.getForm() == TypeFormImpl.ENUMERATION) {
+            return Integer.valueOf(0);
         }
         else /* string */ {
             return new String("#");
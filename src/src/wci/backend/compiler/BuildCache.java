@@ -0,0 +1,422 @@
+package src.wci.backend.compiler;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+/**
+ * <h1>BuildCache</h1>
+ *
+ * <p>A local cache of the files that compiling a source file generates.
+ * An entry's key is a hash of the source file's name and contents, the
+ * language, the compiler options, and a fingerprint of the compiler's own
+ * class files, so a change to any of them misses the cache.  An entry is
+ * a directory named after its key that holds the generated .j file and,
+ * if assembled, the .class file, and optionally an info file of facts
+ * about the compilation, such as the number of source lines.  When the
+ * cache grows beyond its maximum size, the least recently used entries
+ * are deleted.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BuildCache
+{
+    public static final long DEFAULT_MAX_SIZE = 256L*1024*1024;  // bytes
+
+    private static final String TEMP_PREFIX = "tmp-";
+    private static final String INFO_FILE = "info.properties";
+    private static final String HEX_DIGITS = "0123456789abcdef";
+
+    private static String fingerprint;  // of the compiler's class files
+
+    private File directory;  // cache directory
+    private long maxSize;    // maximum total size of the entries in bytes
+    private long totalSize;  // total size of the entries, or -1 if unknown
+
+    /**
+     * Constructor.
+     * @param directory the cache directory, created if necessary.
+     * @param maxSize the maximum total size of the entries in bytes.
+     */
+    public BuildCache(File directory, long maxSize)
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.totalSize = -1;
+
+        directory.mkdirs();
+    }
+
+    /**
+     * Return the build cache that the system properties wci.cache (the
+     * directory) and wci.cache.size (the maximum size in megabytes) set.
+     * @return the cache, or null if wci.cache is not set.
+     */
+    public static BuildCache fromProperties()
+    {
+        String path = System.getProperty("wci.cache");
+        if (path == null) {
+            return null;
+        }
+
+        long maxSize = DEFAULT_MAX_SIZE;
+        String size = System.getProperty("wci.cache.size");
+        if (size != null) {
+            maxSize = Long.parseLong(size)*1024*1024;
+        }
+
+        return new BuildCache(new File(path), maxSize);
+    }
+
+    /**
+     * Compute the key of a source file's entry.
+     * @param sourceFile the source file.
+     * @param language the source language.
+     * @param options the compiler options that affect the generated files.
+     * @return the key.
+     * @throws IOException if the source file could not be read.
+     */
+    public String key(File sourceFile, String language, String options)
+        throws IOException
+    {
+        MessageDigest digest = newDigest();
+
+        update(digest, compilerFingerprint());
+        update(digest, language);
+        update(digest, options);
+        update(digest, sourceFile.getName());
+        digest.update(Files.readAllBytes(sourceFile.toPath()));
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(HEX_DIGITS.charAt((b >> 4) & 0xF))
+               .append(HEX_DIGITS.charAt(b & 0xF));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Look up an entry.
+     * @param key the entry's key.
+     * @return the program name, or null if the cache has no such entry.
+     */
+    public String lookup(String key)
+    {
+        File files[] = new File(directory, key).listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+
+                if (name.endsWith(".j")) {
+                    return name.substring(0, name.length() - 2);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Copy the files of an entry to an output directory.
+     * @param key the entry's key.
+     * @param outputDirectory the output directory, or null for the
+     *                        current directory.
+     * @return the program name, or null if the cache has no such entry.
+     * @throws IOException if an I/O error occurred.
+     */
+    public String restore(String key, File outputDirectory)
+        throws IOException
+    {
+        File entry = new File(directory, key);
+        File files[] = entry.listFiles();
+        String programName = null;
+
+        if (files == null) {
+            return null;
+        }
+
+        try {
+            for (File file : files) {
+                String name = file.getName();
+
+                if (name.equals(INFO_FILE)) {
+                    continue;
+                }
+
+                Files.copy(file.toPath(),
+                           new File(outputDirectory, name).toPath(),
+                           StandardCopyOption.REPLACE_EXISTING);
+
+                if (name.endsWith(".j")) {
+                    programName = name.substring(0, name.length() - 2);
+                }
+            }
+        }
+        catch (NoSuchFileException ex) {
+            return null;  // the entry was just evicted
+        }
+
+        // Mark the entry as recently used.
+        entry.setLastModified(System.currentTimeMillis());
+
+        return programName;
+    }
+
+    /**
+     * Return the info of an entry.
+     * @param key the entry's key.
+     * @return the info, which is empty if the entry has none.
+     */
+    public Properties info(String key)
+    {
+        Properties info = new Properties();
+        File file = new File(new File(directory, key), INFO_FILE);
+
+        try (InputStream in = new FileInputStream(file)) {
+            info.load(in);
+        }
+        catch (IOException ex) {
+            // No info, or the entry was just evicted.
+        }
+
+        return info;
+    }
+
+    /**
+     * Enter the generated files of a program into the cache.
+     * @param key the entry's key.
+     * @param programName the program name.
+     * @param outputDirectory the directory of the generated files, or
+     *                        null for the current directory.
+     * @throws IOException if an I/O error occurred.
+     */
+    public void store(String key, String programName, File outputDirectory)
+        throws IOException
+    {
+        store(key, programName, outputDirectory, null);
+    }
+
+    /**
+     * Enter the generated files of a program and the info about their
+     * compilation into the cache.
+     * @param key the entry's key.
+     * @param programName the program name.
+     * @param outputDirectory the directory of the generated files, or
+     *                        null for the current directory.
+     * @param info the info, or null.
+     * @throws IOException if an I/O error occurred.
+     */
+    public void store(String key, String programName, File outputDirectory,
+                      Properties info)
+        throws IOException
+    {
+        File entry = new File(directory, key);
+
+        // Fill a temporary directory and then rename it, so that no one
+        // sees a partial entry.
+        Path temp = Files.createTempDirectory(directory.toPath(),
+                                              TEMP_PREFIX);
+        try {
+            for (String extension : new String[] {".j", ".class"}) {
+                File file = new File(outputDirectory, programName + extension);
+
+                if (file.isFile()) {
+                    Files.copy(file.toPath(),
+                               temp.resolve(programName + extension));
+                }
+            }
+
+            if (info != null) {
+                try (OutputStream out = Files.newOutputStream(
+                                            temp.resolve(INFO_FILE))) {
+                    info.store(out, null);
+                }
+            }
+
+            long size = size(temp.toFile());
+
+            try {
+                Files.move(temp, entry.toPath(),
+                           StandardCopyOption.ATOMIC_MOVE);
+                added(size);
+            }
+            catch (IOException ex) {
+                // Another compilation stored the same entry.
+            }
+        }
+        finally {
+            delete(temp.toFile());
+        }
+    }
+
+    /**
+     * Account for a new entry, and evict entries if the cache became too
+     * large.  Only then are the entries scanned, since other processes
+     * may also have added entries.
+     * @param size the size of the new entry in bytes.
+     */
+    private synchronized void added(long size)
+    {
+        if (totalSize >= 0) {
+            totalSize += size;
+        }
+        if ((totalSize < 0) || (totalSize > maxSize)) {
+            evict();
+        }
+    }
+
+    /**
+     * Delete the least recently used entries until the cache is no larger
+     * than its maximum size.
+     */
+    private void evict()
+    {
+        File entries[] = directory.listFiles(
+            file -> file.isDirectory() &&
+                    !file.getName().startsWith(TEMP_PREFIX));
+        if (entries == null) {
+            return;
+        }
+
+        totalSize = 0;
+        HashMap<File, Long> sizes = new HashMap<File, Long>();
+        HashMap<File, Long> times = new HashMap<File, Long>();
+
+        for (File entry : entries) {
+            long size = size(entry);
+
+            sizes.put(entry, size);
+            times.put(entry, entry.lastModified());
+            totalSize += size;
+        }
+
+        // Oldest first.
+        Arrays.sort(entries, Comparator.comparing(times::get));
+
+        for (int i = 0; (totalSize > maxSize) && (i < entries.length); ++i) {
+            delete(entries[i]);
+            totalSize -= sizes.get(entries[i]);
+        }
+    }
+
+    /**
+     * Return a fingerprint of the compiler's class files: the size and
+     * modification time of its jar file, or of each class file of its
+     * class directory.
+     * @return the fingerprint.
+     */
+    private static synchronized String compilerFingerprint()
+    {
+        if (fingerprint == null) {
+            StringBuilder buffer = new StringBuilder();
+
+            try {
+                File location = new File(BuildCache.class.getProtectionDomain()
+                                             .getCodeSource().getLocation()
+                                             .toURI());
+                fingerprint(location, buffer);
+            }
+            catch (URISyntaxException | SecurityException |
+                   NullPointerException ex) {
+                // Unknown location: The key depends only on the source.
+            }
+
+            fingerprint = buffer.toString();
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Append the fingerprint of a file or of a directory tree.
+     * @param file the file or directory.
+     * @param buffer the buffer to append to.
+     */
+    private static void fingerprint(File file, StringBuilder buffer)
+    {
+        if (file.isDirectory()) {
+            File files[] = file.listFiles();
+
+            if (files != null) {
+                Arrays.sort(files);
+                for (File child : files) {
+                    fingerprint(child, buffer);
+                }
+            }
+        }
+        else if (   file.getName().endsWith(".class")
+                 || file.getName().endsWith(".jar")) {
+            buffer.append(file.getPath()).append(' ')
+                  .append(file.length()).append(' ')
+                  .append(file.lastModified()).append('\n');
+        }
+    }
+
+    /**
+     * @return a new SHA-256 message digest.
+     */
+    private static MessageDigest newDigest()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);  // every JVM has SHA-256
+        }
+    }
+
+    /**
+     * Add a string and its terminator to a digest.
+     * @param digest the digest.
+     * @param string the string.
+     */
+    private static void update(MessageDigest digest, String string)
+    {
+        digest.update(string.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Return the total size of the files of a directory tree.
+     * @param file the file or directory.
+     * @return the size in bytes.
+     */
+    private static long size(File file)
+    {
+        File files[] = file.listFiles();
+
+        if (files == null) {
+            return file.length();
+        }
+
+        long size = 0;
+        for (File child : files) {
+            size += size(child);
+        }
+
+        return size;
+    }
+
+    /**
+     * Delete a file or a directory tree if it exists.
+     * @param file the file or directory.
+     */
+    private static void delete(File file)
+    {
+        File files[] = file.listFiles();
+
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+
+        file.delete();
+    }
+}
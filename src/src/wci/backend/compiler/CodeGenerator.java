@@ -27,10 +27,8 @@ import static src.wci.message.MessageType.COMPILER_SUMMARY;
  */
 public class CodeGenerator extends Backend
 {
-    private static PrintWriter assemblyFile;
-    private static int instructionCount = 0;
-
-    protected static String programName;
+    protected PrintWriter assemblyFile;
+    protected String programName;
 
     protected LocalVariables localVariables;
     protected LocalStack localStack;
@@ -38,7 +36,19 @@ public class CodeGenerator extends Backend
     /**
      * Constructor.
      */
-    public CodeGenerator() {}
+    public CodeGenerator()
+    {
+        this(new BackendContext());
+    }
+
+    /**
+     * Constructor.
+     * @param context the context of the program to compile.
+     */
+    public CodeGenerator(BackendContext context)
+    {
+        super(context);
+    }
 
     /**
      * Constructor for subclasses.
@@ -46,7 +56,9 @@ public class CodeGenerator extends Backend
      */
     public CodeGenerator(CodeGenerator parent)
     {
-        super();
+        super(parent);
+        this.assemblyFile = parent.assemblyFile;
+        this.programName = parent.programName;
         this.localVariables = parent.localVariables;
         this.localStack = parent.localStack;
     }
@@ -69,22 +81,54 @@ public class CodeGenerator extends Backend
         String assemblyFileName = programName + ".j";
 
         // Open a new assembly file for writing.
-        assemblyFile = new PrintWriter(
-                           new PrintStream(
-                               new File(assemblyFileName)));
+        File assemblyPath = new File(context.outputDirectory,
+                                     assemblyFileName);
+        PrintWriter assemblyWriter = new PrintWriter(
+                                         new PrintStream(assemblyPath));
 
         // Generate code for the main program.
-        CodeGenerator programGenerator = new ProgramGenerator(this);
-        programGenerator.generate(iCode.getRoot());
-        assemblyFile.close();
+        generateProgram(iCode, assemblyWriter);
 
         // Send the compiler summary message.
         float elapsedTime = (System.currentTimeMillis() - startTime)/1000f;
         sendMessage(new Message(COMPILER_SUMMARY,
-                                new Number[] {instructionCount,
+                                new Number[] {context.instructionCount,
                                               elapsedTime}));
     }
 
+    /**
+     * Generate the assembly code for the main program.
+     * @param iCode the intermediate code.
+     * @param assemblyWriter the writer for the assembly code, closed when done.
+     * @throws Exception if an error occurred.
+     */
+    protected void generateProgram(ICode iCode, PrintWriter assemblyWriter)
+        throws Exception
+    {
+        assemblyFile = assemblyWriter;
+
+        CodeGenerator programGenerator = new ProgramGenerator(this);
+        programGenerator.generate(iCode.getRoot());
+        assemblyFile.close();
+    }
+
+    /**
+     * Getter.
+     * @return the number of instructions generated so far.
+     */
+    protected int getInstructionCount()
+    {
+        return context.instructionCount;
+    }
+
+    /**
+     * @return a new instruction label.
+     */
+    protected Label newLabel()
+    {
+        return new Label(++context.labelCount);
+    }
+
     /**
      * Generate code for a statement.
      * To be overridden by the code generator subclasses.
@@ -156,7 +200,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println(directive.toString());
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -168,7 +212,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println(directive.toString() + " " + operand);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -180,7 +224,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println(directive.toString() + " " + operand);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -194,7 +238,7 @@ public class CodeGenerator extends Backend
         assemblyFile.println(directive.toString() + " " + operand1 +
                                                     " " + operand2);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -210,7 +254,7 @@ public class CodeGenerator extends Backend
                                                     " " + operand2 +
                                                     " " + operand3);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -221,7 +265,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println("\t" + opcode.toString());
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -233,7 +277,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println("\t" + opcode.toString() + "\t" + operand);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -245,7 +289,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println("\t" + opcode.toString() + "\t" + operand);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -257,7 +301,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println("\t" + opcode.toString() + "\t" + operand);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -269,7 +313,7 @@ public class CodeGenerator extends Backend
     {
         assemblyFile.println("\t" + opcode.toString() + "\t" + label);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -283,7 +327,7 @@ public class CodeGenerator extends Backend
         assemblyFile.println("\t" + opcode.toString() +
                              "\t" + operand1 + " " + operand2);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     /**
@@ -297,7 +341,7 @@ public class CodeGenerator extends Backend
         assemblyFile.println("\t" + opcode.toString() +
                              "\t" + operand1 + " " + operand2);
         assemblyFile.flush();
-        ++instructionCount;
+        ++context.instructionCount;
     }
 
     // =====
@@ -0,0 +1,82 @@
+package src.wci.backend.compiler;
+
+import java.io.*;
+
+import jasmin.ClassFile;
+
+/**
+ * <h1>CodeLoader</h1>
+ *
+ * <p>Class loader that defines a compiled program's class directly from
+ * its Jasmin assembly code or bytecode in memory.  Each program gets its
+ * own loader, so programs with the same name can be loaded again in the
+ * same JVM.  The runtime library classes are found through the parent
+ * loader.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class CodeLoader extends ClassLoader
+{
+    /**
+     * Constructor.
+     */
+    public CodeLoader()
+    {
+        super(CodeLoader.class.getClassLoader());
+    }
+
+    /**
+     * Define a program class from its bytecode.
+     * @param className the name of the class.
+     * @param code the contents of the class file.
+     * @return the class.
+     */
+    public Class<?> defineProgram(String className, byte code[])
+    {
+        return defineClass(className, code, 0, code.length);
+    }
+
+    /**
+     * Assemble Jasmin assembly code and define the class.
+     * @param className the name of the class.
+     * @param assemblyCode the assembly code.
+     * @return the class.
+     * @throws Exception if an error occurred.
+     */
+    public Class<?> assembleProgram(String className, String assemblyCode)
+        throws Exception
+    {
+        return defineProgram(className, assemble(className, assemblyCode));
+    }
+
+    /**
+     * Assemble Jasmin assembly code into the contents of a class file.
+     * Jasmin keeps state in static fields, so only one thread at a time
+     * can assemble.
+     * @param className the name of the class.
+     * @param assemblyCode the assembly code.
+     * @return the contents of the class file.
+     * @throws Exception if an error occurred.
+     */
+    public static synchronized byte[] assemble(String className,
+                                               String assemblyCode)
+        throws Exception
+    {
+        ClassFile classFile = new ClassFile();
+        classFile.readJasmin(new StringReader(assemblyCode),
+                             className + ".j", false);
+
+        // Jasmin has already printed the errors.
+        if (classFile.errorCount() > 0) {
+            throw new PascalCompilerException(
+                "Jasmin found " + classFile.errorCount() +
+                " error(s) in the generated code of " + className);
+        }
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        classFile.write(classBytes);
+
+        return classBytes.toByteArray();
+    }
+}
@@ -0,0 +1,129 @@
+package src.wci.backend.compiler;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import src.wci.backend.*;
+import src.wci.intermediate.*;
+import src.wci.message.*;
+
+import static src.wci.message.MessageType.COMPILER_SUMMARY;
+
+/**
+ * <h1>CodeRunner</h1>
+ *
+ * <p>The compile-and-run back end.  It generates the same assembly code
+ * as the code generator, but into memory instead of a .j file.  Jasmin
+ * assembles the code into a class file in memory, and the class is loaded
+ * and its main method executed in the same JVM.  The Pascal runtime
+ * library (PascalRTL.jar) must be on the class path.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class CodeRunner extends CodeGenerator
+{
+    /**
+     * Constructor.
+     */
+    public CodeRunner() {}
+
+    /**
+     * Constructor.
+     * @param context the context of the program to compile and run.
+     */
+    public CodeRunner(BackendContext context)
+    {
+        super(context);
+    }
+
+    /**
+     * Compile the intermediate code and the symbol table generated by the
+     * parser into a class in memory, and then run the class.
+     * @param iCode the intermediate code.
+     * @param symTabStack the symbol table stack.
+     * @throws Exception if an error occurred.
+     */
+    public void process(ICode iCode, SymTabStack symTabStack)
+        throws Exception
+    {
+        this.symTabStack = symTabStack;
+        long startTime = System.currentTimeMillis();
+
+        SymTabEntry programId = symTabStack.getProgramId();
+        programName = programId.getName();
+
+        // Generate the assembly code for the main program into memory.
+        StringWriter assemblyCode = new StringWriter();
+        generateProgram(iCode, new PrintWriter(assemblyCode));
+
+        // Assemble and load the program class.
+        CodeLoader loader = new CodeLoader();
+        Class<?> programClass =
+            loader.assembleProgram(programName, assemblyCode.toString());
+
+        // Send the compiler summary message.
+        float elapsedTime = (System.currentTimeMillis() - startTime)/1000f;
+        sendMessage(new Message(COMPILER_SUMMARY,
+                                new Number[] {getInstructionCount(),
+                                              elapsedTime}));
+
+        // Run the program.
+        run(programClass);
+    }
+
+    /**
+     * Execute the main method of a program class.  A runtime exception
+     * thrown by the program is reported the same way the JVM would
+     * report it, not as a translator error.
+     * @param programClass the program class.
+     * @throws Exception if the main method could not be invoked.
+     */
+    private void run(Class<?> programClass)
+        throws Exception
+    {
+        Method main = programClass.getMethod("main", String[].class);
+
+        try {
+            main.invoke(null, (Object) new String[0]);
+        }
+        catch (InvocationTargetException ex) {
+            Throwable programException = ex.getCause();
+            trimStackTrace(programException, programClass.getName());
+
+            System.out.flush();
+            System.err.print("Exception in thread \"main\" ");
+            programException.printStackTrace();
+        }
+        finally {
+            System.out.flush();
+        }
+    }
+
+    /**
+     * Remove the frames below the program's own frames from the stack
+     * trace of an exception thrown by the program, so that the trace
+     * doesn't show the reflection, the back end, and the translator that
+     * ran the program.  The runtime library frames above the program's
+     * frames are kept.
+     * @param exception the exception.
+     * @param className the name of the program class.
+     */
+    private void trimStackTrace(Throwable exception, String className)
+    {
+        StackTraceElement trace[] = exception.getStackTrace();
+        int depth = trace.length;
+
+        while ((depth > 0) &&
+               !trace[depth - 1].getClassName().equals(className))
+        {
+            --depth;
+        }
+
+        if (depth > 0) {
+            exception.setStackTrace(Arrays.copyOf(trace, depth));
+        }
+    }
+}
@@ -12,23 +12,15 @@ import src.wci.intermediate.*;
  */
 public class Label
 {
-    private static int index = 0;  // index for generating label strings
-    private String label;          // the label string
+    private String label;  // the label string
 
     /**
      * Constructor.
+     * @param index the index for generating the label string.
      */
-    private Label()
+    Label(int index)
     {
-        this.label = "L" + String.format("%03d", ++index);
-    }
-
-    /**
-     * @return a new instruction label.
-     */
-    public static Label newLabel()
-    {
-        return new Label();
+        this.label = "L" + String.format("%03d", index);
     }
 
     /**
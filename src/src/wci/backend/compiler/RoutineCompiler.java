@@ -0,0 +1,78 @@
+package src.wci.backend.compiler;
+
+import java.io.*;
+import java.util.ArrayList;
+
+import src.wci.intermediate.*;
+import src.wci.backend.compiler.generators.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.backend.compiler.Directive.*;
+
+/**
+ * <h1>RoutineCompiler</h1>
+ *
+ * <p>Compile selected declared routines, instead of a whole program, into
+ * a class in memory.  The class is named after the program, so that the
+ * routines can call each other, and each routine is a static method.
+ * The caller must ensure that the routines access only their own local
+ * variables and parameters.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RoutineCompiler extends CodeGenerator
+{
+    /**
+     * Constructor.
+     * @param symTabStack the symbol table stack of the routines' program.
+     */
+    public RoutineCompiler(SymTabStack symTabStack)
+    {
+        this.symTabStack = symTabStack;
+    }
+
+    /**
+     * Compile routines into a class and load the class.
+     * @param routineIds the symbol table entries of the routines' names.
+     * @return the class.
+     * @throws Exception if an error occurred.
+     */
+    public Class<?> compile(ArrayList<SymTabEntry> routineIds)
+        throws Exception
+    {
+        programName = symTabStack.getProgramId().getName();
+
+        // The routine generator sets the SLOT of a function's name to its
+        // local return value variable, so save the original slots.
+        Object slots[] = new Object[routineIds.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = routineIds.get(i).getAttribute(SLOT);
+        }
+
+        StringWriter assemblyCode = new StringWriter();
+        assemblyFile = new PrintWriter(assemblyCode);
+
+        try {
+            emitDirective(CLASS_PUBLIC, programName);
+            emitDirective(SUPER, "java/lang/Object");
+
+            // Generate code for each procedure or function.
+            DeclaredRoutineGenerator declaredRoutineGenerator =
+                new DeclaredRoutineGenerator(this);
+            for (SymTabEntry routineId : routineIds) {
+                declaredRoutineGenerator.generate(routineId);
+            }
+
+            assemblyFile.close();
+        }
+        finally {
+            for (int i = 0; i < slots.length; ++i) {
+                routineIds.get(i).setAttribute(SLOT, slots[i]);
+            }
+        }
+
+        CodeLoader loader = new CodeLoader();
+        return loader.assembleProgram(programName, assemblyCode.toString());
+    }
+}
@@ -372,8 +372,8 @@ public class ExpressionGenerator extends StatementGenerator
         // ====================
 
         else {
-            Label trueLabel = Label.newLabel();
-            Label nextLabel = Label.newLabel();
+            Label trueLabel = newLabel();
+            Label nextLabel = newLabel();
 
             if (integerMode || characterMode) {
                 switch (nodeType) {
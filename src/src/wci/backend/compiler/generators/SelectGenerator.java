@@ -66,7 +66,7 @@ public class SelectGenerator extends StatementGenerator
         ICodeNode exprNode = selectChildren.get(0);
         ArrayList<Label> branchLabels = new ArrayList<Label>();
 
-        branchLabels.add(Label.newLabel());  // "next" label
+        branchLabels.add(newLabel());  // "next" label
 
         // Generate code to evaluate the SELECT expression.
         ExpressionGenerator exprGenerator = new ExpressionGenerator(this);
@@ -97,7 +97,7 @@ public class SelectGenerator extends StatementGenerator
         for (int i = 1; i < selectChildren.size(); ++i) {
             ICodeNode branchNode = selectChildren.get(i);
             ICodeNode constantsNode = branchNode.getChildren().get(0);
-            Label branchLabel = Label.newLabel();
+            Label branchLabel = newLabel();
 
             branchLabels.add(branchLabel);
 
@@ -43,7 +43,7 @@ public class StatementGenerator extends CodeGenerator
         int line = 0;
 
         if (nodeType != COMPOUND) {
-            line = getLineNumber(node);
+            line = node.getLineNumber();
             emitDirective(Directive.LINE, line);
         }
 
@@ -95,22 +95,4 @@ public class StatementGenerator extends CodeGenerator
                               localStack.getSize(), line));
         }
     }
-
-    /**
-     * Get the source line number of a parse tree node.
-     * @param node the parse tree node.
-     * @return the line number.
-     */
-    private int getLineNumber(ICodeNode node)
-    {
-        Object lineNumber = null;
-
-        // Go up the parent links to look for a line number.
-        while ((node != null) &&
-               ((lineNumber = node.getAttribute(ICodeKeyImpl.LINE)) == null)) {
-            node = node.getParent();
-        }
-
-        return (Integer) lineNumber;
-    }
 }
@@ -27,6 +27,13 @@ public interface ActivationRecord
      */
     public Cell getCell(String name);
 
+    /**
+     * Return the memory cell at the given slot.
+     * @param slot the slot number assigned by the slot resolver.
+     * @return the cell.
+     */
+    public Cell getCell(int slot);
+
     /**
      * @return the list of all the names in the memory map.
      */
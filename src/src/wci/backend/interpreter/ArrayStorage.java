@@ -0,0 +1,73 @@
+package src.wci.backend.interpreter;
+
+/**
+ * <h1>ArrayStorage</h1>
+ *
+ * <p>Interface for the interpreter's runtime storage of an array value.
+ * A multidimensional array is flattened into a single row-major sequence
+ * of elements, which are the elements of its last dimension.  A
+ * subarray shares the storage of its enclosing array.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface ArrayStorage
+{
+    /**
+     * @return the kind of the elements, or OTHER if each element is
+     *         stored in its own memory cell.
+     */
+    public ValueKind getElementKind();
+
+    /**
+     * @return the number of dimensions.
+     */
+    public int getDimensionCount();
+
+    /**
+     * Return the distance between consecutive index values of a dimension
+     * in the flattened sequence of elements.
+     * @param dimension the dimension, starting with 0.
+     * @return the stride.
+     */
+    public int getStride(int dimension);
+
+    /**
+     * @return the number of elements in the flattened sequence.
+     */
+    public int getSize();
+
+    /**
+     * Return the memory cell of an element.
+     * @param index the row-major index of the element.
+     * @return the cell.
+     */
+    public Cell getElement(int index);
+
+    /**
+     * Return the memory cell of a subarray.  Setting the cell's value
+     * copies an array into the subarray.
+     * @param index the row-major index of the subarray's first element.
+     * @param dimensions the number of leading dimensions that were
+     *                   subscripted to select the subarray.
+     * @return the cell.
+     */
+    public Cell getSubarray(int index, int dimensions);
+
+    /**
+     * @return a copy of the array, including copies of any record
+     *         element values.
+     */
+    public ArrayStorage copy();
+
+    /**
+     * Copy the elements of another array of the same type into this one.
+     * @param source the other array.
+     */
+    public void copyFrom(ArrayStorage source);
+
+    /**
+     * @return the characters of a character array as a string.
+     */
+    public String getString();
+}
@@ -20,4 +20,53 @@ public interface Cell
      * @return the value in the cell.
      */
     public Object getValue();
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized();
+
+    /**
+     * @return the integer or enumeration value in the cell.
+     */
+    public int getInteger();
+
+    /**
+     * Set a new integer or enumeration value into the cell.
+     * @param newValue the new value.
+     */
+    public void setInteger(int newValue);
+
+    /**
+     * @return the real value in the cell.
+     */
+    public float getReal();
+
+    /**
+     * Set a new real value into the cell.
+     * @param newValue the new value.
+     */
+    public void setReal(float newValue);
+
+    /**
+     * @return the boolean value in the cell.
+     */
+    public boolean getBoolean();
+
+    /**
+     * Set a new boolean value into the cell.
+     * @param newValue the new value.
+     */
+    public void setBoolean(boolean newValue);
+
+    /**
+     * @return the character value in the cell.
+     */
+    public char getCharacter();
+
+    /**
+     * Set a new character value into the cell.
+     * @param newValue the new value.
+     */
+    public void setCharacter(char newValue);
 }
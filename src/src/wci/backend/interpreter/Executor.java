@@ -25,34 +25,29 @@ import static src.wci.message.MessageType.INTERPRETER_SUMMARY;
  */
 public class Executor extends Backend
 {
-    protected static int executionCount;
-    protected static RuntimeStack runtimeStack;
-    protected static RuntimeErrorHandler errorHandler;
-
-    protected static Scanner standardIn;       // standard input
-    protected static PrintWriter standardOut;  // standard output
-
-    static {
-        executionCount = 0;
-        runtimeStack = MemoryFactory.createRuntimeStack();
-        errorHandler = new RuntimeErrorHandler();
-
-        try {
-            standardIn = new PascalScanner(
-                             new Source(
-                                 new BufferedReader(
-                                     new InputStreamReader(System.in))));
-            standardOut = new PrintWriter(
-                              new PrintStream(System.out));
-        }
-        catch (IOException ignored) {
-        }
+    // Copied from the context.
+    protected RuntimeStack runtimeStack;         // runtime stack
+    protected RuntimeErrorHandler errorHandler;  // runtime error handler
+    protected Scanner standardIn;                // standard input
+    protected PrintWriter standardOut;           // standard output
+
+    /**
+     * Constructor.
+     */
+    public Executor()
+    {
+        this(new BackendContext());
     }
 
     /**
      * Constructor.
+     * @param context the context of the program to execute.
      */
-    public Executor() {}
+    public Executor(BackendContext context)
+    {
+        super(context);
+        copyContext();
+    }
 
     /**
      * Constructor for subclasses.
@@ -60,7 +55,19 @@ public class Executor extends Backend
      */
     public Executor(Executor parent)
     {
-        super();
+        super(parent);
+        copyContext();
+    }
+
+    /**
+     * Copy the frequently used parts of the context.
+     */
+    private void copyContext()
+    {
+        runtimeStack = context.runtimeStack;
+        errorHandler = context.errorHandler;
+        standardIn   = context.standardIn;
+        standardOut  = context.standardOut;
     }
 
     /**
@@ -87,21 +94,62 @@ public class Executor extends Backend
 
         SymTabEntry programId = symTabStack.getProgramId();
 
+        // Lay out the activation records of the program and its routines.
+        context.slotResolver = new SlotResolver();
+        context.slotResolver.resolve(programId);
+
         // Construct an artificial CALL node to the main program.
         ICodeNode callNode = ICodeFactory.createICodeNode(CALL);
         callNode.setAttribute(ID, programId);
 
         // Execute the main program.
-        CallDeclaredExecutor callExecutor = new CallDeclaredExecutor(this);
-        callExecutor.execute(callNode);
+        createExecutors();
+        context.callDeclaredExecutor.execute(callNode);
 
         float elapsedTime = (System.currentTimeMillis() - startTime)/1000f;
         int runtimeErrors = errorHandler.getErrorCount();
 
         // Send the interpreter summary message.
         sendMessage(new Message(INTERPRETER_SUMMARY,
-                                new Number[] {executionCount,
+                                new Number[] {context.executionCount,
                                               runtimeErrors,
                                               elapsedTime}));
     }
+
+    /**
+     * Open the standard input and output unless they are already set in
+     * the context, and create the shared executors if they don't already
+     * exist.
+     * @throws IOException if an I/O error occurred.
+     */
+    protected void createExecutors()
+        throws IOException
+    {
+        if (context.standardIn == null) {
+            context.standardIn = new PascalScanner(
+                                     new Source(
+                                         new BufferedReader(
+                                             new InputStreamReader(
+                                                 System.in))));
+        }
+        if (context.standardOut == null) {
+            context.standardOut = new PrintWriter(new PrintStream(System.out));
+        }
+
+        standardIn  = context.standardIn;
+        standardOut = context.standardOut;
+
+        if (context.statementExecutor == null) {
+            context.statementExecutor    = new StatementExecutor(this);
+            context.expressionExecutor   = new ExpressionExecutor(this);
+            context.compoundExecutor     = new CompoundExecutor(this);
+            context.assignmentExecutor   = new AssignmentExecutor(this);
+            context.loopExecutor         = new LoopExecutor(this);
+            context.ifExecutor           = new IfExecutor(this);
+            context.selectExecutor       = new SelectExecutor(this);
+            context.callExecutor         = new CallExecutor(this);
+            context.callDeclaredExecutor = new CallDeclaredExecutor(this);
+            context.callStandardExecutor = new CallStandardExecutor(this);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package src.wci.backend.interpreter;
 import src.wci.intermediate.SymTab;
 import src.wci.backend.interpreter.memoryimpl.*;
 import src.wci.intermediate.SymTabEntry;
+import src.wci.intermediate.TypeSpec;
 
 import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
 
@@ -37,11 +38,13 @@ public class MemoryFactory
     /**
      * Create an activation record for a routine.
      * @param routineId the symbol table entry of the routine's name.
+     * @param slotIds the routine's cells' names indexed by slot.
      * @return the new activation record.
      */
-    public static ActivationRecord createActivationRecord(SymTabEntry routineId)
+    public static ActivationRecord createActivationRecord(SymTabEntry routineId,
+                                                          SymTabEntry slotIds[])
     {
-        return new ActivationRecordImpl(routineId);
+        return new ActivationRecordImpl(routineId, slotIds);
     }
 
     /**
@@ -55,12 +58,78 @@ public class MemoryFactory
     }
 
     /**
-     * Create a memory cell.
+     * Create the storage of an array value with uninitialized elements.
+     * @param type the array type.
+     * @return the new array storage.
+     */
+    public static ArrayStorage createArray(TypeSpec type)
+    {
+        return new ArrayStorageImpl(type);
+    }
+
+    /**
+     * Create the storage of a Pascal string.
+     * @param string the Java string.
+     * @return the new array storage of the characters.
+     */
+    public static ArrayStorage createString(String string)
+    {
+        return new ArrayStorageImpl(string);
+    }
+
+    /**
+     * Create the storage of a record value with uninitialized fields.
+     * @param type the record type.
+     * @return the new record storage.
+     */
+    public static RecordStorage createRecord(TypeSpec type)
+    {
+        return new RecordStorageImpl(type);
+    }
+
+    /**
+     * Create a memory cell that fits a value.
      * @param value the value for the cell.
      * @return the new memory cell.
      */
     public static Cell createCell(Object value)
     {
-        return new CellImpl(value);
+        if (value instanceof Integer) {
+            return new IntegerCellImpl(value);
+        }
+        else if (value instanceof Float) {
+            return new RealCellImpl(value);
+        }
+        else if (value instanceof Boolean) {
+            return new BooleanCellImpl(value);
+        }
+        else if (value instanceof Character) {
+            return new CharacterCellImpl(value);
+        }
+        else {
+            return new CellImpl(value);
+        }
+    }
+
+    /**
+     * Create a memory cell for a value of a data type.  A scalar value is
+     * uninitialized, and an array or record value is allocated.
+     * @param type the data type, or null for a cell that holds a reference.
+     * @return the new memory cell.
+     */
+    public static Cell createCell(TypeSpec type)
+    {
+        switch (ValueKind.of(type)) {
+            case INTEGER:   return new IntegerCellImpl(null);
+            case REAL:      return new RealCellImpl(null);
+            case BOOLEAN:   return new BooleanCellImpl(null);
+            case CHARACTER: return new CharacterCellImpl(null);
+
+            default: {
+                return type != null
+                    ? new CellImpl(MemoryMapImpl.allocateCellValue(type))
+                    : new CellImpl(null);
+            }
+        }
     }
 }
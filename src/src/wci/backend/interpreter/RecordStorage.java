@@ -0,0 +1,32 @@
+package src.wci.backend.interpreter;
+
+/**
+ * <h1>RecordStorage</h1>
+ *
+ * <p>Interface for the interpreter's runtime storage of a record value.
+ * The values of the fields are stored in a fixed layout, indexed by the
+ * slot numbers of the fields in the record type's symbol table.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface RecordStorage
+{
+    /**
+     * @return the number of fields.
+     */
+    public int getFieldCount();
+
+    /**
+     * Return the memory cell of a field.
+     * @param slot the slot number of the field.
+     * @return the cell.
+     */
+    public Cell getField(int slot);
+
+    /**
+     * @return a copy of the record, including copies of any array and
+     *         record field values.
+     */
+    public RecordStorage copy();
+}
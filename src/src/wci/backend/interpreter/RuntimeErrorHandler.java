@@ -3,8 +3,8 @@ package src.wci.backend.interpreter;
 import src.wci.intermediate.*;
 import src.wci.backend.Backend;
 import src.wci.message.*;
+import src.wci.util.AbortException;
 
-import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
 import static src.wci.message.MessageType.RUNTIME_ERROR;
 
 /**
@@ -19,13 +19,13 @@ public class RuntimeErrorHandler
 {
     private static final int MAX_ERRORS = 5;
 
-    private static int errorCount = 0;    // count of runtime errors
+    private int errorCount = 0;  // count of runtime errors
 
     /**
      * Getter
      * @return the count of runtime errors.
      */
-    public static int getErrorCount()
+    public int getErrorCount()
     {
         return errorCount;
     }
@@ -39,22 +39,15 @@ public class RuntimeErrorHandler
     public void flag(ICodeNode node, RuntimeErrorCode errorCode,
                      Backend backend)
     {
-        String lineNumber = null;
-
-        // Look for the ancestor statement node with a line number attribute.
-        while ((node != null) && (node.getAttribute(LINE) == null)) {
-            node = node.getParent();
-        }
-
         // Notify the interpreter's listeners.
         backend.sendMessage(
             new Message(RUNTIME_ERROR,
                         new Object[] {errorCode.toString(),
-                                      (Integer) node.getAttribute(LINE)}));
+                                      node.getLineNumber()}));
 
         if (++errorCount > MAX_ERRORS) {
             System.out.println("*** ABORTED AFTER TOO MANY RUNTIME ERRORS.");
-            System.exit(-1);
+            throw new AbortException(-1);
         }
     }
 }
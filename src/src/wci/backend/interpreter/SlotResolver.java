@@ -0,0 +1,111 @@
+package src.wci.backend.interpreter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import src.wci.intermediate.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.*;
+
+/**
+ * <h1>SlotResolver</h1>
+ *
+ * <p>Resolution pass that lays out the activation record of each routine
+ * as an array of memory cells indexed by slot.  The parser numbers the
+ * local variables and parameters, and the resolver numbers the value
+ * cells of the functions that a routine declares after them.  The
+ * layouts and the function value slots are kept in the resolver, not in
+ * the symbol tables, so the same symbol tables can also be processed by
+ * another back end.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class SlotResolver
+{
+    // Activation record layouts: entry key is a routine's name,
+    //                            entry value is its cells' names by slot.
+    private HashMap<SymTabEntry, SymTabEntry[]> layouts =
+        new HashMap<SymTabEntry, SymTabEntry[]>();
+
+    // Function value slots: entry key is a function's name,
+    //                       entry value is the slot of its value cell.
+    private HashMap<SymTabEntry, Integer> valueSlots =
+        new HashMap<SymTabEntry, Integer>();
+
+    /**
+     * Resolve the slots of a routine and of all its nested routines.
+     * @param routineId the symbol table entry of the routine's name.
+     */
+    public void resolve(SymTabEntry routineId)
+    {
+        SymTab symTab = (SymTab) routineId.getAttribute(ROUTINE_SYMTAB);
+        ArrayList<SymTabEntry> entries = symTab.sortedEntries();
+        int slotCount = symTab.maxSlotNumber() + 1;
+
+        // Number the value cells of the functions after the parser's
+        // slots.  Don't use a function's SLOT attribute: the code
+        // generator sets it to a slot of the function's own frame.
+        for (SymTabEntry entry : entries) {
+            if (entry.getDefinition() == FUNCTION) {
+                valueSlots.put(entry, slotCount++);
+            }
+        }
+
+        // Build the activation record layout.
+        SymTabEntry slotIds[] = new SymTabEntry[slotCount];
+        for (SymTabEntry entry : entries) {
+            if (needsCell(entry)) {
+                slotIds[getSlot(entry)] = entry;
+            }
+        }
+
+        layouts.put(routineId, slotIds);
+
+        // Resolve the nested routines.
+        ArrayList<?> routineIds =
+            (ArrayList<?>) routineId.getAttribute(ROUTINE_ROUTINES);
+        if (routineIds != null) {
+            for (Object id : routineIds) {
+                resolve((SymTabEntry) id);
+            }
+        }
+    }
+
+    /**
+     * Getter.
+     * @param routineId the symbol table entry of a resolved routine's name.
+     * @return the routine's cells' names indexed by slot.  A slot that has
+     *         no cell is null.
+     */
+    public SymTabEntry[] getLayout(SymTabEntry routineId)
+    {
+        return layouts.get(routineId);
+    }
+
+    /**
+     * Return the slot of a cell in the activation record of the routine
+     * that declares the cell's name.
+     * @param id the symbol table entry of the name of a variable, a
+     *           parameter, or a function whose value cell it is.
+     * @return the slot.
+     */
+    public int getSlot(SymTabEntry id)
+    {
+        return id.getDefinition() == FUNCTION ? valueSlots.get(id)
+                                              : id.getSlot();
+    }
+
+    /**
+     * @param entry a symbol table entry.
+     * @return true if the entry needs a memory cell in an activation record.
+     */
+    private boolean needsCell(SymTabEntry entry)
+    {
+        Definition defn = entry.getDefinition();
+
+        return (defn == VARIABLE) || (defn == FUNCTION) ||
+               (defn == VALUE_PARM) || (defn == VAR_PARM);
+    }
+}
@@ -0,0 +1,324 @@
+package src.wci.backend.interpreter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.*;
+import src.wci.intermediate.icodeimpl.*;
+import src.wci.backend.compiler.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.*;
+import static src.wci.intermediate.symtabimpl.RoutineCodeImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+
+/**
+ * <h1>TieredCompiler</h1>
+ *
+ * <p>Profile the declared routines that the tree-walking executor calls,
+ * and compile a routine to JVM bytecode once it becomes hot.  A routine's
+ * hotness is the number of its calls plus the number of loop iterations
+ * executed in its body.  Later calls to a compiled routine run its
+ * compiled code.</p>
+ *
+ * <p>Only routines that the code generator can compile as standalone
+ * static methods are compiled: their parameters are integer, real,
+ * boolean, or character value parameters, they access only their own
+ * local variables and parameters, they don't divide, and they call only
+ * other such routines and standard functions that do no I/O.  Any other
+ * routine, or one whose generated code fails to assemble or verify, stays
+ * interpreted.  A division stays interpreted so that a division by zero
+ * is flagged at its own line and the routine goes on, as it would if it
+ * were never compiled.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class TieredCompiler
+{
+    public static final int HOT_THRESHOLD = 1000;
+
+    private int threshold;            // hotness that triggers compilation
+    private SymTabStack symTabStack;  // symbol table stack of the program
+
+    // Routine profiles: entry key is a routine's symbol table entry,
+    //                   entry value is its profile.
+    private HashMap<SymTabEntry, Profile> profiles;
+
+    /**
+     * The profile of a declared routine.
+     */
+    private static class Profile
+    {
+        int hotness;             // calls plus loop iterations
+        boolean interpretOnly;   // true if the routine will not be compiled
+        Method compiledRoutine;  // compiled code, or null
+    }
+
+    /**
+     * Constructor.
+     * @param threshold the hotness that triggers compilation.
+     * @param symTabStack the symbol table stack of the program.
+     */
+    public TieredCompiler(int threshold, SymTabStack symTabStack)
+    {
+        this.threshold = threshold;
+        this.symTabStack = symTabStack;
+        this.profiles = new HashMap<SymTabEntry, Profile>();
+    }
+
+    /**
+     * Count a call to a declared routine, and compile the routine if
+     * it became hot.
+     * @param routineId the symbol table entry of the routine's name.
+     * @return the compiled routine, or null if the routine is interpreted.
+     */
+    public Method countCall(SymTabEntry routineId)
+    {
+        Profile profile = profileOf(routineId);
+
+        if ((profile.compiledRoutine == null) && !profile.interpretOnly) {
+            if (++profile.hotness >= threshold) {
+                compile(routineId, profile);
+            }
+        }
+
+        return profile.compiledRoutine;
+    }
+
+    /**
+     * Count a loop iteration in the body of a declared routine.
+     * The routine's compiled code is used starting with its next call.
+     * @param routineId the symbol table entry of the routine's name.
+     */
+    public void countIteration(SymTabEntry routineId)
+    {
+        Profile profile = profileOf(routineId);
+
+        if ((profile.compiledRoutine == null) && !profile.interpretOnly) {
+            ++profile.hotness;
+        }
+    }
+
+    /**
+     * Call a compiled routine.
+     * @param compiledRoutine the compiled routine.
+     * @param args the values of the actual parameters.
+     * @return the function value, or null for a procedure.
+     */
+    public Object call(Method compiledRoutine, Object args[])
+    {
+        try {
+            return compiledRoutine.invoke(null, args);
+        }
+        catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else {
+                throw new RuntimeException(cause);
+            }
+        }
+        catch (IllegalAccessException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Return the profile of a routine, creating it if necessary.
+     * @param routineId the symbol table entry of the routine's name.
+     * @return the profile.
+     */
+    private Profile profileOf(SymTabEntry routineId)
+    {
+        Profile profile = profiles.get(routineId);
+
+        if (profile == null) {
+            profile = new Profile();
+            profiles.put(routineId, profile);
+        }
+
+        return profile;
+    }
+
+    /**
+     * Compile a hot routine together with the routines it calls.
+     * @param routineId the symbol table entry of the routine's name.
+     * @param profile the routine's profile.
+     */
+    private void compile(SymTabEntry routineId, Profile profile)
+    {
+        ArrayList<SymTabEntry> routineIds = new ArrayList<SymTabEntry>();
+
+        if (   !isCompilable(routineId, routineIds)
+            || hasDuplicateNames(routineIds)) {
+            profile.interpretOnly = true;
+            return;
+        }
+
+        try {
+            RoutineCompiler routineCompiler = new RoutineCompiler(symTabStack);
+            Class<?> routineClass = routineCompiler.compile(routineIds);
+
+            for (Method method : routineClass.getDeclaredMethods()) {
+                if (method.getName().equals(routineId.getName())) {
+                    method.setAccessible(true);
+                    profile.compiledRoutine = method;
+                }
+            }
+        }
+
+        // Assembly or verification failed: Keep interpreting.
+        catch (Exception | LinkageError ex) {
+        }
+
+        profile.interpretOnly = profile.compiledRoutine == null;
+    }
+
+    /**
+     * Determine whether a routine can be compiled as a standalone static
+     * method.  Collect the routine and the declared routines it calls.
+     * @param routineId the symbol table entry of the routine's name.
+     * @param routineIds the list of collected routines.
+     * @return true if the routine and the routines it calls can be compiled.
+     */
+    private boolean isCompilable(SymTabEntry routineId,
+                                 ArrayList<SymTabEntry> routineIds)
+    {
+        // Already collected (recursive call).
+        if (routineIds.contains(routineId)) {
+            return true;
+        }
+
+        Profile profile = profiles.get(routineId);
+        if ((profile != null) && profile.interpretOnly) {
+            return false;
+        }
+
+        // Procedure, or function with a scalar type.
+        Definition routineDefn = routineId.getDefinition();
+        if (   ((routineDefn != PROCEDURE) && (routineDefn != FUNCTION))
+            || ((routineDefn == FUNCTION) &&
+                !isScalar(routineId.getTypeSpec()))) {
+            return false;
+        }
+
+        // Parameters and local variables, and nothing else.
+        SymTab symTab = (SymTab) routineId.getAttribute(ROUTINE_SYMTAB);
+        for (SymTabEntry id : symTab.sortedEntries()) {
+            Definition defn = id.getDefinition();
+
+            if (   ((defn != VARIABLE) && (defn != VALUE_PARM))
+                || !isScalar(id.getTypeSpec())) {
+                return false;
+            }
+        }
+
+        routineIds.add(routineId);
+
+        ICode iCode = (ICode) routineId.getAttribute(ROUTINE_ICODE);
+        return isCompilable(iCode.getRoot(), routineId, symTab, routineIds);
+    }
+
+    /**
+     * Determine whether a routine's intermediate code can be compiled.
+     * @param node the root node of the code.
+     * @param routineId the symbol table entry of the routine's name.
+     * @param symTab the routine's symbol table.
+     * @param routineIds the list of collected routines.
+     * @return true if the code can be compiled.
+     */
+    private boolean isCompilable(ICodeNode node, SymTabEntry routineId,
+                                 SymTab symTab,
+                                 ArrayList<SymTabEntry> routineIds)
+    {
+        switch ((ICodeNodeTypeImpl) node.getType()) {
+
+            case COMPOUND: case ASSIGN: case LOOP: case TEST: case IF:
+            case SELECT: case SELECT_BRANCH: case SELECT_CONSTANTS:
+            case NO_OP: case PARAMETERS:
+            case EQ: case NE: case LT: case LE: case GT: case GE: case NOT:
+            case ADD: case SUBTRACT: case OR: case NEGATE:
+            case MULTIPLY: case AND:
+            case INTEGER_CONSTANT: case REAL_CONSTANT: case STRING_CONSTANT:
+                break;
+
+            // A local variable or parameter, or the function's own name.
+            case VARIABLE: {
+                SymTabEntry id = (SymTabEntry) node.getAttribute(ID);
+
+                if (   ((id.getSymTab() != symTab) && (id != routineId))
+                    || (node.getChildren().size() > 0)) {
+                    return false;
+                }
+
+                break;
+            }
+
+            case CALL: {
+                SymTabEntry calleeId = (SymTabEntry) node.getAttribute(ID);
+                RoutineCode routineCode =
+                    (RoutineCode) calleeId.getAttribute(ROUTINE_CODE);
+
+                if (routineCode == DECLARED) {
+                    if (!isCompilable(calleeId, routineIds)) {
+                        return false;
+                    }
+                }
+                else if (   (routineCode == READ) || (routineCode == READLN)
+                         || (routineCode == WRITE) || (routineCode == WRITELN)
+                         || (routineCode == EOF) || (routineCode == EOLN)) {
+                    return false;
+                }
+
+                break;
+            }
+
+            default: return false;
+        }
+
+        for (ICodeNode child : node.getChildren()) {
+            if (!isCompilable(child, routineId, symTab, routineIds)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param type a data type.
+     * @return true if the type is integer, real, boolean, or char.
+     */
+    private boolean isScalar(TypeSpec type)
+    {
+        return (type == Predefined.integerType) ||
+               (type == Predefined.realType) ||
+               (type == Predefined.booleanType) ||
+               (type == Predefined.charType);
+    }
+
+    /**
+     * @param routineIds a list of routines.
+     * @return true if two of the routines have the same name, since
+     *         their methods would clash in the compiled class.
+     */
+    private boolean hasDuplicateNames(ArrayList<SymTabEntry> routineIds)
+    {
+        HashSet<String> names = new HashSet<String>();
+
+        for (SymTabEntry routineId : routineIds) {
+            if (!names.add(routineId.getName())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package src.wci.backend.interpreter;
+
+import src.wci.intermediate.*;
+import src.wci.backend.*;
+
+/**
+ * <h1>TieredExecutor</h1>
+ *
+ * <p>The tiered executor for an interpreter back end.  Every routine
+ * starts out executed by the tree-walking executors, and a routine that
+ * becomes hot is compiled to JVM bytecode and loaded, and its later calls
+ * run the compiled code.  Statements executed by compiled code are not
+ * counted or traced.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class TieredExecutor extends Executor
+{
+    /**
+     * Constructor.
+     */
+    public TieredExecutor() {}
+
+    /**
+     * Constructor.
+     * @param context the context of the program to execute.
+     */
+    public TieredExecutor(BackendContext context)
+    {
+        super(context);
+    }
+
+    /**
+     * Execute the source program, compiling its hot routines.
+     * @param iCode the intermediate code.
+     * @param symTabStack the symbol table stack.
+     * @throws Exception if an error occurred.
+     */
+    public void process(ICode iCode, SymTabStack symTabStack)
+        throws Exception
+    {
+        context.tieredCompiler =
+            new TieredCompiler(TieredCompiler.HOT_THRESHOLD, symTabStack);
+
+        try {
+            super.process(iCode, symTabStack);
+        }
+        finally {
+            context.tieredCompiler = null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package src.wci.backend.interpreter;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.*;
+
+import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
+
+/**
+ * <h1>ValueKind</h1>
+ *
+ * <p>The kinds of runtime values that the interpreter stores and computes
+ * unboxed.  Enumeration values are integers.  All other values, such as
+ * arrays, records, and strings, are OTHER.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public enum ValueKind
+{
+    INTEGER, REAL, BOOLEAN, CHARACTER, OTHER;
+
+    /**
+     * Return the kind of value of a data type.
+     * @param type the data type, or null.
+     * @return the kind.
+     */
+    public static ValueKind of(TypeSpec type)
+    {
+        if (type == null) {
+            return OTHER;
+        }
+
+        // The predefined types, without looking up any type attributes.
+        if (type == Predefined.integerType) {
+            return INTEGER;
+        }
+        else if (type == Predefined.realType) {
+            return REAL;
+        }
+
+        type = type.baseType();
+
+        if (type == Predefined.booleanType) {
+            return BOOLEAN;
+        }
+        else if ((type == Predefined.integerType) ||
+                 (type.getForm() == ENUMERATION)) {
+            return INTEGER;
+        }
+        else if (type == Predefined.realType) {
+            return REAL;
+        }
+        else if (type == Predefined.charType) {
+            return CHARACTER;
+        }
+        else {
+            return OTHER;
+        }
+    }
+
+    /**
+     * Return the kind of value of an expression node.
+     * @param node the expression node.
+     * @return the kind.
+     */
+    public static ValueKind of(ICodeNode node)
+    {
+        return of(node.getTypeSpec());
+    }
+
+    /**
+     * @return true if the kind is integer or real.
+     */
+    public boolean isNumeric()
+    {
+        return (this == INTEGER) || (this == REAL);
+    }
+}
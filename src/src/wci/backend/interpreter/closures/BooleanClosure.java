@@ -0,0 +1,17 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>BooleanClosure</h1>
+ *
+ * <p>A compiled expression with a boolean value.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface BooleanClosure
+{
+    /**
+     * @return the boolean value.
+     */
+    public boolean evaluate();
+}
@@ -0,0 +1,17 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>CharacterClosure</h1>
+ *
+ * <p>A compiled expression with a character value.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface CharacterClosure
+{
+    /**
+     * @return the character value.
+     */
+    public char evaluate();
+}
@@ -0,0 +1,79 @@
+package src.wci.backend.interpreter.closures;
+
+import src.wci.intermediate.*;
+import src.wci.backend.*;
+import src.wci.backend.interpreter.*;
+import src.wci.message.*;
+
+import static src.wci.intermediate.icodeimpl.ICodeNodeTypeImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.message.MessageType.INTERPRETER_SUMMARY;
+
+/**
+ * <h1>ClosureExecutor</h1>
+ *
+ * <p>The "fast execute" executor for an interpreter back end.  It first
+ * compiles the intermediate code of the program and its routines into a
+ * tree of type-specialized closures, and then executes the closures.
+ * Source line, assignment, fetch, call, and return trace messages are not
+ * sent for compiled statements; use the tree-walking executor to trace.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ClosureExecutor extends Executor
+{
+    /**
+     * Constructor.
+     */
+    public ClosureExecutor() {}
+
+    /**
+     * Constructor.
+     * @param context the context of the program to execute.
+     */
+    public ClosureExecutor(BackendContext context)
+    {
+        super(context);
+    }
+
+    /**
+     * Compile and execute the source program by processing the intermediate
+     * code and the symbol table stack generated by the parser.
+     * @param iCode the intermediate code.
+     * @param symTabStack the symbol table stack.
+     * @throws Exception if an error occurred.
+     */
+    public void process(ICode iCode, SymTabStack symTabStack)
+        throws Exception
+    {
+        this.symTabStack = symTabStack;
+        long startTime = System.currentTimeMillis();
+
+        SymTabEntry programId = symTabStack.getProgramId();
+
+        // Lay out the activation records of the program and its routines.
+        context.slotResolver = new SlotResolver();
+        context.slotResolver.resolve(programId);
+
+        // Construct an artificial CALL node to the main program.
+        ICodeNode callNode = ICodeFactory.createICodeNode(CALL);
+        callNode.setAttribute(ID, programId);
+
+        // Compile the main program, and then execute it.
+        createExecutors();
+        StatementCompiler statementCompiler = new StatementCompiler(this);
+        StatementClosure program =
+            statementCompiler.compileDeclaredCall(callNode);
+        program.execute();
+
+        float elapsedTime = (System.currentTimeMillis() - startTime)/1000f;
+        int runtimeErrors = errorHandler.getErrorCount();
+
+        // Send the interpreter summary message.
+        sendMessage(new Message(INTERPRETER_SUMMARY,
+                                new Number[] {context.executionCount,
+                                              runtimeErrors,
+                                              elapsedTime}));
+    }
+}
@@ -0,0 +1,669 @@
+package src.wci.backend.interpreter.closures;
+
+import java.util.ArrayList;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.*;
+import src.wci.intermediate.icodeimpl.*;
+import src.wci.backend.*;
+import src.wci.backend.interpreter.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.RoutineCodeImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.VAR_PARM;
+import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
+import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeNodeTypeImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.backend.interpreter.RuntimeErrorCode.*;
+
+/**
+ * <h1>ExpressionCompiler</h1>
+ *
+ * <p>Compile an expression into a closure.  The operation and the operand
+ * types are selected once from the node types and type specifications, so
+ * the closures do no mode detection or dispatching when evaluated.  Any
+ * expression without a specialized closure is evaluated by the
+ * tree-walking expression executor.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ExpressionCompiler extends Executor
+{
+    private StatementCompiler statementCompiler;  // for declared calls
+
+    /**
+     * Constructor.
+     * @param parent the parent statement compiler.
+     */
+    public ExpressionCompiler(StatementCompiler parent)
+    {
+        super(parent);
+        this.statementCompiler = parent;
+    }
+
+    /**
+     * Compile an expression whose value the tree-walking executor boxes.
+     * @param node the root node of the expression.
+     * @return the closure.
+     */
+    public ObjectClosure compileObject(final ICodeNode node)
+    {
+        switch (ValueKind.of(node)) {
+
+            case INTEGER: {
+                final IntegerClosure value = compileInteger(node);
+                return () -> value.evaluate();
+            }
+
+            case REAL: {
+                final RealClosure value = compileReal(node);
+                return () -> value.evaluate();
+            }
+
+            case BOOLEAN: {
+                final BooleanClosure value = compileBoolean(node);
+                return () -> value.evaluate();
+            }
+
+            case CHARACTER: {
+                final CharacterClosure value = compileCharacter(node);
+                return () -> value.evaluate();
+            }
+
+            default: return () -> context.expressionExecutor.execute(node);
+        }
+    }
+
+    /**
+     * Compile an integer or enumeration expression.
+     * @param node the root node of the expression.
+     * @return the closure.
+     */
+    public IntegerClosure compileInteger(final ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        switch (nodeType) {
+
+            case INTEGER_CONSTANT: {
+                final int value = (Integer) node.getAttribute(VALUE);
+                return () -> value;
+            }
+
+            case VARIABLE: {
+                final ReferenceClosure variable = compileInitialized(node);
+                return () -> variable.reference().getInteger();
+            }
+
+            case NEGATE: {
+                final IntegerClosure operand = compileInteger(children.get(0));
+                return () -> -operand.evaluate();
+            }
+
+            case CALL: {
+                final ObjectClosure value = compileCall(node);
+                return () -> (Integer) value.evaluate();
+            }
+
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case INTEGER_DIVIDE:
+            case MOD: {
+                if ((ValueKind.of(children.get(0)) != ValueKind.INTEGER) ||
+                    (ValueKind.of(children.get(1)) != ValueKind.INTEGER)) {
+                    break;
+                }
+
+                final IntegerClosure operand1 = compileInteger(children.get(0));
+                final IntegerClosure operand2 = compileInteger(children.get(1));
+
+                switch (nodeType) {
+                    case ADD:
+                        return () -> operand1.evaluate() + operand2.evaluate();
+                    case SUBTRACT:
+                        return () -> operand1.evaluate() - operand2.evaluate();
+                    case MULTIPLY:
+                        return () -> operand1.evaluate() * operand2.evaluate();
+
+                    case INTEGER_DIVIDE: {
+                        return () -> {
+                            int value1 = operand1.evaluate();
+                            int value2 = operand2.evaluate();
+
+                            // Check for division by zero.
+                            if (value2 != 0) {
+                                return value1/value2;
+                            }
+                            else {
+                                errorHandler.flag(node, DIVISION_BY_ZERO, this);
+                                return 0;
+                            }
+                        };
+                    }
+
+                    case MOD: {
+                        return () -> {
+                            int value1 = operand1.evaluate();
+                            int value2 = operand2.evaluate();
+
+                            // Check for division by zero.
+                            if (value2 != 0) {
+                                return value1%value2;
+                            }
+                            else {
+                                errorHandler.flag(node, DIVISION_BY_ZERO, this);
+                                return 0;
+                            }
+                        };
+                    }
+                }
+            }
+        }
+
+        // No specialized closure: Use the tree-walking executor.
+        return () -> (Integer) context.expressionExecutor.execute(node);
+    }
+
+    /**
+     * Compile a real expression.  An integer expression is converted to real.
+     * @param node the root node of the expression.
+     * @return the closure.
+     */
+    public RealClosure compileReal(final ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        if (ValueKind.of(node) == ValueKind.INTEGER) {
+            final IntegerClosure value = compileInteger(node);
+            return () -> value.evaluate();
+        }
+
+        switch (nodeType) {
+
+            case REAL_CONSTANT: {
+                final float value = (Float) node.getAttribute(VALUE);
+                return () -> value;
+            }
+
+            case VARIABLE: {
+                final ReferenceClosure variable = compileInitialized(node);
+                return () -> variable.reference().getReal();
+            }
+
+            case NEGATE: {
+                final RealClosure operand = compileReal(children.get(0));
+                return () -> -operand.evaluate();
+            }
+
+            case CALL: {
+                final ObjectClosure value = compileCall(node);
+                return () -> ((Number) value.evaluate()).floatValue();
+            }
+
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case FLOAT_DIVIDE: {
+                if (!isNumeric(children.get(0)) ||
+                    !isNumeric(children.get(1))) {
+                    break;
+                }
+
+                final RealClosure operand1 = compileReal(children.get(0));
+                final RealClosure operand2 = compileReal(children.get(1));
+
+                switch (nodeType) {
+                    case ADD:
+                        return () -> operand1.evaluate() + operand2.evaluate();
+                    case SUBTRACT:
+                        return () -> operand1.evaluate() - operand2.evaluate();
+                    case MULTIPLY:
+                        return () -> operand1.evaluate() * operand2.evaluate();
+
+                    case FLOAT_DIVIDE: {
+                        return () -> {
+                            float value1 = operand1.evaluate();
+                            float value2 = operand2.evaluate();
+
+                            // Check for division by zero.
+                            if (value2 != 0.0f) {
+                                return value1/value2;
+                            }
+                            else {
+                                errorHandler.flag(node, DIVISION_BY_ZERO, this);
+                                return 0.0f;
+                            }
+                        };
+                    }
+                }
+            }
+        }
+
+        // No specialized closure: Use the tree-walking executor.
+        return () ->
+            ((Number) context.expressionExecutor.execute(node)).floatValue();
+    }
+
+    /**
+     * Compile a boolean expression.
+     * @param node the root node of the expression.
+     * @return the closure.
+     */
+    public BooleanClosure compileBoolean(final ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        switch (nodeType) {
+
+            case INTEGER_CONSTANT: {
+                final boolean value = (Integer) node.getAttribute(VALUE) == 1;
+                return () -> value;
+            }
+
+            case VARIABLE: {
+                final ReferenceClosure variable = compileInitialized(node);
+                return () -> variable.reference().getBoolean();
+            }
+
+            case CALL: {
+                final ObjectClosure value = compileCall(node);
+                return () -> (Boolean) value.evaluate();
+            }
+
+            case NOT: {
+                final BooleanClosure operand = compileBoolean(children.get(0));
+                return () -> !operand.evaluate();
+            }
+
+            // Both operands are always evaluated.
+            case AND: {
+                final BooleanClosure operand1 = compileBoolean(children.get(0));
+                final BooleanClosure operand2 = compileBoolean(children.get(1));
+                return () -> operand1.evaluate() & operand2.evaluate();
+            }
+
+            case OR: {
+                final BooleanClosure operand1 = compileBoolean(children.get(0));
+                final BooleanClosure operand2 = compileBoolean(children.get(1));
+                return () -> operand1.evaluate() | operand2.evaluate();
+            }
+
+            case EQ: case NE: case LT: case LE: case GT: case GE: {
+                BooleanClosure closure = compileRelational(node, nodeType,
+                                                           children.get(0),
+                                                           children.get(1));
+                if (closure != null) {
+                    return closure;
+                }
+            }
+        }
+
+        // No specialized closure: Use the tree-walking executor.
+        return () -> (Boolean) context.expressionExecutor.execute(node);
+    }
+
+    /**
+     * Compile a relational operator for integer, real, or character operands.
+     * @param node the relational operator node.
+     * @param nodeType the node type.
+     * @param operandNode1 the first operand node.
+     * @param operandNode2 the second operand node.
+     * @return the closure, or null if the operands have no specialized closure.
+     */
+    private BooleanClosure compileRelational(ICodeNode node,
+                                             ICodeNodeTypeImpl nodeType,
+                                             ICodeNode operandNode1,
+                                             ICodeNode operandNode2)
+    {
+        ValueKind kind1 = ValueKind.of(operandNode1);
+        ValueKind kind2 = ValueKind.of(operandNode2);
+
+        // Integer operands.
+        if ((kind1 == ValueKind.INTEGER) && (kind2 == ValueKind.INTEGER)) {
+            final IntegerClosure operand1 = compileInteger(operandNode1);
+            final IntegerClosure operand2 = compileInteger(operandNode2);
+
+            switch (nodeType) {
+                case EQ: return () -> operand1.evaluate() == operand2.evaluate();
+                case NE: return () -> operand1.evaluate() != operand2.evaluate();
+                case LT: return () -> operand1.evaluate() <  operand2.evaluate();
+                case LE: return () -> operand1.evaluate() <= operand2.evaluate();
+                case GT: return () -> operand1.evaluate() >  operand2.evaluate();
+                case GE: return () -> operand1.evaluate() >= operand2.evaluate();
+            }
+        }
+
+        // Real operands, or mixed integer and real operands.
+        else if (isNumeric(operandNode1) && isNumeric(operandNode2)) {
+            final RealClosure operand1 = compileReal(operandNode1);
+            final RealClosure operand2 = compileReal(operandNode2);
+
+            switch (nodeType) {
+                case EQ: return () -> operand1.evaluate() == operand2.evaluate();
+                case NE: return () -> operand1.evaluate() != operand2.evaluate();
+                case LT: return () -> operand1.evaluate() <  operand2.evaluate();
+                case LE: return () -> operand1.evaluate() <= operand2.evaluate();
+                case GT: return () -> operand1.evaluate() >  operand2.evaluate();
+                case GE: return () -> operand1.evaluate() >= operand2.evaluate();
+            }
+        }
+
+        // Character operands.
+        else if ((kind1 == ValueKind.CHARACTER) &&
+                 (kind2 == ValueKind.CHARACTER)) {
+            final CharacterClosure operand1 = compileCharacter(operandNode1);
+            final CharacterClosure operand2 = compileCharacter(operandNode2);
+
+            switch (nodeType) {
+                case EQ: return () -> operand1.evaluate() == operand2.evaluate();
+                case NE: return () -> operand1.evaluate() != operand2.evaluate();
+                case LT: return () -> operand1.evaluate() <  operand2.evaluate();
+                case LE: return () -> operand1.evaluate() <= operand2.evaluate();
+                case GT: return () -> operand1.evaluate() >  operand2.evaluate();
+                case GE: return () -> operand1.evaluate() >= operand2.evaluate();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compile a character expression.
+     * @param node the root node of the expression.
+     * @return the closure.
+     */
+    public CharacterClosure compileCharacter(final ICodeNode node)
+    {
+        switch ((ICodeNodeTypeImpl) node.getType()) {
+
+            case STRING_CONSTANT: {
+                final char value = ((String) node.getAttribute(VALUE)).charAt(0);
+                return () -> value;
+            }
+
+            case VARIABLE: {
+                final ReferenceClosure variable = compileInitialized(node);
+                return () -> variable.reference().getCharacter();
+            }
+        }
+
+        // No specialized closure: Use the tree-walking executor.
+        return () -> toCharacter(context.expressionExecutor.execute(node));
+    }
+
+    /**
+     * Compile a reference to a scalar variable that has a value.  An
+     * uninitialized variable is flagged and then set to the default value
+     * of its type.
+     * @param node the variable node.
+     * @return the closure.
+     */
+    private ReferenceClosure compileInitialized(final ICodeNode node)
+    {
+        final ReferenceClosure reference = compileReference(node);
+        final TypeSpec type = node.getTypeSpec();
+
+        return () -> {
+            Cell variableCell = reference.reference();
+
+            // Uninitialized value error: Use a default value.
+            if (!variableCell.isInitialized()) {
+                errorHandler.flag(node, UNINITIALIZED_VALUE, this);
+                variableCell.setValue(BackendFactory.defaultValue(type));
+            }
+
+            return variableCell;
+        };
+    }
+
+    /**
+     * Compile a variable, including any array subscripts and record fields,
+     * into a closure that returns a reference to its cell.
+     * @param node the variable node.
+     * @return the closure.
+     */
+    public ReferenceClosure compileReference(final ICodeNode node)
+    {
+        SymTabEntry variableId = (SymTabEntry) node.getAttribute(ID);
+        TypeSpec variableType = variableId.getTypeSpec();
+        final int nestingLevel = variableId.getSymTab().getNestingLevel();
+        final int slot = context.slotResolver.getSlot(variableId);
+
+        // Get the variable reference from the appropriate activation record.
+        // Reference to a reference: Use the original reference.
+        ReferenceClosure reference =
+            variableId.getDefinition() == VAR_PARM
+                ? () -> (Cell) runtimeStack.getTopmost(nestingLevel)
+                                           .getCell(slot).getValue()
+                : () -> runtimeStack.getTopmost(nestingLevel).getCell(slot);
+
+        ArrayList<ICodeNode> subscripts = new ArrayList<ICodeNode>();
+        TypeSpec arrayType = null;  // type of the array being subscripted
+
+        // Compile any array subscripts or record fields.
+        for (ICodeNode modifier : node.getChildren()) {
+            ICodeNodeType nodeType = modifier.getType();
+
+            // Subscripts: Collect them, since consecutive subscripts
+            //             select a single element of the flattened array.
+            if (nodeType == SUBSCRIPTS) {
+                if (subscripts.isEmpty()) {
+                    arrayType = variableType;
+                }
+
+                for (ICodeNode subscript : modifier.getChildren()) {
+                    subscripts.add(subscript);
+                    variableType = (TypeSpec)
+                        variableType.getAttribute(ARRAY_ELEMENT_TYPE);
+                }
+            }
+
+            // Field.
+            else if (nodeType == FIELD) {
+                if (!subscripts.isEmpty()) {
+                    reference = compileSubscripts(node, reference,
+                                                  arrayType, subscripts);
+                    subscripts.clear();
+                }
+
+                SymTabEntry fieldId = (SymTabEntry) modifier.getAttribute(ID);
+                final int fieldSlot = fieldId.getSlot();
+                final ReferenceClosure record = reference;
+
+                reference = () -> ((RecordStorage)
+                                   record.reference().getValue())
+                                  .getField(fieldSlot);
+                variableType = fieldId.getTypeSpec();
+            }
+
+            // No specialized closure: Use the tree-walking executor.
+            if (reference == null) {
+                return () -> context.expressionExecutor.executeVariable(node);
+            }
+        }
+
+        if (!subscripts.isEmpty()) {
+            reference = compileSubscripts(node, reference,
+                                          arrayType, subscripts);
+        }
+
+        return reference != null
+            ? reference
+            : () -> context.expressionExecutor.executeVariable(node);
+    }
+
+    /**
+     * Compile consecutive array subscripts, with their runtime range
+     * checks, into the row-major index of an element or a subarray.
+     * @param node the variable node.
+     * @param array the reference to the array.
+     * @param arrayType the array type.
+     * @param subscripts the subscript expressions.
+     * @return the closure that returns the reference to the element or
+     *         subarray, or null if there is no specialized closure.
+     */
+    private ReferenceClosure compileSubscripts(final ICodeNode node,
+                                               final ReferenceClosure array,
+                                               TypeSpec arrayType,
+                                               ArrayList<ICodeNode> subscripts)
+    {
+        IntegerClosure index = null;
+        TypeSpec type = arrayType;
+
+        for (ICodeNode subscript : subscripts) {
+            TypeSpec indexType =
+                (TypeSpec) type.getAttribute(ARRAY_INDEX_TYPE);
+
+            if ((ValueKind.of(indexType) != ValueKind.INTEGER) ||
+                (ValueKind.of(subscript) != ValueKind.INTEGER)) {
+                return null;
+            }
+
+            type = (TypeSpec) type.getAttribute(ARRAY_ELEMENT_TYPE);
+
+            final IntegerClosure offset =
+                compileIndex(node, indexType, compileInteger(subscript));
+            final IntegerClosure previous = index;
+            final int stride = strideOf(type);
+
+            if (previous == null) {
+                index = stride == 1 ? offset
+                                    : () -> offset.evaluate()*stride;
+            }
+            else {
+                index = stride == 1
+                    ? () -> previous.evaluate() + offset.evaluate()
+                    : () -> previous.evaluate() + offset.evaluate()*stride;
+            }
+        }
+
+        final IntegerClosure elementIndex = index;
+
+        // All the dimensions are subscripted: Reference the element.
+        if (type.getForm() != ARRAY) {
+            return () -> ((ArrayStorage) array.reference().getValue())
+                             .getElement(elementIndex.evaluate());
+        }
+
+        // Only the leading dimensions are subscripted:
+        // Reference the subarray.
+        else {
+            final int dimensions = subscripts.size();
+
+            return () -> ((ArrayStorage) array.reference().getValue())
+                             .getSubarray(elementIndex.evaluate(),
+                                          dimensions);
+        }
+    }
+
+    /**
+     * Compile an array subscript with its runtime range check into the
+     * zero-based index value of its dimension.
+     * @param node the variable node.
+     * @param indexType the array index type.
+     * @param subscript the subscript expression.
+     * @return the closure.
+     */
+    private IntegerClosure compileIndex(final ICodeNode node,
+                                        TypeSpec indexType,
+                                        final IntegerClosure subscript)
+    {
+        if (indexType.getForm() != SUBRANGE) {
+            return subscript;
+        }
+
+        final int minIndex =
+            (Integer) indexType.getAttribute(SUBRANGE_MIN_VALUE);
+        final int maxIndex =
+            (Integer) indexType.getAttribute(SUBRANGE_MAX_VALUE);
+
+        return () -> {
+            int value = subscript.evaluate();
+
+            // Range check.
+            if (value < minIndex) {
+                errorHandler.flag(node, VALUE_RANGE, this);
+                value = minIndex;
+            }
+            else if (value > maxIndex) {
+                errorHandler.flag(node, VALUE_RANGE, this);
+                value = maxIndex;
+            }
+
+            return value - minIndex;
+        };
+    }
+
+    /**
+     * @param type a data type.
+     * @return the number of flattened array elements in a value of the
+     *         type, or 1 if the type is not an array type.
+     */
+    private int strideOf(TypeSpec type)
+    {
+        int stride = 1;
+
+        while (type.getForm() == ARRAY) {
+            stride *= type.getElementCount();
+            type = (TypeSpec) type.getAttribute(ARRAY_ELEMENT_TYPE);
+        }
+
+        return stride;
+    }
+
+    /**
+     * Compile a function call.
+     * @param node the CALL node.
+     * @return the closure that returns the function value.
+     */
+    private ObjectClosure compileCall(final ICodeNode node)
+    {
+        SymTabEntry functionId = (SymTabEntry) node.getAttribute(ID);
+        RoutineCode routineCode =
+            (RoutineCode) functionId.getAttribute(ROUTINE_CODE);
+
+        // Standard function: Use the tree-walking executor.
+        if (routineCode != DECLARED) {
+            return () -> context.expressionExecutor.execute(node);
+        }
+
+        // Declared function: Obtain the function value from its name.
+        final StatementClosure call = statementCompiler.compileCall(node);
+        final int nestingLevel = functionId.getSymTab().getNestingLevel();
+        final int slot = context.slotResolver.getSlot(functionId);
+
+        return () -> {
+            call.execute();
+
+            return runtimeStack.getTopmost(nestingLevel)
+                               .getCell(slot).getValue();
+        };
+    }
+
+    /**
+     * @param node an expression node.
+     * @return true if the expression is integer or real.
+     */
+    private boolean isNumeric(ICodeNode node)
+    {
+        ValueKind kind = ValueKind.of(node);
+        return (kind == ValueKind.INTEGER) || (kind == ValueKind.REAL);
+    }
+
+    /**
+     * Convert a character value that may be a single-character string.
+     * @param value the value.
+     * @return the character.
+     */
+    private static char toCharacter(Object value)
+    {
+        return value instanceof Character ? (Character) value
+                                          : ((String) value).charAt(0);
+    }
+}
@@ -0,0 +1,17 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>IntegerClosure</h1>
+ *
+ * <p>A compiled expression with an integer or enumeration value.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface IntegerClosure
+{
+    /**
+     * @return the integer value.
+     */
+    public int evaluate();
+}
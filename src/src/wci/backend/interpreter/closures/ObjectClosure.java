@@ -0,0 +1,18 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>ObjectClosure</h1>
+ *
+ * <p>A compiled expression whose value is boxed the same way as the
+ * tree-walking executor's values.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface ObjectClosure
+{
+    /**
+     * @return the value.
+     */
+    public Object evaluate();
+}
@@ -0,0 +1,17 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>RealClosure</h1>
+ *
+ * <p>A compiled expression with a real value.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface RealClosure
+{
+    /**
+     * @return the real value.
+     */
+    public float evaluate();
+}
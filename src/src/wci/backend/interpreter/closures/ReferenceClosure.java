@@ -0,0 +1,19 @@
+package src.wci.backend.interpreter.closures;
+
+import src.wci.backend.interpreter.Cell;
+
+/**
+ * <h1>ReferenceClosure</h1>
+ *
+ * <p>A compiled variable reference.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface ReferenceClosure
+{
+    /**
+     * @return the memory cell of the variable.
+     */
+    public Cell reference();
+}
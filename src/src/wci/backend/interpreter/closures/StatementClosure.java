@@ -0,0 +1,17 @@
+package src.wci.backend.interpreter.closures;
+
+/**
+ * <h1>StatementClosure</h1>
+ *
+ * <p>A compiled statement.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public interface StatementClosure
+{
+    /**
+     * Execute the statement.
+     */
+    public void execute();
+}
@@ -0,0 +1,484 @@
+package src.wci.backend.interpreter.closures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.icodeimpl.*;
+import src.wci.backend.interpreter.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.RoutineCodeImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.*;
+import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
+import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeNodeTypeImpl.*;
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.backend.interpreter.RuntimeErrorCode.*;
+
+/**
+ * <h1>StatementCompiler</h1>
+ *
+ * <p>Compile the statements of a routine into a tree of closures.  Each
+ * statement is compiled once, before the program runs, and the closures
+ * are then executed without any further node type dispatching.  Any
+ * statement without a specialized closure is executed by the shared
+ * tree-walking executors.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class StatementCompiler extends Executor
+{
+    private ExpressionCompiler expressionCompiler;
+
+    // Compiled routine bodies: entry key is a routine's symbol table entry,
+    //                          entry value is the compiled body.
+    private HashMap<SymTabEntry, CompiledRoutine> routines;
+
+    /**
+     * The compiled body of a routine.  The holder is created before the
+     * body is compiled, so that recursive calls can refer to it.
+     */
+    private static class CompiledRoutine
+    {
+        StatementClosure body;
+    }
+
+    /**
+     * Store a value into a target cell.
+     */
+    private interface StoreClosure
+    {
+        void store(Cell targetCell);
+    }
+
+    /**
+     * Constructor.
+     * @param parent the parent executor.
+     */
+    public StatementCompiler(Executor parent)
+    {
+        super(parent);
+
+        this.expressionCompiler = new ExpressionCompiler(this);
+        this.routines = new HashMap<SymTabEntry, CompiledRoutine>();
+    }
+
+    /**
+     * Compile a statement.
+     * @param node the root node of the statement.
+     * @return the closure.
+     */
+    public StatementClosure compileStatement(final ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+
+        switch (nodeType) {
+
+            case COMPOUND: return compileCompound(node);
+            case ASSIGN:   return compileAssignment(node);
+            case LOOP:     return compileLoop(node);
+            case IF:       return compileIf(node);
+            case SELECT:   return compileSelect(node);
+            case CALL:     return compileCall(node);
+
+            case NO_OP: return () -> {};
+
+            // No specialized closure: Use the tree-walking executor.
+            default: return () -> context.statementExecutor.execute(node);
+        }
+    }
+
+    /**
+     * Compile a compound statement.
+     * @param node the root node of the compound statement.
+     * @return the closure.
+     */
+    private StatementClosure compileCompound(ICodeNode node)
+    {
+        ArrayList<ICodeNode> children = node.getChildren();
+        final StatementClosure statements[] =
+            new StatementClosure[children.size()];
+
+        for (int i = 0; i < statements.length; ++i) {
+            statements[i] = compileStatement(children.get(i));
+        }
+
+        return () -> {
+            for (StatementClosure statement : statements) {
+                statement.execute();
+            }
+        };
+    }
+
+    /**
+     * Compile an assignment statement.
+     * @param node the root node of the statement.
+     * @return the closure.
+     */
+    private StatementClosure compileAssignment(final ICodeNode node)
+    {
+        // The ASSIGN node's children are the target variable
+        // and the expression.
+        ArrayList<ICodeNode> children = node.getChildren();
+        ICodeNode variableNode = children.get(0);
+        ICodeNode expressionNode = children.get(1);
+
+        final StoreClosure store =
+            compileStore(node, variableNode.getTypeSpec(), expressionNode);
+
+        // No specialized closure: Use the tree-walking executor.
+        if (store == null) {
+            return () -> context.assignmentExecutor.execute(node);
+        }
+
+        final ReferenceClosure target =
+            expressionCompiler.compileReference(variableNode);
+
+        return () -> {
+            store.store(target.reference());
+            ++context.executionCount;
+        };
+    }
+
+    /**
+     * Compile the evaluation of a scalar expression and the store of its
+     * value, including any range check and integer to real conversion.
+     * @param node the node to flag for a range error.
+     * @param targetType the target type.
+     * @param exprNode the root node of the expression.
+     * @return the closure, or null if there is no specialized closure.
+     */
+    private StoreClosure compileStore(final ICodeNode node,
+                                      TypeSpec targetType, ICodeNode exprNode)
+    {
+        ValueKind targetKind = ValueKind.of(targetType);
+        ValueKind valueKind = ValueKind.of(exprNode);
+
+        switch (targetKind) {
+
+            case INTEGER: {
+                if (valueKind != ValueKind.INTEGER) {
+                    return null;
+                }
+
+                final IntegerClosure value =
+                    expressionCompiler.compileInteger(exprNode);
+
+                if (targetType.getForm() != SUBRANGE) {
+                    return targetCell ->
+                        targetCell.setInteger(value.evaluate());
+                }
+
+                final int minValue =
+                    (Integer) targetType.getAttribute(SUBRANGE_MIN_VALUE);
+                final int maxValue =
+                    (Integer) targetType.getAttribute(SUBRANGE_MAX_VALUE);
+
+                return targetCell -> {
+                    int v = value.evaluate();
+
+                    // Range check.
+                    if (v < minValue) {
+                        errorHandler.flag(node, VALUE_RANGE, this);
+                        v = minValue;
+                    }
+                    else if (v > maxValue) {
+                        errorHandler.flag(node, VALUE_RANGE, this);
+                        v = maxValue;
+                    }
+
+                    targetCell.setInteger(v);
+                };
+            }
+
+            // Convert an integer value to real if necessary.
+            case REAL: {
+                if (!valueKind.isNumeric()) {
+                    return null;
+                }
+
+                final RealClosure value =
+                    expressionCompiler.compileReal(exprNode);
+                return targetCell -> targetCell.setReal(value.evaluate());
+            }
+
+            case BOOLEAN: {
+                if (valueKind != ValueKind.BOOLEAN) {
+                    return null;
+                }
+
+                final BooleanClosure value =
+                    expressionCompiler.compileBoolean(exprNode);
+                return targetCell -> targetCell.setBoolean(value.evaluate());
+            }
+
+            // Character subranges are not range checked.
+            case CHARACTER: {
+                if ((valueKind != ValueKind.CHARACTER) ||
+                    (targetType.getForm() == SUBRANGE)) {
+                    return null;
+                }
+
+                final CharacterClosure value =
+                    expressionCompiler.compileCharacter(exprNode);
+                return targetCell -> targetCell.setCharacter(value.evaluate());
+            }
+
+            default: return null;
+        }
+    }
+
+    /**
+     * Compile a loop statement.
+     * @param node the root node of the statement.
+     * @return the closure.
+     */
+    private StatementClosure compileLoop(ICodeNode node)
+    {
+        ArrayList<ICodeNode> loopChildren = node.getChildren();
+        final int childCount = loopChildren.size();
+        final StatementClosure statements[] = new StatementClosure[childCount];
+        final BooleanClosure tests[] = new BooleanClosure[childCount];
+
+        // Each child of the LOOP node is either a TEST node or a statement.
+        for (int i = 0; i < childCount; ++i) {
+            ICodeNode child = loopChildren.get(i);
+
+            if (child.getType() == TEST) {
+                tests[i] = expressionCompiler.compileBoolean(
+                               child.getChildren().get(0));
+            }
+            else {
+                statements[i] = compileStatement(child);
+            }
+        }
+
+        // Loop until a TEST expression value is true.
+        return () -> {
+            while (true) {
+                ++context.executionCount;  // count the loop statement itself
+
+                for (int i = 0; i < childCount; ++i) {
+                    if (tests[i] != null) {
+                        if (tests[i].evaluate()) {
+                            return;
+                        }
+                    }
+                    else {
+                        statements[i].execute();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Compile an IF statement.
+     * @param node the root node of the statement.
+     * @return the closure.
+     */
+    private StatementClosure compileIf(ICodeNode node)
+    {
+        // Get the IF node's children.
+        ArrayList<ICodeNode> children = node.getChildren();
+        final BooleanClosure expr =
+            expressionCompiler.compileBoolean(children.get(0));
+        final StatementClosure thenStmt = compileStatement(children.get(1));
+        final StatementClosure elseStmt = children.size() > 2
+                                          ? compileStatement(children.get(2))
+                                          : () -> {};
+
+        return () -> {
+            if (expr.evaluate()) {
+                thenStmt.execute();
+            }
+            else {
+                elseStmt.execute();
+            }
+
+            ++context.executionCount;  // count the IF statement itself
+        };
+    }
+
+    /**
+     * Compile a SELECT statement into a jump table of compiled branches.
+     * @param node the root node of the statement.
+     * @return the closure.
+     */
+    private StatementClosure compileSelect(ICodeNode node)
+    {
+        // Jump table: entry key is a selection value,
+        //             entry value is the compiled branch statement.
+        final HashMap<Object, StatementClosure> jumpTable =
+            new HashMap<Object, StatementClosure>();
+
+        // Loop over children that are SELECT_BRANCH nodes.
+        ArrayList<ICodeNode> selectChildren = node.getChildren();
+        for (int i = 1; i < selectChildren.size(); ++i) {
+            ICodeNode branchNode = selectChildren.get(i);
+            ICodeNode constantsNode = branchNode.getChildren().get(0);
+            StatementClosure statement =
+                compileStatement(branchNode.getChildren().get(1));
+
+            // Create a jump table entry for each constant.
+            // Convert a single-character string constant to a character.
+            for (ICodeNode constantNode : constantsNode.getChildren()) {
+                Object value = constantNode.getAttribute(VALUE);
+                if (constantNode.getType() == STRING_CONSTANT) {
+                    value = ((String) value).charAt(0);
+                }
+                jumpTable.put(value, statement);
+            }
+        }
+
+        final ObjectClosure expr =
+            expressionCompiler.compileObject(selectChildren.get(0));
+
+        return () -> {
+
+            // If there is a selection, execute the branch's statement.
+            StatementClosure statement = jumpTable.get(expr.evaluate());
+            if (statement != null) {
+                statement.execute();
+            }
+
+            ++context.executionCount;  // count the SELECT statement itself
+        };
+    }
+
+    /**
+     * Compile a procedure or function call.
+     * @param node the CALL node.
+     * @return the closure.
+     */
+    public StatementClosure compileCall(final ICodeNode node)
+    {
+        SymTabEntry routineId = (SymTabEntry) node.getAttribute(ID);
+        RoutineCode routineCode =
+            (RoutineCode) routineId.getAttribute(ROUTINE_CODE);
+
+        // Standard routine: Use the tree-walking executor.
+        if (routineCode != DECLARED) {
+            return () -> context.callExecutor.execute(node);
+        }
+
+        final StatementClosure call = compileDeclaredCall(node);
+
+        return () -> {
+            ++context.executionCount;  // count the call statement
+            call.execute();
+        };
+    }
+
+    /**
+     * Compile a call to a declared procedure or function.
+     * @param node the CALL node.
+     * @return the closure.
+     */
+    public StatementClosure compileDeclaredCall(ICodeNode node)
+    {
+        final SymTabEntry routineId = (SymTabEntry) node.getAttribute(ID);
+        final CompiledRoutine routine = compileRoutine(routineId);
+
+        // Compile any actual parameters.
+        ArrayList<StoreClosure> parms = new ArrayList<StoreClosure>();
+        ArrayList<Integer> parmSlots = new ArrayList<Integer>();
+
+        if (node.getChildren().size() > 0) {
+            ArrayList<ICodeNode> actualNodes =
+                node.getChildren().get(0).getChildren();
+            ArrayList<SymTabEntry> formalIds =
+                (ArrayList<SymTabEntry>) routineId.getAttribute(ROUTINE_PARMS);
+
+            for (int i = 0; i < formalIds.size(); ++i) {
+                SymTabEntry formalId = formalIds.get(i);
+
+                parms.add(compileActualParm(actualNodes.get(i), formalId));
+                parmSlots.add(formalId.getSlot());
+            }
+        }
+
+        final StoreClosure parmStores[] =
+            parms.toArray(new StoreClosure[parms.size()]);
+        final int slots[] = new int[parmSlots.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = parmSlots.get(i);
+        }
+
+        final SymTabEntry slotIds[] =
+            context.slotResolver.getLayout(routineId);
+
+        return () -> {
+            ActivationRecord newAr =
+                MemoryFactory.createActivationRecord(routineId, slotIds);
+
+            // Initialize the formal parameters in the new activation record.
+            for (int i = 0; i < slots.length; ++i) {
+                parmStores[i].store(newAr.getCell(slots[i]));
+            }
+
+            // Execute the routine between pushing and popping
+            // its activation record.
+            runtimeStack.push(newAr);
+            routine.body.execute();
+            runtimeStack.pop();
+        };
+    }
+
+    /**
+     * Compile an actual parameter into the store of its formal parameter.
+     * @param actualNode the actual parameter node.
+     * @param formalId the symbol table entry of the formal parameter.
+     * @return the closure.
+     */
+    private StoreClosure compileActualParm(final ICodeNode actualNode,
+                                           final SymTabEntry formalId)
+    {
+        // VAR parameter: Store a reference to the actual parameter's cell.
+        if (formalId.getDefinition() == VAR_PARM) {
+            final ReferenceClosure actual =
+                expressionCompiler.compileReference(actualNode);
+            return formalCell -> formalCell.setValue(actual.reference());
+        }
+
+        // Value parameter.
+        final TypeSpec formalType = formalId.getTypeSpec();
+        StoreClosure store = compileStore(actualNode, formalType, actualNode);
+
+        // No specialized closure: Use the tree-walking executors.
+        if (store == null) {
+            final TypeSpec valueType = actualNode.getTypeSpec().baseType();
+
+            store = formalCell -> {
+                Object value = context.expressionExecutor.execute(actualNode);
+                context.assignmentExecutor.assignValue(actualNode, formalId,
+                                               formalCell, formalType,
+                                               value, valueType);
+            };
+        }
+
+        return store;
+    }
+
+    /**
+     * Compile the body of a routine once, and return its holder.
+     * @param routineId the symbol table entry of the routine's name.
+     * @return the compiled routine.
+     */
+    private CompiledRoutine compileRoutine(SymTabEntry routineId)
+    {
+        CompiledRoutine routine = routines.get(routineId);
+
+        if (routine == null) {
+            routine = new CompiledRoutine();
+            routines.put(routineId, routine);
+
+            ICode iCode = (ICode) routineId.getAttribute(ROUTINE_ICODE);
+            routine.body = compileStatement(iCode.getRoot());
+        }
+
+        return routine;
+    }
+}
@@ -13,6 +13,7 @@ import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
 import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
 import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.message.MessageType.ASSIGN;
 
 /**
  * <h1>AssignmentExecutor</h1>
@@ -49,19 +50,124 @@ public class AssignmentExecutor extends StatementExecutor
 
         // Execute the target variable to get its reference and
         // execute the expression to get its value.
-        ExpressionExecutor expressionExecutor = new ExpressionExecutor(this);
         Cell targetCell =
-                 (Cell) expressionExecutor.executeVariable(variableNode);
+            (Cell) context.expressionExecutor.executeVariable(variableNode);
         TypeSpec targetType = variableNode.getTypeSpec();
-        TypeSpec valueType  = expressionNode.getTypeSpec().baseType();
-        Object value = expressionExecutor.execute(expressionNode);
 
-        assignValue(node, variableId, targetCell, targetType, value, valueType);
-        ++executionCount;
+        if (!assignScalar(node, variableId, targetCell, targetType,
+                          expressionNode)) {
+            TypeSpec valueType  = expressionNode.getTypeSpec().baseType();
+            Object value = context.expressionExecutor.execute(expressionNode);
+
+            assignValue(node, variableId, targetCell, targetType,
+                        value, valueType);
+        }
+
+        ++context.executionCount;
 
         return null;
     }
 
+    /**
+     * Execute an integer, real, boolean, or character expression and
+     * assign its value unboxed to a target cell.
+     * @param node the ancester parse tree node of the assignment.
+     * @param targetId the symbol table entry of the target variable or parm.
+     * @param targetCell the target cell.
+     * @param targetType the target type.
+     * @param exprNode the root node of the expression.
+     * @return true if assigned, false if the value is not such a scalar.
+     */
+    public boolean assignScalar(ICodeNode node, SymTabEntry targetId,
+                                Cell targetCell, TypeSpec targetType,
+                                ICodeNode exprNode)
+    {
+        ValueKind valueKind = ValueKind.of(exprNode);
+
+        switch (ValueKind.of(targetType)) {
+
+            case INTEGER: {
+                if (valueKind != ValueKind.INTEGER) {
+                    return false;
+                }
+
+                int value = context.expressionExecutor.executeInteger(exprNode);
+                value = checkRange(node, targetType, value);
+                targetCell.setInteger(value);
+
+                if (messageHandler.hasListeners(ASSIGN)) {
+                    sendAssignMessage(node, targetId.getName(), value);
+                }
+
+                return true;
+            }
+
+            // Convert an integer value to real if necessary.
+            case REAL: {
+                if (valueKind == ValueKind.INTEGER) {
+                    int value =
+                        context.expressionExecutor.executeInteger(exprNode);
+                    targetCell.setReal(value);
+
+                    if (messageHandler.hasListeners(ASSIGN)) {
+                        sendAssignMessage(node, targetId.getName(), value);
+                    }
+
+                    return true;
+                }
+                else if (valueKind == ValueKind.REAL) {
+                    float value =
+                        context.expressionExecutor.executeReal(exprNode);
+                    targetCell.setReal(value);
+
+                    if (messageHandler.hasListeners(ASSIGN)) {
+                        sendAssignMessage(node, targetId.getName(), value);
+                    }
+
+                    return true;
+                }
+
+                return false;
+            }
+
+            case BOOLEAN: {
+                if (valueKind != ValueKind.BOOLEAN) {
+                    return false;
+                }
+
+                boolean value =
+                    context.expressionExecutor.executeBoolean(exprNode);
+                targetCell.setBoolean(value);
+
+                if (messageHandler.hasListeners(ASSIGN)) {
+                    sendAssignMessage(node, targetId.getName(), value);
+                }
+
+                return true;
+            }
+
+            // Character subranges are not range checked.
+            case CHARACTER: {
+                if ((valueKind != ValueKind.CHARACTER) ||
+                    (targetType.getForm() == SUBRANGE)) {
+                    return false;
+                }
+
+                char value =
+                    context.expressionExecutor.executeCharacter(exprNode);
+                targetCell.setCharacter(value);
+
+                if (messageHandler.hasListeners(ASSIGN)) {
+                    sendAssignMessage(node, targetId.getName(), value);
+                }
+
+                return true;
+            }
+
+            default: return false;
+        }
+    }
+
     /**
      * Assign a value to a target cell.
      * @param node the ancester parse tree node of the assignment.
@@ -71,9 +177,9 @@ public class AssignmentExecutor extends StatementExecutor
      * @param value the value to assign.
      * @param valueType the value type.
      */
-    protected void assignValue(ICodeNode node, SymTabEntry targetId,
-                               Cell targetCell, TypeSpec targetType,
-                               Object value, TypeSpec valueType)
+    public void assignValue(ICodeNode node, SymTabEntry targetId,
+                            Cell targetCell, TypeSpec targetType,
+                            Object value, TypeSpec valueType)
     {
         // Range check.
         value = checkRange(node, targetType, value);
@@ -90,10 +196,8 @@ public class AssignmentExecutor extends StatementExecutor
         //   target length < value length: truncate the value
         //   target length > value length: blank pad the value
         else if (targetType.isPascalString()) {
-            int targetLength =
-                    (Integer) targetType.getAttribute(ARRAY_ELEMENT_COUNT);
-            int valueLength =
-                    (Integer) valueType.getAttribute(ARRAY_ELEMENT_COUNT);
+            int targetLength = targetType.getElementCount();
+            int valueLength = valueType.getElementCount();
             String stringValue = (String) value;
 
             // Truncate the value string.
@@ -121,6 +225,8 @@ public class AssignmentExecutor extends StatementExecutor
             targetCell.setValue(copyOf(toPascal(targetType, value), node));
         }
 
-        sendAssignMessage(node, targetId.getName(), value);
+        if (messageHandler.hasListeners(ASSIGN)) {
+            sendAssignMessage(node, targetId.getName(), value);
+        }
     }
 }
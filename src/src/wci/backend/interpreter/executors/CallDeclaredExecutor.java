@@ -1,13 +1,17 @@
 package src.wci.backend.interpreter.executors;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 
 import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.*;
 import src.wci.backend.interpreter.*;
 
 import static src.wci.intermediate.symtabimpl.DefinitionImpl.*;
 import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.message.MessageType.CALL;
+import static src.wci.message.MessageType.RETURN;
 
 /**
  * <h1>CallDeclaredExecutor</h1>
@@ -36,8 +40,21 @@ public class CallDeclaredExecutor extends CallExecutor
     public Object execute(ICodeNode node)
     {
         SymTabEntry routineId = (SymTabEntry) node.getAttribute(ID);
-        ActivationRecord newAr =
-            MemoryFactory.createActivationRecord(routineId);
+
+        // Tiered execution: Count the call, and execute the routine's
+        // compiled code once the routine is hot.
+        if (context.tieredCompiler != null) {
+            Method compiledRoutine =
+                context.tieredCompiler.countCall(routineId);
+
+            if (compiledRoutine != null) {
+                return executeCompiled(node, routineId, compiledRoutine);
+            }
+        }
+
+        ActivationRecord newAr = MemoryFactory.createActivationRecord(
+                                     routineId,
+                                     context.slotResolver.getLayout(routineId));
 
         // Execute any actual parameters and initialize
         // the formal parameters in the new activation record.
@@ -52,23 +69,84 @@ public class CallDeclaredExecutor extends CallExecutor
         // Push the new activation record.
         runtimeStack.push(newAr);
 
-        sendCallMessage(node, routineId.getName());
+        if (messageHandler.hasListeners(CALL)) {
+            sendCallMessage(node, routineId.getName());
+        }
 
         // Get the root node of the routine's intermediate code.
         ICode iCode = (ICode) routineId.getAttribute(ROUTINE_ICODE);
         ICodeNode rootNode = iCode.getRoot();
 
         // Execute the routine.
-        StatementExecutor statementExecutor = new StatementExecutor(this);
-        Object value = statementExecutor.execute(rootNode);
+        Object value = context.statementExecutor.execute(rootNode);
 
         // Pop off the activation record.
         runtimeStack.pop();
 
-        sendReturnMessage(node, routineId.getName());
+        if (messageHandler.hasListeners(RETURN)) {
+            sendReturnMessage(node, routineId.getName());
+        }
+
         return value;
     }
 
+    /**
+     * Execute a call to the compiled code of a declared procedure or
+     * function.  The compiled code has no activation record, so a function
+     * value is set into the function's cell after the call.
+     * @param node the CALL node.
+     * @param routineId the symbol table entry of the routine's name.
+     * @param compiledRoutine the compiled code.
+     * @return null.
+     */
+    private Object executeCompiled(ICodeNode node, SymTabEntry routineId,
+                                   Method compiledRoutine)
+    {
+        ArrayList<SymTabEntry> formalIds =
+            (ArrayList<SymTabEntry>) routineId.getAttribute(ROUTINE_PARMS);
+        Object args[] = new Object[formalIds != null ? formalIds.size() : 0];
+
+        // Execute any actual parameters.
+        // Convert an integer value to real if necessary.
+        if (node.getChildren().size() > 0) {
+            ArrayList<ICodeNode> actualNodes =
+                node.getChildren().get(0).getChildren();
+
+            for (int i = 0; i < args.length; ++i) {
+                TypeSpec formalType = formalIds.get(i).getTypeSpec();
+                Object value =
+                    context.expressionExecutor.execute(actualNodes.get(i));
+
+                if ((formalType == Predefined.realType) &&
+                    (value instanceof Integer)) {
+                    value = Float.valueOf((float) (Integer) value);
+                }
+
+                args[i] = toPascal(formalType, value);
+            }
+        }
+
+        if (messageHandler.hasListeners(CALL)) {
+            sendCallMessage(node, routineId.getName());
+        }
+
+        Object value = context.tieredCompiler.call(compiledRoutine, args);
+
+        // Function: Set the function value.
+        if (routineId.getDefinition() == FUNCTION) {
+            int slot = context.slotResolver.getSlot(routineId);
+            int nestingLevel = routineId.getSymTab().getNestingLevel();
+            ActivationRecord ar = runtimeStack.getTopmost(nestingLevel);
+            ar.getCell(slot).setValue(value);
+        }
+
+        if (messageHandler.hasListeners(RETURN)) {
+            sendReturnMessage(node, routineId.getName());
+        }
+
+        return null;
+    }
+
     /**
      * Execute the actual parameters of a call.
      * @param actualNodes the list of nodes of the actual parms.
@@ -79,30 +157,34 @@ public class CallDeclaredExecutor extends CallExecutor
                                     ArrayList<SymTabEntry> formalIds,
                                     ActivationRecord newAr)
     {
-        ExpressionExecutor expressionExecutor = new ExpressionExecutor(this);
-        AssignmentExecutor assignmentExecutor = new AssignmentExecutor(this);
-
         for (int i = 0; i < formalIds.size(); ++i) {
             SymTabEntry formalId = formalIds.get(i);
             Definition formalDefn = formalId.getDefinition();
-            Cell formalCell = newAr.getCell(formalId.getName());
+            int formalSlot = formalId.getSlot();
+            Cell formalCell = newAr.getCell(formalSlot);
             ICodeNode actualNode = actualNodes.get(i);
 
             // Value parameter.
             if (formalDefn == VALUE_PARM) {
                 TypeSpec formalType = formalId.getTypeSpec();
-                TypeSpec valueType  = actualNode.getTypeSpec().baseType();
-                Object value = expressionExecutor.execute(actualNode);
 
-                assignmentExecutor.assignValue(actualNode, formalId,
-                                               formalCell, formalType,
-                                               value, valueType);
+                if (!context.assignmentExecutor.assignScalar(
+                        actualNode, formalId, formalCell, formalType,
+                        actualNode)) {
+                    TypeSpec valueType = actualNode.getTypeSpec().baseType();
+                    Object value =
+                        context.expressionExecutor.execute(actualNode);
+
+                    context.assignmentExecutor.assignValue(
+                        actualNode, formalId, formalCell, formalType,
+                        value, valueType);
+                }
             }
 
             // VAR parameter.
             else {
-                Cell actualCell =
-                    (Cell) expressionExecutor.executeVariable(actualNode);
+                Cell actualCell = (Cell)
+                    context.expressionExecutor.executeVariable(actualNode);
                 formalCell.setValue(actualCell);
             }
         }
@@ -37,11 +37,11 @@ public class CallExecutor extends StatementExecutor
         SymTabEntry routineId = (SymTabEntry) node.getAttribute(ID);
         RoutineCode routineCode =
                         (RoutineCode) routineId.getAttribute(ROUTINE_CODE);
-        CallExecutor callExecutor = routineCode == DECLARED
-                                    ? new CallDeclaredExecutor(this)
-                                    : new CallStandardExecutor(this);
+        CallExecutor executor = routineCode == DECLARED
+                                ? context.callDeclaredExecutor
+                                : context.callStandardExecutor;
 
-        ++executionCount;  // count the call statement
-        return callExecutor.execute(node);
+        ++context.executionCount;  // count the call statement
+        return executor.execute(node);
     }
 }
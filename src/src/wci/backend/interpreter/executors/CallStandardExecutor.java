@@ -14,6 +14,7 @@ import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeNodeTypeImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
 import static src.wci.backend.interpreter.RuntimeErrorCode.*;
+import static src.wci.message.MessageType.ASSIGN;
 import src.wci.backend.interpreter.Cell;
 
 /**
@@ -26,8 +27,6 @@ import src.wci.backend.interpreter.Cell;
  */
 public class CallStandardExecutor extends CallExecutor
 {
-    private ExpressionExecutor expressionExecutor;
-
     /**
      * Constructor.
      * @param the parent executor.
@@ -48,7 +47,6 @@ public class CallStandardExecutor extends CallExecutor
         RoutineCode routineCode =
                         (RoutineCode) routineId.getAttribute(ROUTINE_CODE);
         TypeSpec type = node.getTypeSpec();
-        expressionExecutor = new ExpressionExecutor(this);
         ICodeNode actualNode = null;
 
         // Get the actual parameters of the call.
@@ -114,8 +112,8 @@ public class CallStandardExecutor extends CallExecutor
             for (ICodeNode actualNode : actuals) {
                 TypeSpec type = actualNode.getTypeSpec();
                 TypeSpec baseType = type.baseType();
-                Cell variableCell =
-                         (Cell) expressionExecutor.executeVariable(actualNode);
+                Cell variableCell = (Cell)
+                    context.expressionExecutor.executeVariable(actualNode);
                 Object value;
 
                 // Read a value of the appropriate type from the standard input.
@@ -167,7 +165,9 @@ public class CallStandardExecutor extends CallExecutor
 
                 SymTabEntry actualId =
                                 (SymTabEntry) actualNode.getAttribute(ID);
-                sendAssignMessage(callNode, actualId.getName(), value);
+                if (messageHandler.hasListeners(ASSIGN)) {
+                    sendAssignMessage(callNode, actualId.getName(), value);
+                }
             }
         }
 
@@ -284,7 +284,7 @@ public class CallStandardExecutor extends CallExecutor
                                 : dataType == Predefined.booleanType ? "s"
                                 : dataType == Predefined.charType    ? "c"
                                 :                                      "s";
-                Object value = expressionExecutor.execute(exprNode);
+                Object value = context.expressionExecutor.execute(exprNode);
 
                 if ((dataType == Predefined.charType) &&
                     (value instanceof String))
@@ -356,7 +356,7 @@ public class CallStandardExecutor extends CallExecutor
     private Number executeAbsSqr(ICodeNode callNode, RoutineCode routineCode,
                                  ICodeNode actualNode)
     {
-        Object argValue = expressionExecutor.execute(actualNode);
+        Object argValue = context.expressionExecutor.execute(actualNode);
 
         if (argValue instanceof Integer) {
             int value = (Integer) argValue;
@@ -379,7 +379,7 @@ public class CallStandardExecutor extends CallExecutor
                                                RoutineCode routineCode,
                                                ICodeNode actualNode)
     {
-        Object argValue = expressionExecutor.execute(actualNode);
+        Object argValue = context.expressionExecutor.execute(actualNode);
         Float value = argValue instanceof Integer ? (Integer) argValue
                                                   : (Float) argValue;
 
@@ -428,7 +428,7 @@ public class CallStandardExecutor extends CallExecutor
     private Integer executePredSucc(ICodeNode callNode, RoutineCode routineCode,
                                     ICodeNode actualNode, TypeSpec type)
     {
-        int value = (Integer) expressionExecutor.execute(actualNode);
+        int value = (Integer) context.expressionExecutor.execute(actualNode);
         int newValue = routineCode == PRED ? --value : ++value;
 
         newValue = (Integer) checkRange(callNode, type, newValue);
@@ -445,7 +445,7 @@ public class CallStandardExecutor extends CallExecutor
     private Character executeChr(ICodeNode callNode, RoutineCode routineCode,
                                  ICodeNode actualNode)
     {
-        int value = (Integer) expressionExecutor.execute(actualNode);
+        int value = (Integer) context.expressionExecutor.execute(actualNode);
         char ch = (char) value;
         return ch;
     }
@@ -460,7 +460,7 @@ public class CallStandardExecutor extends CallExecutor
     private Boolean executeOdd(ICodeNode callNode, RoutineCode routineCode,
                                ICodeNode actualNode)
     {
-        int value = (Integer) expressionExecutor.execute(actualNode);
+        int value = (Integer) context.expressionExecutor.execute(actualNode);
         return (value & 1) == 1;
     }
 
@@ -474,7 +474,7 @@ public class CallStandardExecutor extends CallExecutor
     private Integer executeOrd(ICodeNode callNode, RoutineCode routineCode,
                                ICodeNode actualNode)
     {
-        Object value = expressionExecutor.execute(actualNode);
+        Object value = context.expressionExecutor.execute(actualNode);
 
         if (value instanceof Character) {
             char ch = ((Character) value).charValue();
@@ -500,7 +500,7 @@ public class CallStandardExecutor extends CallExecutor
                                       RoutineCode routineCode,
                                       ICodeNode actualNode)
     {
-        float value = (Float) expressionExecutor.execute(actualNode);
+        float value = (Float) context.expressionExecutor.execute(actualNode);
 
         if (routineCode == ROUND) {
             return value >= 0.0f ? (int) (value + 0.5f)
@@ -32,10 +32,9 @@ public class CompoundExecutor extends StatementExecutor
     public Object execute(ICodeNode node)
     {
         // Loop over the children of the COMPOUND node and execute each child.
-        StatementExecutor statementExecutor = new StatementExecutor(this);
         ArrayList<ICodeNode> children = node.getChildren();
-        for (ICodeNode child : children) {
-            statementExecutor.execute(child);
+        for (int i = 0, n = children.size(); i < n; ++i) {
+            context.statementExecutor.execute(children.get(i));
         }
 
         return null;
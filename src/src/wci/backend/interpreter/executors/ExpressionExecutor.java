@@ -2,7 +2,6 @@ package src.wci.backend.interpreter.executors;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
 
 import src.wci.intermediate.*;
 import src.wci.intermediate.symtabimpl.*;
@@ -12,11 +11,13 @@ import src.wci.backend.interpreter.*;
 
 import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
 import static src.wci.intermediate.symtabimpl.RoutineCodeImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.VAR_PARM;
 import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
 import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeNodeTypeImpl.*;
 import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
 import static src.wci.backend.interpreter.RuntimeErrorCode.*;
+import static src.wci.message.MessageType.FETCH;
 
 /**
  * <h1>ExpressionExecutor</h1>
@@ -110,19 +111,20 @@ public class ExpressionExecutor extends StatementExecutor
                 SymTabEntry functionId = (SymTabEntry) node.getAttribute(ID);
                 RoutineCode routineCode =
                     (RoutineCode) functionId.getAttribute(ROUTINE_CODE);
-                CallExecutor callExecutor = new CallExecutor(this);
-                Object value = callExecutor.execute(node);
+                Object value = context.callExecutor.execute(node);
 
                 // If it was a declared function, obtain the function value
                 // from its name.
                 if (routineCode == DECLARED) {
-                    String functionName = functionId.getName();
+                    int slot = context.slotResolver.getSlot(functionId);
                     int nestingLevel = functionId.getSymTab().getNestingLevel();
                     ActivationRecord ar = runtimeStack.getTopmost(nestingLevel);
-                    Cell functionValueCell = ar.getCell(functionName);
+                    Cell functionValueCell = ar.getCell(slot);
                     value = functionValueCell.getValue();
 
-                    sendFetchMessage(node, functionId.getName(), value);
+                    if (messageHandler.hasListeners(FETCH)) {
+                        sendFetchMessage(node, functionId.getName(), value);
+                    }
                 }
 
                 // Return the function value.
@@ -142,7 +144,6 @@ public class ExpressionExecutor extends StatementExecutor
     private Object executeValue(ICodeNode node)
     {
         SymTabEntry variableId = (SymTabEntry) node.getAttribute(ID);
-        String variableName = variableId.getName();
         TypeSpec variableType = variableId.getTypeSpec();
 
         // Get the variable's value.
@@ -157,14 +158,274 @@ public class ExpressionExecutor extends StatementExecutor
         else {
             errorHandler.flag(node, UNINITIALIZED_VALUE, this);
 
-            value = BackendFactory.defaultValue(variableType);
+            value = BackendFactory.defaultValue(node.getTypeSpec());
             variableCell.setValue(value);
         }
 
-        sendFetchMessage(node, variableName, value);
+        if (messageHandler.hasListeners(FETCH)) {
+            sendFetchMessage(node, variableId.getName(), value);
+        }
+
         return value;
     }
 
+    /**
+     * Return a variable's cell after checking that it has a value.
+     * @param node the variable node.
+     * @return the variable's cell.
+     */
+    private Cell executeInitializedVariable(ICodeNode node)
+    {
+        Cell variableCell = executeVariable(node);
+
+        // Uninitialized value error: Use a default value.
+        if (!variableCell.isInitialized()) {
+            errorHandler.flag(node, UNINITIALIZED_VALUE, this);
+            variableCell.setValue(
+                BackendFactory.defaultValue(node.getTypeSpec()));
+        }
+
+        return variableCell;
+    }
+
+    /**
+     * Execute an integer or enumeration expression without boxing.
+     * @param node the root node of the expression.
+     * @return the computed value of the expression.
+     */
+    public int executeInteger(ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        switch (nodeType) {
+
+            case INTEGER_CONSTANT: {
+                return (Integer) node.getAttribute(VALUE);
+            }
+
+            case VARIABLE: {
+                Cell variableCell = executeInitializedVariable(node);
+                int value = variableCell.getInteger();
+
+                if (messageHandler.hasListeners(FETCH)) {
+                    sendFetchMessage(node, variableName(node), value);
+                }
+
+                return value;
+            }
+
+            case NEGATE: {
+                return -executeInteger(children.get(0));
+            }
+
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case INTEGER_DIVIDE:
+            case MOD: {
+                if (   !isInteger(children.get(0))
+                    || !isInteger(children.get(1))) {
+                    break;
+                }
+
+                int value1 = executeInteger(children.get(0));
+                int value2 = executeInteger(children.get(1));
+
+                switch (nodeType) {
+                    case ADD:      return value1 + value2;
+                    case SUBTRACT: return value1 - value2;
+                    case MULTIPLY: return value1 * value2;
+                }
+
+                // Check for division by zero.
+                if (value2 == 0) {
+                    errorHandler.flag(node, DIVISION_BY_ZERO, this);
+                    return 0;
+                }
+
+                return nodeType == MOD ? value1%value2 : value1/value2;
+            }
+        }
+
+        return (Integer) execute(node);
+    }
+
+    /**
+     * Execute a real expression without boxing.
+     * An integer expression is converted to real.
+     * @param node the root node of the expression.
+     * @return the computed value of the expression.
+     */
+    public float executeReal(ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        if (isInteger(node)) {
+            return executeInteger(node);
+        }
+
+        switch (nodeType) {
+
+            case REAL_CONSTANT: {
+                return (Float) node.getAttribute(VALUE);
+            }
+
+            case VARIABLE: {
+                Cell variableCell = executeInitializedVariable(node);
+                float value = variableCell.getReal();
+
+                if (messageHandler.hasListeners(FETCH)) {
+                    sendFetchMessage(node, variableName(node), value);
+                }
+
+                return value;
+            }
+
+            case NEGATE: {
+                return -executeReal(children.get(0));
+            }
+
+            case ADD:
+            case SUBTRACT:
+            case MULTIPLY:
+            case FLOAT_DIVIDE: {
+                if (   !isNumeric(children.get(0))
+                    || !isNumeric(children.get(1))) {
+                    break;
+                }
+
+                float value1 = executeReal(children.get(0));
+                float value2 = executeReal(children.get(1));
+
+                switch (nodeType) {
+                    case ADD:      return value1 + value2;
+                    case SUBTRACT: return value1 - value2;
+                    case MULTIPLY: return value1 * value2;
+                }
+
+                // Check for division by zero.
+                if (value2 == 0.0f) {
+                    errorHandler.flag(node, DIVISION_BY_ZERO, this);
+                    return 0.0f;
+                }
+
+                return value1/value2;
+            }
+        }
+
+        return ((Number) execute(node)).floatValue();
+    }
+
+    /**
+     * Execute a boolean expression without boxing.
+     * @param node the root node of the expression.
+     * @return the computed value of the expression.
+     */
+    public boolean executeBoolean(ICodeNode node)
+    {
+        ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        switch (nodeType) {
+
+            case INTEGER_CONSTANT: {
+                return (Integer) node.getAttribute(VALUE) == 1;
+            }
+
+            case VARIABLE: {
+                Cell variableCell = executeInitializedVariable(node);
+                boolean value = variableCell.getBoolean();
+
+                if (messageHandler.hasListeners(FETCH)) {
+                    sendFetchMessage(node, variableName(node), value);
+                }
+
+                return value;
+            }
+
+            case NOT: {
+                return !executeBoolean(children.get(0));
+            }
+
+            case AND:
+            case OR: {
+                boolean value1 = executeBoolean(children.get(0));
+                boolean value2 = executeBoolean(children.get(1));
+
+                return nodeType == AND ? value1 && value2 : value1 || value2;
+            }
+
+            case EQ: case NE: case LT: case LE: case GT: case GE: {
+                ICodeNode operandNode1 = children.get(0);
+                ICodeNode operandNode2 = children.get(1);
+                int comp;
+
+                // Compare integer, real, or character operands.
+                if (isInteger(operandNode1) && isInteger(operandNode2)) {
+                    comp = Integer.compare(executeInteger(operandNode1),
+                                           executeInteger(operandNode2));
+                }
+                else if (isNumeric(operandNode1) && isNumeric(operandNode2)) {
+                    float value1 = executeReal(operandNode1);
+                    float value2 = executeReal(operandNode2);
+
+                    comp = value1 < value2 ? -1 : value1 == value2 ? 0 : 1;
+                }
+                else if (isCharacter(operandNode1) &&
+                         isCharacter(operandNode2)) {
+                    comp = Character.compare(executeCharacter(operandNode1),
+                                             executeCharacter(operandNode2));
+                }
+                else {
+                    break;
+                }
+
+                switch (nodeType) {
+                    case EQ: return comp == 0;
+                    case NE: return comp != 0;
+                    case LT: return comp <  0;
+                    case LE: return comp <= 0;
+                    case GT: return comp >  0;
+                    case GE: return comp >= 0;
+                }
+            }
+        }
+
+        return (Boolean) execute(node);
+    }
+
+    /**
+     * Execute a character expression without boxing.
+     * @param node the root node of the expression.
+     * @return the computed value of the expression.
+     */
+    public char executeCharacter(ICodeNode node)
+    {
+        switch ((ICodeNodeTypeImpl) node.getType()) {
+
+            case STRING_CONSTANT: {
+                return ((String) node.getAttribute(VALUE)).charAt(0);
+            }
+
+            case VARIABLE: {
+                Cell variableCell = executeInitializedVariable(node);
+                char value = variableCell.getCharacter();
+
+                if (messageHandler.hasListeners(FETCH)) {
+                    sendFetchMessage(node, variableName(node), value);
+                }
+
+                return value;
+            }
+        }
+
+        Object value = execute(node);
+        return value instanceof Character ? (Character) value
+                                          : ((String) value).charAt(0);
+    }
+
     /**
      * Execute a variable and return the reference to its cell.
      * @param node the variable node.
@@ -173,21 +434,25 @@ public class ExpressionExecutor extends StatementExecutor
     public Cell executeVariable(ICodeNode node)
     {
         SymTabEntry variableId = (SymTabEntry) node.getAttribute(ID);
-        String variableName = variableId.getName();
         TypeSpec variableType = variableId.getTypeSpec();
         int nestingLevel = variableId.getSymTab().getNestingLevel();
+        int slot = context.slotResolver.getSlot(variableId);
 
         // Get the variable reference from the appropriate activation record.
         ActivationRecord ar = runtimeStack.getTopmost(nestingLevel);
-        Cell variableCell = ar.getCell(variableName);
+        Cell variableCell = ar.getCell(slot);
 
         ArrayList<ICodeNode> modifiers = node.getChildren();
 
         // Reference to a reference: Use the original reference.
-        if (variableCell.getValue() instanceof Cell) {
+        if (variableId.getDefinition() == VAR_PARM) {
             variableCell = (Cell) variableCell.getValue();
         }
 
+        ArrayStorage array = null;  // array being subscripted
+        int dimension = 0;          // its next dimension to subscript
+        int index = 0;              // row-major index of the element
+
         // Execute any array subscripts or record fields.
         for (ICodeNode modifier : modifiers) {
             ICodeNodeType nodeType = modifier.getType();
@@ -196,7 +461,13 @@ public class ExpressionExecutor extends StatementExecutor
             if (nodeType == SUBSCRIPTS) {
                 ArrayList<ICodeNode> subscripts = modifier.getChildren();
 
-                // Compute a new reference for each subscript.
+                if (array == null) {
+                    array = (ArrayStorage) variableCell.getValue();
+                    dimension = 0;
+                    index = 0;
+                }
+
+                // Accumulate the row-major index of the element.
                 for (ICodeNode subscript : subscripts) {
                     TypeSpec indexType =
                         (TypeSpec) variableType.getAttribute(ARRAY_INDEX_TYPE);
@@ -204,29 +475,39 @@ public class ExpressionExecutor extends StatementExecutor
                         ? (Integer) indexType.getAttribute(SUBRANGE_MIN_VALUE)
                         : 0;
 
-                    int value = (Integer) execute(subscript);
-                    value = (Integer) checkRange(node, indexType, value);
+                    int value = executeInteger(subscript);
+                    value = checkRange(node, indexType, value);
 
-                    int index = value - minIndex;
-                    variableCell = ((Cell[]) variableCell.getValue())[index];
+                    index += (value - minIndex)*array.getStride(dimension++);
                     variableType = (TypeSpec)
                         variableType.getAttribute(ARRAY_ELEMENT_TYPE);
                 }
+
+                // All the dimensions are subscripted: Reference the element.
+                if (dimension == array.getDimensionCount()) {
+                    variableCell = array.getElement(index);
+                    array = null;
+                }
             }
 
             // Field.
             else if (nodeType == FIELD) {
                 SymTabEntry fieldId = (SymTabEntry) modifier.getAttribute(ID);
-                String fieldName = fieldId.getName();
+                int fieldSlot = fieldId.getSlot();
 
                 // Compute a new reference for the field.
-                HashMap<String, Cell> map =
-                    (HashMap<String, Cell>) variableCell.getValue();
-                variableCell = map.get(fieldName);
+                RecordStorage record = (RecordStorage) variableCell.getValue();
+                variableCell = record.getField(fieldSlot);
                 variableType = fieldId.getTypeSpec();
             }
         }
 
+        // Only the leading dimensions are subscripted:
+        // Reference the subarray.
+        if (array != null) {
+            variableCell = array.getSubarray(index, dimension);
+        }
+
         return variableCell;
     }
 
@@ -248,6 +529,31 @@ public class ExpressionExecutor extends StatementExecutor
         ICodeNode operandNode1 = children.get(0);
         ICodeNode operandNode2 = children.get(1);
 
+        // Scalar operands: Compute the value unboxed.
+        switch (ValueKind.of(node)) {
+            case INTEGER: {
+                if (isInteger(operandNode1) && isInteger(operandNode2)) {
+                    return executeInteger(node);
+                }
+                break;
+            }
+            case REAL: {
+                if (isNumeric(operandNode1) && isNumeric(operandNode2)) {
+                    return executeReal(node);
+                }
+                break;
+            }
+            case BOOLEAN: {
+                if (   (nodeType == AND) || (nodeType == OR)
+                    || (isNumeric(operandNode1) && isNumeric(operandNode2))
+                    || (isCharacter(operandNode1) &&
+                        isCharacter(operandNode2))) {
+                    return executeBoolean(node);
+                }
+                break;
+            }
+        }
+
         // Operands.
         Object operand1 = execute(operandNode1);
         Object operand2 = execute(operandNode2);
@@ -437,4 +743,40 @@ public class ExpressionExecutor extends StatementExecutor
 
         return 0;  // should never get here
     }
+
+    /**
+     * @param node the variable node.
+     * @return the name of the variable.
+     */
+    private String variableName(ICodeNode node)
+    {
+        return ((SymTabEntry) node.getAttribute(ID)).getName();
+    }
+
+    /**
+     * @param node an expression node.
+     * @return true if the expression is integer or enumeration.
+     */
+    private boolean isInteger(ICodeNode node)
+    {
+        return ValueKind.of(node) == ValueKind.INTEGER;
+    }
+
+    /**
+     * @param node an expression node.
+     * @return true if the expression is integer, enumeration, or real.
+     */
+    private boolean isNumeric(ICodeNode node)
+    {
+        return ValueKind.of(node).isNumeric();
+    }
+
+    /**
+     * @param node an expression node.
+     * @return true if the expression is character.
+     */
+    private boolean isCharacter(ICodeNode node)
+    {
+        return ValueKind.of(node) == ValueKind.CHARACTER;
+    }
 }
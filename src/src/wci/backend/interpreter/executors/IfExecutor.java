@@ -40,19 +40,16 @@ public class IfExecutor extends StatementExecutor
         ICodeNode thenStmtNode = children.get(1);
         ICodeNode elseStmtNode = children.size() > 2 ? children.get(2) : null;
 
-        ExpressionExecutor expressionExecutor = new ExpressionExecutor(this);
-        StatementExecutor statementExecutor = new StatementExecutor(this);
-
         // Evaluate the expression to determine which statement to execute.
-        boolean b = (Boolean) expressionExecutor.execute(exprNode);
+        boolean b = context.expressionExecutor.executeBoolean(exprNode);
         if (b) {
-            statementExecutor.execute(thenStmtNode);
+            context.statementExecutor.execute(thenStmtNode);
         }
         else if (elseStmtNode != null) {
-            statementExecutor.execute(elseStmtNode);
+            context.statementExecutor.execute(elseStmtNode);
         }
 
-        ++executionCount;  // count the IF statement itself
+        ++context.executionCount;  // count the IF statement itself
         return null;
     }
 }
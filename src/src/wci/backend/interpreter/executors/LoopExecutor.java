@@ -40,15 +40,26 @@ public class LoopExecutor extends StatementExecutor
         ICodeNode exprNode = null;
         ArrayList<ICodeNode> loopChildren = node.getChildren();
 
-        ExpressionExecutor expressionExecutor = new ExpressionExecutor(this);
-        StatementExecutor statementExecutor = new StatementExecutor(this);
+        int childCount = loopChildren.size();
+
+        // Tiered execution: The routine whose loop iterations to count.
+        SymTabEntry routineId = null;
+        if (context.tieredCompiler != null) {
+            int nestingLevel = runtimeStack.currentNestingLevel();
+            routineId = runtimeStack.getTopmost(nestingLevel).getRoutineId();
+        }
 
         // Loop until the TEST expression value is true.
         while (!exitLoop) {
-            ++executionCount;  // count the loop statement itself
+            ++context.executionCount;  // count the loop statement itself
+
+            if (routineId != null) {
+                context.tieredCompiler.countIteration(routineId);
+            }
 
             // Execute the children of the LOOP node.
-            for (ICodeNode child : loopChildren) {
+            for (int i = 0; i < childCount; ++i) {
+                ICodeNode child = loopChildren.get(i);
                 ICodeNodeTypeImpl childType =
                                       (ICodeNodeTypeImpl) child.getType();
 
@@ -57,12 +68,13 @@ public class LoopExecutor extends StatementExecutor
                     if (exprNode == null) {
                         exprNode = child.getChildren().get(0);
                     }
-                    exitLoop = (Boolean) expressionExecutor.execute(exprNode);
+                    exitLoop =
+                        context.expressionExecutor.executeBoolean(exprNode);
                 }
 
                 // Statement node.
                 else {
-                    statementExecutor.execute(child);
+                    context.statementExecutor.execute(child);
                 }
 
                 // Exit if the TEST expression value is true,
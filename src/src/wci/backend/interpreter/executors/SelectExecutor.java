@@ -33,7 +33,7 @@ public class SelectExecutor extends StatementExecutor
     //                   entry value is the jump table.
     // Jump table: entry key is a selection value,
     //             entry value is the branch statement.
-    private static HashMap<ICodeNode, HashMap<Object, ICodeNode>> jumpCache =
+    private HashMap<ICodeNode, HashMap<Object, ICodeNode>> jumpCache =
         new HashMap<ICodeNode, HashMap<Object, ICodeNode>>();
 
     /**
@@ -56,17 +56,15 @@ public class SelectExecutor extends StatementExecutor
         ICodeNode exprNode = selectChildren.get(0);
 
         // Evaluate the SELECT expression.
-        ExpressionExecutor expressionExecutor = new ExpressionExecutor(this);
-        Object selectValue = expressionExecutor.execute(exprNode);
+        Object selectValue = context.expressionExecutor.execute(exprNode);
 
         // If there is a selection, execute the SELECT_BRANCH's statement.
         ICodeNode statementNode = jumpTable.get(selectValue);
         if (statementNode != null) {
-            StatementExecutor statementExecutor = new StatementExecutor(this);
-            statementExecutor.execute(statementNode);
+            context.statementExecutor.execute(statementNode);
         }
 
-        ++executionCount;  // count the SELECT statement itself
+        ++context.executionCount;  // count the SELECT statement itself
         return null;
     }
 
@@ -1,10 +1,5 @@
 package src.wci.backend.interpreter.executors;
 
-import java.util.Iterator;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-
 import src.wci.intermediate.*;
 import src.wci.intermediate.symtabimpl.*;
 import src.wci.intermediate.icodeimpl.*;
@@ -48,40 +43,18 @@ public class StatementExecutor extends Executor
         ICodeNodeTypeImpl nodeType = (ICodeNodeTypeImpl) node.getType();
 
         // Send a message about the current source line.
-        sendSourceLineMessage(node);
+        if (messageHandler.hasListeners(SOURCE_LINE)) {
+            sendSourceLineMessage(node);
+        }
 
         switch (nodeType) {
 
-            case COMPOUND: {
-                CompoundExecutor compoundExecutor = new CompoundExecutor(this);
-                return compoundExecutor.execute(node);
-            }
-
-            case ASSIGN: {
-                AssignmentExecutor assignmentExecutor =
-                    new AssignmentExecutor(this);
-                return assignmentExecutor.execute(node);
-            }
-
-            case LOOP: {
-                LoopExecutor loopExecutor = new LoopExecutor(this);
-                return loopExecutor.execute(node);
-            }
-
-            case IF: {
-                IfExecutor ifExecutor = new IfExecutor(this);
-                return ifExecutor.execute(node);
-            }
-
-            case SELECT: {
-                SelectExecutor selectExecutor = new SelectExecutor(this);
-                return selectExecutor.execute(node);
-            }
-
-            case CALL: {
-                CallExecutor callExecutor = new CallExecutor(this);
-                return callExecutor.execute(node);
-            }
+            case COMPOUND: return context.compoundExecutor.execute(node);
+            case ASSIGN:   return context.assignmentExecutor.execute(node);
+            case LOOP:     return context.loopExecutor.execute(node);
+            case IF:       return context.ifExecutor.execute(node);
+            case SELECT:   return context.selectExecutor.execute(node);
+            case CALL:     return context.callExecutor.execute(node);
 
             case NO_OP: return null;
 
@@ -107,14 +80,7 @@ public class StatementExecutor extends Executor
                 return string.charAt(0);  // Pascal character
             }
             else if (targetType.isPascalString()) {
-                Cell charCells[] = new Cell[string.length()];
-
-                // Build an array of characters.
-                for (int i = 0; i < string.length(); ++i) {
-                    charCells[i] = MemoryFactory.createCell(string.charAt(i));
-                }
-
-                return charCells;  // Pascal string (array of characters)
+                return MemoryFactory.createString(string);  // Pascal string
             }
             else {
                 return javaValue;
@@ -133,18 +99,8 @@ public class StatementExecutor extends Executor
      */
     protected Object toJava(TypeSpec targetType, Object pascalValue)
     {
-        if ( (pascalValue instanceof Cell[]) &&
-             (((Cell[]) pascalValue)[0].getValue() instanceof Character) )
-        {
-            Cell charCells[] = (Cell[]) pascalValue;
-            StringBuilder string = new StringBuilder(charCells.length);
-
-            // Build a Java string.
-            for (Cell ref : charCells) {
-                string.append((Character) ref.getValue());
-            }
-
-            return string.toString();  // Java string
+        if (isPascalString(pascalValue)) {
+            return ((ArrayStorage) pascalValue).getString();  // Java string
         }
         else {
             return pascalValue;
@@ -152,65 +108,46 @@ public class StatementExecutor extends Executor
     }
 
     /**
-     * Return a copy of a Pascal value.
-     * @param value the value.
-     * @param node the statement node.
-     * @return the copy.
+     * @param value a Pascal value.
+     * @return true if the value is a one-dimensional character array
+     *         whose first character is initialized.
      */
-    protected Object copyOf(Object value, ICodeNode node)
+    private boolean isPascalString(Object value)
     {
-        Object copy = null;
+        if (value instanceof ArrayStorage) {
+            ArrayStorage array = (ArrayStorage) value;
 
-        if (value instanceof Integer) {
-            copy = new Integer((Integer) value);
-        }
-        else if (value instanceof Float) {
-            copy = new Float((Float) value);
-        }
-        else if (value instanceof Character) {
-            copy = new Character((Character) value);
-        }
-        else if (value instanceof Boolean) {
-            copy = new Boolean((Boolean) value);
-        }
-        else if (value instanceof String) {
-            copy = new String((String) value);
-        }
-        else if (value instanceof HashMap) {
-            copy = copyRecord((HashMap<String, Object>) value, node);
+            return (array.getElementKind() == ValueKind.CHARACTER) &&
+                   (array.getDimensionCount() == 1) &&
+                   (array.getSize() > 0) &&
+                   array.getElement(0).isInitialized();
         }
         else {
-            copy = copyArray((Cell[]) value, node);
+            return false;
         }
-
-        return copy;
     }
 
     /**
-     * Return a copy of a Pascal record.
-     * @param value the record value hashmap.
+     * Return a copy of a Pascal value.  Scalar and string values are
+     * immutable, so they are shared instead of copied.
+     * @param value the value.
      * @param node the statement node.
-     * @return the copy of the hashmap.
+     * @return the copy.
      */
-    private Object copyRecord(HashMap<String, Object> value, ICodeNode node)
+    protected Object copyOf(Object value, ICodeNode node)
     {
-        HashMap<String, Object> copy = new HashMap<String,Object>();
-
-        if (value != null) {
-            Set<Map.Entry<String, Object>> entries = value.entrySet();
-            Iterator<Map.Entry<String, Object>> it = entries.iterator();
-
-            while (it.hasNext()) {
-                Map.Entry<String, Object> entry = it.next();
-                String newKey = new String(entry.getKey());
-                Cell valueCell = (Cell) entry.getValue();
-                Object newValue = copyOf(valueCell.getValue(), node);
+        Object copy = null;
 
-                copy.put(newKey, MemoryFactory.createCell(newValue));
-            }
+        if (   (value instanceof Integer) || (value instanceof Float)
+            || (value instanceof Character) || (value instanceof Boolean)
+            || (value instanceof String)) {
+            copy = value;
+        }
+        else if (value instanceof RecordStorage) {
+            copy = ((RecordStorage) value).copy();
         }
         else {
-            errorHandler.flag(node, UNINITIALIZED_VALUE, this);
+            copy = copyArray((ArrayStorage) value, node);
         }
 
         return copy;
@@ -218,28 +155,20 @@ public class StatementExecutor extends Executor
 
     /**
      * Return a copy of a Pascal array.
-     * @param valueCells the array cells.
+     * @param value the array storage.
      * @param node the statement node.
-     * @return the copy of the array cells.
+     * @return the copy of the array storage.
      */
-    private Cell[] copyArray(Cell valueCells[], ICodeNode node)
+    private ArrayStorage copyArray(ArrayStorage value, ICodeNode node)
     {
-        int length;
-        Cell copy[];
-
-        if (valueCells != null) {
-            length = valueCells.length;
-            copy = new Cell[length];
+        ArrayStorage copy;
 
-            for (int i = 0; i < length; ++i) {
-                Cell valueCell = (Cell) valueCells[i];
-                Object newValue = copyOf(valueCell.getValue(), node);
-                copy[i] = MemoryFactory.createCell(newValue);
-            }
+        if (value != null) {
+            copy = value.copy();
         }
         else {
             errorHandler.flag(node, UNINITIALIZED_VALUE, this);
-            copy = new Cell[1];
+            copy = null;
         }
 
         return copy;
@@ -275,6 +204,32 @@ public class StatementExecutor extends Executor
         }
     }
 
+    /**
+     * Runtime range check of an integer or enumeration value.
+     * @param node the root node of the expression subtree to check.
+     * @param type the target type specification.
+     * @param value the value.
+     * @return the value to use.
+     */
+    protected int checkRange(ICodeNode node, TypeSpec type, int value)
+    {
+        if (type.getForm() == SUBRANGE) {
+            int minValue = (Integer) type.getAttribute(SUBRANGE_MIN_VALUE);
+            int maxValue = (Integer) type.getAttribute(SUBRANGE_MAX_VALUE);
+
+            if (value < minValue) {
+                errorHandler.flag(node, VALUE_RANGE, this);
+                return minValue;
+            }
+            else if (value > maxValue) {
+                errorHandler.flag(node, VALUE_RANGE, this);
+                return maxValue;
+            }
+        }
+
+        return value;
+    }
+
     /**
      * Send a message about the current source line.
      * @param node the statement node.
@@ -298,10 +253,10 @@ public class StatementExecutor extends Executor
     protected void sendAssignMessage(ICodeNode node, String variableName,
                                      Object value)
     {
-        Object lineNumber = getLineNumber(node);
+        int lineNumber = node.getLineNumber();
 
         // Send an ASSIGN message.
-        if (lineNumber != null) {
+        if (lineNumber != 0) {
             sendMessage(new Message(ASSIGN, new Object[] {lineNumber,
                                                           variableName,
                                                           value}));
@@ -317,10 +272,10 @@ public class StatementExecutor extends Executor
     protected void sendFetchMessage(ICodeNode node, String variableName,
                                     Object value)
     {
-        Object lineNumber = getLineNumber(node);
+        int lineNumber = node.getLineNumber();
 
         // Send a FETCH message.
-        if (lineNumber != null) {
+        if (lineNumber != 0) {
             sendMessage(new Message(FETCH, new Object[] {lineNumber,
                                                          variableName,
                                                          value}));
@@ -335,10 +290,10 @@ public class StatementExecutor extends Executor
      */
     protected void sendCallMessage(ICodeNode node, String routineName)
     {
-        Object lineNumber = getLineNumber(node);
+        int lineNumber = node.getLineNumber();
 
         // Send a CALL message.
-        if (lineNumber != null) {
+        if (lineNumber != 0) {
             sendMessage(new Message(CALL, new Object[] {lineNumber,
                                                         routineName}));
         }
@@ -352,30 +307,12 @@ public class StatementExecutor extends Executor
      */
     protected void sendReturnMessage(ICodeNode node, String routineName)
     {
-        Object lineNumber = getLineNumber(node);
+        int lineNumber = node.getLineNumber();
 
         // Send a RETURN message.
-        if (lineNumber != null) {
+        if (lineNumber != 0) {
             sendMessage(new Message(RETURN, new Object[] {lineNumber,
                                                           routineName}));
         }
     }
-
-    /**
-     * Get the source line number of a parse tree node.
-     * @param node the parse tree node.
-     * @return the line number.
-     */
-    private Object getLineNumber(ICodeNode node)
-    {
-        Object lineNumber = null;
-
-        // Go up the parent links to look for a line number.
-        while ((node != null) &&
-               ((lineNumber = node.getAttribute(LINE)) == null)) {
-            node = node.getParent();
-        }
-
-        return lineNumber;
-    }
 }
@@ -0,0 +1,93 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+import src.wci.backend.interpreter.Cell;
+
+/**
+ * <h1>AbstractCellImpl</h1>
+ *
+ * <p>The base of the interpreter's runtime memory cells.  It has no
+ * storage of its own: the typed getters and setters unbox and box the
+ * value through getValue() and setValue(), and each subclass decides how
+ * to store it and overrides the accessors of the type it stores.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public abstract class AbstractCellImpl implements Cell
+{
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return getValue() != null;
+    }
+
+    /**
+     * @return the integer or enumeration value in the cell.
+     */
+    public int getInteger()
+    {
+        return (Integer) getValue();
+    }
+
+    /**
+     * Set a new integer or enumeration value into the cell.
+     * @param newValue the new value.
+     */
+    public void setInteger(int newValue)
+    {
+        setValue(newValue);
+    }
+
+    /**
+     * @return the real value in the cell.
+     */
+    public float getReal()
+    {
+        return ((Number) getValue()).floatValue();
+    }
+
+    /**
+     * Set a new real value into the cell.
+     * @param newValue the new value.
+     */
+    public void setReal(float newValue)
+    {
+        setValue(newValue);
+    }
+
+    /**
+     * @return the boolean value in the cell.
+     */
+    public boolean getBoolean()
+    {
+        return (Boolean) getValue();
+    }
+
+    /**
+     * Set a new boolean value into the cell.
+     * @param newValue the new value.
+     */
+    public void setBoolean(boolean newValue)
+    {
+        setValue(newValue);
+    }
+
+    /**
+     * @return the character value in the cell.
+     */
+    public char getCharacter()
+    {
+        return (Character) getValue();
+    }
+
+    /**
+     * Set a new character value into the cell.
+     * @param newValue the new value.
+     */
+    public void setCharacter(char newValue)
+    {
+        setValue(newValue);
+    }
+}
@@ -6,6 +6,7 @@ import src.wci.intermediate.*;
 import src.wci.backend.interpreter.*;
 
 import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.*;
 
 /**
  * <h1>ActivationRecordImpl</h1>
@@ -20,19 +21,34 @@ public class ActivationRecordImpl implements ActivationRecord
     private SymTabEntry routineId;  // symbol table entry of the routine's name
     private ActivationRecord link;  // dynamic link to the previous record
     private int nestingLevel;       // scope nesting level of this record
-    private MemoryMap memoryMap;    // memory map of this stack record
+    private SymTabEntry slotIds[];  // names of the cells indexed by slot
+    private Cell cells[];           // memory cells indexed by slot number
 
     /**
      * Constructor.
      * @param routineId the symbol table entry of the routine's name.
+     * @param slotIds the routine's cells' names indexed by slot, as laid
+     *                out by the slot resolver.
      */
-    public ActivationRecordImpl(SymTabEntry routineId)
+    public ActivationRecordImpl(SymTabEntry routineId, SymTabEntry slotIds[])
     {
         SymTab symTab = (SymTab) routineId.getAttribute(ROUTINE_SYMTAB);
 
         this.routineId = routineId;
         this.nestingLevel = symTab.getNestingLevel();
-        this.memoryMap = MemoryFactory.createMemoryMap(symTab);
+        this.slotIds = slotIds;
+        this.cells = new Cell[slotIds.length];
+
+        // Allocate a cell for each slot of the routine's layout.
+        for (int slot = 0; slot < slotIds.length; ++slot) {
+            SymTabEntry id = slotIds[slot];
+
+            if (id != null) {
+                cells[slot] = id.getDefinition() == VAR_PARM
+                    ? MemoryFactory.createCell((TypeSpec) null)
+                    : MemoryFactory.createCell(id.getTypeSpec());
+            }
+        }
     }
 
     /**
@@ -51,7 +67,25 @@ public class ActivationRecordImpl implements ActivationRecord
      */
     public Cell getCell(String name)
     {
-        return memoryMap.getCell(name);
+        for (int slot = 0; slot < slotIds.length; ++slot) {
+            SymTabEntry id = slotIds[slot];
+
+            if ((id != null) && id.getName().equals(name)) {
+                return cells[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Return the memory cell at the given slot.
+     * @param slot the slot number assigned by the slot resolver.
+     * @return the cell.
+     */
+    public Cell getCell(int slot)
+    {
+        return cells[slot];
     }
 
     /**
@@ -59,7 +93,15 @@ public class ActivationRecordImpl implements ActivationRecord
      */
     public ArrayList<String> getAllNames()
     {
-        return memoryMap.getAllNames();
+        ArrayList<String> list = new ArrayList<String>();
+
+        for (SymTabEntry id : slotIds) {
+            if (id != null) {
+                list.add(id.getName());
+            }
+        }
+
+        return list;
     }
 
     /**
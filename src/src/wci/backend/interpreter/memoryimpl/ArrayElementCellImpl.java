@@ -0,0 +1,163 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+import src.wci.backend.interpreter.Cell;
+
+/**
+ * <h1>ArrayElementCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for an element of an array
+ * whose elements are stored in a primitive Java array.  The cell refers
+ * to the element, so getting and setting its value reads and writes
+ * the array.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ArrayElementCellImpl implements Cell
+{
+    private ArrayStorageImpl array;  // array that contains the element
+    private int index;               // index of the element in the array
+
+    /**
+     * Constructor
+     * @param array the array that contains the element.
+     * @param index the index of the element in the flattened array.
+     */
+    public ArrayElementCellImpl(ArrayStorageImpl array, int index)
+    {
+        this.array = array;
+        this.index = index;
+    }
+
+    /**
+     * Set a new value into the cell.
+     * @param newValue the new value, or null to make the cell uninitialized.
+     */
+    public void setValue(Object newValue)
+    {
+        if (newValue == null) {
+            array.initialized[index] = false;
+            return;
+        }
+
+        switch (array.getElementKind()) {
+            case INTEGER: {
+                setInteger((Integer) newValue);
+                break;
+            }
+            case REAL: {
+                setReal(((Number) newValue).floatValue());
+                break;
+            }
+            case BOOLEAN: {
+                setBoolean((Boolean) newValue);
+                break;
+            }
+            case CHARACTER: {
+                setCharacter(newValue instanceof Character
+                                 ? (Character) newValue
+                                 : ((String) newValue).charAt(0));
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the value in the cell, or null if uninitialized.
+     */
+    public Object getValue()
+    {
+        if (!array.initialized[index]) {
+            return null;
+        }
+
+        switch (array.getElementKind()) {
+            case INTEGER:   return Integer.valueOf(array.integers[index]);
+            case REAL:      return Float.valueOf(array.reals[index]);
+            case BOOLEAN:   return Boolean.valueOf(array.booleans[index]);
+            case CHARACTER: return Character.valueOf(array.characters[index]);
+            default:        return null;
+        }
+    }
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return array.initialized[index];
+    }
+
+    /**
+     * @return the integer or enumeration value in the cell.
+     */
+    public int getInteger()
+    {
+        return array.integers[index];
+    }
+
+    /**
+     * Set a new integer or enumeration value into the cell.
+     * @param newValue the new value.
+     */
+    public void setInteger(int newValue)
+    {
+        array.integers[index] = newValue;
+        array.initialized[index] = true;
+    }
+
+    /**
+     * @return the real value in the cell.  An integer value is converted.
+     */
+    public float getReal()
+    {
+        return array.reals != null ? array.reals[index]
+                                   : array.integers[index];
+    }
+
+    /**
+     * Set a new real value into the cell.
+     * @param newValue the new value.
+     */
+    public void setReal(float newValue)
+    {
+        array.reals[index] = newValue;
+        array.initialized[index] = true;
+    }
+
+    /**
+     * @return the boolean value in the cell.
+     */
+    public boolean getBoolean()
+    {
+        return array.booleans[index];
+    }
+
+    /**
+     * Set a new boolean value into the cell.
+     * @param newValue the new value.
+     */
+    public void setBoolean(boolean newValue)
+    {
+        array.booleans[index] = newValue;
+        array.initialized[index] = true;
+    }
+
+    /**
+     * @return the character value in the cell.
+     */
+    public char getCharacter()
+    {
+        return array.characters[index];
+    }
+
+    /**
+     * Set a new character value into the cell.
+     * @param newValue the new value.
+     */
+    public void setCharacter(char newValue)
+    {
+        array.characters[index] = newValue;
+        array.initialized[index] = true;
+    }
+}
@@ -0,0 +1,291 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import src.wci.intermediate.*;
+import src.wci.backend.interpreter.*;
+
+import static src.wci.intermediate.typeimpl.TypeFormImpl.*;
+import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
+
+/**
+ * <h1>ArrayStorageImpl</h1>
+ *
+ * <p>The interpreter's runtime storage of an array value.  The elements of
+ * an array of integer, real, boolean, or character elements are stored
+ * in a primitive Java array, with a parallel array of flags that records
+ * which elements are initialized.  Any other element is stored in its own
+ * memory cell.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ArrayStorageImpl implements ArrayStorage
+{
+    private ValueKind kind;   // kind of the elements, or OTHER
+
+    // The flattened elements.  Only the array for the kind is allocated.
+    int integers[];           // integer and enumeration elements
+    float reals[];            // real elements
+    boolean booleans[];       // boolean elements
+    char characters[];        // character elements
+    Cell cells[];             // elements of any other kind
+    boolean initialized[];    // true if a primitive element has a value
+
+    private int counts[];     // element count of each dimension
+    private int strides[];    // stride of each dimension
+    private int dimension;    // first dimension of this (sub)array
+    private int offset;       // index of this (sub)array's first element
+
+    /**
+     * Constructor.
+     * Allocate the uninitialized elements of an array type.
+     * @param type the array type.
+     */
+    public ArrayStorageImpl(TypeSpec type)
+    {
+        ArrayList<Integer> countList = new ArrayList<Integer>();
+
+        // Flatten the dimensions of nested array types.
+        while ((type != null) && (type.getForm() == ARRAY)) {
+            countList.add(type.getElementCount());
+            type = (TypeSpec) type.getAttribute(ARRAY_ELEMENT_TYPE);
+        }
+
+        int dimensionCounts[] = new int[countList.size()];
+        for (int i = 0; i < dimensionCounts.length; ++i) {
+            dimensionCounts[i] = countList.get(i);
+        }
+
+        allocate(dimensionCounts, ValueKind.of(type));
+
+        // Allocate the memory cells of any other kind of element.
+        if (cells != null) {
+            for (int i = 0; i < cells.length; ++i) {
+                cells[i] = MemoryFactory.createCell(type);
+            }
+        }
+    }
+
+    /**
+     * Constructor.
+     * Create the initialized character array of a string.
+     * @param string the string.
+     */
+    public ArrayStorageImpl(String string)
+    {
+        allocate(new int[] {string.length()}, ValueKind.CHARACTER);
+
+        string.getChars(0, string.length(), characters, 0);
+        Arrays.fill(initialized, true);
+    }
+
+    /**
+     * Constructor.
+     * Allocate the uninitialized elements of an array.
+     * @param dimensionCounts the element count of each dimension.
+     * @param elementKind the kind of the elements.
+     */
+    private ArrayStorageImpl(int dimensionCounts[], ValueKind elementKind)
+    {
+        allocate(dimensionCounts, elementKind);
+    }
+
+    /**
+     * Constructor.
+     * Create a subarray that shares the storage of an array.
+     * @param array the enclosing array.
+     * @param dimension the subarray's first dimension.
+     * @param offset the index of the subarray's first element.
+     */
+    private ArrayStorageImpl(ArrayStorageImpl array, int dimension, int offset)
+    {
+        this.kind        = array.kind;
+        this.integers    = array.integers;
+        this.reals       = array.reals;
+        this.booleans    = array.booleans;
+        this.characters  = array.characters;
+        this.cells       = array.cells;
+        this.initialized = array.initialized;
+        this.counts      = array.counts;
+        this.strides     = array.strides;
+        this.dimension   = dimension;
+        this.offset      = offset;
+    }
+
+    /**
+     * Set the dimensions and allocate the flattened elements.
+     * @param dimensionCounts the element count of each dimension.
+     * @param elementKind the kind of the elements.
+     */
+    private void allocate(int dimensionCounts[], ValueKind elementKind)
+    {
+        counts = dimensionCounts;
+        strides = new int[counts.length];
+        kind = elementKind;
+
+        // Row-major order: The last dimension has a stride of 1.
+        int size = 1;
+        for (int i = counts.length - 1; i >= 0; --i) {
+            strides[i] = size;
+            size *= counts[i];
+        }
+
+        switch (kind) {
+            case INTEGER:   integers   = new int[size];     break;
+            case REAL:      reals      = new float[size];   break;
+            case BOOLEAN:   booleans   = new boolean[size]; break;
+            case CHARACTER: characters = new char[size];    break;
+            default:        cells      = new Cell[size];    break;
+        }
+
+        if (cells == null) {
+            initialized = new boolean[size];
+        }
+    }
+
+    /**
+     * @return the kind of the elements, or OTHER if each element is
+     *         stored in its own memory cell.
+     */
+    public ValueKind getElementKind()
+    {
+        return kind;
+    }
+
+    /**
+     * @return the number of dimensions.
+     */
+    public int getDimensionCount()
+    {
+        return counts.length - dimension;
+    }
+
+    /**
+     * Return the distance between consecutive index values of a dimension
+     * in the flattened sequence of elements.
+     * @param dimension the dimension, starting with 0.
+     * @return the stride.
+     */
+    public int getStride(int dimension)
+    {
+        return strides[this.dimension + dimension];
+    }
+
+    /**
+     * @return the number of elements in the flattened sequence.
+     */
+    public int getSize()
+    {
+        return counts[dimension]*strides[dimension];
+    }
+
+    /**
+     * Return the memory cell of an element.
+     * @param index the row-major index of the element.
+     * @return the cell.
+     */
+    public Cell getElement(int index)
+    {
+        return cells != null ? cells[offset + index]
+                             : new ArrayElementCellImpl(this, offset + index);
+    }
+
+    /**
+     * Return the memory cell of a subarray.  Setting the cell's value
+     * copies an array into the subarray.
+     * @param index the row-major index of the subarray's first element.
+     * @param dimensions the number of leading dimensions that were
+     *                   subscripted to select the subarray.
+     * @return the cell.
+     */
+    public Cell getSubarray(int index, int dimensions)
+    {
+        return new SubarrayCellImpl(
+            new ArrayStorageImpl(this, dimension + dimensions,
+                                 offset + index));
+    }
+
+    /**
+     * @return a copy of the array, including copies of any record
+     *         element values.
+     */
+    public ArrayStorage copy()
+    {
+        ArrayStorageImpl copy = new ArrayStorageImpl(
+            Arrays.copyOfRange(counts, dimension, counts.length), kind);
+
+        copy.copyFrom(this);
+
+        // Copy the record elements.
+        if (copy.cells != null) {
+            for (Cell cell : copy.cells) {
+                Object value = cell.getValue();
+
+                if (value instanceof RecordStorage) {
+                    cell.setValue(((RecordStorage) value).copy());
+                }
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copy the elements of another array of the same type into this one.
+     * @param source the other array.
+     */
+    public void copyFrom(ArrayStorage source)
+    {
+        ArrayStorageImpl array = (ArrayStorageImpl) source;
+        int size = getSize();
+        int from = array.offset;
+
+        switch (kind) {
+            case INTEGER: {
+                System.arraycopy(array.integers, from, integers, offset, size);
+                break;
+            }
+            case REAL: {
+                System.arraycopy(array.reals, from, reals, offset, size);
+                break;
+            }
+            case BOOLEAN: {
+                System.arraycopy(array.booleans, from, booleans, offset, size);
+                break;
+            }
+            case CHARACTER: {
+                System.arraycopy(array.characters, from,
+                                 characters, offset, size);
+                break;
+            }
+            default: {
+                for (int i = 0; i < size; ++i) {
+                    Object value = array.cells[from + i].getValue();
+
+                    if (cells[offset + i] != null) {
+                        cells[offset + i].setValue(value);
+                    }
+                    else {
+                        cells[offset + i] = MemoryFactory.createCell(value);
+                    }
+                }
+                break;
+            }
+        }
+
+        if (initialized != null) {
+            System.arraycopy(array.initialized, from,
+                             initialized, offset, size);
+        }
+    }
+
+    /**
+     * @return the characters of a character array as a string.
+     */
+    public String getString()
+    {
+        return new String(characters, offset, getSize());
+    }
+}
@@ -0,0 +1,72 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+/**
+ * <h1>BooleanCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for a boolean value,
+ * stored unboxed.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BooleanCellImpl extends AbstractCellImpl
+{
+    private boolean value;        // value contained in the memory cell
+    private boolean initialized;  // true if the cell contains a value
+
+    /**
+     * Constructor
+     * @param value the value for the cell, or null if uninitialized.
+     */
+    public BooleanCellImpl(Object value)
+    {
+        setValue(value);
+    }
+
+    /**
+     * Set a new value into the cell.
+     * @param newValue the new value, or null to make the cell uninitialized.
+     */
+    public void setValue(Object newValue)
+    {
+        initialized = newValue != null;
+
+        if (initialized) {
+            value = (Boolean) newValue;
+        }
+    }
+
+    /**
+     * @return the value in the cell, or null if uninitialized.
+     */
+    public Object getValue()
+    {
+        return initialized ? Boolean.valueOf(value) : null;
+    }
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return initialized;
+    }
+
+    /**
+     * @return the boolean value in the cell.
+     */
+    public boolean getBoolean()
+    {
+        return value;
+    }
+
+    /**
+     * Set a new boolean value into the cell.
+     * @param newValue the new value.
+     */
+    public void setBoolean(boolean newValue)
+    {
+        value = newValue;
+        initialized = true;
+    }
+}
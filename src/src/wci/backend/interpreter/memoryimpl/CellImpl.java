@@ -1,16 +1,15 @@
 package src.wci.backend.interpreter.memoryimpl;
 
-import src.wci.backend.interpreter.Cell;
-
 /**
  * <h1>CellImpl</h1>
  *
- * <p>The interpreter's runtime memory cell.</p>
+ * <p>The interpreter's runtime memory cell for a value of any type,
+ * stored boxed.  Scalar values are stored unboxed by the typed cells.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
-public class CellImpl implements Cell
+public class CellImpl extends AbstractCellImpl
 {
     private Object value = null;  // value contained in the memory cell
 
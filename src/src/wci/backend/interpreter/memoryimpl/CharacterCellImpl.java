@@ -0,0 +1,74 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+/**
+ * <h1>CharacterCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for a character value,
+ * stored unboxed.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class CharacterCellImpl extends AbstractCellImpl
+{
+    private char value;           // value contained in the memory cell
+    private boolean initialized;  // true if the cell contains a value
+
+    /**
+     * Constructor
+     * @param value the value for the cell, or null if uninitialized.
+     */
+    public CharacterCellImpl(Object value)
+    {
+        setValue(value);
+    }
+
+    /**
+     * Set a new value into the cell.
+     * @param newValue the new value, or null to make the cell uninitialized.
+     */
+    public void setValue(Object newValue)
+    {
+        initialized = newValue != null;
+
+        if (initialized) {
+            value = newValue instanceof Character
+                        ? (Character) newValue
+                        : ((String) newValue).charAt(0);
+        }
+    }
+
+    /**
+     * @return the value in the cell, or null if uninitialized.
+     */
+    public Object getValue()
+    {
+        return initialized ? Character.valueOf(value) : null;
+    }
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return initialized;
+    }
+
+    /**
+     * @return the character value in the cell.
+     */
+    public char getCharacter()
+    {
+        return value;
+    }
+
+    /**
+     * Set a new character value into the cell.
+     * @param newValue the new value.
+     */
+    public void setCharacter(char newValue)
+    {
+        value = newValue;
+        initialized = true;
+    }
+}
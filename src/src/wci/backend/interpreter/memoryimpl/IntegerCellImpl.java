@@ -0,0 +1,80 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+/**
+ * <h1>IntegerCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for an integer or enumeration value,
+ * stored unboxed.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class IntegerCellImpl extends AbstractCellImpl
+{
+    private int value;            // value contained in the memory cell
+    private boolean initialized;  // true if the cell contains a value
+
+    /**
+     * Constructor
+     * @param value the value for the cell, or null if uninitialized.
+     */
+    public IntegerCellImpl(Object value)
+    {
+        setValue(value);
+    }
+
+    /**
+     * Set a new value into the cell.
+     * @param newValue the new value, or null to make the cell uninitialized.
+     */
+    public void setValue(Object newValue)
+    {
+        initialized = newValue != null;
+
+        if (initialized) {
+            value = (Integer) newValue;
+        }
+    }
+
+    /**
+     * @return the value in the cell, or null if uninitialized.
+     */
+    public Object getValue()
+    {
+        return initialized ? Integer.valueOf(value) : null;
+    }
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return initialized;
+    }
+
+    /**
+     * @return the integer value in the cell converted to real.
+     */
+    public float getReal()
+    {
+        return value;
+    }
+
+    /**
+     * @return the integer or enumeration value in the cell.
+     */
+    public int getInteger()
+    {
+        return value;
+    }
+
+    /**
+     * Set a new integer or enumeration value into the cell.
+     * @param newValue the new value.
+     */
+    public void setInteger(int newValue)
+    {
+        value = newValue;
+        initialized = true;
+    }
+}
@@ -49,14 +49,14 @@ public class MemoryMapImpl
             {
                 String name = entry.getName();
                 TypeSpec type = entry.getTypeSpec();
-                put(name, MemoryFactory.createCell(allocateCellValue(type)));
+                put(name, MemoryFactory.createCell(type));
             }
 
             // VAR parameter: Allocate a single cell to hold a reference
             //                in the hashmap.
             else if (defn == VAR_PARM) {
                 String name = entry.getName();
-                put(name, MemoryFactory.createCell(null));
+                put(name, MemoryFactory.createCell((TypeSpec) null));
             }
         }
     }
@@ -93,18 +93,18 @@ public class MemoryMapImpl
      * @param type the data type.
      * @return the allocation.
      */
-    private Object allocateCellValue(TypeSpec type)
+    public static Object allocateCellValue(TypeSpec type)
     {
         TypeForm form = type.getForm();
 
         switch ((TypeFormImpl) form) {
 
             case ARRAY: {
-                return allocateArrayCells(type);
+                return MemoryFactory.createArray(type);
             }
 
             case RECORD: {
-                return allocateRecordMap(type);
+                return MemoryFactory.createRecord(type);
             }
 
             default: {
@@ -112,36 +112,4 @@ public class MemoryMapImpl
             }
         }
     }
-
-    /**
-     * Allocate the memory cells of an array.
-     * @param type the array type.
-     * @return the allocation.
-     */
-    private Object[] allocateArrayCells(TypeSpec type)
-    {
-        int elmtCount = (Integer) type.getAttribute(ARRAY_ELEMENT_COUNT);
-        TypeSpec elmtType = (TypeSpec) type.getAttribute(ARRAY_ELEMENT_TYPE);
-        Cell allocation[] = new Cell[elmtCount];
-
-        for (int i = 0; i < elmtCount; ++i) {
-            allocation[i] =
-                MemoryFactory.createCell(allocateCellValue(elmtType));
-        }
-
-        return allocation;
-    }
-
-    /**
-     * Allocate the memory map for a record.
-     * @param type the record type.
-     * @return the allocation.
-     */
-    private MemoryMap allocateRecordMap(TypeSpec type)
-    {
-        SymTab symTab = (SymTab) type.getAttribute(RECORD_SYMTAB);
-        MemoryMap memoryMap = MemoryFactory.createMemoryMap(symTab);
-
-        return memoryMap;
-    }
 }
@@ -0,0 +1,72 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+/**
+ * <h1>RealCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for a real value,
+ * stored unboxed.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RealCellImpl extends AbstractCellImpl
+{
+    private float value;          // value contained in the memory cell
+    private boolean initialized;  // true if the cell contains a value
+
+    /**
+     * Constructor
+     * @param value the value for the cell, or null if uninitialized.
+     */
+    public RealCellImpl(Object value)
+    {
+        setValue(value);
+    }
+
+    /**
+     * Set a new value into the cell.
+     * @param newValue the new value, or null to make the cell uninitialized.
+     */
+    public void setValue(Object newValue)
+    {
+        initialized = newValue != null;
+
+        if (initialized) {
+            value = ((Number) newValue).floatValue();
+        }
+    }
+
+    /**
+     * @return the value in the cell, or null if uninitialized.
+     */
+    public Object getValue()
+    {
+        return initialized ? Float.valueOf(value) : null;
+    }
+
+    /**
+     * @return true if the cell contains a value.
+     */
+    public boolean isInitialized()
+    {
+        return initialized;
+    }
+
+    /**
+     * @return the real value in the cell.
+     */
+    public float getReal()
+    {
+        return value;
+    }
+
+    /**
+     * Set a new real value into the cell.
+     * @param newValue the new value.
+     */
+    public void setReal(float newValue)
+    {
+        value = newValue;
+        initialized = true;
+    }
+}
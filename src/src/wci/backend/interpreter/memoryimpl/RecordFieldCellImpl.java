@@ -0,0 +1,47 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+/**
+ * <h1>RecordFieldCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for a field of a record.
+ * The cell refers to the field's slot, so getting and setting its value
+ * reads and writes the record.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RecordFieldCellImpl extends CellImpl
+{
+    private RecordStorageImpl record;  // record that contains the field
+    private int slot;                  // slot number of the field
+
+    /**
+     * Constructor
+     * @param record the record that contains the field.
+     * @param slot the slot number of the field.
+     */
+    public RecordFieldCellImpl(RecordStorageImpl record, int slot)
+    {
+        super(null);
+
+        this.record = record;
+        this.slot = slot;
+    }
+
+    /**
+     * Set a new value into the field.
+     * @param newValue the new value.
+     */
+    public void setValue(Object newValue)
+    {
+        record.values[slot] = newValue;
+    }
+
+    /**
+     * @return the value of the field.
+     */
+    public Object getValue()
+    {
+        return record.values[slot];
+    }
+}
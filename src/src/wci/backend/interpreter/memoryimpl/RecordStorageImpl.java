@@ -0,0 +1,95 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+import src.wci.intermediate.*;
+import src.wci.backend.interpreter.*;
+
+import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
+
+/**
+ * <h1>RecordStorageImpl</h1>
+ *
+ * <p>The interpreter's runtime storage of a record value.  The field
+ * values are stored in an array indexed by slot number, following the
+ * field layout that the parser built for the record type.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RecordStorageImpl implements RecordStorage
+{
+    Object values[];  // field values indexed by slot number
+
+    /**
+     * Constructor.
+     * Allocate a record with uninitialized scalar fields.
+     * @param type the record type.
+     */
+    public RecordStorageImpl(TypeSpec type)
+    {
+        SymTabEntry fieldIds[] =
+            (SymTabEntry[]) type.getAttribute(RECORD_FIELDS);
+
+        values = new Object[fieldIds.length];
+
+        // Allocate any array and record fields.
+        for (int slot = 0; slot < fieldIds.length; ++slot) {
+            TypeSpec fieldType = fieldIds[slot].getTypeSpec();
+
+            if (fieldType != null) {
+                values[slot] = MemoryMapImpl.allocateCellValue(fieldType);
+            }
+        }
+    }
+
+    /**
+     * Constructor.
+     * Create a record from field values.
+     * @param values the field values indexed by slot number.
+     */
+    private RecordStorageImpl(Object values[])
+    {
+        this.values = values;
+    }
+
+    /**
+     * @return the number of fields.
+     */
+    public int getFieldCount()
+    {
+        return values.length;
+    }
+
+    /**
+     * Return the memory cell of a field.
+     * @param slot the slot number of the field.
+     * @return the cell.
+     */
+    public Cell getField(int slot)
+    {
+        return new RecordFieldCellImpl(this, slot);
+    }
+
+    /**
+     * @return a copy of the record, including copies of any array and
+     *         record field values.
+     */
+    public RecordStorage copy()
+    {
+        RecordStorageImpl copy = new RecordStorageImpl(values.clone());
+        Object copyValues[] = copy.values;
+
+        // Scalar values are immutable and are shared.
+        for (int slot = 0; slot < copyValues.length; ++slot) {
+            Object value = copyValues[slot];
+
+            if (value instanceof ArrayStorage) {
+                copyValues[slot] = ((ArrayStorage) value).copy();
+            }
+            else if (value instanceof RecordStorage) {
+                copyValues[slot] = ((RecordStorage) value).copy();
+            }
+        }
+
+        return copy;
+    }
+}
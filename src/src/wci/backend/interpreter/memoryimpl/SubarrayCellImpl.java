@@ -0,0 +1,35 @@
+package src.wci.backend.interpreter.memoryimpl;
+
+import src.wci.backend.interpreter.ArrayStorage;
+
+/**
+ * <h1>SubarrayCellImpl</h1>
+ *
+ * <p>The interpreter's runtime memory cell for a subarray, such as a row
+ * of a two-dimensional array.  The subarray shares the storage of its
+ * enclosing array, so setting the cell's value copies the elements of
+ * the new value into the enclosing array.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class SubarrayCellImpl extends CellImpl
+{
+    /**
+     * Constructor
+     * @param subarray the subarray.
+     */
+    public SubarrayCellImpl(ArrayStorage subarray)
+    {
+        super(subarray);
+    }
+
+    /**
+     * Copy the elements of an array into the subarray.
+     * @param newValue the array.
+     */
+    public void setValue(Object newValue)
+    {
+        ((ArrayStorage) getValue()).copyFrom((ArrayStorage) newValue);
+    }
+}
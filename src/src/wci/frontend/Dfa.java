@@ -0,0 +1,274 @@
+package src.wci.frontend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * <h1>Dfa</h1>
+ *
+ * <p>The tables of a deterministic finite automaton that recognizes the
+ * tokens of a source language.  A character class table maps each
+ * character to its class, and a transition table maps each state and
+ * character class to the next state.  Each state also records the token
+ * that the automaton recognized if it stops in that state.  A language's
+ * scanner generates its automaton from a short description when its class
+ * is loaded.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class Dfa
+{
+    // The start state.  The automaton returns to it after whitespace and
+    // comments.
+    public static final int START = 0;
+
+    // Kinds of tokens that a state can recognize.
+    public static final int END    = 0;  // end of file
+    public static final int WORD   = 1;  // identifier or reserved word
+    public static final int NUMBER = 2;  // integer or real number
+    public static final int STRING = 3;  // string with a separate value
+    public static final int SYMBOL = 4;  // special symbol
+    public static final int ERROR  = 5;  // erroneous token
+
+    // Predefined character classes.  A class that charClass() creates
+    // replaces these classes for its characters.
+    public static final int OTHER      = 0;  // any other character
+    public static final int EOF_CLASS  = 1;  // the end-of-file character
+    public static final int LETTER     = 2;  // Character.isLetter()
+    public static final int DIGIT      = 3;  // Character.isDigit()
+    public static final int WHITESPACE = 4;  // Character.isWhitespace()
+
+    // Transition flags.
+    public static final int TEXT  = 0x10000;  // append to the token text
+    public static final int VALUE = 0x20000;  // append to the token value
+    public static final int BLANK = 0x40000;  // append a blank instead
+
+    static final int MAX_CLASSES = 64;
+    static final int STATE_MASK  = 0xFFFF;
+    static final int GUARDED     = 0x80000;  // check the target's guard
+    static final int STOP        = -1;       // no transition
+
+    byte classes[];     // character class of each character
+    int classCount;     // number of character classes
+    int transitions[];  // next state and flags of each state and class
+
+    // What each state recognizes.
+    int kinds[];
+    TokenType types[];
+    String texts[];     // fixed token text, or null
+    Object values[];    // fixed token value, or null
+    int guards[];       // character class that cancels entering the state
+
+    // For word tokens.
+    ReservedWords reservedWords;
+    TokenType identifierType;
+
+    // For number tokens.
+    TokenType integerType;
+    TokenType realType;
+    TokenType errorType;
+    Object rangeInteger;  // error code of an integer that is too large
+    Object rangeReal;     // error code of a real that is out of range
+
+    private ArrayList<int[]> rows = new ArrayList<int[]>();
+    private ArrayList<Object[]> states = new ArrayList<Object[]>();
+
+    /**
+     * Constructor.  The automaton starts with only the start state, which
+     * recognizes the end of the file.
+     */
+    public Dfa()
+    {
+        classes = new byte[Character.MAX_VALUE + 1];
+        classCount = WHITESPACE + 1;
+
+        for (int ch = 0; ch <= Character.MAX_VALUE; ++ch) {
+            int charClass = Character.isWhitespace(ch) ? WHITESPACE
+                          : Character.isDigit(ch)      ? DIGIT
+                          : Character.isLetter(ch)     ? LETTER
+                          :                              OTHER;
+            classes[ch] = (byte) charClass;
+        }
+        classes[Source.EOF] = EOF_CLASS;
+
+        state(END, null, null, null);
+    }
+
+    /**
+     * Create a character class.  Create the classes before the states.
+     * @param chars the characters of the class.
+     * @return the new class.
+     */
+    public int charClass(String chars)
+    {
+        if (classCount == MAX_CLASSES) {
+            throw new IllegalStateException("Too many character classes");
+        }
+
+        int charClass = classCount++;
+        for (int i = 0; i < chars.length(); ++i) {
+            classes[chars.charAt(i)] = (byte) charClass;
+        }
+
+        return charClass;
+    }
+
+    /**
+     * Create a state.
+     * @param kind the kind of token that the state recognizes.
+     * @param type the token type, if fixed.
+     * @param value the token value, if fixed.
+     * @return the new state.
+     */
+    public int state(int kind, TokenType type, Object value)
+    {
+        return state(kind, type, null, value);
+    }
+
+    /**
+     * Create a state that recognizes a special symbol.
+     * @param text the text of the symbol.
+     * @param type the token type of the symbol.
+     * @return the new state.
+     */
+    public int symbol(String text, TokenType type)
+    {
+        return state(SYMBOL, type, text, null);
+    }
+
+    /**
+     * Create a state.
+     * @param kind the kind of token that the state recognizes.
+     * @param type the token type, if fixed.
+     * @param text the token text, if fixed.
+     * @param value the token value, if fixed.
+     * @return the new state.
+     */
+    private int state(int kind, TokenType type, String text, Object value)
+    {
+        int row[] = new int[MAX_CLASSES];
+        Arrays.fill(row, STOP);
+
+        rows.add(row);
+        states.add(new Object[] {kind, type, text, value, -1});
+
+        return rows.size() - 1;
+    }
+
+    /**
+     * Add transitions.
+     * @param from the state to leave.
+     * @param to the state to enter.
+     * @param flags what to append to the token: TEXT, VALUE, and BLANK.
+     * @param charClasses the character classes that cause the transition.
+     */
+    public void on(int from, int to, int flags, int... charClasses)
+    {
+        for (int charClass : charClasses) {
+            rows.get(from)[charClass] = to | flags;
+        }
+    }
+
+    /**
+     * Add transitions on every character class except the end of the
+     * file.  Later calls to on() override these transitions.
+     * @param from the state to leave.
+     * @param to the state to enter.
+     * @param flags what to append to the token: TEXT, VALUE, and BLANK.
+     */
+    public void onAny(int from, int to, int flags)
+    {
+        for (int charClass = 0; charClass < classCount; ++charClass) {
+            if (charClass != EOF_CLASS) {
+                rows.get(from)[charClass] = to | flags;
+            }
+        }
+    }
+
+    /**
+     * Guard a state: The automaton does not enter the state if the
+     * character after the current character has the given class.
+     * @param state the state.
+     * @param charClass the character class.
+     */
+    public void guard(int state, int charClass)
+    {
+        states.get(state)[4] = charClass;
+    }
+
+    /**
+     * Set the token types of word tokens.
+     * @param reservedWords the reserved words and their types.
+     * @param identifierType the type of an identifier.
+     */
+    public void words(ReservedWords reservedWords, TokenType identifierType)
+    {
+        this.reservedWords = reservedWords;
+        this.identifierType = identifierType;
+    }
+
+    /**
+     * Set the token types and error codes of number tokens.
+     * @param integerType the type of an integer.
+     * @param realType the type of a real number.
+     * @param errorType the type of an erroneous number.
+     * @param rangeInteger the error code of an integer that is too large.
+     * @param rangeReal the error code of a real number that is out of range.
+     */
+    public void numbers(TokenType integerType, TokenType realType,
+                        TokenType errorType,
+                        Object rangeInteger, Object rangeReal)
+    {
+        this.integerType = integerType;
+        this.realType = realType;
+        this.errorType = errorType;
+        this.rangeInteger = rangeInteger;
+        this.rangeReal = rangeReal;
+    }
+
+    /**
+     * Build the tables after the last state and transition.
+     * @return this automaton.
+     */
+    public Dfa build()
+    {
+        int count = rows.size();
+
+        kinds = new int[count];
+        types = new TokenType[count];
+        texts = new String[count];
+        values = new Object[count];
+        guards = new int[count];
+        transitions = new int[count*classCount];
+
+        for (int state = 0; state < count; ++state) {
+            Object info[] = states.get(state);
+
+            kinds[state] = (Integer) info[0];
+            types[state] = (TokenType) info[1];
+            texts[state] = (String) info[2];
+            values[state] = info[3];
+            guards[state] = (Integer) info[4];
+        }
+
+        for (int state = 0; state < count; ++state) {
+            int row[] = rows.get(state);
+
+            for (int charClass = 0; charClass < classCount; ++charClass) {
+                int entry = row[charClass];
+
+                if ((entry != STOP) && (guards[entry & STATE_MASK] >= 0)) {
+                    entry |= GUARDED;
+                }
+
+                transitions[state*classCount + charClass] = entry;
+            }
+        }
+
+        rows = null;
+        states = null;
+
+        return this;
+    }
+}
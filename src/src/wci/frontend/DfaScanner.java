@@ -0,0 +1,409 @@
+package src.wci.frontend;
+
+import java.util.Arrays;
+
+import static src.wci.frontend.Dfa.*;
+
+/**
+ * <h1>DfaScanner</h1>
+ *
+ * <p>A language-independent framework class for table-driven scanners.
+ * The scanner runs a language's deterministic finite automaton over the
+ * source characters: It looks up the class of each character and the
+ * transition from the current state, and it stops when there is no
+ * transition.  The state it stopped in determines the token.  The token
+ * text and value are collected in buffers that are reused for every
+ * token.  Reserved words are looked up in the text buffer, and the texts
+ * of words are interned.  The tokens are the same as those of the
+ * language's hand-written scanner.  The scanner can also add the tokens
+ * to a token stream without creating token objects.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public abstract class DfaScanner extends Scanner
+{
+    private static final int MAX_EXPONENT = 37;
+
+    private final Dfa dfa;                // the language's automaton
+    private final byte classes[];         // character class table
+    private final int transitions[];      // transition table
+    private final int classCount;         // number of character classes
+
+    private char text[] = new char[64];   // token text buffer
+    private int textLength;               // length of the token text
+    private char value[] = new char[64];  // token value buffer
+    private int valueLength;              // length of the token value
+
+    private InternTable words = new InternTable();  // texts of words
+
+    private int lineNum;           // line number of the token
+    private int position;          // position of the token
+    private TokenType numberType;  // type of the number token
+    private long numberBits;       // its integer value or real value bits
+    private Object numberError;    // or its range error, else null
+
+    /**
+     * Constructor.
+     * @param source the source to be used with this scanner.
+     * @param dfa the automaton of the source language.
+     */
+    protected DfaScanner(Source source, Dfa dfa)
+    {
+        super(source);
+
+        this.dfa = dfa;
+        this.classes = dfa.classes;
+        this.transitions = dfa.transitions;
+        this.classCount = dfa.classCount;
+    }
+
+    /**
+     * Extract and return the next token from the source.
+     * @return the next token.
+     * @throws Exception if an error occurred.
+     */
+    protected Token extractToken()
+        throws Exception
+    {
+        return token(recognize());
+    }
+
+    /**
+     * Extract the next token from the source and add it to a token stream
+     * without creating a token object.
+     * @param stream the token stream.
+     * @throws Exception if an error occurred.
+     */
+    public void scan(TokenStream stream)
+        throws Exception
+    {
+        int state = recognize();
+
+        switch (dfa.kinds[state]) {
+
+            case END: {
+                // Like an EofToken, consume the end-of-file character.
+                text[0] = Source.EOF;
+                stream.add(null, text, 1, source.getLineNum(),
+                           source.getPosition(), TokenStream.END_OF_FILE, 0);
+                source.nextChar();
+                break;
+            }
+
+            case WORD: {
+                stream.add(wordType(), text, textLength, lineNum, position,
+                           TokenStream.NO_VALUE, 0);
+                break;
+            }
+
+            case NUMBER: {
+                number();
+
+                if (numberError != null) {
+                    stream.add(dfa.errorType, text, textLength, lineNum,
+                               position, numberError);
+                }
+                else {
+                    byte kind = numberType == dfa.realType
+                                    ? TokenStream.REAL_VALUE
+                                    : TokenStream.INTEGER_VALUE;
+                    stream.add(numberType, text, textLength, lineNum,
+                               position, kind, numberBits);
+                }
+                break;
+            }
+
+            case STRING: {
+                stream.add(dfa.types[state], text, textLength, lineNum,
+                           position, TokenStream.STRING_VALUE, 0);
+                break;
+            }
+
+            case SYMBOL: {
+                stream.add(dfa.types[state], text, textLength, lineNum,
+                           position, TokenStream.NO_VALUE, 0);
+                break;
+            }
+
+            default: {
+                stream.add(dfa.types[state], text, textLength, lineNum,
+                           position, dfa.values[state]);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Run the automaton from the start state over the source characters
+     * of the next token.  Collect the token text and value in the buffers,
+     * and set the token's line number and position.
+     * @return the state that the automaton stopped in.
+     * @throws Exception if an error occurred.
+     */
+    private int recognize()
+        throws Exception
+    {
+        int state = START;
+        char ch = source.currentChar();
+
+        for (;;) {
+            int entry = transitions[state*classCount + classes[ch]];
+            if (entry == STOP) {
+                break;
+            }
+
+            int target = entry & STATE_MASK;
+            if (   ((entry & GUARDED) != 0)
+                && (classes[source.peekChar()] == dfa.guards[target])) {
+                break;
+            }
+
+            // A token starts at the character that leaves the start state.
+            // Whitespace and comments return to the start state.
+            if ((state == START) && (target != START)) {
+                lineNum = source.getLineNum();
+                position = source.getPosition();
+                textLength = 0;
+                valueLength = 0;
+            }
+
+            if ((entry & (TEXT | VALUE)) != 0) {
+                char c = (entry & BLANK) != 0 ? ' ' : ch;
+
+                if ((entry & TEXT) != 0) {
+                    appendText(c);
+                }
+                if ((entry & VALUE) != 0) {
+                    appendValue(c);
+                }
+            }
+
+            state = target;
+            ch = source.nextChar();  // consume character
+        }
+
+        return state;
+    }
+
+    /**
+     * Create the token that a state recognizes.
+     * @param state the state that the automaton stopped in.
+     * @return the token.
+     * @throws Exception if an error occurred.
+     */
+    private Token token(int state)
+        throws Exception
+    {
+        switch (dfa.kinds[state]) {
+
+            case END: {
+                return new EofToken(source);
+            }
+
+            case WORD: {
+                return new Token(wordType(),
+                                 words.intern(text, 0, textLength),
+                                 null, source, lineNum, position);
+            }
+
+            case NUMBER: {
+                number();
+
+                Object tokenValue;
+                if (numberError != null) {
+                    tokenValue = numberError;
+                }
+                else if (numberType == dfa.realType) {
+                    tokenValue = Float.intBitsToFloat((int) numberBits);
+                }
+                else {
+                    tokenValue = (int) numberBits;
+                }
+
+                return new Token(numberError != null ? dfa.errorType
+                                                     : numberType,
+                                 new String(text, 0, textLength), tokenValue,
+                                 source, lineNum, position);
+            }
+
+            case STRING: {
+                return new Token(dfa.types[state],
+                                 new String(text, 0, textLength),
+                                 new String(value, 0, valueLength),
+                                 source, lineNum, position);
+            }
+
+            case SYMBOL: {
+                return new Token(dfa.types[state], dfa.texts[state], null,
+                                 source, lineNum, position);
+            }
+
+            default: {
+                return new Token(dfa.types[state],
+                                 new String(text, 0, textLength),
+                                 dfa.values[state], source,
+                                 lineNum, position);
+            }
+        }
+    }
+
+    /**
+     * Look up the word in the text buffer.
+     * @return the type of the reserved word, or the identifier type.
+     */
+    private TokenType wordType()
+    {
+        TokenType type = dfa.reservedWords.lookup(text, 0, textLength);
+        return type != null ? type : dfa.identifierType;
+    }
+
+    /**
+     * Compute the type and value of the integer or real number in the text
+     * buffer, which has whole digits, optional fraction digits after a
+     * decimal point, and an optional exponent.  Set numberType, and set
+     * either numberBits or numberError.
+     */
+    private void number()
+    {
+        int index = 0;
+
+        int wholeStart = index;
+        while ((index < textLength) && Character.isDigit(text[index])) {
+            ++index;
+        }
+        int wholeEnd = index;
+
+        int fractionStart = index;
+        boolean real = false;
+        if ((index < textLength) && (text[index] == '.')) {
+            real = true;
+            fractionStart = ++index;
+            while ((index < textLength) && Character.isDigit(text[index])) {
+                ++index;
+            }
+        }
+        int fractionEnd = index;
+
+        int exponentStart = -1;
+        char exponentSign = '+';
+        if (index < textLength) {  // 'E' or 'e'
+            real = true;
+            ++index;
+
+            if ((text[index] == '+') || (text[index] == '-')) {
+                exponentSign = text[index++];
+            }
+            exponentStart = index;
+        }
+
+        numberType = real ? dfa.realType : dfa.integerType;
+        numberBits = 0;
+        numberError = null;
+
+        // Compute the value of an integer number token.
+        if (!real) {
+            int integerValue = integerValue(wholeStart, wholeEnd);
+
+            if (integerValue >= 0) {
+                numberBits = integerValue;
+            }
+            else {
+                numberError = dfa.rangeInteger;
+            }
+        }
+
+        // Compute the value of a real number token.
+        else {
+            int exponentValue = 0;
+            if (exponentStart >= 0) {
+                exponentValue = integerValue(exponentStart, textLength);
+
+                if (exponentValue < 0) {
+                    numberError = dfa.rangeInteger;
+                    exponentValue = 0;
+                }
+            }
+
+            // Negate the exponent if the exponent sign is '-'.
+            if (exponentSign == '-') {
+                exponentValue = -exponentValue;
+            }
+
+            // Adjust the exponent value by the number of fraction digits.
+            exponentValue -= fractionEnd - fractionStart;
+
+            // Check for a real number out of range error.
+            if (Math.abs(exponentValue + (wholeEnd - wholeStart))
+                    > MAX_EXPONENT) {
+                numberError = dfa.rangeReal;
+            }
+            else if (numberError == null) {
+                double floatValue = 0.0;
+
+                for (int i = wholeStart; i < fractionEnd; ++i) {
+                    if (i != wholeEnd) {  // skip the decimal point
+                        floatValue = 10*floatValue +
+                                     Character.getNumericValue(text[i]);
+                    }
+                }
+
+                // Adjust the float value based on the exponent value.
+                if (exponentValue != 0) {
+                    floatValue *= Math.pow(10, exponentValue);
+                }
+
+                numberBits = Float.floatToRawIntBits((float) floatValue);
+            }
+        }
+    }
+
+    /**
+     * Compute the integer value of a string of digits in the text buffer.
+     * @param start the index of the first digit.
+     * @param end the index after the last digit.
+     * @return the value, or -1 if the value is too large.
+     */
+    private int integerValue(int start, int end)
+    {
+        int integerValue = 0;
+        int prevValue = -1;    // overflow occurred if prevValue > integerValue
+        int index = start;
+
+        // Loop over the digits to compute the integer value
+        // as long as there is no overflow.
+        while ((index < end) && (integerValue >= prevValue)) {
+            prevValue = integerValue;
+            integerValue = 10*integerValue +
+                           Character.getNumericValue(text[index++]);
+        }
+
+        return integerValue >= prevValue ? integerValue : -1;
+    }
+
+    /**
+     * Append a character to the token text.
+     * @param ch the character.
+     */
+    private void appendText(char ch)
+    {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, 2*textLength);
+        }
+
+        text[textLength++] = ch;
+    }
+
+    /**
+     * Append a character to the token value.
+     * @param ch the character.
+     */
+    private void appendValue(char ch)
+    {
+        if (valueLength == value.length) {
+            value = Arrays.copyOf(value, 2*valueLength);
+        }
+
+        value[valueLength++] = ch;
+    }
+}
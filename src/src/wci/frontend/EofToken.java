@@ -21,6 +21,19 @@ public class EofToken extends Token
         super(source);
     }
 
+    /**
+     * Constructor for an end-of-file token that a scanner has already
+     * recorded.
+     * @param source the source of the token.
+     * @param lineNum the line number of the token.
+     * @param position the position of the token.
+     */
+    public EofToken(Source source, int lineNum, int position)
+    {
+        super(null, Character.toString(Source.EOF), null, source, lineNum,
+              position);
+    }
+
     /**
      * Do nothing.  Do not consume any source characters.
      * @param source the source from where to fetch the token's characters.
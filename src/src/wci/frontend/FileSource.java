@@ -0,0 +1,293 @@
+package src.wci.frontend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import src.wci.message.*;
+import static src.wci.message.MessageType.SOURCE_LINE;
+
+/**
+ * <h1>FileSource</h1>
+ *
+ * <p>A source program in a file.  The file is mapped into memory and
+ * decoded into a single character array when the source is created, and
+ * the start and end of each line are recorded in integer arrays.  So
+ * getting the next character is mostly an index increment.  A source
+ * line message is sent, and the line's string created, only if a listener
+ * receives source line messages.  The characters, lines, and positions
+ * are the same as those of a Source that reads the file line by line.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class FileSource extends Source
+{
+    private static final int INITIAL_LINE_COUNT = 1024;
+
+    private char chars[];         // characters of the file
+    private int lineStarts[];     // index of the first character of each line
+    private int lineEnds[];       // index after the last character of each line
+    private int lineCount;        // number of lines
+
+    private int lineNum;          // current source line number
+    private int currentPos;       // current source line position
+    private boolean hasLine;      // false before the first line and at the end
+    private int lineStart;        // index of the current line's first character
+    private int lineLength;       // length of the current line, 0 at the end
+
+    /**
+     * Constructor.
+     * @param file the source file.
+     * @throws IOException if an I/O error occurred.
+     */
+    public FileSource(File file)
+        throws IOException
+    {
+        this.lineNum = 0;
+        this.currentPos = -2;  // set to -2 to read the first source line
+        this.hasLine = false;
+
+        CharBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                                                    StandardOpenOption.READ)) {
+            buffer = Charset.defaultCharset().newDecoder()
+                         .onMalformedInput(CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                         .decode(channel.map(FileChannel.MapMode.READ_ONLY,
+                                             0, channel.size()));
+        }
+
+        this.chars = buffer.array();
+        findLines(buffer.limit());
+    }
+
+    /**
+     * Constructor for a source program that is already in memory, such as
+     * the text of an editor.  The caller must not change the characters.
+     * @param chars the characters of the source program.
+     * @param count the number of characters.
+     */
+    public FileSource(char chars[], int count)
+    {
+        this.lineNum = 0;
+        this.currentPos = -2;  // set to -2 to read the first source line
+        this.hasLine = false;
+
+        this.chars = chars;
+        findLines(count);
+    }
+
+    /**
+     * Record the start and end of each line.  A line ends before a line
+     * feed, a carriage return, or a carriage return and a line feed.
+     * @param count the number of characters.
+     */
+    private void findLines(int count)
+    {
+        lineStarts = new int[INITIAL_LINE_COUNT];
+        lineEnds = new int[INITIAL_LINE_COUNT];
+        lineCount = 0;
+
+        int i = 0;
+        while (i < count) {
+            int start = i;
+
+            while ((i < count) && (chars[i] != '\n') && (chars[i] != '\r')) {
+                ++i;
+            }
+
+            if (lineCount == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, 2*lineCount);
+                lineEnds = Arrays.copyOf(lineEnds, 2*lineCount);
+            }
+
+            lineStarts[lineCount] = start;
+            lineEnds[lineCount] = i;
+            ++lineCount;
+
+            // Consume the line terminator.
+            if (i < count) {
+                if (   (chars[i] == '\r')
+                    && (i + 1 < count) && (chars[i + 1] == '\n')) {
+                    ++i;
+                }
+                ++i;
+            }
+        }
+    }
+
+    /**
+     * Getter.
+     * @return the current source line number.
+     */
+    public int getLineNum()
+    {
+        return lineNum;
+    }
+
+    /**
+     * Getter.
+     * @return the position of the next source character in the
+     * current source line.
+     */
+    public int getPosition()
+    {
+        return currentPos;
+    }
+
+    /**
+     * Return the index of a character in the source program.
+     * @param lineNum the line number of the character.
+     * @param position the position of the character in the line.
+     * @return the index.
+     */
+    public int getOffset(int lineNum, int position)
+    {
+        return lineStarts[lineNum - 1] + position;
+    }
+
+    /**
+     * Move to a character of the source program, so that scanning can
+     * start in the middle of the program.
+     * @param lineNum the line number of the character.
+     * @param position the position of the character in the line.
+     */
+    public void moveTo(int lineNum, int position)
+    {
+        this.lineNum = lineNum - 1;
+        readLine();
+        currentPos = position;
+    }
+
+    /**
+     * Return the source character at the current position.
+     * @return the source character at the current position.
+     */
+    public char currentChar()
+    {
+        int pos = currentPos;
+
+        // Within the current line?
+        if ((pos >= 0) && (pos < lineLength)) {
+            return chars[lineStart + pos];
+        }
+
+        // First time?
+        else if (pos == -2) {
+            readLine();
+            return nextChar();
+        }
+
+        // At end of file?
+        else if (!hasLine) {
+            return EOF;
+        }
+
+        // At end of line?
+        else if ((pos == -1) || (pos == lineLength)) {
+            return EOL;
+        }
+
+        // Need to read the next line.
+        else {
+            readLine();
+            return nextChar();
+        }
+    }
+
+    /**
+     * Consume the current source character and return the next character.
+     * @return the next source character.
+     */
+    public char nextChar()
+    {
+        ++currentPos;
+        return currentChar();
+    }
+
+    /**
+     * Return the source character following the current character without
+     * consuming the current character.
+     * @return the following character.
+     */
+    public char peekChar()
+    {
+        currentChar();
+        if (!hasLine) {
+            return EOF;
+        }
+
+        int nextPos = currentPos + 1;
+        return nextPos < lineLength ? chars[lineStart + nextPos] : EOL;
+    }
+
+    /**
+     * @return true if at the end of the line, else return false.
+     */
+    public boolean atEol()
+    {
+        return hasLine && (currentPos == lineLength);
+    }
+
+    /**
+     * @return true if at the end of the file, else return false.
+     */
+    public boolean atEof()
+    {
+        // First time?
+        if (currentPos == -2) {
+            readLine();
+        }
+
+        return !hasLine;
+    }
+
+    /**
+     * Skip the rest of the current input line
+     * by forcing the next read to read a new line.
+     */
+    public void skipToNextLine()
+    {
+        if (hasLine) {
+            currentPos = lineLength + 1;
+        }
+    }
+
+    /**
+     * Move to the next source line, and send a source line message if
+     * there are listeners.
+     */
+    private void readLine()
+    {
+        currentPos = -1;
+        hasLine = lineNum < lineCount;
+
+        if (hasLine) {
+            lineStart = lineStarts[lineNum];
+            lineLength = lineEnds[lineNum] - lineStart;
+            ++lineNum;
+
+            if (messageHandler.hasListeners(SOURCE_LINE)) {
+                String line = new String(chars, lineStart, lineLength);
+                sendMessage(new Message(SOURCE_LINE,
+                                        new Object[] {lineNum, line}));
+            }
+        }
+        else {
+            lineLength = 0;
+        }
+    }
+
+    /**
+     * Close the source.  The file was already read.
+     */
+    public void close()
+    {
+    }
+}
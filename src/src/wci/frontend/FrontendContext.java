@@ -0,0 +1,81 @@
+package src.wci.frontend;
+
+import java.util.ArrayList;
+
+import src.wci.intermediate.*;
+import src.wci.message.*;
+
+/**
+ * <h1>FrontendContext</h1>
+ *
+ * <p>The state that the parsers of a front end share while they parse one
+ * source program.  Each top-level parser has its own context, which its
+ * subparsers share through their parent, so several programs can be parsed
+ * one after another or at the same time.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class FrontendContext
+{
+    private SymTabStack symTabStack;        // symbol table stack
+    private MessageHandler messageHandler;  // message handler delegate
+    private int routineCount;               // count of routines parsed
+    private ArrayList<RoutineBody> routineBodies;  // bodies in a stream
+
+    /**
+     * Constructor.
+     */
+    public FrontendContext()
+    {
+        this.symTabStack = SymTabFactory.createSymTabStack();
+        this.messageHandler = new MessageHandler();
+        this.routineCount = 0;
+        this.routineBodies = new ArrayList<RoutineBody>();
+    }
+
+    /**
+     * Getter.
+     * @return the symbol table stack.
+     */
+    public SymTabStack getSymTabStack()
+    {
+        return symTabStack;
+    }
+
+    /**
+     * Getter.
+     * @return the message handler.
+     */
+    public MessageHandler getMessageHandler()
+    {
+        return messageHandler;
+    }
+
+    /**
+     * Count a procedure or function declaration.
+     * @return the number of the routine, starting with 1.
+     */
+    public int nextRoutineNumber()
+    {
+        return ++routineCount;
+    }
+
+    /**
+     * Record where the body of a routine is in a token stream.
+     * @param body the routine body.
+     */
+    public void addRoutineBody(RoutineBody body)
+    {
+        routineBodies.add(body);
+    }
+
+    /**
+     * Getter.
+     * @return the routine bodies that were parsed from a token stream.
+     */
+    public ArrayList<RoutineBody> getRoutineBodies()
+    {
+        return routineBodies;
+    }
+}
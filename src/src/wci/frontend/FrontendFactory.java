@@ -1,14 +1,17 @@
 package src.wci.frontend;
 
+import src.wci.frontend.pascal.PascalDfaScanner;
 import src.wci.frontend.pascal.PascalParserTD;
 import src.wci.frontend.pascal.PascalScanner;
+import src.wci.frontend.subC.SubCDfaScanner;
 import src.wci.frontend.subC.SubCParserTD;
 import src.wci.frontend.subC.SubCScanner;
 
 /**
  * <h1>FrontendFactory</h1>
  *
- * <p>A factory class that creates parsers for specific source languages.</p>
+ * <p>A factory class that creates parsers and scanners for specific source
+ * languages.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
@@ -16,7 +19,7 @@ import src.wci.frontend.subC.SubCScanner;
 public class FrontendFactory
 {
     /**
-     * Create a parser.
+     * Create a parser with a new context.
      * @param language the name of the source language (e.g., "Pascal").
      * @param type the type of parser (e.g., "top-down").
      * @param source the source object.
@@ -26,17 +29,33 @@ public class FrontendFactory
     public static Parser createParser(String language, String type,
                                       Source source)
         throws Exception
+    {
+        return createParser(language, type, source, new FrontendContext());
+    }
+
+    /**
+     * Create a parser.
+     * @param language the name of the source language (e.g., "Pascal").
+     * @param type the type of parser (e.g., "top-down").
+     * @param source the source object.
+     * @param context the context of the source program to parse.
+     * @return the parser.
+     * @throws Exception if an error occurred.
+     */
+    public static Parser createParser(String language, String type,
+                                      Source source, FrontendContext context)
+        throws Exception
     {
         if (language.equalsIgnoreCase("Pascal") &&
             type.equalsIgnoreCase("top-down"))
         {
-            Scanner scanner = new PascalScanner(source);
-            return new PascalParserTD(scanner);
+            Scanner scanner = createScanner(language, source);
+            return new PascalParserTD(scanner, context);
         }
         else if(language.equalsIgnoreCase("SubC") && type.equalsIgnoreCase("top-down"))
         {
-            Scanner scanner = new SubCScanner(source);
-            return new SubCParserTD(scanner);
+            Scanner scanner = createScanner(language, source);
+            return new SubCParserTD(scanner, context);
         }
         else if (!language.equalsIgnoreCase("Pascal")) {
             throw new Exception("Parser factory: Invalid language '" +
@@ -47,4 +66,53 @@ public class FrontendFactory
                                 type + "'");
         }
     }
+
+    /**
+     * Create a scanner.  The system property wci.scanner sets the type of
+     * scanner: "table-driven" (the default), "hand-written", or "stream",
+     * which has the table-driven scanner fill a token stream and returns
+     * flyweight views of its tokens.  If the system property
+     * wci.scanner.pipelined is "true", the scanner runs on its own thread,
+     * except a stream scanner, whose views read the stream as it is
+     * filled.
+     * @param language the name of the source language (e.g., "Pascal").
+     * @param source the source object.
+     * @return the scanner.
+     * @throws Exception if an error occurred.
+     */
+    public static Scanner createScanner(String language, Source source)
+        throws Exception
+    {
+        String type = System.getProperty("wci.scanner", "table-driven");
+        boolean stream = type.equalsIgnoreCase("stream");
+        boolean tableDriven = stream || type.equalsIgnoreCase("table-driven");
+        Scanner scanner;
+
+        if (!tableDriven && !type.equalsIgnoreCase("hand-written")) {
+            throw new Exception("Scanner factory: Invalid type '" +
+                                type + "'");
+        }
+
+        if (language.equalsIgnoreCase("Pascal")) {
+            scanner = tableDriven ? new PascalDfaScanner(source)
+                                  : new PascalScanner(source);
+        }
+        else if (language.equalsIgnoreCase("SubC")) {
+            scanner = tableDriven ? new SubCDfaScanner(source)
+                                  : new SubCScanner(source);
+        }
+        else {
+            throw new Exception("Scanner factory: Invalid language '" +
+                                language + "'");
+        }
+
+        if (stream) {
+            return new StreamScanner((DfaScanner) scanner,
+                                     new TokenStream(source), 0);
+        }
+
+        return Boolean.getBoolean("wci.scanner.pipelined")
+                   ? new PipelinedScanner(scanner)
+                   : scanner;
+    }
 }
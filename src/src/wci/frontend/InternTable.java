@@ -0,0 +1,118 @@
+package src.wci.frontend;
+
+/**
+ * <h1>InternTable</h1>
+ *
+ * <p>A table of the word texts that a scanner has seen, so that each
+ * occurrence of a word shares one string.  A word is looked up directly in
+ * a character buffer, and a string is created only for a word's first
+ * occurrence.  Since the shared strings keep their hash codes, and equal
+ * strings are usually the same string, symbol table lookups by name are
+ * fast.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class InternTable
+{
+    private static final int INITIAL_CAPACITY = 256;  // must be a power of 2
+
+    private String table[];  // hash table of strings
+    private int count;       // number of strings in the table
+
+    /**
+     * Constructor.
+     */
+    public InternTable()
+    {
+        this.table = new String[INITIAL_CAPACITY];
+        this.count = 0;
+    }
+
+    /**
+     * Return the string of a word in a character buffer.
+     * @param text the buffer.
+     * @param start the index of the word's first character.
+     * @param length the length of the word.
+     * @return the shared string.
+     */
+    public String intern(char text[], int start, int length)
+    {
+        // The same hash code as String.hashCode().
+        int hash = 0;
+        for (int i = 0; i < length; ++i) {
+            hash = 31*hash + text[start + i];
+        }
+
+        int mask = table.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String string;
+
+        // Linear probing.
+        while ((string = table[index]) != null) {
+            if ((string.hashCode() == hash) &&
+                matches(string, text, start, length)) {
+                return string;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        string = new String(text, start, length);
+        table[index] = string;
+
+        // Keep the table at most half full.
+        if (2*++count > table.length) {
+            rehash();
+        }
+
+        return string;
+    }
+
+    /**
+     * Check whether a string has the characters of a word.
+     * @param string the string.
+     * @param text the buffer.
+     * @param start the index of the word's first character.
+     * @param length the length of the word.
+     * @return true if it does, else false.
+     */
+    private static boolean matches(String string, char text[], int start,
+                                   int length)
+    {
+        if (string.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if (string.charAt(i) != text[start + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Double the size of the table.
+     */
+    private void rehash()
+    {
+        String oldTable[] = table;
+        table = new String[2*oldTable.length];
+        int mask = table.length - 1;
+
+        for (String string : oldTable) {
+            if (string != null) {
+                int hash = string.hashCode();
+                int index = (hash ^ (hash >>> 16)) & mask;
+
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+
+                table[index] = string;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package src.wci.frontend;
 
+import java.util.EnumSet;
+
 import src.wci.intermediate.*;
 import src.wci.message.*;
 
@@ -14,23 +16,41 @@ import src.wci.message.*;
  */
 public abstract class Parser implements MessageProducer
 {
-    protected static SymTabStack symTabStack;        // symbol table stack
-    protected static MessageHandler messageHandler;  // message handler delegate
-
-    static {
-        symTabStack = SymTabFactory.createSymTabStack();
-        messageHandler = new MessageHandler();
-    }
+    protected FrontendContext context;        // state shared by the parsers
+    protected SymTabStack symTabStack;        // symbol table stack
+    protected MessageHandler messageHandler;  // message handler delegate
 
     protected Scanner scanner;  // scanner used with this parser
 
     /**
      * Constructor.
      * @param scanner the scanner to be used with this parser.
+     * @param context the context of the source program being parsed.
      */
-    protected Parser(Scanner scanner)
+    protected Parser(Scanner scanner, FrontendContext context)
     {
         this.scanner = scanner;
+        this.context = context;
+        this.symTabStack = context.getSymTabStack();
+        this.messageHandler = context.getMessageHandler();
+    }
+
+    /**
+     * Constructor for subclasses.
+     * @param parent the parent parser.
+     */
+    protected Parser(Parser parent)
+    {
+        this(parent.getScanner(), parent.getContext());
+    }
+
+    /**
+     * Getter.
+     * @return the context of the source program being parsed.
+     */
+    public FrontendContext getContext()
+    {
+        return context;
     }
 
     /**
@@ -104,6 +124,17 @@ public abstract class Parser implements MessageProducer
         messageHandler.addListener(listener);
     }
 
+    /**
+     * Add a parser message listener for some message types.
+     * @param listener the message listener to add.
+     * @param messageTypes the message types that the listener receives.
+     */
+    public void addMessageListener(MessageListener listener,
+                                   EnumSet<MessageType> messageTypes)
+    {
+        messageHandler.addListener(listener, messageTypes);
+    }
+
     /**
      * Remove a parser message listener.
      * @param listener the message listener to remove.
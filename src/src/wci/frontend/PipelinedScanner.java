@@ -0,0 +1,222 @@
+package src.wci.frontend;
+
+import java.util.EnumSet;
+
+import src.wci.message.*;
+
+import static src.wci.message.MessageType.SOURCE_LINE;
+
+/**
+ * <h1>PipelinedScanner</h1>
+ *
+ * <p>A scanner that runs another scanner on a producer thread, so that
+ * scanning overlaps with parsing.  The producer puts the tokens into a
+ * token ring, and it waits while the ring is full.  The source line
+ * messages of the source are put into the ring between the tokens, and
+ * they are sent on the parser's thread just before the next token is
+ * returned, in the same order as without the producer thread.  An
+ * exception from the other scanner is thrown when the parser reaches it.
+ * After the end of the file, the other scanner is called directly.</p>
+ *
+ * <p>While the producer runs, currentChar() returns the source character
+ * that followed the current token, and the other character methods are
+ * not supported.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class PipelinedScanner extends Scanner
+{
+    private static final int CAPACITY = 4096;  // entries in the ring
+
+    private final Scanner scanner;     // scanner run by the producer
+    private final TokenRing ring;      // tokens and messages from it
+    private MessageHandler listeners;  // the source's message handler
+    private Thread producer;           // null until the first token
+    private boolean done;              // true after the producer stopped
+
+    /**
+     * Constructor.
+     * @param scanner the scanner to run on the producer thread.
+     */
+    public PipelinedScanner(Scanner scanner)
+    {
+        super(scanner.source);
+
+        this.scanner = scanner;
+        this.ring = new TokenRing(CAPACITY);
+        this.producer = null;
+        this.done = false;
+    }
+
+    /**
+     * Return the next token from the producer thread.  Start the thread
+     * for the first token.
+     * @return the next token.
+     * @throws Exception if the other scanner threw it.
+     */
+    protected Token extractToken()
+        throws Exception
+    {
+        if (done) {
+            return scanner.nextToken();
+        }
+
+        if (producer == null) {
+            start();
+        }
+
+        for (;;) {
+            Object entry = ring.take();
+
+            if (entry instanceof Message) {
+                listeners.sendMessage((Message) entry);
+            }
+            else if (   (entry instanceof Token)
+                     && !(entry instanceof EofToken)) {
+                return (Token) entry;
+            }
+
+            // The producer stopped.
+            else {
+                done = true;
+                source.messageHandler = listeners;
+
+                if (entry instanceof Token) {
+                    return (Token) entry;
+                }
+                else if (entry instanceof Exception) {
+                    throw (Exception) entry;
+                }
+                else {
+                    throw (Error) entry;
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the producer thread.  Until it stops, the source sends its
+     * source line messages into the ring.
+     */
+    private void start()
+    {
+        listeners = source.messageHandler;
+
+        MessageHandler lines = new MessageHandler();
+        if (listeners.hasListeners(SOURCE_LINE)) {
+            lines.addListener(message -> ring.put(message, Source.EOF),
+                              EnumSet.of(SOURCE_LINE));
+        }
+        source.messageHandler = lines;
+
+        producer = new Thread(this::produce, "scanner");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Scan tokens into the ring until the end of the file, an exception,
+     * or the ring is closed.  Runs on the producer thread.
+     */
+    private void produce()
+    {
+        try {
+            Token token;
+
+            do {
+                token = scanner.nextToken();
+            } while (   ring.put(token, source.currentChar())
+                     && !(token instanceof EofToken));
+        }
+        catch (Throwable ex) {
+            ring.put(ex, Source.EOF);
+        }
+    }
+
+    /**
+     * Return the source character that followed the current token.
+     * @return the character.
+     * @throws Exception if an error occurred.
+     */
+    public char currentChar()
+        throws Exception
+    {
+        return running() ? ring.lastChar() : source.currentChar();
+    }
+
+    /**
+     * Call the source's nextChar() method when the producer isn't running.
+     * @return the next character from the source.
+     * @throws Exception if an error occurred.
+     */
+    public char nextChar()
+        throws Exception
+    {
+        checkIdle();
+        return source.nextChar();
+    }
+
+    /**
+     * Call the source's skipToNextLine() method when the producer isn't
+     * running.
+     * @throws Exception if an error occurred.
+     */
+    public void skipToNextLine()
+        throws Exception
+    {
+        checkIdle();
+        source.skipToNextLine();
+    }
+
+    /**
+     * Call the source's atEol() method when the producer isn't running.
+     * @return true if at the end of the source line, else return false.
+     * @throws Exception if an error occurred.
+     */
+    public boolean atEol()
+        throws Exception
+    {
+        checkIdle();
+        return source.atEol();
+    }
+
+    /**
+     * Call the source's atEof() method when the producer isn't running.
+     * @return true if at the end of the source file, else return false.
+     * @throws Exception if an error occurred.
+     */
+    public boolean atEof()
+        throws Exception
+    {
+        checkIdle();
+        return source.atEof();
+    }
+
+    /**
+     * Close the scanner.  A producer that is still running stops.
+     */
+    public void close()
+    {
+        ring.close();
+    }
+
+    /**
+     * @return true if the producer thread owns the source, else false.
+     */
+    private boolean running()
+    {
+        return (producer != null) && !done;
+    }
+
+    /**
+     * Check that the producer thread doesn't own the source.
+     */
+    private void checkIdle()
+    {
+        if (running()) {
+            throw new UnsupportedOperationException(
+                "The source is being scanned on another thread");
+        }
+    }
+}
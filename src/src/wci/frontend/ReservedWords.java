@@ -0,0 +1,153 @@
+package src.wci.frontend;
+
+/**
+ * <h1>ReservedWords</h1>
+ *
+ * <p>A perfect hash table of a language's reserved words.  The words are
+ * matched without regard to case, and a word is looked up directly in a
+ * character buffer.  When the table is created, it searches for a
+ * multiplier that gives each reserved word a different slot, so a lookup
+ * computes one hash and compares with at most one word.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ReservedWords
+{
+    private String words[];      // lower-case reserved word in each slot
+    private TokenType types[];   // token type of each slot
+    private int multiplier;      // gives each reserved word its own slot
+    private int shift;           // shift of the product to a slot index
+    private int minLength;       // length of the shortest reserved word
+    private int maxLength;       // length of the longest reserved word
+
+    /**
+     * Constructor.
+     * @param words the lower-case reserved words.  Each is made of the
+     *              letters a through z.
+     * @param types the token type of each reserved word.
+     */
+    public ReservedWords(String words[], TokenType types[])
+    {
+        int size = Integer.highestOneBit(4*words.length - 1) << 1;
+
+        this.shift = 32 - Integer.numberOfTrailingZeros(size);
+        this.minLength = Integer.MAX_VALUE;
+        this.maxLength = 0;
+
+        for (String word : words) {
+            minLength = Math.min(minLength, word.length());
+            maxLength = Math.max(maxLength, word.length());
+        }
+
+        // Try odd multipliers until no two words share a slot.
+        for (multiplier = 0x9E3779B9; ; multiplier += 2) {
+            this.words = new String[size];
+            this.types = new TokenType[size];
+
+            int i = 0;
+            while (i < words.length) {
+                int slot = slot(words[i]);
+
+                if (this.words[slot] != null) {
+                    break;  // collision
+                }
+
+                this.words[slot] = words[i];
+                this.types[slot] = types[i];
+                ++i;
+            }
+
+            if (i == words.length) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Look up a word in a character buffer.
+     * @param text the buffer.
+     * @param start the index of the word's first character.
+     * @param length the length of the word.
+     * @return the token type of the reserved word, or null if the word is
+     *         not reserved.
+     */
+    public TokenType lookup(char text[], int start, int length)
+    {
+        if ((length < minLength) || (length > maxLength)) {
+            return null;
+        }
+
+        int hash = 0;
+        for (int i = 0; i < length; ++i) {
+            hash = 31*hash + (text[start + i] | 0x20);
+        }
+
+        int slot = (hash*multiplier) >>> shift;
+        String word = words[slot];
+
+        if ((word == null) || (word.length() != length)) {
+            return null;
+        }
+
+        // Setting bit 0x20 lower-cases a letter and leaves any character
+        // that is not a letter different from every letter.
+        for (int i = 0; i < length; ++i) {
+            if ((text[start + i] | 0x20) != word.charAt(i)) {
+                return null;
+            }
+        }
+
+        return types[slot];
+    }
+
+    /**
+     * Look up a word.
+     * @param text the word.
+     * @return the token type of the reserved word, or null if the word is
+     *         not reserved.
+     */
+    public TokenType lookup(String text)
+    {
+        int length = text.length();
+
+        if ((length < minLength) || (length > maxLength)) {
+            return null;
+        }
+
+        int hash = 0;
+        for (int i = 0; i < length; ++i) {
+            hash = 31*hash + (text.charAt(i) | 0x20);
+        }
+
+        int slot = (hash*multiplier) >>> shift;
+        String word = words[slot];
+
+        if ((word == null) || (word.length() != length)) {
+            return null;
+        }
+
+        for (int i = 0; i < length; ++i) {
+            if ((text.charAt(i) | 0x20) != word.charAt(i)) {
+                return null;
+            }
+        }
+
+        return types[slot];
+    }
+
+    /**
+     * Return the slot of a lower-case word.
+     * @param word the word.
+     * @return the slot index.
+     */
+    private int slot(String word)
+    {
+        int hash = 0;
+        for (int i = 0; i < word.length(); ++i) {
+            hash = 31*hash + word.charAt(i);
+        }
+
+        return (hash*multiplier) >>> shift;
+    }
+}
@@ -0,0 +1,158 @@
+package src.wci.frontend;
+
+import java.util.ArrayList;
+
+import src.wci.intermediate.*;
+
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+
+/**
+ * <h1>RoutineBody</h1>
+ *
+ * <p>Where the body of a routine is in a token stream, and what it could
+ * see when it was parsed, so that it can be parsed again by itself.  The
+ * body starts with its first token and ends before its follow token.  The
+ * routines that enclose the routine each had only some of their nested
+ * routines when the body was parsed, and the routine counts record how
+ * many.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RoutineBody
+{
+    private SymTabEntry path[];    // program, enclosing routines, routine
+    private int routineCounts[];   // nested routines of each enclosing one
+    private int first;             // index of the first token
+    private int follow;            // index of the token after the body
+
+    /**
+     * Constructor.  Called just after the body was parsed.
+     * @param programId the symbol table entry of the program's name.
+     * @param routineId the symbol table entry of the routine's name.
+     * @param first the index of the first token of the body.
+     * @param follow the index of the token after the body.
+     */
+    public RoutineBody(SymTabEntry programId, SymTabEntry routineId,
+                       int first, int follow)
+    {
+        ArrayList<SymTabEntry> ids = new ArrayList<SymTabEntry>();
+        ids.add(programId);
+        findPath(ids, routineId);
+
+        this.path = ids.toArray(new SymTabEntry[ids.size()]);
+        this.routineCounts = new int[path.length - 1];
+        this.first = first;
+        this.follow = follow;
+
+        for (int i = 0; i < path.length - 1; ++i) {
+            routineCounts[i] = routinesOf(path[i]).size();
+        }
+    }
+
+    /**
+     * Find the path to a routine among the nested routines of the last
+     * routine of a path, and add it to the path.  The routine is usually
+     * nested in the last routine declared, so search backwards.
+     * @param ids the path so far.
+     * @param routineId the symbol table entry of the routine's name.
+     * @return true if the routine was found, else false.
+     */
+    private static boolean findPath(ArrayList<SymTabEntry> ids,
+                                    SymTabEntry routineId)
+    {
+        SymTabEntry parentId = ids.get(ids.size() - 1);
+        if (parentId == routineId) {
+            return true;
+        }
+
+        ArrayList<SymTabEntry> routines = routinesOf(parentId);
+        for (int i = routines.size() - 1; i >= 0; --i) {
+            ids.add(routines.get(i));
+            if (findPath(ids, routineId)) {
+                return true;
+            }
+            ids.remove(ids.size() - 1);
+        }
+
+        return false;
+    }
+
+    /**
+     * Getter.
+     * @return the program, the enclosing routines, and the routine.
+     */
+    public SymTabEntry[] getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Getter.
+     * @return the symbol table entry of the routine's name.
+     */
+    public SymTabEntry getRoutineId()
+    {
+        return path[path.length - 1];
+    }
+
+    /**
+     * Return how many nested routines an enclosing routine had when the
+     * body was parsed.
+     * @param level the index of the enclosing routine in the path.
+     * @return the number of nested routines.
+     */
+    public int getRoutineCount(int level)
+    {
+        return routineCounts[level];
+    }
+
+    /**
+     * Getter.
+     * @return the index of the first token of the body.
+     */
+    public int getFirst()
+    {
+        return first;
+    }
+
+    /**
+     * Getter.
+     * @return the index of the token after the body.
+     */
+    public int getFollow()
+    {
+        return follow;
+    }
+
+    /**
+     * Move the body in the token stream after tokens before it were
+     * added or removed.
+     * @param count the number of tokens added, or negative if removed.
+     */
+    public void move(int count)
+    {
+        first += count;
+        follow += count;
+    }
+
+    /**
+     * Set the follow token after the body was parsed again.
+     * @param follow the index of the token after the body.
+     */
+    public void setFollow(int follow)
+    {
+        this.follow = follow;
+    }
+
+    /**
+     * Return the nested routines of a routine.
+     * @param routineId the symbol table entry of the routine's name.
+     * @return the list of the nested routines' entries.
+     */
+    public static ArrayList<SymTabEntry> routinesOf(SymTabEntry routineId)
+    {
+        return (ArrayList<SymTabEntry>)
+                   routineId.getAttribute(ROUTINE_ROUTINES);
+    }
+}
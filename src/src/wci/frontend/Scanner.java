@@ -105,4 +105,11 @@ public abstract class Scanner
     {
         return source.atEof();
     }
+
+    /**
+     * Close the scanner.  This scanner has nothing to release.
+     */
+    public void close()
+    {
+    }
 }
@@ -2,6 +2,7 @@ package src.wci.frontend;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.util.EnumSet;
 
 import src.wci.message.*;
 import static src.wci.message.MessageType.SOURCE_LINE;
@@ -24,7 +25,15 @@ public class Source implements MessageProducer
     private int lineNum;                      // current source line number
     private int currentPos;                   // current source line position
 
-    private MessageHandler messageHandler;    // delegate to handle messages
+    protected MessageHandler messageHandler;  // delegate to handle messages
+
+    /**
+     * Constructor for subclasses that don't read lines from a reader.
+     */
+    protected Source()
+    {
+        this.messageHandler = new MessageHandler();
+    }
 
     /**
      * Constructor.
@@ -212,6 +221,17 @@ public class Source implements MessageProducer
         messageHandler.addListener(listener);
     }
 
+    /**
+     * Add a source message listener for some message types.
+     * @param listener the message listener to add.
+     * @param messageTypes the message types that the listener receives.
+     */
+    public void addMessageListener(MessageListener listener,
+                                   EnumSet<MessageType> messageTypes)
+    {
+        messageHandler.addListener(listener, messageTypes);
+    }
+
     /**
      * Remove a parser message listener.
      * @param listener the message listener to remove.
@@ -0,0 +1,115 @@
+package src.wci.frontend;
+
+/**
+ * <h1>StreamScanner</h1>
+ *
+ * <p>A scanner that returns the tokens of a token stream.  When the parser
+ * asks for a token past the end of the stream, a table-driven scanner adds
+ * the next token to the stream, so the source line messages are sent at
+ * the same times as without the stream.  Parsers keep references to
+ * earlier tokens, so by default each token returned is a separate
+ * flyweight view.  A caller that doesn't keep earlier tokens, such as one
+ * that only walks the tokens, can have the scanner move one view through
+ * the stream instead, so that it allocates nothing per token.  The end of
+ * the file is an EofToken.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class StreamScanner extends Scanner
+{
+    private DfaScanner scanner;  // scanner that extends the stream
+    private TokenStream stream;  // the token stream
+    private int next;            // index of the next token to return
+    private StreamToken view;    // the one view if reused, else null
+    private EofToken eofToken;   // the end of the file if reached
+
+    /**
+     * Constructor for a scanner that returns a new view for each token.
+     * @param scanner the scanner that adds tokens to the stream, or null
+     *                if the stream is complete.
+     * @param stream the token stream.
+     * @param next the index of the first token to return.
+     */
+    public StreamScanner(DfaScanner scanner, TokenStream stream, int next)
+    {
+        this(scanner, stream, next, false);
+    }
+
+    /**
+     * Constructor.
+     * @param scanner the scanner that adds tokens to the stream, or null
+     *                if the stream is complete.
+     * @param stream the token stream.
+     * @param next the index of the first token to return.
+     * @param reuseView true to return the same view for each token, which
+     *                  is correct only if the caller doesn't keep earlier
+     *                  tokens.
+     */
+    public StreamScanner(DfaScanner scanner, TokenStream stream, int next,
+                         boolean reuseView)
+    {
+        super(stream.getSource());
+
+        this.scanner = scanner;
+        this.stream = stream;
+        this.next = next;
+        this.view = reuseView ? new StreamToken(stream, next) : null;
+        this.eofToken = null;
+    }
+
+    /**
+     * Getter.
+     * @return the token stream.
+     */
+    public TokenStream getStream()
+    {
+        return stream;
+    }
+
+    /**
+     * Getter.
+     * @return the index of the next token to return.
+     */
+    public int getNext()
+    {
+        return next;
+    }
+
+    /**
+     * Return the next token of the stream.
+     * @return the next token.
+     * @throws Exception if an error occurred.
+     */
+    protected Token extractToken()
+        throws Exception
+    {
+        if ((next == stream.size()) && (scanner != null)) {
+            scanner.scan(stream);
+        }
+
+        // Past the end of a complete stream.
+        if (next == stream.size()) {
+            if (eofToken == null) {
+                eofToken = new EofToken(source);
+            }
+            return eofToken;
+        }
+
+        int index = next++;
+
+        if (stream.isEof(index)) {
+            scanner = null;
+            eofToken = new EofToken(source, stream.getLineNumber(index),
+                                    stream.getPosition(index));
+            return eofToken;
+        }
+        else if (view != null) {
+            view.moveTo(index);
+            return view;
+        }
+        else {
+            return new StreamToken(stream, index);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package src.wci.frontend;
+
+/**
+ * <h1>StreamToken</h1>
+ *
+ * <p>A flyweight token that is a view of one token of a token stream.  It
+ * keeps no text or value of its own.  A caller that doesn't keep earlier
+ * tokens can move one view through the whole stream.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class StreamToken extends Token
+{
+    private TokenStream stream;  // the token stream
+    private int index;           // index of the token in the stream
+
+    /**
+     * Constructor.
+     * @param stream the token stream.
+     * @param index the index of the token in the stream.
+     */
+    public StreamToken(TokenStream stream, int index)
+    {
+        super(null, null, null, stream.getSource(), 0, 0);
+
+        this.stream = stream;
+        this.index = index;
+    }
+
+    /**
+     * Make this view a view of another token of the stream.
+     * @param index the index of the token.
+     */
+    public void moveTo(int index)
+    {
+        this.index = index;
+    }
+
+    /**
+     * Getter.
+     * @return the index of the token in the stream.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Getter
+     * @return the token type
+     */
+    public TokenType getType()
+    {
+        return stream.getType(index);
+    }
+
+    /**
+     * Getter.
+     * @return the token text.
+     */
+    public String getText()
+    {
+        return stream.getText(index);
+    }
+
+    /**
+     * Getter.
+     * @return the token value.
+     */
+    public Object getValue()
+    {
+        return stream.getValue(index);
+    }
+
+    /**
+     * Getter.
+     * @return the source line number.
+     */
+    public int getLineNumber()
+    {
+        return stream.getLineNumber(index);
+    }
+
+    /**
+     * Getter.
+     * @return the position.
+     */
+    public int getPosition()
+    {
+        return stream.getPosition(index);
+    }
+}
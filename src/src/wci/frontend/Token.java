@@ -32,6 +32,26 @@ public class Token
         extract();
     }
 
+    /**
+     * Constructor for a token that a scanner has already extracted.
+     * @param type the token type.
+     * @param text the token text.
+     * @param value the token value.
+     * @param source the source of the token.
+     * @param lineNum the line number of the token's source line.
+     * @param position the position of the first token character.
+     */
+    public Token(TokenType type, String text, Object value, Source source,
+                 int lineNum, int position)
+    {
+        this.type = type;
+        this.text = text;
+        this.value = value;
+        this.source = source;
+        this.lineNum = lineNum;
+        this.position = position;
+    }
+
     /**
      * Getter
      * @return the token type
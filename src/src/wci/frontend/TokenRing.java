@@ -0,0 +1,140 @@
+package src.wci.frontend;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1>TokenRing</h1>
+ *
+ * <p>A bounded ring buffer that passes scanner entries from one producer
+ * thread to one consumer thread without locks.  Each thread advances only
+ * its own index, and it reads the other thread's index only when the ring
+ * looks full or empty.  A thread that must wait yields at first and then
+ * sleeps briefly.  Each entry carries the source character that followed
+ * it.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class TokenRing
+{
+    private static final int  YIELDS      = 64;     // yields before sleeping
+    private static final long SLEEP_NANOS = 50000;  // length of each sleep
+
+    private final Object entries[];  // the entries
+    private final char chars[];      // the character after each entry
+    private final int mask;          // capacity - 1
+
+    private final AtomicLong head = new AtomicLong();  // next entry to take
+    private final AtomicLong tail = new AtomicLong();  // next entry to put
+    private long producerHead;  // the producer's last view of head
+    private long consumerTail;  // the consumer's last view of tail
+    private char lastChar;      // character after the last entry taken
+
+    private volatile boolean closed;  // true when the consumer is done
+
+    /**
+     * Constructor.
+     * @param capacity the number of entries that the ring can hold, which
+     *                 must be a power of 2.
+     */
+    public TokenRing(int capacity)
+    {
+        this.entries = new Object[capacity];
+        this.chars = new char[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Put an entry into the ring, and wait while the ring is full.  Called
+     * only by the producer thread.
+     * @param entry the entry.
+     * @param ch the source character that followed the entry.
+     * @return true if the entry was put, or false if the ring was closed.
+     */
+    public boolean put(Object entry, char ch)
+    {
+        long index = tail.get();
+        int waits = 0;
+
+        while (index - producerHead == entries.length) {
+            if (closed) {
+                return false;
+            }
+
+            producerHead = head.get();
+            waits = pause(waits);
+        }
+
+        if (closed) {
+            return false;
+        }
+
+        int slot = (int) index & mask;
+        entries[slot] = entry;
+        chars[slot] = ch;
+        tail.lazySet(index + 1);  // publish the entry
+
+        return true;
+    }
+
+    /**
+     * Take the next entry from the ring, and wait while the ring is empty.
+     * Called only by the consumer thread.
+     * @return the entry.
+     */
+    public Object take()
+    {
+        long index = head.get();
+        int waits = 0;
+
+        while (index == consumerTail) {
+            consumerTail = tail.get();
+            if (index == consumerTail) {
+                waits = pause(waits);
+            }
+        }
+
+        int slot = (int) index & mask;
+        Object entry = entries[slot];
+        entries[slot] = null;
+        lastChar = chars[slot];
+        head.lazySet(index + 1);  // free the slot
+
+        return entry;
+    }
+
+    /**
+     * Getter.  Called only by the consumer thread.
+     * @return the source character that followed the last entry taken.
+     */
+    public char lastChar()
+    {
+        return lastChar;
+    }
+
+    /**
+     * Close the ring.  The producer stops putting entries.
+     */
+    public void close()
+    {
+        closed = true;
+    }
+
+    /**
+     * Wait for the other thread.
+     * @param waits the number of times that the caller already waited.
+     * @return the new number of times.
+     */
+    private static int pause(int waits)
+    {
+        if (waits < YIELDS) {
+            Thread.yield();
+        }
+        else {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+
+        return waits + 1;
+    }
+}
@@ -0,0 +1,422 @@
+package src.wci.frontend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * <h1>TokenStream</h1>
+ *
+ * <p>A stream of tokens stored in parallel arrays instead of token
+ * objects.  Each token has a type, the start and length of its text in a
+ * shared character array, a line number and position, and a value kind.
+ * An integer value or the bits of a real value are kept in a long array.
+ * A string value is computed from the text, and the few other values,
+ * such as error codes, are kept in a side list.  Adding a token allocates
+ * nothing except when an array grows.  Texts and values are created only
+ * when they are asked for, and the texts are interned.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class TokenStream
+{
+    // Kinds of token values.
+    public static final byte NO_VALUE      = 0;
+    public static final byte INTEGER_VALUE = 1;
+    public static final byte REAL_VALUE    = 2;
+    public static final byte STRING_VALUE  = 3;
+    public static final byte OBJECT_VALUE  = 4;
+    public static final byte END_OF_FILE   = 5;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private Source source;         // source of the tokens
+    private int count;             // number of tokens
+
+    private TokenType types[];     // token types
+    private byte kinds[];          // value kinds
+    private int starts[];          // start of each text in texts
+    private int lengths[];         // length of each text
+    private int lineNums[];        // line numbers
+    private int positions[];       // positions
+    private long values[];         // values, or indexes into objects
+
+    private char texts[];          // texts of all the tokens
+    private int textsLength;       // number of characters in texts
+    private ArrayList<Object> objects;  // values of kind OBJECT_VALUE
+    private InternTable strings;        // the texts that were asked for
+
+    /**
+     * Constructor.
+     * @param source the source of the tokens.
+     */
+    public TokenStream(Source source)
+    {
+        this.source = source;
+        this.count = 0;
+
+        this.types = new TokenType[INITIAL_CAPACITY];
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.starts = new int[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.lineNums = new int[INITIAL_CAPACITY];
+        this.positions = new int[INITIAL_CAPACITY];
+        this.values = new long[INITIAL_CAPACITY];
+
+        this.texts = new char[4*INITIAL_CAPACITY];
+        this.textsLength = 0;
+        this.objects = new ArrayList<Object>();
+        this.strings = new InternTable();
+    }
+
+    /**
+     * Getter.
+     * @return the source of the tokens.
+     */
+    public Source getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return the number of tokens.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all the tokens but keep the arrays, so that a caller that
+     * walks the tokens in batches allocates nothing once the arrays are
+     * large enough.
+     */
+    public void clear()
+    {
+        count = 0;
+        textsLength = 0;
+        objects.clear();
+    }
+
+    /**
+     * Remove all the tokens and keep the arrays for the tokens of another
+     * source, such as the next version of an edited program.
+     * @param source the other source.
+     */
+    public void clear(Source source)
+    {
+        this.source = source;
+        clear();
+    }
+
+    /**
+     * Add a token.
+     * @param type the token type.
+     * @param text the buffer with the token text.
+     * @param length the length of the token text.
+     * @param lineNum the line number of the token.
+     * @param position the position of the token.
+     * @param kind the kind of the token value.
+     * @param value the integer value or the bits of the real value.
+     */
+    public void add(TokenType type, char text[], int length, int lineNum,
+                    int position, byte kind, long value)
+    {
+        add(type, text, 0, length, lineNum, position, kind, value);
+    }
+
+    /**
+     * Add a token with its text at an offset in a buffer.
+     * @param type the token type.
+     * @param text the buffer with the token text.
+     * @param offset the offset of the token text in the buffer.
+     * @param length the length of the token text.
+     * @param lineNum the line number of the token.
+     * @param position the position of the token.
+     * @param kind the kind of the token value.
+     * @param value the integer value or the bits of the real value.
+     */
+    private void add(TokenType type, char text[], int offset, int length,
+                     int lineNum, int position, byte kind, long value)
+    {
+        if (count == types.length) {
+            grow(count + 1);
+        }
+        if (textsLength + length > texts.length) {
+            texts = Arrays.copyOf(texts,
+                                  Math.max(2*texts.length,
+                                           textsLength + length));
+        }
+
+        System.arraycopy(text, offset, texts, textsLength, length);
+
+        types[count] = type;
+        kinds[count] = kind;
+        starts[count] = textsLength;
+        lengths[count] = length;
+        lineNums[count] = lineNum;
+        positions[count] = position;
+        values[count] = value;
+
+        textsLength += length;
+        ++count;
+    }
+
+    /**
+     * Add a token with a value that isn't a number or a string.
+     * @param type the token type.
+     * @param text the buffer with the token text.
+     * @param length the length of the token text.
+     * @param lineNum the line number of the token.
+     * @param position the position of the token.
+     * @param value the token value.
+     */
+    public void add(TokenType type, char text[], int length, int lineNum,
+                    int position, Object value)
+    {
+        if (value == null) {
+            add(type, text, length, lineNum, position, NO_VALUE, 0);
+        }
+        else {
+            objects.add(value);
+            add(type, text, length, lineNum, position, OBJECT_VALUE,
+                objects.size() - 1);
+        }
+    }
+
+    /**
+     * Add a copy of a token of another stream at another line number and
+     * position.
+     * @param stream the other stream.
+     * @param index the index of the token in the other stream.
+     * @param lineNum the line number of the copy.
+     * @param position the position of the copy.
+     */
+    public void add(TokenStream stream, int index, int lineNum, int position)
+    {
+        byte kind = stream.kinds[index];
+
+        if (kind == OBJECT_VALUE) {
+            objects.add(stream.getValue(index));
+            add(stream.types[index], stream.texts, stream.starts[index],
+                stream.lengths[index], lineNum, position, kind,
+                objects.size() - 1);
+        }
+        else {
+            add(stream.types[index], stream.texts, stream.starts[index],
+                stream.lengths[index], lineNum, position, kind,
+                stream.values[index]);
+        }
+    }
+
+    /**
+     * Add copies of a range of tokens of another stream, with their line
+     * numbers moved.  The arrays are copied in bulk, so this is much faster
+     * than adding the tokens one at a time.
+     * @param stream the other stream.
+     * @param from the index of the first token in the other stream.
+     * @param to the index after the last token.
+     * @param lineDelta how much to move the line numbers.
+     */
+    public void addAll(TokenStream stream, int from, int to,
+                       int lineDelta)
+    {
+        int n = to - from;
+        if (n <= 0) {
+            return;
+        }
+
+        if (count + n > types.length) {
+            grow(count + n);
+        }
+
+        // The texts of consecutive tokens are consecutive.
+        int textStart = stream.starts[from];
+        int textLength = stream.starts[to - 1] + stream.lengths[to - 1]
+                             - textStart;
+        if (textsLength + textLength > texts.length) {
+            texts = Arrays.copyOf(texts,
+                                  Math.max(2*texts.length,
+                                           textsLength + textLength));
+        }
+        System.arraycopy(stream.texts, textStart, texts, textsLength,
+                         textLength);
+
+        System.arraycopy(stream.types, from, types, count, n);
+        System.arraycopy(stream.kinds, from, kinds, count, n);
+        System.arraycopy(stream.lengths, from, lengths, count, n);
+        System.arraycopy(stream.positions, from, positions, count, n);
+        System.arraycopy(stream.values, from, values, count, n);
+
+        int textShift = textsLength - textStart;
+        for (int i = count; i < count + n; ++i) {
+            int index = from + i - count;
+
+            starts[i] = stream.starts[index] + textShift;
+            lineNums[i] = stream.lineNums[index] + lineDelta;
+
+            if (kinds[i] == OBJECT_VALUE) {
+                objects.add(stream.objects.get((int) values[i]));
+                values[i] = objects.size() - 1;
+            }
+        }
+
+        textsLength += textLength;
+        count += n;
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the token type.
+     */
+    public TokenType getType(int index)
+    {
+        return types[index];
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the kind of the token value.
+     */
+    public byte getKind(int index)
+    {
+        return kinds[index];
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the line number of the token.
+     */
+    public int getLineNumber(int index)
+    {
+        return lineNums[index];
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the position of the token.
+     */
+    public int getPosition(int index)
+    {
+        return positions[index];
+    }
+
+    /**
+     * @param index the token index.
+     * @return true if the token is the end of the file, else false.
+     */
+    public boolean isEof(int index)
+    {
+        return kinds[index] == END_OF_FILE;
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the length of the token text.
+     */
+    public int getTextLength(int index)
+    {
+        return lengths[index];
+    }
+
+    /**
+     * Return a character of a token text without creating the text.
+     * @param index the token index.
+     * @param offset the offset of the character in the text.
+     * @return the character.
+     */
+    public char getTextChar(int index, int offset)
+    {
+        return texts[starts[index] + offset];
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the token text.
+     */
+    public String getText(int index)
+    {
+        return strings.intern(texts, starts[index], lengths[index]);
+    }
+
+    /**
+     * Getter.
+     * @param index the index of a token with an integer value.
+     * @return the value.
+     */
+    public int getIntegerValue(int index)
+    {
+        return (int) values[index];
+    }
+
+    /**
+     * Getter.
+     * @param index the index of a token with a real value.
+     * @return the value.
+     */
+    public float getRealValue(int index)
+    {
+        return Float.intBitsToFloat((int) values[index]);
+    }
+
+    /**
+     * Getter.
+     * @param index the token index.
+     * @return the token value, or null if it has none.
+     */
+    public Object getValue(int index)
+    {
+        switch (kinds[index]) {
+            case INTEGER_VALUE: return getIntegerValue(index);
+            case REAL_VALUE:    return getRealValue(index);
+            case STRING_VALUE:  return stringValue(index);
+            case OBJECT_VALUE:  return objects.get((int) values[index]);
+            default:            return null;
+        }
+    }
+
+    /**
+     * Compute the value of a string token from its text, which is the
+     * value in quotes with each quote doubled.
+     * @param index the token index.
+     * @return the value.
+     */
+    private String stringValue(int index)
+    {
+        int start = starts[index] + 1;
+        int end = starts[index] + lengths[index] - 1;
+        StringBuilder value = new StringBuilder(end - start);
+
+        for (int i = start; i < end; ++i) {
+            value.append(texts[i]);
+            if (texts[i] == '\'') {
+                ++i;  // skip the second quote
+            }
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * Grow the token arrays to at least double their capacity.
+     * @param minCapacity the capacity needed.
+     */
+    private void grow(int minCapacity)
+    {
+        int capacity = Math.max(2*types.length, minCapacity);
+
+        types = Arrays.copyOf(types, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lineNums = Arrays.copyOf(lineNums, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+}
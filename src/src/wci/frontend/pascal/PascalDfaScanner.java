@@ -0,0 +1,151 @@
+package src.wci.frontend.pascal;
+
+import src.wci.frontend.*;
+
+import static src.wci.frontend.Dfa.*;
+import static src.wci.frontend.pascal.PascalErrorCode.*;
+
+/**
+ * <h1>PascalDfaScanner</h1>
+ *
+ * <p>The table-driven Pascal scanner.  Its automaton recognizes the same
+ * tokens as PascalScanner, and it skips whitespace and comments in curly
+ * braces.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class PascalDfaScanner extends DfaScanner
+{
+    private static final Dfa DFA = createDfa();
+
+    /**
+     * Constructor
+     * @param source the source to be used with this scanner.
+     */
+    public PascalDfaScanner(Source source)
+    {
+        super(source, DFA);
+    }
+
+    /**
+     * Create the automaton of Pascal tokens.
+     * @return the automaton.
+     */
+    private static Dfa createDfa()
+    {
+        Dfa dfa = new Dfa();
+
+        int e       = dfa.charClass("Ee");
+        int dot     = dfa.charClass(".");
+        int quote   = dfa.charClass("'");
+        int lbrace  = dfa.charClass("{");
+        int rbrace  = dfa.charClass("}");
+        int plus    = dfa.charClass("+");
+        int minus   = dfa.charClass("-");
+        int equals  = dfa.charClass("=");
+        int colon   = dfa.charClass(":");
+        int less    = dfa.charClass("<");
+        int greater = dfa.charClass(">");
+        int singles[] = new int[] {
+            plus, minus, dfa.charClass("*"), dfa.charClass("/"),
+            dfa.charClass(","), dfa.charClass(";"), equals,
+            dfa.charClass("("), dfa.charClass(")"),
+            dfa.charClass("["), dfa.charClass("]"), rbrace,
+            dfa.charClass("^")
+        };
+        String singleTexts = "+-*/,;=()[]}^";
+
+        // Invalid characters.
+        int invalid = dfa.state(ERROR, PascalTokenType.ERROR,
+                                INVALID_CHARACTER);
+        dfa.onAny(START, invalid, TEXT);
+
+        // Whitespace and comments.
+        int comment = dfa.state(END, null, null);
+        dfa.on(START, START, 0, WHITESPACE);
+        dfa.on(START, comment, 0, lbrace);
+        dfa.onAny(comment, comment, 0);
+        dfa.on(comment, START, 0, rbrace);
+
+        // Identifiers and reserved words.
+        int word = dfa.state(WORD, null, null);
+        dfa.words(PascalTokenType.RESERVED_WORD_TYPES,
+                  PascalTokenType.IDENTIFIER);
+        dfa.on(START, word, TEXT, LETTER, e);
+        dfa.on(word, word, TEXT, LETTER, e, DIGIT);
+
+        // Numbers.  A decimal point is not part of a number if it starts
+        // a .. token.
+        int whole     = dfa.state(NUMBER, PascalTokenType.INTEGER, null);
+        int point     = dfa.state(ERROR, PascalTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int fraction  = dfa.state(NUMBER, PascalTokenType.REAL, null);
+        int exponent  = dfa.state(ERROR, PascalTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int sign      = dfa.state(ERROR, PascalTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int expDigits = dfa.state(NUMBER, PascalTokenType.REAL, null);
+        dfa.numbers(PascalTokenType.INTEGER, PascalTokenType.REAL,
+                    PascalTokenType.ERROR, RANGE_INTEGER, RANGE_REAL);
+        dfa.on(START, whole, TEXT, DIGIT);
+        dfa.on(whole, whole, TEXT, DIGIT);
+        dfa.on(whole, point, TEXT, dot);
+        dfa.guard(point, dot);
+        dfa.on(whole, exponent, TEXT, e);
+        dfa.on(point, fraction, TEXT, DIGIT);
+        dfa.on(fraction, fraction, TEXT, DIGIT);
+        dfa.on(fraction, exponent, TEXT, e);
+        dfa.on(exponent, sign, TEXT, plus, minus);
+        dfa.on(exponent, expDigits, TEXT, DIGIT);
+        dfa.on(sign, expDigits, TEXT, DIGIT);
+        dfa.on(expDigits, expDigits, TEXT, DIGIT);
+
+        // Strings.  Each pair of adjacent quotes represents a quote, and
+        // each whitespace character is a blank.
+        int string      = dfa.state(ERROR, PascalTokenType.ERROR,
+                                    UNEXPECTED_EOF);
+        int stringQuote = dfa.state(STRING, PascalTokenType.STRING, null);
+        dfa.on(START, string, TEXT, quote);
+        dfa.onAny(string, string, TEXT | VALUE);
+        dfa.on(string, string, TEXT | VALUE | BLANK, WHITESPACE);
+        dfa.on(string, stringQuote, TEXT, quote);
+        dfa.on(stringQuote, string, TEXT | VALUE, quote);
+
+        // Special symbols.
+        for (int i = 0; i < singles.length; ++i) {
+            dfa.on(START, symbol(dfa, singleTexts.substring(i, i + 1)),
+                   TEXT, singles[i]);
+        }
+
+        int colonState = symbol(dfa, ":");
+        dfa.on(START, colonState, TEXT, colon);
+        dfa.on(colonState, symbol(dfa, ":="), TEXT, equals);
+
+        int lessState = symbol(dfa, "<");
+        dfa.on(START, lessState, TEXT, less);
+        dfa.on(lessState, symbol(dfa, "<="), TEXT, equals);
+        dfa.on(lessState, symbol(dfa, "<>"), TEXT, greater);
+
+        int greaterState = symbol(dfa, ">");
+        dfa.on(START, greaterState, TEXT, greater);
+        dfa.on(greaterState, symbol(dfa, ">="), TEXT, equals);
+
+        int dotState = symbol(dfa, ".");
+        dfa.on(START, dotState, TEXT, dot);
+        dfa.on(dotState, symbol(dfa, ".."), TEXT, dot);
+
+        return dfa.build();
+    }
+
+    /**
+     * Create a state that recognizes a special symbol.
+     * @param dfa the automaton.
+     * @param text the text of the symbol.
+     * @return the new state.
+     */
+    private static int symbol(Dfa dfa, String text)
+    {
+        return dfa.symbol(text, PascalTokenType.SPECIAL_SYMBOLS.get(text));
+    }
+}
@@ -2,6 +2,7 @@ package src.wci.frontend.pascal;
 
 import src.wci.frontend.*;
 import src.wci.message.Message;
+import src.wci.util.AbortException;
 
 import static src.wci.frontend.pascal.PascalTokenType.*;
 import static src.wci.frontend.pascal.PascalErrorCode.*;
@@ -17,9 +18,9 @@ import static src.wci.message.MessageType.SYNTAX_ERROR;
  */
 public class PascalErrorHandler
 {
-    private static final int MAX_ERRORS = 25;
+    static final int MAX_ERRORS = 25;
 
-    private static int errorCount = 0;   // count of syntax errors
+    private int errorCount = 0;          // count of syntax errors
 
     /**
      * Getter.
@@ -65,6 +66,6 @@ public class PascalErrorHandler
                                                      0,
                                                      "",
                                                      fatalText}));
-        System.exit(errorCode.getStatus());
+        throw new AbortException(errorCode.getStatus());
     }
 }
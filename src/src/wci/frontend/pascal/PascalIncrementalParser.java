@@ -0,0 +1,722 @@
+package src.wci.frontend.pascal;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import src.wci.frontend.*;
+import src.wci.frontend.pascal.parsers.*;
+import src.wci.intermediate.*;
+import src.wci.message.*;
+import src.wci.util.AbortException;
+
+import static src.wci.frontend.pascal.PascalTokenType.*;
+import static src.wci.intermediate.symtabimpl.SymTabKeyImpl.*;
+import static src.wci.intermediate.symtabimpl.DefinitionImpl.UNDEFINED;
+import static src.wci.intermediate.typeimpl.TypeFormImpl.ARRAY;
+import static src.wci.intermediate.typeimpl.TypeFormImpl.RECORD;
+import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
+import static src.wci.message.MessageType.SYNTAX_ERROR;
+
+/**
+ * <h1>PascalIncrementalParser</h1>
+ *
+ * <p>A Pascal parser for a program that is edited, such as in an editor
+ * that parses the program again after each change.  It keeps the text,
+ * the token stream, the symbol tables, the intermediate code of each
+ * routine, and the syntax error messages of the last parse.</p>
+ *
+ * <p>After an edit, the tokens are scanned again from a little before the
+ * edit until a new token starts where an old token started after the
+ * edit.  The old tokens from there on are kept, with their line numbers
+ * and positions moved.  If the changed tokens are all in the body of one
+ * routine, only that body is parsed again, in the symbol tables that it
+ * saw before, and the line numbers after it are moved.  Otherwise, or if
+ * the new body doesn't end where the old one did, the whole program is
+ * parsed again.</p>
+ *
+ * <p>A body is parsed again by itself only if no other tokens that can
+ * refer to identifiers share its first and last lines, because the line
+ * numbers of the references in the body are replaced by line.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class PascalIncrementalParser
+{
+    private char text[];              // text of the source program
+    private int length;               // number of characters in the text
+    private FileSource source;        // source of the text
+    private TokenStream stream;       // all the tokens of the text
+    private TokenStream spare;        // old stream whose arrays are reused
+    private FrontendContext context;  // symbol tables and routine bodies
+    private boolean complete;         // false if the last parse failed
+
+    private ArrayList<SyntaxError> errors;    // syntax errors of the program
+    private ArrayList<SyntaxError> received;  // syntax errors being received
+    private StreamScanner scanner;            // scanner of the current parse
+
+    /**
+     * Constructor.
+     * @param text the text of the source program.
+     */
+    public PascalIncrementalParser(String text)
+    {
+        this.text = text.toCharArray();
+        this.length = this.text.length;
+        this.errors = new ArrayList<SyntaxError>();
+    }
+
+    /**
+     * Getter.
+     * @return the symbol table stack.
+     */
+    public SymTabStack getSymTabStack()
+    {
+        return context.getSymTabStack();
+    }
+
+    /**
+     * Getter.  The arrays of the stream are reused after the next edit.
+     * @return the token stream.
+     */
+    public TokenStream getTokenStream()
+    {
+        return stream;
+    }
+
+    /**
+     * Getter.
+     * @return the syntax error messages of the program in source order.
+     */
+    public ArrayList<Message> getErrors()
+    {
+        ArrayList<Message> messages = new ArrayList<Message>();
+        for (SyntaxError error : errors) {
+            messages.add(error.message);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Parse the whole program.
+     * @return the symbol table entries of the program and its routines.
+     * @throws Exception if an error occurred.
+     */
+    public ArrayList<SymTabEntry> parse()
+        throws Exception
+    {
+        context = new FrontendContext();
+        context.getMessageHandler().addListener(new ErrorListener(),
+                                                EnumSet.of(SYNTAX_ERROR));
+
+        errors = new ArrayList<SyntaxError>();
+        received = errors;
+        source = new FileSource(text, length);
+        stream = new TokenStream(source);
+        complete = false;
+
+        PascalDfaScanner dfaScanner = new PascalDfaScanner(source);
+        scanner = new StreamScanner(dfaScanner, stream, 0);
+        Parser parser = new PascalParserTD(scanner, context);
+        try {
+            parser.parse();
+            complete = true;
+        }
+        catch (AbortException ex) {
+        }
+
+        // Scan the tokens after the end of the program.
+        while ((stream.size() == 0) || !stream.isEof(stream.size() - 1)) {
+            dfaScanner.scan(stream);
+        }
+
+        ArrayList<SymTabEntry> routineIds = new ArrayList<SymTabEntry>();
+        SymTabEntry programId = context.getSymTabStack().getProgramId();
+        if (programId != null) {
+            addRoutines(programId, routineIds);
+        }
+
+        return routineIds;
+    }
+
+    /**
+     * Replace some of the text and parse the changed program.
+     * @param start the index of the first character to replace.
+     * @param end the index after the last character to replace.
+     * @param replacement the new text.
+     * @return the symbol table entries of the routines that were parsed
+     *         again: one routine, or the program and all its routines.
+     * @throws Exception if an error occurred.
+     */
+    public ArrayList<SymTabEntry> edit(int start, int end, String replacement)
+        throws Exception
+    {
+        int newLength = length + replacement.length() - (end - start);
+        char newText[] = new char[newLength];
+
+        System.arraycopy(text, 0, newText, 0, start);
+        replacement.getChars(0, replacement.length(), newText, start);
+        System.arraycopy(text, end, newText, start + replacement.length(),
+                         length - end);
+
+        FileSource oldSource = source;
+        TokenStream oldStream = stream;
+
+        text = newText;
+        length = newLength;
+        source = new FileSource(text, length);
+
+        if (!complete) {
+            return parse();
+        }
+
+        Edit edit = new Edit(oldSource, oldStream, start, end,
+                             start + replacement.length());
+        complete = false;  // until the edit is parsed
+        RoutineBody body = edit.scan() ? parseBody(edit) : null;
+        spare = oldStream;
+
+        if (body == null) {
+            return parse();
+        }
+
+        complete = true;
+
+        ArrayList<SymTabEntry> routineIds = new ArrayList<SymTabEntry>();
+        routineIds.add(body.getRoutineId());
+
+        return routineIds;
+    }
+
+    /**
+     * Parse again the one routine body that contains the changed tokens.
+     * @param edit the edit.
+     * @return the routine body, or null if the whole program must be
+     *         parsed again.
+     * @throws Exception if an error occurred.
+     */
+    private RoutineBody parseBody(Edit edit)
+        throws Exception
+    {
+        TokenStream oldStream = edit.oldStream;
+        int oldLast = oldStream.size() - 1;
+        RoutineBody body = null;
+
+        for (RoutineBody candidate : context.getRoutineBodies()) {
+            if (   (candidate.getFirst() <= edit.first)
+                && (edit.oldFollow <= candidate.getFollow())) {
+                body = candidate;
+                break;
+            }
+        }
+        if (body == null) {
+            return null;
+        }
+
+        // Check that the first and last lines of the old body have no
+        // other tokens that can refer to identifiers.
+        int first = body.getFirst();
+        int end = body.getFollow() - 1;
+        int firstLine = oldStream.getLineNumber(first);
+        int lastLine = oldStream.getLineNumber(end);
+
+        if (   (first == 0)
+            || (oldStream.getLineNumber(first - 1) == firstLine)
+            || (oldStream.getType(end) != END)
+            || (stream.getType(first) != BEGIN)) {
+            return null;
+        }
+        for (int i = body.getFollow();
+             (i < oldLast) && (oldStream.getLineNumber(i) == lastLine); ++i)
+        {
+            TokenType type = oldStream.getType(i);
+            if ((type != SEMICOLON) && (type != DOT)) {
+                return null;
+            }
+        }
+
+        int tokenDelta = edit.newFollow - edit.oldFollow;
+        int follow = body.getFollow() + tokenDelta;
+        SymTabEntry path[] = body.getPath();
+        SymTabEntry routineId = body.getRoutineId();
+        SymTab routineSymTab = (SymTab) routineId.getAttribute(ROUTINE_SYMTAB);
+
+        // Remove the line numbers of the old body and the undefined
+        // identifiers that it entered.
+        ArrayList<SymTabEntry> visible = new ArrayList<SymTabEntry>();
+        HashSet<TypeSpec> types = new HashSet<TypeSpec>();
+        for (SymTabEntry id : path) {
+            addEntries((SymTab) id.getAttribute(ROUTINE_SYMTAB), visible,
+                       types);
+        }
+
+        for (SymTabEntry id : visible) {
+            id.getLineNumbers().removeIf(lineNumber ->
+                (lineNumber >= firstLine) && (lineNumber <= lastLine));
+        }
+        for (SymTabEntry id : routineSymTab.sortedEntries()) {
+            if (id.getDefinition() == UNDEFINED) {
+                routineSymTab.remove(id.getName());
+            }
+        }
+
+        // Move the line numbers after the body.
+        if (edit.lineDelta != 0) {
+            moveLines(body, lastLine, edit.lineDelta);
+        }
+
+        // Hide what the enclosing routines didn't have yet when the body
+        // was parsed: their later nested routines and the undefined
+        // identifiers that their own bodies entered.
+        ArrayList<SymTabEntry> hidden = new ArrayList<SymTabEntry>();
+        for (int level = 0; level < path.length - 1; ++level) {
+            SymTab symTab = (SymTab) path[level].getAttribute(ROUTINE_SYMTAB);
+            ArrayList<SymTabEntry> routines =
+                RoutineBody.routinesOf(path[level]);
+
+            for (int i = body.getRoutineCount(level); i < routines.size();
+                 ++i)
+            {
+                hide(symTab, routines.get(i), hidden);
+            }
+            for (SymTabEntry id : symTab.sortedEntries()) {
+                if (id.getDefinition() == UNDEFINED) {
+                    hide(symTab, id, hidden);
+                }
+            }
+        }
+
+        // Parse the body in the routine's scope.
+        SymTabStack symTabStack = context.getSymTabStack();
+        for (SymTabEntry id : path) {
+            symTabStack.push((SymTab) id.getAttribute(ROUTINE_SYMTAB));
+        }
+
+        ArrayList<SyntaxError> bodyErrors = new ArrayList<SyntaxError>();
+        scanner = new StreamScanner(null, stream, first);
+        PascalParserTD parser = new PascalParserTD(scanner, context);
+        ICodeNode rootNode;
+
+        received = bodyErrors;
+        try {
+            Token token = parser.nextToken();
+            rootNode = new PascalStatementParser(parser).parse(token);
+        }
+        catch (RuntimeException ex) {
+            return null;  // such as too many errors
+        }
+        finally {
+            received = errors;
+
+            for (int i = 0; i < path.length; ++i) {
+                symTabStack.pop();
+            }
+            for (SymTabEntry id : hidden) {
+                id.getSymTab().enter(id);
+            }
+        }
+
+        // The new body must end where the old one did.
+        if (   (scanner.getNext() - 1 != follow)
+            || (stream.getType(follow - 1) != END)) {
+            return null;
+        }
+
+        // Replace the syntax errors of the old body.  The parser's current
+        // token was in the old body after its BEGIN when it sent them.
+        ArrayList<SyntaxError> newErrors = new ArrayList<SyntaxError>();
+        boolean added = false;
+
+        for (SyntaxError error : errors) {
+            if (error.index <= first) {
+                newErrors.add(error);
+            }
+            else if (error.index < body.getFollow()) {
+                continue;
+            }
+            else {
+                if (!added) {
+                    newErrors.addAll(bodyErrors);
+                    added = true;
+                }
+                newErrors.add(new SyntaxError(edit.moveError(error.message),
+                                              error.index + tokenDelta));
+            }
+        }
+        if (!added) {
+            newErrors.addAll(bodyErrors);
+        }
+
+        if (newErrors.size() > PascalErrorHandler.MAX_ERRORS) {
+            return null;
+        }
+
+        // Keep the new body.
+        for (SymTabEntry id : visible) {
+            id.getLineNumbers().sort(null);
+        }
+        ((ICode) routineId.getAttribute(ROUTINE_ICODE)).setRoot(rootNode);
+        errors = newErrors;
+
+        for (RoutineBody other : context.getRoutineBodies()) {
+            if (other.getFirst() > body.getFirst()) {
+                other.move(tokenDelta);
+            }
+        }
+        body.setFollow(follow);
+
+        return body;
+    }
+
+    /**
+     * Hide an entry of a symbol table until it is entered again.
+     * @param symTab the symbol table.
+     * @param id the entry.
+     * @param hidden the list of hidden entries.
+     */
+    private void hide(SymTab symTab, SymTabEntry id,
+                      ArrayList<SymTabEntry> hidden)
+    {
+        if (symTab.lookup(id.getName()) == id) {
+            symTab.remove(id.getName());
+            hidden.add(id);
+        }
+    }
+
+    /**
+     * Add the line delta to the line numbers after the last line of a
+     * body.  The routines whose bodies come before it, which include its
+     * own nested routines, have no line numbers after it.
+     * @param body the routine body.
+     * @param lastLine the last line of the body.
+     * @param lineDelta the line delta.
+     */
+    private void moveLines(RoutineBody body, int lastLine, int lineDelta)
+    {
+        SymTabStack symTabStack = context.getSymTabStack();
+        ArrayList<SymTabEntry> routineIds = new ArrayList<SymTabEntry>();
+        HashSet<SymTabEntry> before = new HashSet<SymTabEntry>();
+        ArrayList<SymTabEntry> ids = new ArrayList<SymTabEntry>();
+        HashSet<TypeSpec> types = new HashSet<TypeSpec>();
+
+        for (RoutineBody other : context.getRoutineBodies()) {
+            if (other.getFirst() <= body.getFirst()) {
+                before.add(other.getRoutineId());
+            }
+        }
+
+        addRoutines(symTabStack.getProgramId(), routineIds);
+        addEntries(symTabStack.getLocalSymTab(), ids, types);
+
+        for (SymTabEntry id : routineIds) {
+            if (before.contains(id)) {
+                continue;
+            }
+
+            addEntries((SymTab) id.getAttribute(ROUTINE_SYMTAB), ids, types);
+
+            ICode iCode = (ICode) id.getAttribute(ROUTINE_ICODE);
+            if ((iCode != null) && (iCode.getRoot() != null)) {
+                moveLines(iCode.getRoot(), lastLine, lineDelta);
+            }
+        }
+
+        for (SymTabEntry id : ids) {
+            ArrayList<Integer> lineNumbers = id.getLineNumbers();
+
+            for (int i = 0; i < lineNumbers.size(); ++i) {
+                int lineNumber = lineNumbers.get(i);
+                if (lineNumber > lastLine) {
+                    lineNumbers.set(i, lineNumber + lineDelta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the line delta to the line numbers after a line of a node and
+     * its descendants.
+     * @param node the node.
+     * @param lastLine the line.
+     * @param lineDelta the line delta.
+     */
+    private void moveLines(ICodeNode node, int lastLine, int lineDelta)
+    {
+        int lineNumber = node.getLineNumber();
+        if (lineNumber > lastLine) {
+            node.setLineNumber(lineNumber + lineDelta);
+        }
+
+        for (ICodeNode child : node.getChildren()) {
+            moveLines(child, lastLine, lineDelta);
+        }
+    }
+
+    /**
+     * Add a routine and its nested routines to a list.
+     * @param routineId the symbol table entry of the routine.
+     * @param routineIds the list.
+     */
+    private void addRoutines(SymTabEntry routineId,
+                             ArrayList<SymTabEntry> routineIds)
+    {
+        routineIds.add(routineId);
+
+        ArrayList<SymTabEntry> routines = RoutineBody.routinesOf(routineId);
+        if (routines != null) {
+            for (SymTabEntry id : routines) {
+                addRoutines(id, routineIds);
+            }
+        }
+    }
+
+    /**
+     * Add the entries of a symbol table to a list, and the fields of the
+     * record types that they use.
+     * @param symTab the symbol table.
+     * @param ids the list.
+     * @param types the types already visited.
+     */
+    private void addEntries(SymTab symTab, ArrayList<SymTabEntry> ids,
+                            HashSet<TypeSpec> types)
+    {
+        if (symTab == null) {
+            return;
+        }
+
+        for (SymTabEntry id : symTab.sortedEntries()) {
+            ids.add(id);
+            addFields(id.getTypeSpec(), ids, types);
+        }
+    }
+
+    /**
+     * Add the fields of a record type, or of the record elements of an
+     * array type, to a list.
+     * @param type the type.
+     * @param ids the list.
+     * @param types the types already visited.
+     */
+    private void addFields(TypeSpec type, ArrayList<SymTabEntry> ids,
+                           HashSet<TypeSpec> types)
+    {
+        if ((type == null) || !types.add(type)) {
+            return;
+        }
+
+        if (type.getForm() == RECORD) {
+            addEntries((SymTab) type.getAttribute(RECORD_SYMTAB), ids, types);
+        }
+        else if (type.getForm() == ARRAY) {
+            addFields((TypeSpec) type.getAttribute(ARRAY_ELEMENT_TYPE), ids,
+                      types);
+        }
+    }
+
+    /**
+     * An edit of the text and the tokens that it changed.  The tokens
+     * before the first changed token and from the old follow token on are
+     * the same.
+     */
+    private class Edit
+    {
+        FileSource oldSource;   // source of the old text
+        TokenStream oldStream;  // tokens of the old text
+        int start;              // index of the first replaced character
+        int oldEnd;             // index after the replaced characters
+        int newEnd;             // index after the replacement
+
+        int first;       // index of the first token scanned again
+        int oldFollow;   // index of the first old token kept after it
+        int newFollow;   // index of that token in the new stream
+        int syncLine;    // its old line number
+        int lineDelta;   // how much its line number moved
+        int posDelta;    // and how much its position moved
+
+        /**
+         * Constructor.
+         * @param oldSource the source of the old text.
+         * @param oldStream the tokens of the old text.
+         * @param start the index of the first replaced character.
+         * @param oldEnd the index after the replaced characters.
+         * @param newEnd the index after the replacement.
+         */
+        Edit(FileSource oldSource, TokenStream oldStream, int start,
+             int oldEnd, int newEnd)
+        {
+            this.oldSource = oldSource;
+            this.oldStream = oldStream;
+            this.start = start;
+            this.oldEnd = oldEnd;
+            this.newEnd = newEnd;
+        }
+
+        /**
+         * Create the new token stream.  Scan again from the last token
+         * that starts at least two characters before the edit, because
+         * the scanner looks ahead up to two characters.
+         * @return true if an old token after the edit was kept, else false.
+         * @throws Exception if an error occurred.
+         */
+        boolean scan()
+            throws Exception
+        {
+            int last = oldStream.size() - 1;  // the end of file
+            int delta = newEnd - oldEnd;
+
+            // Binary search for the token.
+            int low = 0;
+            int high = last;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (offset(mid) + 2 <= start) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            first = low - 1;
+
+            if (spare != null) {
+                stream = spare;
+                stream.clear(source);
+                spare = null;
+            }
+            else {
+                stream = new TokenStream(source);
+            }
+
+            PascalDfaScanner scanner = new PascalDfaScanner(source);
+            if (first >= 0) {
+                source.moveTo(oldStream.getLineNumber(first),
+                              oldStream.getPosition(first));
+            }
+            else {
+                first = 0;  // scan from the beginning
+            }
+
+            stream.addAll(oldStream, 0, first, 0);
+
+            // Scan until a token starts where an old token after the edit
+            // started.
+            int old = first;
+            for (;;) {
+                int index = stream.size();
+                scanner.scan(stream);
+
+                if (stream.isEof(index)) {
+                    return false;
+                }
+
+                int newOffset = source.getOffset(stream.getLineNumber(index),
+                                                 stream.getPosition(index));
+                if (newOffset < newEnd) {
+                    continue;
+                }
+
+                while ((old < last) && (offset(old) + delta < newOffset)) {
+                    ++old;
+                }
+                if ((old < last) && (offset(old) + delta == newOffset)) {
+                    oldFollow = old;
+                    newFollow = index;
+                    break;
+                }
+            }
+
+            // Keep the rest of the old tokens.
+            syncLine = oldStream.getLineNumber(oldFollow);
+            lineDelta = stream.getLineNumber(newFollow) - syncLine;
+            posDelta =   stream.getPosition(newFollow)
+                       - oldStream.getPosition(oldFollow);
+
+            // Only the tokens on the same line move sideways.
+            int i = oldFollow + 1;
+            while (   (i < last)
+                   && (oldStream.getLineNumber(i) == syncLine)) {
+                stream.add(oldStream, i, syncLine + lineDelta,
+                           oldStream.getPosition(i) + posDelta);
+                ++i;
+            }
+            stream.addAll(oldStream, i, last + 1, lineDelta);
+
+            return true;
+        }
+
+        /**
+         * Move a syntax error message after the edit.
+         * @param message the message.
+         * @return the moved message.
+         */
+        Message moveError(Message message)
+        {
+            Object body[] = (Object[]) message.getBody();
+            int lineNumber = (Integer) body[0];
+            int position = (Integer) body[1];
+
+            boolean moves =    (lineNumber == syncLine)
+                            && !Character.toString(Source.EOF).equals(body[2]);
+
+            if ((lineDelta == 0) && (!moves || (posDelta == 0))) {
+                return message;
+            }
+            if (moves) {
+                position += posDelta;
+            }
+
+            return new Message(SYNTAX_ERROR,
+                               new Object[] {lineNumber + lineDelta,
+                                             position, body[2], body[3]});
+        }
+
+        /**
+         * Return the index of the first character of an old token.
+         * @param index the index of the token.
+         * @return the index of the character.
+         */
+        private int offset(int index)
+        {
+            return oldSource.getOffset(oldStream.getLineNumber(index),
+                                       oldStream.getPosition(index));
+        }
+    }
+
+    /**
+     * A syntax error message and the index of the parser's current token
+     * when the message was sent.
+     */
+    private static class SyntaxError
+    {
+        Message message;  // the message
+        int index;        // index of the current token
+
+        /**
+         * Constructor.
+         * @param message the message.
+         * @param index the index of the current token.
+         */
+        SyntaxError(Message message, int index)
+        {
+            this.message = message;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Listener that records the syntax error messages.
+     */
+    private class ErrorListener implements MessageListener
+    {
+        /**
+         * Called by the parser whenever it produces a message.
+         * @param message the message.
+         */
+        public void messageReceived(Message message)
+        {
+            received.add(new SyntaxError(message, scanner.getNext() - 1));
+        }
+    }
+}
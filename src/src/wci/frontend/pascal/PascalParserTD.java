@@ -25,17 +25,19 @@ import static src.wci.message.MessageType.PARSER_SUMMARY;
  */
 public class PascalParserTD extends Parser
 {
-    protected static PascalErrorHandler errorHandler = new PascalErrorHandler();
+    protected PascalErrorHandler errorHandler;  // shared syntax error handler
 
     private SymTabEntry routineId;  // name of the routine being parsed
 
     /**
      * Constructor.
      * @param scanner the scanner to be used with this parser.
+     * @param context the context of the source program being parsed.
      */
-    public PascalParserTD(Scanner scanner)
+    public PascalParserTD(Scanner scanner, FrontendContext context)
     {
-        super(scanner);
+        super(scanner, context);
+        this.errorHandler = new PascalErrorHandler();
     }
 
     /**
@@ -44,7 +46,8 @@ public class PascalParserTD extends Parser
      */
     public PascalParserTD(PascalParserTD parent)
     {
-        super(parent.getScanner());
+        super(parent);
+        this.errorHandler = parent.errorHandler;
     }
 
     /**
@@ -74,7 +77,6 @@ public class PascalParserTD extends Parser
         throws Exception
     {
         long startTime = System.currentTimeMillis();
-        Predefined.initialize(symTabStack);
 
         try {
             Token token = nextToken();
@@ -3,6 +3,7 @@ package src.wci.frontend.pascal;
 import java.util.Hashtable;
 import java.util.HashSet;
 
+import src.wci.frontend.ReservedWords;
 import src.wci.frontend.TokenType;
 
 /**
@@ -75,6 +76,23 @@ public enum PascalTokenType implements TokenType
         }
     }
 
+    // Perfect hash table of Pascal reserved words.  Each reserved word's
+    // text is the key to its Pascal token type.
+    public static ReservedWords RESERVED_WORD_TYPES;
+    static {
+        PascalTokenType values[] = PascalTokenType.values();
+        int count = LAST_RESERVED_INDEX - FIRST_RESERVED_INDEX + 1;
+        String words[] = new String[count];
+        PascalTokenType types[] = new PascalTokenType[count];
+
+        for (int i = 0; i < count; ++i) {
+            types[i] = values[FIRST_RESERVED_INDEX + i];
+            words[i] = types[i].getText();
+        }
+
+        RESERVED_WORD_TYPES = new ReservedWords(words, types);
+    }
+
     // Hash table of Pascal special symbols.  Each special symbol's text
     // is the key to its Pascal token type.
     public static Hashtable<String, PascalTokenType> SPECIAL_SYMBOLS =
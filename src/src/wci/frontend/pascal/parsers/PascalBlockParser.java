@@ -52,6 +52,16 @@ public class PascalBlockParser extends PascalParserTD
         // Look for the BEGIN token to parse a compound statement.
         if (tokenType == BEGIN) {
             rootNode = statementParser.parse(token);
+
+            // Record where the body is in a token stream, so that it can
+            // be parsed again by itself after an edit.
+            if (scanner instanceof StreamScanner) {
+                int first = ((StreamToken) token).getIndex();
+                int follow = ((StreamScanner) scanner).getNext() - 1;
+                context.addRoutineBody(
+                    new RoutineBody(symTabStack.getProgramId(), routineId,
+                                    first, follow));
+            }
         }
 
         // Missing BEGIN: Attempt to parse anyway if possible.
@@ -34,8 +34,6 @@ public class PascalDeclaredRoutineParser extends PascalDeclarationsParser
         super(parent);
     }
 
-    private static int dummyCounter = 0;  // counter for dummy routine names
-
     /**
      * Parse a standard subroutine declaration.
      * @param token the initial token.
@@ -65,7 +63,8 @@ public class PascalDeclaredRoutineParser extends PascalDeclarationsParser
                 token = nextToken();  // consume PROCEDURE
                 routineDefn = DefinitionImpl.PROCEDURE;
                 dummyName = "DummyProcedureName_".toLowerCase() +
-                            String.format("%03d", ++dummyCounter);
+                            String.format("%03d",
+                                          context.nextRoutineNumber());
                 break;
             }
 
@@ -73,7 +72,8 @@ public class PascalDeclaredRoutineParser extends PascalDeclarationsParser
                 token = nextToken();  // consume FUNCTION
                 routineDefn = DefinitionImpl.FUNCTION;
                 dummyName = "DummyFunctionName_".toLowerCase() +
-                            String.format("%03d", ++dummyCounter);
+                            String.format("%03d",
+                                          context.nextRoutineNumber());
                 break;
             }
 
@@ -1,5 +1,6 @@
 package src.wci.frontend.pascal.parsers;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
 
 import src.wci.frontend.*;
@@ -63,7 +64,15 @@ class PascalRecordTypeParser extends PascalTypeSpecificationParser
         variableDeclarationsParser.parse(token, null);
 
         // Pop off the record's symbol table.
-        symTabStack.pop();
+        SymTab recordSymTab = symTabStack.pop();
+
+        // Lay out the fields in the order of their slot numbers.
+        ArrayList<SymTabEntry> fieldIds = recordSymTab.sortedEntries();
+        SymTabEntry layout[] = new SymTabEntry[fieldIds.size()];
+        for (SymTabEntry fieldId : fieldIds) {
+            layout[(Integer) fieldId.getAttribute(SLOT)] = fieldId;
+        }
+        recordType.setAttribute(RECORD_FIELDS, layout);
 
         // Synchronize at the END.
         token = synchronize(END_SET);
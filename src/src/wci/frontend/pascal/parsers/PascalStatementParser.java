@@ -149,7 +149,8 @@ public class PascalStatementParser extends PascalParserTD
     }
 
     /**
-     * Set the current line number as a statement node attribute.
+     * Set the current line number as a statement node attribute, and
+     * stamp it on the nodes of the statement.
      * @param node ICodeNode
      * @param token Token
      */
@@ -157,6 +158,7 @@ public class PascalStatementParser extends PascalParserTD
     {
         if (node != null) {
             node.setAttribute(LINE, token.getLineNumber());
+            node.setLineNumber(token.getLineNumber());
         }
     }
 
@@ -46,8 +46,8 @@ public class PascalWordToken extends PascalToken
         text = textBuffer.toString();
 
         // Is it a reserved word or an identifier?
-        type = (RESERVED_WORDS.contains(text.toLowerCase()))
-               ? PascalTokenType.valueOf(text.toUpperCase())  // reserved word
-               : IDENTIFIER;                                  // identifier
+        TokenType reservedType = RESERVED_WORD_TYPES.lookup(text);
+        type = reservedType != null ? reservedType  // reserved word
+                                    : IDENTIFIER;   // identifier
     }
 }
@@ -0,0 +1,172 @@
+package src.wci.frontend.subC;
+
+import src.wci.frontend.*;
+
+import static src.wci.frontend.Dfa.*;
+import static src.wci.frontend.subC.SubCErrorCode.*;
+
+/**
+ * <h1>SubCDfaScanner</h1>
+ *
+ * <p>The table-driven SubC scanner.  Its automaton recognizes the same
+ * tokens as SubCScanner, and it skips whitespace, // comments, and
+ * comments from /* through the next *.  Unlike SubCScanner, it stops at
+ * the end of the file inside an unterminated comment.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class SubCDfaScanner extends DfaScanner
+{
+    private static final Dfa DFA = createDfa();
+
+    /**
+     * Constructor
+     * @param source the source to be used with this scanner.
+     */
+    public SubCDfaScanner(Source source)
+    {
+        super(source, DFA);
+    }
+
+    /**
+     * Create the automaton of SubC tokens.
+     * @return the automaton.
+     */
+    private static Dfa createDfa()
+    {
+        Dfa dfa = new Dfa();
+
+        int eol     = dfa.charClass(String.valueOf(Source.EOL));
+        int e       = dfa.charClass("Ee");
+        int dot     = dfa.charClass(".");
+        int quote   = dfa.charClass("'");
+        int slash   = dfa.charClass("/");
+        int star    = dfa.charClass("*");
+        int plus    = dfa.charClass("+");
+        int minus   = dfa.charClass("-");
+        int equals  = dfa.charClass("=");
+        int less    = dfa.charClass("<");
+        int greater = dfa.charClass(">");
+        int bang    = dfa.charClass("!");
+        int semi    = dfa.charClass(";");
+        int singles[] = new int[] {
+            plus, minus, star, dfa.charClass(","), dfa.charClass(":"),
+            dfa.charClass("("), dfa.charClass(")"),
+            dfa.charClass("["), dfa.charClass("]"), dfa.charClass("\""),
+            dfa.charClass("{"), dfa.charClass("}"), dfa.charClass("^")
+        };
+        String singleTexts = "+-*,:()[]\"{}^";
+
+        // Invalid characters.
+        int invalid = dfa.state(ERROR, SubCTokenType.ERROR,
+                                INVALID_CHARACTER);
+        dfa.onAny(START, invalid, TEXT);
+
+        // Whitespace and comments.  A / that does not start a comment is
+        // a special symbol.  A // comment ends after the end of the line,
+        // and a /* comment ends after the next *.
+        int slashState   = symbol(dfa, "/");
+        int lineComment  = dfa.state(END, null, null);
+        int blockComment = dfa.state(END, null, null);
+        dfa.on(START, START, 0, WHITESPACE, eol);
+        dfa.on(START, slashState, TEXT, slash);
+        dfa.on(slashState, lineComment, 0, slash);
+        dfa.on(slashState, blockComment, 0, star);
+        dfa.onAny(lineComment, lineComment, 0);
+        dfa.on(lineComment, START, 0, eol, EOF_CLASS);
+        dfa.onAny(blockComment, blockComment, 0);
+        dfa.on(blockComment, START, 0, star);
+
+        // Identifiers and reserved words.
+        int word = dfa.state(WORD, null, null);
+        dfa.words(SubCTokenType.RESERVED_WORD_TYPES,
+                  SubCTokenType.IDENTIFIER);
+        dfa.on(START, word, TEXT, LETTER, e);
+        dfa.on(word, word, TEXT, LETTER, e, DIGIT);
+
+        // Numbers.  A decimal point is not part of a number if it starts
+        // a .. token.
+        int whole     = dfa.state(NUMBER, SubCTokenType.INTEGER, null);
+        int point     = dfa.state(ERROR, SubCTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int fraction  = dfa.state(NUMBER, SubCTokenType.REAL, null);
+        int exponent  = dfa.state(ERROR, SubCTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int sign      = dfa.state(ERROR, SubCTokenType.ERROR,
+                                  INVALID_NUMBER);
+        int expDigits = dfa.state(NUMBER, SubCTokenType.REAL, null);
+        dfa.numbers(SubCTokenType.INTEGER, SubCTokenType.REAL,
+                    SubCTokenType.ERROR, RANGE_INTEGER, RANGE_REAL);
+        dfa.on(START, whole, TEXT, DIGIT);
+        dfa.on(whole, whole, TEXT, DIGIT);
+        dfa.on(whole, point, TEXT, dot);
+        dfa.guard(point, dot);
+        dfa.on(whole, exponent, TEXT, e);
+        dfa.on(point, fraction, TEXT, DIGIT);
+        dfa.on(fraction, fraction, TEXT, DIGIT);
+        dfa.on(fraction, exponent, TEXT, e);
+        dfa.on(exponent, sign, TEXT, plus, minus);
+        dfa.on(exponent, expDigits, TEXT, DIGIT);
+        dfa.on(sign, expDigits, TEXT, DIGIT);
+        dfa.on(expDigits, expDigits, TEXT, DIGIT);
+
+        // Character strings.  Each pair of adjacent quotes represents a
+        // quote, and each whitespace character is a blank.
+        int string      = dfa.state(ERROR, SubCTokenType.ERROR,
+                                    UNEXPECTED_EOF);
+        int stringQuote = dfa.state(STRING, SubCTokenType.CHAR, null);
+        dfa.on(START, string, TEXT, quote);
+        dfa.onAny(string, string, TEXT | VALUE);
+        dfa.on(string, string, TEXT | VALUE | BLANK, WHITESPACE, eol);
+        dfa.on(string, stringQuote, TEXT, quote);
+        dfa.on(stringQuote, string, TEXT | VALUE, quote);
+
+        // Special symbols.
+        for (int i = 0; i < singles.length; ++i) {
+            dfa.on(START, symbol(dfa, singleTexts.substring(i, i + 1)),
+                   TEXT, singles[i]);
+        }
+
+        int equalsState = symbol(dfa, "=");
+        dfa.on(START, equalsState, TEXT, equals);
+        dfa.on(equalsState, symbol(dfa, "=="), TEXT, equals);
+
+        int lessState = symbol(dfa, "<");
+        dfa.on(START, lessState, TEXT, less);
+        dfa.on(lessState, symbol(dfa, "<="), TEXT, equals);
+
+        int greaterState = symbol(dfa, ">");
+        dfa.on(START, greaterState, TEXT, greater);
+        dfa.on(greaterState, symbol(dfa, ">="), TEXT, equals);
+
+        int bangState = symbol(dfa, "!");
+        dfa.on(START, bangState, TEXT, bang);
+        dfa.on(bangState, symbol(dfa, "!="), TEXT, equals);
+
+        int dotState = symbol(dfa, ".");
+        dfa.on(START, dotState, TEXT, dot);
+        dfa.on(dotState, symbol(dfa, ".."), TEXT, dot);
+
+        // A ; also consumes the following character, as in SubCScanner.
+        int semiState = symbol(dfa, ";");
+        int afterSemi = symbol(dfa, ";");
+        dfa.on(START, semiState, TEXT, semi);
+        dfa.onAny(semiState, afterSemi, 0);
+        dfa.on(semiState, afterSemi, 0, EOF_CLASS);
+        dfa.on(afterSemi, symbol(dfa, ";="), TEXT, equals);
+
+        return dfa.build();
+    }
+
+    /**
+     * Create a state that recognizes a special symbol.
+     * @param dfa the automaton.
+     * @param text the text of the symbol.
+     * @return the new state.
+     */
+    private static int symbol(Dfa dfa, String text)
+    {
+        return dfa.symbol(text, SubCTokenType.SPECIAL_SYMBOLS.get(text));
+    }
+}
@@ -6,6 +6,7 @@ import src.wci.frontend.subC.SubCErrorCode;
 import static src.wci.frontend.subC.SubCErrorCode.TOO_MANY_ERRORS;
 import src.wci.frontend.*;
 import src.wci.message.Message;
+import src.wci.util.AbortException;
 
 import static src.wci.frontend.subC.SubCTokenType.*;
 import static src.wci.message.MessageType.SYNTAX_ERROR;
@@ -22,7 +23,7 @@ public class SubCErrorHandler
 {
     private static final int MAX_ERRORS = 25;
 
-    private static int errorCount = 0;   // count of syntax errors
+    private int errorCount = 0;          // count of syntax errors
 
     /**
      * Getter.
@@ -68,7 +69,7 @@ public class SubCErrorHandler
                                                      0,
                                                      "",
                                                      fatalText}));
-        System.exit(errorCode.getStatus());
+        throw new AbortException(errorCode.getStatus());
     }
 }
 
@@ -27,23 +27,28 @@ import src.wci.intermediate.symtabimpl.Predefined;
 
 public class SubCParserTD extends Parser
 {
-    protected static SubCErrorHandler errorHandler = new SubCErrorHandler();
-    protected static StringBuilder nestedStacks = new StringBuilder();
+    protected SubCErrorHandler errorHandler;  // shared syntax error handler
+    protected StringBuilder nestedStacks;     // shared nested stacks dump
     
     private SymTabEntry routineId;  // name of the routine being parsed
 
     /**
      * Constructor.
      * @param scanner the scanner to be used with this parser.
+     * @param context the context of the source program being parsed.
      */
-    public SubCParserTD(Scanner scanner)
+    public SubCParserTD(Scanner scanner, FrontendContext context)
     {
-        super(scanner);
+        super(scanner, context);
+        this.errorHandler = new SubCErrorHandler();
+        this.nestedStacks = new StringBuilder();
     }
     
     public SubCParserTD(SubCParserTD parent)
     {
-        super(parent.getScanner());
+        super(parent);
+        this.errorHandler = parent.errorHandler;
+        this.nestedStacks = parent.nestedStacks;
     }
 
     public SymTabEntry getRoutineId()
@@ -59,7 +64,6 @@ public class SubCParserTD extends Parser
         throws Exception
     {
         long startTime = System.currentTimeMillis();
-        Predefined.initialize(symTabStack);
 
         try {
             Token token = nextToken();
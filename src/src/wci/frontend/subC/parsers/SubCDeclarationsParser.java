@@ -15,6 +15,7 @@ import static src.wci.frontend.subC.SubCTokenType.CHAR;
 import static src.wci.frontend.subC.SubCTokenType.CONST;
 import static src.wci.frontend.subC.SubCTokenType.DOUBLE;
 import static src.wci.frontend.subC.SubCTokenType.VOID;
+import static src.wci.frontend.subC.SubCErrorCode.UNEXPECTED_TOKEN;
 import src.wci.intermediate.SymTab;
 import src.wci.intermediate.SymTabEntry;
 import src.wci.intermediate.symtabimpl.DefinitionImpl;
@@ -79,6 +80,16 @@ public class SubCDeclarationsParser extends SubCParserTD
                 variableDeclarationsParser.setDefinition(VARIABLE);
                 variableDeclarationsParser.parse(token , entry);
              }
+
+            // Skip to the next declaration, or else this loops forever.
+            else if (!(token instanceof EofToken)) {
+                errorHandler.flag(token, UNEXPECTED_TOKEN, this);
+
+                do {
+                    token = nextToken();
+                } while (!DECLARATION_START_SET.contains(token.getType()) &&
+                         !(token instanceof EofToken));
+            }
         }while(!(token instanceof EofToken));
         
         
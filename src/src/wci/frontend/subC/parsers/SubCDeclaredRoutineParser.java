@@ -47,8 +47,6 @@ public class SubCDeclaredRoutineParser extends SubCDeclarationsParser
     {
         super(parent);
     }
-
-    private static int dummyCounter = 0;  // counter for dummy routine names
     
     private TypeSpec returnType;
     
@@ -78,14 +76,16 @@ public class SubCDeclaredRoutineParser extends SubCDeclarationsParser
                 token = nextToken();  // consume PROCEDURE
                 routineDefn = DefinitionImpl.PROCEDURE;
                 dummyName = "DummyProcedureName_".toLowerCase() +
-                            String.format("%03d", ++dummyCounter);
+                            String.format("%03d",
+                                          context.nextRoutineNumber());
                 break;
             }
 
             case IDENTIFIER: {
                 routineDefn = DefinitionImpl.FUNCTION;
                 dummyName = "DummyFunctionName_".toLowerCase() +
-                            String.format("%03d", ++dummyCounter);
+                            String.format("%03d",
+                                          context.nextRoutineNumber());
                 break;
             }
 
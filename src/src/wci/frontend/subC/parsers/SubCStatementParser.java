@@ -183,7 +183,8 @@ public class SubCStatementParser extends SubCParserTD
     }
 
     /**
-     * Set the current line number as a statement node attribute.
+     * Set the current line number as a statement node attribute, and
+     * stamp it on the nodes of the statement.
      * @param node ICodeNode
      * @param token Token
      */
@@ -191,6 +192,7 @@ public class SubCStatementParser extends SubCParserTD
     {
         if (node != null) {
             node.setAttribute(LINE, token.getLineNumber());
+            node.setLineNumber(token.getLineNumber());
         }
     }
 
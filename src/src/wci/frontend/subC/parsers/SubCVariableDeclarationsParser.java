@@ -85,7 +85,7 @@ public class SubCVariableDeclarationsParser extends SubCDeclarationsParser
         
         token = synchronize(IDENTIFIER_SET);
         
-         char peek = token.currentChar();
+         char peek = scanner.currentChar();
         if (peek == '(') {
                 
         	SubCDeclaredRoutineParser routineParser = new SubCDeclaredRoutineParser(this);
@@ -47,8 +47,8 @@ public class SubCWordToken extends SubCToken
         text = textBuffer.toString();
 
         // Is it a reserved word or an identifier?
-        type = (RESERVED_WORDS.contains(text.toLowerCase()))
-               ? SubCTokenType.valueOf(text.toUpperCase())  // reserved word
-               : IDENTIFIER;                                  // identifier
+        TokenType reservedType = RESERVED_WORD_TYPES.lookup(text);
+        type = reservedType != null ? reservedType  // reserved word
+                                    : IDENTIFIER;   // identifier
     }
 }
@@ -24,6 +24,20 @@ public interface ICodeNode
      */
     public ICodeNode getParent();
 
+    /**
+     * Set the source line number of this node and of any of its
+     * descendants that do not already have one.
+     * @param lineNumber the line number.
+     */
+    public void setLineNumber(int lineNumber);
+
+    /**
+     * Return the source line number of the statement that contains
+     * this node.
+     * @return the line number, or 0 if the node is not in a statement.
+     */
+    public int getLineNumber();
+
     /**
      * Set the type specification of this node.
      * @param typeSpec the type sprcification to set.
@@ -25,6 +25,20 @@ public interface SymTab
      */
     public SymTabEntry enter(String name);
 
+    /**
+     * Enter an existing entry, such as one that was removed, into the
+     * symbol table.
+     * @param entry the entry.
+     */
+    public void enter(SymTabEntry entry);
+
+    /**
+     * Remove an entry from the symbol table.
+     * @param name the name of the entry.
+     * @return the removed entry, or null if it does not exist.
+     */
+    public SymTabEntry remove(String name);
+
     /**
      * Look up an existing symbol table entry.
      * @param name the name of the entry.
@@ -46,4 +60,10 @@ public interface SymTab
      * @return the maximum local variables array slot number.
      */
     public int maxSlotNumber();
+
+    /**
+     * @return the last local variables array slot number issued, or -1
+     *         if none.
+     */
+    public int lastSlotNumber();
 }
@@ -60,6 +60,12 @@ public interface SymTabEntry
      */
     public ArrayList<Integer> getLineNumbers();
 
+    /**
+     * Getter.
+     * @return the local variables array slot number, or -1 if not set.
+     */
+    public int getSlot();
+
     /**
      * Set an attribute of the entry.
      * @param key the attribute key.
@@ -28,6 +28,12 @@ public interface TypeSpec
      */
     public SymTabEntry getIdentifier();
 
+    /**
+     * Getter.
+     * @return the element count of an array type, or -1 if not set.
+     */
+    public int getElementCount();
+
     /**
      * Set an attribute of the specification.
      * @param key the attribute key.
@@ -1,29 +1,33 @@
 package src.wci.intermediate.icodeimpl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
 
 import src.wci.intermediate.*;
 
 /**
  * <h1>ICodeNodeImpl</h1>
  *
- * <p>An implementation of a node of the intermediate code.</p>
+ * <p>An implementation of a node of the intermediate code.  The LINE, ID,
+ * and VALUE attributes are kept in fields, and a leaf node does not
+ * allocate a list of children.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
-public class ICodeNodeImpl
-    extends HashMap<ICodeKey, Object>
-    implements ICodeNode
+public class ICodeNodeImpl implements ICodeNode
 {
+    // Shared empty list of children of every leaf node.
+    private static final ArrayList<ICodeNode> NO_CHILDREN =
+        new ArrayList<ICodeNode>(0);
+
     private ICodeNodeType type;             // node type
     private ICodeNode parent;               // parent node
-    private ArrayList<ICodeNode> children;  // children array list
+    private ArrayList<ICodeNode> children;  // children array list, or null
     private TypeSpec typeSpec;              // data type specification
+    private int lineNumber;                 // source line number, or 0
+    private boolean statement;              // true if LINE attribute is set
+    private SymTabEntry id;                 // ID attribute
+    private Object value;                   // VALUE attribute
 
     /**
      * Constructor.
@@ -33,7 +37,7 @@ public class ICodeNodeImpl
     {
         this.type = type;
         this.parent = null;
-        this.children = new ArrayList<ICodeNode>();
+        this.children = null;
     }
 
     /**
@@ -54,6 +58,35 @@ public class ICodeNodeImpl
         return parent;
     }
 
+    /**
+     * Set the source line number of this node and of any of its
+     * descendants that do not already have one.
+     * @param lineNumber the line number.
+     */
+    public void setLineNumber(int lineNumber)
+    {
+        this.lineNumber = lineNumber;
+
+        // A nested statement already has its own line number.
+        if (children != null) {
+            for (ICodeNode child : children) {
+                if (child.getLineNumber() == 0) {
+                    child.setLineNumber(lineNumber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the source line number of the statement that contains
+     * this node.
+     * @return the line number, or 0 if the node is not in a statement.
+     */
+    public int getLineNumber()
+    {
+        return lineNumber;
+    }
+
     /**
      * Set the type specification of this node.
      * @param typeSpec the type sprcification to set.
@@ -80,20 +113,29 @@ public class ICodeNodeImpl
     public ICodeNode addChild(ICodeNode node)
     {
         if (node != null) {
+            if (children == null) {
+                children = new ArrayList<ICodeNode>();
+            }
+
             children.add(node);
             ((ICodeNodeImpl) node).parent = this;
+
+            if ((lineNumber != 0) && (node.getLineNumber() == 0)) {
+                node.setLineNumber(lineNumber);
+            }
         }
 
         return node;
     }
 
     /**
-     * Return an array list of this node's children.
+     * Return an array list of this node's children.  A leaf node returns
+     * a shared empty list, which must not be modified.
      * @return the array list of children.
      */
     public ArrayList<ICodeNode> getChildren()
     {
-        return children;
+        return children != null ? children : NO_CHILDREN;
     }
 
     /**
@@ -103,7 +145,21 @@ public class ICodeNodeImpl
      */
     public void setAttribute(ICodeKey key, Object value)
     {
-        put(key, value);
+        switch ((ICodeKeyImpl) key) {
+            case LINE: {
+                statement = value != null;
+                lineNumber = statement ? (Integer) value : 0;
+                break;
+            }
+            case ID: {
+                id = (SymTabEntry) value;
+                break;
+            }
+            case VALUE: {
+                this.value = value;
+                break;
+            }
+        }
     }
 
     /**
@@ -113,7 +169,12 @@ public class ICodeNodeImpl
      */
     public Object getAttribute(ICodeKey key)
     {
-        return get(key);
+        switch ((ICodeKeyImpl) key) {
+            case LINE:  return statement ? (Object) lineNumber : null;
+            case ID:    return id;
+            case VALUE: return value;
+            default:    return null;
+        }
     }
 
     /**
@@ -127,14 +188,11 @@ public class ICodeNodeImpl
             (ICodeNodeImpl) ICodeFactory.createICodeNode(type);
         copy.setTypeSpec(typeSpec);
 
-        Set<Map.Entry<ICodeKey, Object>> attributes = entrySet();
-        Iterator<Map.Entry<ICodeKey, Object>> it = attributes.iterator();
-
         // Copy attributes
-        while (it.hasNext()) {
-            Map.Entry<ICodeKey, Object> attribute = it.next();
-            copy.put(attribute.getKey(), attribute.getValue());
-        }
+        copy.lineNumber = lineNumber;
+        copy.statement = statement;
+        copy.id = id;
+        copy.value = value;
 
         return copy;
     }
@@ -14,15 +14,20 @@ import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
 /**
  * <h1>Predefined</h1>
  *
- * <p>Enter the predefined Pascal types, identifiers, and constants
- * into the symbol table.</p>
+ * <p>The predefined Pascal types, identifiers, and constants.  They are
+ * created once, when this class is initialized, in a read-only symbol
+ * table at nesting level 0 that every symbol table stack searches after
+ * its own symbol tables.  So all compilations, even concurrent ones,
+ * share the same predefined types and identifiers.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
 public class Predefined
 {
-    
+    // The read-only symbol table of the predefined identifiers.
+    public static SymTab symTab;
+
     // Predefined types.
     public static TypeSpec integerType;
     public static TypeSpec realType;
@@ -59,15 +64,16 @@ public class Predefined
     public static SymTabEntry succId;
     public static SymTabEntry truncId;
 
-    /**
-     * Initialize a symbol table stack with predefined identifiers.
-     * @param symTab the symbol table stack to initialize.
-     */
-    public static void initialize(SymTabStack symTabStack)
-    {
+    static {
+        SymTabStack symTabStack = SymTabFactory.createSymTabStack();
+
         initializeTypes(symTabStack);
         initializeConstants(symTabStack);
         initializeStandardRoutines(symTabStack);
+
+        SymTabImpl predefinedSymTab = (SymTabImpl) symTabStack.getLocalSymTab();
+        predefinedSymTab.makeReadOnly();
+        symTab = predefinedSymTab;
     }
 
     /**
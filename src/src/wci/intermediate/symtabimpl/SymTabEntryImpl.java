@@ -1,21 +1,23 @@
 package src.wci.intermediate.symtabimpl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 
 import src.wci.intermediate.*;
 
 /**
  * <h1>SymTabEntryImpl</h1>
  *
- * <p>An implementation of a symbol table entry.</p>
+ * <p>An implementation of a symbol table entry.  The frequently used
+ * attributes are kept in fields, and any other attribute is kept in a map
+ * that is created when it is first needed.  A read-only entry, such as a
+ * predefined identifier that all compilations share, ignores source line
+ * numbers and cannot be changed.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
-public class SymTabEntryImpl
-    extends HashMap<SymTabKey, Object>
-    implements SymTabEntry
+public class SymTabEntryImpl implements SymTabEntry
 {
     private String name;                     // entry name
     private SymTab symTab;                   // parent symbol table
@@ -23,6 +25,20 @@ public class SymTabEntryImpl
     private TypeSpec typeSpec;               // type specification
     private ArrayList<Integer> lineNumbers;  // source line numbers
 
+    // Frequently used attributes.
+    private int slot;                        // SLOT, or -1 if not set
+    private Object constantValue;            // CONSTANT_VALUE
+    private Object dataValue;                // DATA_VALUE
+    private RoutineCode routineCode;         // ROUTINE_CODE
+    private SymTab routineSymTab;            // ROUTINE_SYMTAB
+    private ICode routineICode;              // ROUTINE_ICODE
+    private Object routineParms;             // ROUTINE_PARMS
+
+    // Any other attributes, or null.
+    private EnumMap<SymTabKeyImpl, Object> attributes;
+
+    private boolean readOnly;                // true if it cannot be changed
+
     /**
      * Constructor.
      * @param name the name of the entry.
@@ -33,6 +49,7 @@ public class SymTabEntryImpl
         this.name = name;
         this.symTab = symTab;
         this.lineNumbers = new ArrayList<Integer>();
+        this.slot = -1;
     }
 
     /**
@@ -59,6 +76,7 @@ public class SymTabEntryImpl
      */
     public void setDefinition(Definition definition)
     {
+        checkWritable();
         this.definition = definition;
     }
 
@@ -77,6 +95,7 @@ public class SymTabEntryImpl
      */
     public void setTypeSpec(TypeSpec typeSpec)
     {
+        checkWritable();
         this.typeSpec = typeSpec;
     }
 
@@ -95,7 +114,9 @@ public class SymTabEntryImpl
      */
     public void appendLineNumber(int lineNumber)
     {
-        lineNumbers.add(lineNumber);
+        if (!readOnly) {
+            lineNumbers.add(lineNumber);
+        }
     }
 
     /**
@@ -107,6 +128,15 @@ public class SymTabEntryImpl
         return lineNumbers;
     }
 
+    /**
+     * Getter.
+     * @return the local variables array slot number, or -1 if not set.
+     */
+    public int getSlot()
+    {
+        return slot;
+    }
+
     /**
      * Set an attribute of the entry.
      * @param key the attribute key.
@@ -114,7 +144,30 @@ public class SymTabEntryImpl
      */
     public void setAttribute(SymTabKey key, Object value)
     {
-        put(key, value);
+        checkWritable();
+
+        switch ((SymTabKeyImpl) key) {
+            case SLOT: {
+                slot = value != null ? (Integer) value : -1;
+                break;
+            }
+            case CONSTANT_VALUE: constantValue = value;             break;
+            case DATA_VALUE:     dataValue = value;                 break;
+            case ROUTINE_CODE:   routineCode = (RoutineCode) value; break;
+            case ROUTINE_SYMTAB: routineSymTab = (SymTab) value;    break;
+            case ROUTINE_ICODE:  routineICode = (ICode) value;      break;
+            case ROUTINE_PARMS:  routineParms = value;              break;
+
+            default: {
+                if (attributes == null) {
+                    attributes =
+                        new EnumMap<SymTabKeyImpl, Object>(SymTabKeyImpl.class);
+                }
+
+                attributes.put((SymTabKeyImpl) key, value);
+                break;
+            }
+        }
     }
 
     /**
@@ -124,6 +177,37 @@ public class SymTabEntryImpl
      */
     public Object getAttribute(SymTabKey key)
     {
-        return get(key);
+        switch ((SymTabKeyImpl) key) {
+            case SLOT:           return slot >= 0 ? (Object) slot : null;
+            case CONSTANT_VALUE: return constantValue;
+            case DATA_VALUE:     return dataValue;
+            case ROUTINE_CODE:   return routineCode;
+            case ROUTINE_SYMTAB: return routineSymTab;
+            case ROUTINE_ICODE:  return routineICode;
+            case ROUTINE_PARMS:  return routineParms;
+
+            default: {
+                return attributes != null ? attributes.get(key) : null;
+            }
+        }
+    }
+
+    /**
+     * Make the entry read-only.
+     */
+    void makeReadOnly()
+    {
+        readOnly = true;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the entry is read-only.
+     */
+    private void checkWritable()
+    {
+        if (readOnly) {
+            throw new UnsupportedOperationException(
+                "Cannot change the predefined identifier " + name);
+        }
     }
 }
@@ -1,28 +1,35 @@
 package src.wci.intermediate.symtabimpl;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.TreeMap;
 
 import src.wci.intermediate.*;
 
 /**
  * <h1>SymTabImpl</h1>
  *
- * <p>An implementation of the symbol table.</p>
+ * <p>An implementation of the symbol table.  The entries are kept in an
+ * open-addressing hash table with linear probing.  The list of entries
+ * sorted by name is created when it is first needed and kept until the
+ * next entry is entered.  A read-only symbol table, such as the one of
+ * the predefined identifiers that all compilations share, and its
+ * entries cannot be changed.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
-public class SymTabImpl
-    extends TreeMap<String, SymTabEntry>
-    implements SymTab
+public class SymTabImpl implements SymTab
 {
+    private static final int INITIAL_CAPACITY = 16;  // must be a power of 2
+
     private int nestingLevel;       // scope nesting level of this entry
     private int slotNumber;         // local variables array slot number
     private int maxSlotNumber;      // max slot number value
 
+    private SymTabEntry table[];    // hash table of entries
+    private int count;              // number of entries in the table
+    private ArrayList<SymTabEntry> sorted;  // entries sorted by name, or null
+    private boolean readOnly;               // true if it cannot be changed
+
     /**
      * Constructor.
      * @param nestingLevel the nesting level of this entry.
@@ -32,6 +39,9 @@ public class SymTabImpl
         this.nestingLevel = nestingLevel;
         this.slotNumber = -1;
         this.maxSlotNumber = 0;
+        this.table = new SymTabEntry[INITIAL_CAPACITY];
+        this.count = 0;
+        this.sorted = null;
     }
 
     /**
@@ -44,14 +54,72 @@ public class SymTabImpl
     }
 
     /**
-     * Create and enter a new entry into the symbol table.
+     * Create and enter a new entry into the symbol table.  The new entry
+     * replaces any existing entry with the same name.
      * @param name the name of the entry.
      * @return the new entry.
      */
     public SymTabEntry enter(String name)
     {
         SymTabEntry entry = SymTabFactory.createSymTabEntry(name, this);
-        put(name, entry);
+        enter(entry);
+
+        return entry;
+    }
+
+    /**
+     * Enter an existing entry, such as one that was removed, into the
+     * symbol table.  The entry replaces any existing entry with the same
+     * name.
+     * @param entry the entry.
+     */
+    public void enter(SymTabEntry entry)
+    {
+        checkWritable();
+
+        int index = indexOf(entry.getName());
+
+        if (table[index] == null) {
+            ++count;
+        }
+
+        table[index] = entry;
+        sorted = null;
+
+        // Keep the table at most half full.
+        if (2*count > table.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Remove an entry from the symbol table.
+     * @param name the name of the entry.
+     * @return the removed entry, or null if it does not exist.
+     */
+    public SymTabEntry remove(String name)
+    {
+        checkWritable();
+
+        int index = indexOf(name);
+        SymTabEntry entry = table[index];
+
+        if (entry != null) {
+            int mask = table.length - 1;
+
+            table[index] = null;
+            --count;
+            sorted = null;
+
+            // Move up the entries that follow in the same probe sequence,
+            // so that linear probing still finds them.
+            for (int i = (index + 1) & mask; table[i] != null;
+                 i = (i + 1) & mask) {
+                SymTabEntry moved = table[i];
+                table[i] = null;
+                table[indexOf(moved.getName())] = moved;
+            }
+        }
 
         return entry;
     }
@@ -63,7 +131,7 @@ public class SymTabImpl
      */
     public SymTabEntry lookup(String name)
     {
-        return get(name);
+        return table[indexOf(name)];
     }
 
     /**
@@ -71,16 +139,58 @@ public class SymTabImpl
      */
     public ArrayList<SymTabEntry> sortedEntries()
     {
-        Collection<SymTabEntry> entries = values();
-        Iterator<SymTabEntry> iter = entries.iterator();
-        ArrayList<SymTabEntry> list = new ArrayList<SymTabEntry>(size());
+        // Sort the entries only once after they change.
+        if (sorted == null) {
+            sorted = new ArrayList<SymTabEntry>(count);
 
-        // Iterate over the sorted entries and append them to the list.
-        while (iter.hasNext()) {
-            list.add(iter.next());
+            for (SymTabEntry entry : table) {
+                if (entry != null) {
+                    sorted.add(entry);
+                }
+            }
+
+            sorted.sort((e1, e2) -> e1.getName().compareTo(e2.getName()));
         }
 
-        return list;  // sorted list of entries
+        // Return a copy that the caller is free to modify.
+        return new ArrayList<SymTabEntry>(sorted);
+    }
+
+    /**
+     * Return the index of the hash table element that contains the entry
+     * with a name, or of the empty element where the entry belongs.
+     * @param name the name.
+     * @return the index.
+     */
+    private int indexOf(String name)
+    {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        SymTabEntry entry;
+
+        // Linear probing.
+        while (((entry = table[index]) != null) &&
+               !name.equals(entry.getName())) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    /**
+     * Double the size of the hash table and re-enter the entries.
+     */
+    private void rehash()
+    {
+        SymTabEntry oldTable[] = table;
+        table = new SymTabEntry[2*oldTable.length];
+
+        for (SymTabEntry entry : oldTable) {
+            if (entry != null) {
+                table[indexOf(entry.getName())] = entry;
+            }
+        }
     }
 
     /**
@@ -88,6 +198,8 @@ public class SymTabImpl
      */
     public int nextSlotNumber()
     {
+        checkWritable();
+
         maxSlotNumber = ++slotNumber;
         return slotNumber;
     }
@@ -99,4 +211,39 @@ public class SymTabImpl
     {
         return maxSlotNumber;
     }
+
+    /**
+     * @return the last local variables array slot number issued, or -1
+     *         if none.
+     */
+    public int lastSlotNumber()
+    {
+        return slotNumber;
+    }
+
+    /**
+     * Make the symbol table and its entries read-only.  The sorted list
+     * of entries is created now, so that concurrent readers only copy it.
+     */
+    void makeReadOnly()
+    {
+        sortedEntries();
+
+        for (SymTabEntry entry : sorted) {
+            ((SymTabEntryImpl) entry).makeReadOnly();
+        }
+
+        readOnly = true;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the table is read-only.
+     */
+    private void checkWritable()
+    {
+        if (readOnly) {
+            throw new UnsupportedOperationException(
+                "Cannot change a read-only symbol table");
+        }
+    }
 }
@@ -7,7 +7,9 @@ import src.wci.intermediate.*;
 /**
  * <h1>SymTabStack</h1>
  *
- * <p>An implementation of the symbol table stack.</p>
+ * <p>An implementation of the symbol table stack.  A lookup that finds
+ * no entry in the stack's symbol tables finds the predefined identifier
+ * with the name, if any.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
@@ -135,6 +137,11 @@ public class SymTabStackImpl
             foundEntry = get(i).lookup(name);
         }
 
+        // Then the predefined identifiers.
+        if (foundEntry == null) {
+            foundEntry = Predefined.symTab.lookup(name);
+        }
+
         return foundEntry;
     }
 }
@@ -1,6 +1,6 @@
 package src.wci.intermediate.typeimpl;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 
 import src.wci.intermediate.*;
 import src.wci.intermediate.symtabimpl.Predefined;
@@ -12,18 +12,31 @@ import static src.wci.intermediate.typeimpl.TypeKeyImpl.*;
 /**
  * <h1>TypeSpecImpl</h1>
  *
- * <p>A Pascal type specification implementation.</p>
+ * <p>A Pascal type specification implementation.  The frequently used
+ * attributes are kept in fields, and any other attribute is kept in a map
+ * that is created when it is first needed.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
-public class TypeSpecImpl
-    extends HashMap<TypeKey, Object>
-    implements TypeSpec
+public class TypeSpecImpl implements TypeSpec
 {
     private TypeForm form;           // type form
     private SymTabEntry identifier;  // type identifier
 
+    // Frequently used attributes.
+    private TypeSpec baseType;       // SUBRANGE_BASE_TYPE
+    private Object minValue;         // SUBRANGE_MIN_VALUE
+    private Object maxValue;         // SUBRANGE_MAX_VALUE
+    private TypeSpec indexType;      // ARRAY_INDEX_TYPE
+    private TypeSpec elementType;    // ARRAY_ELEMENT_TYPE
+    private int elementCount;        // ARRAY_ELEMENT_COUNT, or -1 if not set
+    private SymTab recordSymTab;     // RECORD_SYMTAB
+    private Object recordFields;     // RECORD_FIELDS
+
+    // Any other attributes, or null.
+    private EnumMap<TypeKeyImpl, Object> attributes;
+
     /**
      * Constructor.
      * @param form the type form.
@@ -32,6 +45,7 @@ public class TypeSpecImpl
     {
         this.form = form;
         this.identifier = null;
+        this.elementCount = -1;
     }
 
     /**
@@ -41,6 +55,7 @@ public class TypeSpecImpl
     public TypeSpecImpl(String value)
     {
         this.form = ARRAY;
+        this.elementCount = -1;
 
         TypeSpec indexType = new TypeSpecImpl(SUBRANGE);
         indexType.setAttribute(SUBRANGE_BASE_TYPE, Predefined.integerType);
@@ -79,6 +94,15 @@ public class TypeSpecImpl
         return identifier;
     }
 
+    /**
+     * Getter.
+     * @return the element count of an array type, or -1 if not set.
+     */
+    public int getElementCount()
+    {
+        return elementCount;
+    }
+
     /**
      * Set an attribute of the specification.
      * @param key the attribute key.
@@ -86,7 +110,30 @@ public class TypeSpecImpl
      */
     public void setAttribute(TypeKey key, Object value)
     {
-        this.put(key, value);
+        switch ((TypeKeyImpl) key) {
+            case SUBRANGE_BASE_TYPE: baseType = (TypeSpec) value;    break;
+            case SUBRANGE_MIN_VALUE: minValue = value;               break;
+            case SUBRANGE_MAX_VALUE: maxValue = value;               break;
+            case ARRAY_INDEX_TYPE:   indexType = (TypeSpec) value;   break;
+            case ARRAY_ELEMENT_TYPE: elementType = (TypeSpec) value; break;
+            case RECORD_SYMTAB:      recordSymTab = (SymTab) value;  break;
+            case RECORD_FIELDS:      recordFields = value;           break;
+
+            case ARRAY_ELEMENT_COUNT: {
+                elementCount = value != null ? (Integer) value : -1;
+                break;
+            }
+
+            default: {
+                if (attributes == null) {
+                    attributes =
+                        new EnumMap<TypeKeyImpl, Object>(TypeKeyImpl.class);
+                }
+
+                attributes.put((TypeKeyImpl) key, value);
+                break;
+            }
+        }
     }
 
     /**
@@ -96,7 +143,23 @@ public class TypeSpecImpl
      */
     public Object getAttribute(TypeKey key)
     {
-        return this.get(key);
+        switch ((TypeKeyImpl) key) {
+            case SUBRANGE_BASE_TYPE: return baseType;
+            case SUBRANGE_MIN_VALUE: return minValue;
+            case SUBRANGE_MAX_VALUE: return maxValue;
+            case ARRAY_INDEX_TYPE:   return indexType;
+            case ARRAY_ELEMENT_TYPE: return elementType;
+            case RECORD_SYMTAB:      return recordSymTab;
+            case RECORD_FIELDS:      return recordFields;
+
+            case ARRAY_ELEMENT_COUNT: {
+                return elementCount >= 0 ? (Object) elementCount : null;
+            }
+
+            default: {
+                return attributes != null ? attributes.get(key) : null;
+            }
+        }
     }
 
     /**
@@ -105,10 +168,7 @@ public class TypeSpecImpl
     public boolean isPascalString()
     {
         if (form == ARRAY) {
-            TypeSpec elmtType  = (TypeSpec) getAttribute(ARRAY_ELEMENT_TYPE);
-            TypeSpec indexType = (TypeSpec) getAttribute(ARRAY_INDEX_TYPE);
-
-            return (elmtType.baseType()  == Predefined.charType) &&
+            return (elementType.baseType() == Predefined.charType) &&
                    (indexType.baseType() == Predefined.integerType);
         }
         else {
@@ -121,7 +181,6 @@ public class TypeSpecImpl
      */
     public TypeSpec baseType()
     {
-        return form == SUBRANGE ? (TypeSpec) getAttribute(SUBRANGE_BASE_TYPE)
-                                : this;
+        return form == SUBRANGE ? baseType : this;
     }
 }
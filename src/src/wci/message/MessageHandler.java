@@ -1,45 +1,83 @@
 package src.wci.message;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 
 /**
  * <h1>MessageHandler</h1>
  *
  * <p>A helper class to which message producer classes delegate the task of
- * maintaining and notifying listeners.</p>
+ * maintaining and notifying listeners.  Each listener subscribes to a set
+ * of message types, and a message producer can ask whether a message type
+ * has any listeners before it constructs a message of that type.</p>
  *
  * <p>Copyright (c) 2009 by Ronald Mak</p>
  * <p>For instructional purposes only.  No warranties.</p>
  */
 public class MessageHandler
 {
-    private Message message;                       // message
-    private ArrayList<MessageListener> listeners;  // listener list
+    private Message message;  // message
+
+    // Listener lists: entry key is a message type,
+    //                 entry value is the list of its listeners.
+    private EnumMap<MessageType, ArrayList<MessageListener>> listeners;
 
     /**
      * Constructor.
      */
     public MessageHandler()
     {
-        this.listeners = new ArrayList<MessageListener>();
+        this.listeners =
+            new EnumMap<MessageType, ArrayList<MessageListener>>(
+                MessageType.class);
+
+        for (MessageType messageType : MessageType.values()) {
+            listeners.put(messageType, new ArrayList<MessageListener>());
+        }
     }
 
     /**
-     * Add a listener to the listener list.
+     * Add a listener to the listener lists of all the message types.
      * @param listener the listener to add.
      */
     public void addListener(MessageListener listener)
     {
-        listeners.add(listener);
+        addListener(listener, EnumSet.allOf(MessageType.class));
+    }
+
+    /**
+     * Add a listener to the listener lists of some message types.
+     * @param listener the listener to add.
+     * @param messageTypes the message types that the listener receives.
+     */
+    public void addListener(MessageListener listener,
+                            EnumSet<MessageType> messageTypes)
+    {
+        for (MessageType messageType : messageTypes) {
+            listeners.get(messageType).add(listener);
+        }
     }
 
     /**
-     * Remove a listener from the listener list.
+     * Remove a listener from all the listener lists.
      * @param listener the listener to remove.
      */
     public void removeListener(MessageListener listener)
     {
-        listeners.remove(listener);
+        for (ArrayList<MessageListener> list : listeners.values()) {
+            list.remove(listener);
+        }
+    }
+
+    /**
+     * Determine whether a message type has any listeners.
+     * @param messageType the message type.
+     * @return true if a message of the type would be received.
+     */
+    public boolean hasListeners(MessageType messageType)
+    {
+        return !listeners.get(messageType).isEmpty();
     }
 
     /**
@@ -53,12 +91,12 @@ public class MessageHandler
     }
 
     /**
-     * Notify each listener in the listener list by calling the listener's
-     * messageReceived() method.
+     * Notify each listener in the message type's listener list by calling
+     * the listener's messageReceived() method.
      */
     private void notifyListeners()
     {
-        for (MessageListener listener : listeners) {
+        for (MessageListener listener : listeners.get(message.getType())) {
             listener.messageReceived(message);
         }
     }
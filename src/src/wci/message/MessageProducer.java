@@ -1,5 +1,7 @@
 package src.wci.message;
 
+import java.util.EnumSet;
+
 /**
  * <h1>MessageProducer</h1>
  *
@@ -16,6 +18,14 @@ public interface MessageProducer
      */
     public void addMessageListener(MessageListener listener);
 
+    /**
+     * Add a listener to the listener lists of some message types.
+     * @param listener the listener to add.
+     * @param messageTypes the message types that the listener receives.
+     */
+    public void addMessageListener(MessageListener listener,
+                                   EnumSet<MessageType> messageTypes);
+
     /**
      * Remove a listener from the listener list.
      * @param listener the listener to remove.
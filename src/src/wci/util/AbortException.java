@@ -0,0 +1,38 @@
+package src.wci.util;
+
+/**
+ * <h1>AbortException</h1>
+ *
+ * <p>Thrown to abort the translation or the execution of a program after
+ * a fatal error.  The error has already been reported.  The command-line
+ * drivers exit with the exception's status, and a server that processes
+ * many programs abandons only the current one.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class AbortException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private int status;  // exit status
+
+    /**
+     * Constructor.
+     * @param status the exit status.
+     */
+    public AbortException(int status)
+    {
+        super("Aborted with status " + status);
+        this.status = status;
+    }
+
+    /**
+     * Getter.
+     * @return the exit status.
+     */
+    public int getStatus()
+    {
+        return status;
+    }
+}
@@ -1,9 +1,6 @@
 package src.wci.util;
 
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
 import java.io.PrintStream;
 
 import src.wci.intermediate.*;
@@ -127,13 +124,13 @@ public class ParseTreePrinter
         String saveIndentation = indentation;
         indentation += indent;
 
-        Set<Map.Entry<ICodeKey, Object>> attributes = node.entrySet();
-        Iterator<Map.Entry<ICodeKey, Object>> it = attributes.iterator();
+        // Print each attribute that is set, in the order of the keys.
+        for (ICodeKeyImpl key : ICodeKeyImpl.values()) {
+            Object value = node.getAttribute(key);
 
-        // Iterate to print each attribute.
-        while (it.hasNext()) {
-            Map.Entry<ICodeKey, Object> attribute = it.next();
-            printAttribute(attribute.getKey().toString(), attribute.getValue());
+            if (value != null) {
+                printAttribute(key.toString(), value);
+            }
         }
 
         indentation = saveIndentation;
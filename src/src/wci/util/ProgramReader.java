@@ -0,0 +1,390 @@
+package src.wci.util;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.Predefined;
+
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+import static src.wci.util.ProgramWriter.*;
+
+/**
+ * <h1>ProgramReader</h1>
+ *
+ * <p>Load a parsed program that ProgramWriter wrote, and return its
+ * symbol table stack.  The program's intermediate code and symbol tables
+ * are ready for the back end and for the cross-referencer and the parse
+ * tree printer, as if the source had just been parsed.  The file is
+ * mapped into memory and decoded in place.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ProgramReader
+{
+    private ByteBuffer in;  // the file's contents
+
+    // The numbered objects.
+    private SymTab symTabs[];
+    private SymTabEntry entries[];
+    private boolean predefinedEntries[];
+    private TypeSpec types[];
+    private boolean predefinedTypes[];
+    private ICode iCodes[];
+
+    private ArrayList<String> strings = new ArrayList<String>();
+    private HashMap<String, Object[]> enumConstants =
+        new HashMap<String, Object[]>();
+
+    /**
+     * Load a parsed program from a file.
+     * @param file the file.
+     * @return the symbol table stack of the program.
+     * @throws IOException if an I/O error occurred, or if the file is not
+     *                     a valid parsed program.
+     */
+    public SymTabStack read(File file)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                                                    StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY,
+                                    0, channel.size()));
+        }
+    }
+
+    /**
+     * Load a parsed program from a buffer.
+     * @param in the buffer.
+     * @return the symbol table stack of the program.
+     * @throws IOException if the buffer does not contain a valid parsed
+     *                     program.
+     */
+    public SymTabStack read(ByteBuffer in)
+        throws IOException
+    {
+        this.in = in;
+
+        try {
+            if ((in.getInt() != MAGIC) || (readNumber() != VERSION)) {
+                throw new IOException("Not a parsed program file");
+            }
+
+            SymTabStack symTabStack = SymTabFactory.createSymTabStack();
+
+            readShells(symTabStack.getLocalSymTab());
+            readContents();
+
+            // The symbol table stack.
+            symTabStack.setProgramId(entries[readNumber()]);
+            int depth = readNumber();
+            for (int i = 0; i < depth; ++i) {
+                symTabStack.push(symTabs[readNumber()]);
+            }
+
+            return symTabStack;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException |
+               ClassCastException | ClassNotFoundException ex) {
+            throw new IOException("Corrupt parsed program file", ex);
+        }
+    }
+
+    /**
+     * Create each object.
+     * @param levelZero the symbol table at nesting level 0.
+     * @throws IOException if the buffer is invalid.
+     * @throws ClassNotFoundException if an enumeration is unknown.
+     */
+    private void readShells(SymTab levelZero)
+        throws IOException, ClassNotFoundException
+    {
+        symTabs = new SymTab[readNumber()];
+        for (int i = 0; i < symTabs.length; ++i) {
+            symTabs[i] = in.get() == PREDEFINED
+                             ? levelZero
+                             : SymTabFactory.createSymTab(readNumber());
+        }
+
+        entries = new SymTabEntry[readNumber()];
+        predefinedEntries = new boolean[entries.length];
+        for (int i = 0; i < entries.length; ++i) {
+            int kind = in.get();
+            predefinedEntries[i] = kind == PREDEFINED;
+
+            if (predefinedEntries[i]) {
+                String name = readString();
+
+                entries[i] = Predefined.symTab.lookup(name);
+                if (entries[i] == null) {
+                    throw new IOException("Unknown predefined identifier " +
+                                          name);
+                }
+            }
+            else {
+                SymTab symTab = symTabs[readNumber()];
+                String name = readString();
+
+                entries[i] = kind == DETACHED
+                                 ? SymTabFactory.createSymTabEntry(name,
+                                                                   symTab)
+                                 : symTab.enter(name);
+            }
+        }
+
+        TypeSpec predefined[] = predefinedTypes();
+        types = new TypeSpec[readNumber()];
+        predefinedTypes = new boolean[types.length];
+        for (int i = 0; i < types.length; ++i) {
+            predefinedTypes[i] = in.get() == PREDEFINED;
+            types[i] = predefinedTypes[i]
+                           ? predefined[readNumber()]
+                           : TypeFactory.createType((TypeForm) readEnum());
+        }
+
+        iCodes = new ICode[readNumber()];
+        for (int i = 0; i < iCodes.length; ++i) {
+            iCodes[i] = ICodeFactory.createICode();
+        }
+    }
+
+    /**
+     * Fill in the contents of each object.
+     * @throws IOException if the buffer is invalid.
+     * @throws ClassNotFoundException if an enumeration is unknown.
+     */
+    private void readContents()
+        throws IOException, ClassNotFoundException
+    {
+        for (SymTab symTab : symTabs) {
+            for (int count = readNumber(); count > 0; --count) {
+                symTab.nextSlotNumber();
+            }
+        }
+
+        for (int i = 0; i < entries.length; ++i) {
+            if (!predefinedEntries[i]) {
+                readEntry(entries[i]);
+            }
+        }
+
+        for (int i = 0; i < types.length; ++i) {
+            if (!predefinedTypes[i]) {
+                TypeSpec type = types[i];
+                SymTabEntry identifier =
+                    (SymTabEntry) readOptionalReference(entries);
+
+                type.setIdentifier(identifier);
+                for (int count = readNumber(); count > 0; --count) {
+                    type.setAttribute(TYPE_KEYS[readNumber()], readValue());
+                }
+            }
+        }
+
+        for (ICode iCode : iCodes) {
+            if (in.get() != 0) {
+                iCode.setRoot(readTree());
+            }
+        }
+    }
+
+    /**
+     * Fill in the contents of a symbol table entry.
+     * @param entry the entry.
+     * @throws IOException if the buffer is invalid.
+     * @throws ClassNotFoundException if an enumeration is unknown.
+     */
+    private void readEntry(SymTabEntry entry)
+        throws IOException, ClassNotFoundException
+    {
+        if (in.get() != 0) {
+            entry.setDefinition((Definition) readEnum());
+        }
+
+        entry.setTypeSpec((TypeSpec) readOptionalReference(types));
+
+        for (int count = readNumber(); count > 0; --count) {
+            entry.appendLineNumber(readNumber());
+        }
+
+        for (int count = readNumber(); count > 0; --count) {
+            entry.setAttribute(ENTRY_KEYS[readNumber()], readValue());
+        }
+    }
+
+    /**
+     * Read an intermediate code tree.  The children are added before the
+     * node's line number is set, so that the line numbers are exactly as
+     * they were written.
+     * @return the root node of the tree.
+     * @throws IOException if the buffer is invalid.
+     * @throws ClassNotFoundException if an enumeration is unknown.
+     */
+    private ICodeNode readTree()
+        throws IOException, ClassNotFoundException
+    {
+        ICodeNode node = ICodeFactory.createICodeNode(
+                             (ICodeNodeType) readEnum());
+        int flags = in.get();
+        int lineNumber = readNumber();
+
+        if ((flags & F_ID) != 0) {
+            node.setAttribute(ID, entries[readNumber()]);
+        }
+        if ((flags & F_VALUE) != 0) {
+            node.setAttribute(VALUE, readValue());
+        }
+        if ((flags & F_TYPE) != 0) {
+            node.setTypeSpec(types[readNumber()]);
+        }
+
+        for (int count = readNumber(); count > 0; --count) {
+            node.addChild(readTree());
+        }
+
+        if ((flags & F_STATEMENT) != 0) {
+            node.setAttribute(LINE, lineNumber);
+        }
+        else if (lineNumber != 0) {
+            node.setLineNumber(lineNumber);
+        }
+
+        return node;
+    }
+
+    /**
+     * Read a tagged attribute value.
+     * @return the value.
+     * @throws IOException if the buffer is invalid.
+     * @throws ClassNotFoundException if an enumeration is unknown.
+     */
+    private Object readValue()
+        throws IOException, ClassNotFoundException
+    {
+        int tag = in.get();
+
+        switch (tag) {
+            case T_INTEGER: {
+                int n = readNumber();
+                return (n >>> 1) ^ -(n & 1);
+            }
+
+            case T_FLOAT:     return in.getFloat();
+            case T_FALSE:     return false;
+            case T_TRUE:      return true;
+            case T_CHARACTER: return (char) readNumber();
+            case T_STRING:    return readString();
+            case T_ENUM:      return readEnum();
+            case T_ENTRY:     return entries[readNumber()];
+            case T_TYPE:      return types[readNumber()];
+            case T_SYMTAB:    return symTabs[readNumber()];
+            case T_ICODE:     return iCodes[readNumber()];
+
+            case T_LIST: {
+                int count = readNumber();
+                ArrayList<Object> list = new ArrayList<Object>(count);
+
+                for (int i = 0; i < count; ++i) {
+                    list.add(readValue());
+                }
+
+                return list;
+            }
+
+            case T_ENTRY_ARRAY: {
+                SymTabEntry array[] = new SymTabEntry[readNumber()];
+
+                for (int i = 0; i < array.length; ++i) {
+                    array[i] = (SymTabEntry) readOptionalReference(entries);
+                }
+
+                return array;
+            }
+
+            default: {
+                throw new IOException("Invalid value tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * Read the number of an object plus one, or 0 for null.
+     * @param objects the numbered objects.
+     * @return the object, or null.
+     */
+    private Object readOptionalReference(Object objects[])
+    {
+        int n = readNumber();
+        return n > 0 ? objects[n - 1] : null;
+    }
+
+    /**
+     * Read an enumeration constant.
+     * @return the constant.
+     * @throws ClassNotFoundException if the enumeration is unknown.
+     */
+    private Object readEnum()
+        throws ClassNotFoundException
+    {
+        String className = readString();
+        Object constants[] = enumConstants.get(className);
+
+        if (constants == null) {
+            constants = Class.forName(className).getEnumConstants();
+            if (constants == null) {
+                throw new ClassNotFoundException(className);
+            }
+
+            enumConstants.put(className, constants);
+        }
+
+        return constants[readNumber()];
+    }
+
+    /**
+     * Read a string.
+     * @return the string.
+     */
+    private String readString()
+    {
+        int index = readNumber();
+
+        if (index > 0) {
+            return strings.get(index - 1);
+        }
+        else {
+            byte bytes[] = new byte[readNumber()];
+            in.get(bytes);
+
+            String string = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(string);
+
+            return string;
+        }
+    }
+
+    /**
+     * Read a number in 7-bit groups, low group first.
+     * @return the number.
+     */
+    private int readNumber()
+    {
+        int n = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = in.get();
+            n |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return n;
+    }
+}
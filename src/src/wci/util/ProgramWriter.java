@@ -0,0 +1,647 @@
+package src.wci.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import src.wci.intermediate.*;
+import src.wci.intermediate.symtabimpl.Predefined;
+import src.wci.intermediate.symtabimpl.SymTabKeyImpl;
+import src.wci.intermediate.typeimpl.TypeKeyImpl;
+
+import static src.wci.intermediate.icodeimpl.ICodeKeyImpl.*;
+
+/**
+ * <h1>ProgramWriter</h1>
+ *
+ * <p>Write a parsed program, its symbol table stack with the intermediate
+ * code of each routine and the type specifications, to a compact binary
+ * file that ProgramReader loads without scanning and parsing the source
+ * again.</p>
+ *
+ * <p>The symbol tables, symbol table entries, type specifications, and
+ * intermediate code objects of the program are numbered, and the file
+ * refers to each one by its number, so that shared and recursive
+ * references survive.  The file first describes just enough of every
+ * object to create it, and then the contents of the objects.  The
+ * predefined types and identifiers are not written; they are referred to
+ * by index and by name.  Numbers are written in a variable-length format,
+ * and strings are written once and referred to by index afterwards.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ProgramWriter
+{
+    public static final String EXTENSION = ".wci";
+
+    static final int MAGIC   = 0x57434950;  // "WCIP"
+    static final int VERSION = 2;
+
+    // Kinds of symbol tables, entries, and types.  The reader uses its own
+    // symbol table at nesting level 0 and its own predefined entries and
+    // types.  A detached entry refers to a symbol table that doesn't
+    // contain it.
+    static final int DEFINED    = 0;
+    static final int PREDEFINED = 1;
+    static final int DETACHED   = 2;
+
+    // Tags of attribute values.
+    static final int T_INTEGER     = 0;
+    static final int T_FLOAT       = 1;
+    static final int T_FALSE       = 2;
+    static final int T_TRUE        = 3;
+    static final int T_CHARACTER   = 4;
+    static final int T_STRING      = 5;
+    static final int T_ENUM        = 6;
+    static final int T_ENTRY       = 7;
+    static final int T_TYPE        = 8;
+    static final int T_SYMTAB      = 9;
+    static final int T_ICODE       = 10;
+    static final int T_LIST        = 11;
+    static final int T_ENTRY_ARRAY = 12;
+
+    // Flags of an intermediate code node.
+    static final int F_STATEMENT = 1;
+    static final int F_ID        = 2;
+    static final int F_VALUE     = 4;
+    static final int F_TYPE      = 8;
+
+    // Attribute keys.
+    static final SymTabKeyImpl ENTRY_KEYS[] = SymTabKeyImpl.values();
+    static final TypeKeyImpl TYPE_KEYS[] = TypeKeyImpl.values();
+
+    /**
+     * @return the predefined types in the order of their indexes.
+     */
+    static TypeSpec[] predefinedTypes()
+    {
+        return new TypeSpec[] {Predefined.integerType, Predefined.realType,
+                               Predefined.booleanType, Predefined.charType,
+                               Predefined.undefinedType};
+    }
+
+    private DataOutputStream out;  // the file
+
+    private SymTab levelZero;      // symbol table at nesting level 0
+
+    // The numbered objects, and their numbers.
+    private ArrayList<SymTab> symTabs = new ArrayList<SymTab>();
+    private ArrayList<SymTabEntry> entries = new ArrayList<SymTabEntry>();
+    private ArrayList<TypeSpec> types = new ArrayList<TypeSpec>();
+    private ArrayList<ICode> iCodes = new ArrayList<ICode>();
+    private IdentityHashMap<Object, Integer> numbers =
+        new IdentityHashMap<Object, Integer>();
+
+    private HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+    /**
+     * Write a parsed program to a file.
+     * @param symTabStack the symbol table stack of the parsed program.
+     * @param file the file.
+     * @throws IOException if an I/O error occurred, or if the program
+     *                     contains a value that cannot be written.
+     */
+    public void write(SymTabStack symTabStack, File file)
+        throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                                        new BufferedOutputStream(
+                                            new FileOutputStream(file)))) {
+            write(symTabStack, out);
+        }
+    }
+
+    /**
+     * Write a parsed program to a stream.
+     * @param symTabStack the symbol table stack of the parsed program.
+     * @param out the stream.
+     * @throws IOException if an I/O error occurred, or if the program
+     *                     contains a value that cannot be written.
+     */
+    public void write(SymTabStack symTabStack, DataOutputStream out)
+        throws IOException
+    {
+        this.out = out;
+
+        // Take the symbol tables above level 0 off the stack, and put
+        // them back.
+        ArrayList<SymTab> stack = new ArrayList<SymTab>();
+        while (symTabStack.getCurrentNestingLevel() > 0) {
+            stack.add(0, symTabStack.pop());
+        }
+        levelZero = symTabStack.getLocalSymTab();
+        for (SymTab symTab : stack) {
+            symTabStack.push(symTab);
+        }
+
+        SymTabEntry programId = symTabStack.getProgramId();
+
+        // Number every object that the stack reaches.
+        number(levelZero);
+        number(programId);
+        for (SymTab symTab : stack) {
+            number(symTab);
+        }
+        expand();
+
+        out.writeInt(MAGIC);
+        writeNumber(VERSION);
+
+        writeShells();
+        writeContents();
+
+        // The symbol table stack.
+        writeReference(programId);
+        writeNumber(stack.size());
+        for (SymTab symTab : stack) {
+            writeReference(symTab);
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Give an object a number if it doesn't have one yet.
+     * @param object the symbol table, entry, type, or intermediate code.
+     */
+    private void number(Object object)
+    {
+        if ((object == null) || numbers.containsKey(object)) {
+            return;
+        }
+
+        if (object instanceof SymTab) {
+            numbers.put(object, symTabs.size());
+            symTabs.add((SymTab) object);
+        }
+        else if (object instanceof SymTabEntry) {
+            numbers.put(object, entries.size());
+            entries.add((SymTabEntry) object);
+        }
+        else if (object instanceof TypeSpec) {
+            numbers.put(object, types.size());
+            types.add((TypeSpec) object);
+        }
+        else if (object instanceof ICode) {
+            numbers.put(object, iCodes.size());
+            iCodes.add((ICode) object);
+        }
+    }
+
+    /**
+     * Number the objects that the numbered objects refer to, until there
+     * are no new ones.
+     */
+    private void expand()
+    {
+        int symTabIndex = 0, entryIndex = 0, typeIndex = 0, iCodeIndex = 0;
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            while (symTabIndex < symTabs.size()) {
+                SymTab symTab = symTabs.get(symTabIndex++);
+
+                for (SymTabEntry entry : symTab.sortedEntries()) {
+                    if (!isPredefined(entry)) {
+                        number(entry);
+                    }
+                }
+                changed = true;
+            }
+
+            while (entryIndex < entries.size()) {
+                SymTabEntry entry = entries.get(entryIndex++);
+
+                if (!isPredefined(entry)) {
+                    number(entry.getSymTab());
+                    number(entry.getTypeSpec());
+                    for (SymTabKeyImpl key : ENTRY_KEYS) {
+                        numberValue(entry.getAttribute(key));
+                    }
+                }
+                changed = true;
+            }
+
+            while (typeIndex < types.size()) {
+                TypeSpec type = types.get(typeIndex++);
+
+                if (predefinedIndex(type) < 0) {
+                    number(type.getIdentifier());
+                    for (TypeKeyImpl key : TYPE_KEYS) {
+                        numberValue(type.getAttribute(key));
+                    }
+                }
+                changed = true;
+            }
+
+            while (iCodeIndex < iCodes.size()) {
+                numberTree(iCodes.get(iCodeIndex++).getRoot());
+                changed = true;
+            }
+        }
+    }
+
+    /**
+     * Number the objects that an attribute value refers to.
+     * @param value the value.
+     */
+    private void numberValue(Object value)
+    {
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                numberValue(element);
+            }
+        }
+        else if (value instanceof SymTabEntry[]) {
+            for (SymTabEntry element : (SymTabEntry[]) value) {
+                number(element);
+            }
+        }
+        else {
+            number(value);
+        }
+    }
+
+    /**
+     * Number the objects that an intermediate code tree refers to.
+     * @param node the root node of the tree.
+     */
+    private void numberTree(ICodeNode node)
+    {
+        if (node != null) {
+            number(node.getTypeSpec());
+            number(node.getAttribute(ID));
+            numberValue(node.getAttribute(VALUE));
+
+            for (ICodeNode child : node.getChildren()) {
+                numberTree(child);
+            }
+        }
+    }
+
+    /**
+     * Write what the reader needs to create each object.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeShells()
+        throws IOException
+    {
+        writeNumber(symTabs.size());
+        for (SymTab symTab : symTabs) {
+            if (symTab == levelZero) {
+                out.writeByte(PREDEFINED);
+            }
+            else {
+                out.writeByte(DEFINED);
+                writeNumber(symTab.getNestingLevel());
+            }
+        }
+
+        writeNumber(entries.size());
+        for (SymTabEntry entry : entries) {
+            if (isPredefined(entry)) {
+                out.writeByte(PREDEFINED);
+            }
+            else {
+                out.writeByte(isDetached(entry) ? DETACHED : DEFINED);
+                writeReference(entry.getSymTab());
+            }
+            writeString(entry.getName());
+        }
+
+        writeNumber(types.size());
+        for (TypeSpec type : types) {
+            int index = predefinedIndex(type);
+
+            if (index >= 0) {
+                out.writeByte(PREDEFINED);
+                writeNumber(index);
+            }
+            else {
+                out.writeByte(DEFINED);
+                writeEnum((Enum<?>) type.getForm());
+            }
+        }
+
+        writeNumber(iCodes.size());
+    }
+
+    /**
+     * Write the contents of each object.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeContents()
+        throws IOException
+    {
+        for (SymTab symTab : symTabs) {
+            writeNumber(symTab.lastSlotNumber() + 1);
+        }
+
+        for (SymTabEntry entry : entries) {
+            if (!isPredefined(entry)) {
+                writeEntry(entry);
+            }
+        }
+
+        for (TypeSpec type : types) {
+            if (predefinedIndex(type) < 0) {
+                writeOptionalReference(type.getIdentifier());
+                writeAttributes(type);
+            }
+        }
+
+        for (ICode iCode : iCodes) {
+            ICodeNode root = iCode.getRoot();
+
+            out.writeBoolean(root != null);
+            if (root != null) {
+                writeTree(root);
+            }
+        }
+    }
+
+    /**
+     * Write the contents of a symbol table entry.
+     * @param entry the entry.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeEntry(SymTabEntry entry)
+        throws IOException
+    {
+        Definition definition = entry.getDefinition();
+
+        out.writeBoolean(definition != null);
+        if (definition != null) {
+            writeEnum((Enum<?>) definition);
+        }
+
+        writeOptionalReference(entry.getTypeSpec());
+
+        ArrayList<Integer> lineNumbers = entry.getLineNumbers();
+        writeNumber(lineNumbers.size());
+        for (int lineNumber : lineNumbers) {
+            writeNumber(lineNumber);
+        }
+
+        int count = 0;
+        for (SymTabKeyImpl key : ENTRY_KEYS) {
+            if (entry.getAttribute(key) != null) {
+                ++count;
+            }
+        }
+
+        writeNumber(count);
+        for (SymTabKeyImpl key : ENTRY_KEYS) {
+            Object value = entry.getAttribute(key);
+
+            if (value != null) {
+                writeNumber(key.ordinal());
+                writeValue(value);
+            }
+        }
+    }
+
+    /**
+     * Write the attributes of a type specification.
+     * @param type the type specification.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeAttributes(TypeSpec type)
+        throws IOException
+    {
+        int count = 0;
+        for (TypeKeyImpl key : TYPE_KEYS) {
+            if (type.getAttribute(key) != null) {
+                ++count;
+            }
+        }
+
+        writeNumber(count);
+        for (TypeKeyImpl key : TYPE_KEYS) {
+            Object value = type.getAttribute(key);
+
+            if (value != null) {
+                writeNumber(key.ordinal());
+                writeValue(value);
+            }
+        }
+    }
+
+    /**
+     * Write an intermediate code tree.
+     * @param node the root node of the tree.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeTree(ICodeNode node)
+        throws IOException
+    {
+        Object id = node.getAttribute(ID);
+        Object value = node.getAttribute(VALUE);
+        TypeSpec typeSpec = node.getTypeSpec();
+        ArrayList<ICodeNode> children = node.getChildren();
+
+        int flags = 0;
+        if (node.getAttribute(LINE) != null) flags |= F_STATEMENT;
+        if (id != null)                      flags |= F_ID;
+        if (value != null)                   flags |= F_VALUE;
+        if (typeSpec != null)                flags |= F_TYPE;
+
+        writeEnum((Enum<?>) node.getType());
+        out.writeByte(flags);
+        writeNumber(node.getLineNumber());
+
+        if (id != null)       writeReference(id);
+        if (value != null)    writeValue(value);
+        if (typeSpec != null) writeReference(typeSpec);
+
+        writeNumber(children.size());
+        for (ICodeNode child : children) {
+            writeTree(child);
+        }
+    }
+
+    /**
+     * Write a tagged attribute value.
+     * @param value the value.
+     * @throws IOException if an I/O error occurred, or if the value
+     *                     cannot be written.
+     */
+    private void writeValue(Object value)
+        throws IOException
+    {
+        if (value instanceof Integer) {
+            out.writeByte(T_INTEGER);
+            int n = (Integer) value;
+            writeNumber((n << 1) ^ (n >> 31));
+        }
+        else if (value instanceof Float) {
+            out.writeByte(T_FLOAT);
+            out.writeFloat((Float) value);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? T_TRUE : T_FALSE);
+        }
+        else if (value instanceof Character) {
+            out.writeByte(T_CHARACTER);
+            writeNumber((Character) value);
+        }
+        else if (value instanceof String) {
+            out.writeByte(T_STRING);
+            writeString((String) value);
+        }
+        else if (value instanceof Enum) {
+            out.writeByte(T_ENUM);
+            writeEnum((Enum<?>) value);
+        }
+        else if (value instanceof SymTabEntry) {
+            out.writeByte(T_ENTRY);
+            writeReference(value);
+        }
+        else if (value instanceof TypeSpec) {
+            out.writeByte(T_TYPE);
+            writeReference(value);
+        }
+        else if (value instanceof SymTab) {
+            out.writeByte(T_SYMTAB);
+            writeReference(value);
+        }
+        else if (value instanceof ICode) {
+            out.writeByte(T_ICODE);
+            writeReference(value);
+        }
+        else if (value instanceof ArrayList) {
+            ArrayList<?> list = (ArrayList<?>) value;
+
+            out.writeByte(T_LIST);
+            writeNumber(list.size());
+            for (Object element : list) {
+                writeValue(element);
+            }
+        }
+        else if (value instanceof SymTabEntry[]) {
+            SymTabEntry array[] = (SymTabEntry[]) value;
+
+            out.writeByte(T_ENTRY_ARRAY);
+            writeNumber(array.length);
+            for (SymTabEntry element : array) {
+                writeOptionalReference(element);
+            }
+        }
+        else {
+            throw new IOException("Cannot write a value of class " +
+                                  value.getClass().getName());
+        }
+    }
+
+    /**
+     * Write the number of an object.
+     * @param object the object.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeReference(Object object)
+        throws IOException
+    {
+        writeNumber(numbers.get(object));
+    }
+
+    /**
+     * Write the number of an object plus one, or 0 for null.
+     * @param object the object, or null.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeOptionalReference(Object object)
+        throws IOException
+    {
+        writeNumber(object != null ? numbers.get(object) + 1 : 0);
+    }
+
+    /**
+     * Write an enumeration constant as its class name and ordinal.
+     * @param constant the constant.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeEnum(Enum<?> constant)
+        throws IOException
+    {
+        writeString(constant.getDeclaringClass().getName());
+        writeNumber(constant.ordinal());
+    }
+
+    /**
+     * Write a string: the index of a string that was already written plus
+     * one, or else 0 followed by the length and the UTF-8 bytes.
+     * @param string the string.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeString(String string)
+        throws IOException
+    {
+        Integer index = strings.get(string);
+
+        if (index != null) {
+            writeNumber(index + 1);
+        }
+        else {
+            byte bytes[] = string.getBytes(StandardCharsets.UTF_8);
+
+            strings.put(string, strings.size());
+            writeNumber(0);
+            writeNumber(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Write a non-negative number in 7-bit groups, low group first, with
+     * the high bit of each byte set if more groups follow.
+     * @param n the number.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void writeNumber(int n)
+        throws IOException
+    {
+        while ((n & ~0x7F) != 0) {
+            out.writeByte((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        out.writeByte(n);
+    }
+
+    /**
+     * @param entry a symbol table entry.
+     * @return true if it is a predefined identifier.
+     */
+    private boolean isPredefined(SymTabEntry entry)
+    {
+        return entry.getSymTab() == Predefined.symTab;
+    }
+
+    /**
+     * @param entry a symbol table entry.
+     * @return true if its symbol table doesn't contain it.
+     */
+    private static boolean isDetached(SymTabEntry entry)
+    {
+        return entry.getSymTab().lookup(entry.getName()) != entry;
+    }
+
+    /**
+     * @param type a type specification.
+     * @return its index among the predefined types, or -1 if it is not one.
+     */
+    private static int predefinedIndex(TypeSpec type)
+    {
+        TypeSpec predefined[] = predefinedTypes();
+
+        for (int i = 0; i < predefined.length; ++i) {
+            if (type == predefined[i]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
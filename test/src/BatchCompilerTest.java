@@ -0,0 +1,137 @@
+package src;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <h1>BatchCompilerTest</h1>
+ *
+ * <p>Compile a directory of Pascal and SubC source files and check that
+ * each file is parsed with the front end of its language.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BatchCompilerTest
+{
+    private static final String PASCAL_PROGRAM =
+        "PROGRAM %s (output);\n" +
+        "VAR i : integer;\n" +
+        "BEGIN\n" +
+        "    i := 2;\n" +
+        "    writeln('i=', i)\n" +
+        "END.\n";
+
+    private static final String SUBC_PROGRAM =
+        "int main(){\n" +
+        "int i;\n" +
+        "i = 2;\n" +
+        "writeln(i);\n" +
+        "return 0;\n" +
+        "}\n";
+
+    private File directory;  // the source files
+    private File output;     // the generated files
+
+    @Before
+    public void createDirectories()
+        throws IOException
+    {
+        directory = File.createTempFile("batch", "");
+        directory.delete();
+        directory.mkdir();
+
+        output = new File(directory, "out");
+        output.mkdir();
+    }
+
+    @After
+    public void deleteDirectories()
+    {
+        delete(directory);
+    }
+
+    @Test
+    public void mixedDirectory()
+        throws IOException
+    {
+        File pascal = write("first.pas", String.format(PASCAL_PROGRAM,
+                                                       "first"));
+        File pascalText = write("secondPascal.txt",
+                                String.format(PASCAL_PROGRAM, "second"));
+        File subC = write("third.c", SUBC_PROGRAM);
+        File subCText = write("fourthSubC.txt", SUBC_PROGRAM);
+        File unclear = write("notes.txt", SUBC_PROGRAM);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        boolean compiled;
+
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            BatchCompiler compiler = new BatchCompiler(2, output, null);
+            compiled = compiler.compileAll(
+                           BatchCompiler.sourceFiles(directory));
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        String report = bytes.toString();
+
+        assertFalse(report, compiled);
+        assertTrue(report, report.contains("COMPILED       " + pascal));
+        assertTrue(report, report.contains("COMPILED       " + pascalText));
+        assertTrue(report, report.contains("COMPILED       " + subC));
+        assertTrue(report, report.contains("COMPILED       " + subCText));
+        assertTrue(report, report.contains("FAILED         " + unclear));
+        assertTrue(report, report.contains(" 0 syntax errors."));
+        assertTrue(new File(output, "fourthSubC.class").isFile());
+    }
+
+    /**
+     * Write a source file into the directory.
+     * @param name the file name.
+     * @param text the source text.
+     * @return the file.
+     * @throws IOException if an I/O error occurred.
+     */
+    private File write(String name, String text)
+        throws IOException
+    {
+        File file = new File(directory, name);
+
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(text);
+        }
+
+        return file;
+    }
+
+    /**
+     * Delete a file, or a directory and everything in it.
+     * @param file the file or directory.
+     */
+    private void delete(File file)
+    {
+        File entries[] = file.listFiles();
+
+        if (entries != null) {
+            for (File entry : entries) {
+                delete(entry);
+            }
+        }
+
+        file.delete();
+    }
+}
@@ -0,0 +1,165 @@
+package src;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import src.wci.backend.BackendContext;
+
+/**
+ * <h1>RunModeTest</h1>
+ *
+ * <p>Run programs with the run operation, which compiles them and runs
+ * the generated code in memory, and check that they print what the
+ * interpreter prints and report an exception the way java does.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class RunModeTest
+{
+    // Routines, loops and formatted output.
+    private static final String OUTPUT_PROGRAM =
+        "PROGRAM runtest (output);\n" +
+        "VAR i, sum : integer; x : real;\n" +
+        "\n" +
+        "FUNCTION square(n : integer) : integer;\n" +
+        "BEGIN\n" +
+        "    square := n*n\n" +
+        "END;\n" +
+        "\n" +
+        "PROCEDURE halve(VAR r : real);\n" +
+        "BEGIN\n" +
+        "    r := r/2\n" +
+        "END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    sum := 0;\n" +
+        "    FOR i := 1 TO 10 DO sum := sum + square(i);\n" +
+        "    writeln('> sum=', sum:5);\n" +
+        "    x := 10;\n" +
+        "    WHILE x > 1 DO halve(x);\n" +
+        "    writeln('> x=', x:8:4);\n" +
+        "    IF odd(sum) THEN writeln('> odd') ELSE writeln('> even')\n" +
+        "END.\n";
+
+    // A division by zero in the main program.
+    private static final String DIVISION_PROGRAM =
+        "PROGRAM divz (output);\n" +
+        "VAR i, k : integer;\n" +
+        "BEGIN\n" +
+        "    writeln('> before');\n" +
+        "    i := 0;\n" +
+        "    k := 10 DIV i;\n" +
+        "    writeln('> after ', k)\n" +
+        "END.\n";
+
+    @Test
+    public void sameOutputAsInterpreter()
+        throws IOException
+    {
+        File file = write("runtest", OUTPUT_PROGRAM);
+        try {
+            String expected = "> sum=  385\n" +
+                              "> x=  0.6250\n" +
+                              "> odd\n";
+
+            assertEquals(expected, run("execute", file).programOut);
+            assertEquals(expected, run("run", file).programOut);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void programException()
+        throws IOException
+    {
+        File file = write("divz", DIVISION_PROGRAM);
+        try {
+            Output output = run("run", file);
+
+            assertEquals("> before\n", output.programOut);
+            assertEquals("Exception in thread \"main\" " +
+                         "java.lang.ArithmeticException: / by zero\n" +
+                         "\tat divz.main(divz.j:6)\n",
+                         output.err);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * The output of a run.
+     */
+    private static class Output
+    {
+        String programOut;  // standard output lines that start with "> "
+        String err;         // standard error
+    }
+
+    /**
+     * Write a program into a temporary source file.
+     * @param name the file name prefix.
+     * @param program the text of the Pascal program.
+     * @return the file.
+     * @throws IOException if an I/O error occurred.
+     */
+    private File write(String name, String program)
+        throws IOException
+    {
+        File file = File.createTempFile(name, ".pas");
+
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(program);
+        }
+
+        return file;
+    }
+
+    /**
+     * Run a program and capture its output.
+     * @param operation the operation.
+     * @param file the source file.
+     * @return the output.
+     */
+    private Output run(String operation, File file)
+    {
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+
+        System.setOut(new PrintStream(outBytes, true));
+        System.setErr(new PrintStream(errBytes, true));
+        try {
+            SubC.translate(new String[] {operation, file.getPath(), "Pascal"},
+                           new BackendContext());
+        }
+        finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+
+        Output output = new Output();
+        output.err = errBytes.toString().replace("\r\n", "\n");
+
+        StringBuilder programOut = new StringBuilder();
+        for (String line : outBytes.toString().split("\r?\n")) {
+            if (line.startsWith("> ")) {
+                programOut.append(line).append('\n');
+            }
+        }
+        output.programOut = programOut.toString();
+
+        return output;
+    }
+}
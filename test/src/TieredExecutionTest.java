@@ -0,0 +1,136 @@
+package src;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import src.wci.backend.BackendContext;
+
+/**
+ * <h1>TieredExecutionTest</h1>
+ *
+ * <p>Run programs with the interpreter and with tiered execution and
+ * check that their output is the same, including after their routines
+ * become hot and are compiled.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class TieredExecutionTest
+{
+    // Hot routines that divide by zero after they are compiled.
+    private static final String DIVISION_PROGRAM =
+        "PROGRAM divtest (output);\n" +
+        "VAR i, k : integer; s : real;\n" +
+        "\n" +
+        "FUNCTION f(x : real) : real;\n" +
+        "BEGIN\n" +
+        "    f := 1.0/x\n" +
+        "END;\n" +
+        "\n" +
+        "FUNCTION g(n : integer) : integer;\n" +
+        "VAR t : integer;\n" +
+        "BEGIN\n" +
+        "    t := 100 DIV n;\n" +
+        "    g := t + n MOD n\n" +
+        "END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    FOR i := 1 TO 2000 DO BEGIN\n" +
+        "        s := f(i);\n" +
+        "        k := g(i)\n" +
+        "    END;\n" +
+        "    s := f(0);\n" +
+        "    k := g(0);\n" +
+        "    writeln('s=', s:0:4, ' k=', k)\n" +
+        "END.\n";
+
+    // A hot routine that is compiled.
+    private static final String HOT_PROGRAM =
+        "PROGRAM hottest (output);\n" +
+        "VAR i, sum : integer;\n" +
+        "\n" +
+        "FUNCTION square(n : integer) : integer;\n" +
+        "BEGIN\n" +
+        "    square := n*n - n + 1\n" +
+        "END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    sum := 0;\n" +
+        "    FOR i := 1 TO 5000 DO sum := sum + square(i MOD 100);\n" +
+        "    writeln('sum=', sum)\n" +
+        "END.\n";
+
+    @Test
+    public void divisionByZero()
+        throws IOException
+    {
+        assertSameOutput(DIVISION_PROGRAM);
+    }
+
+    @Test
+    public void hotRoutine()
+        throws IOException
+    {
+        assertSameOutput(HOT_PROGRAM);
+    }
+
+    /**
+     * Check that execute and tieredexecute print the same output.
+     * @param program the text of the Pascal program.
+     * @throws IOException if an I/O error occurred.
+     */
+    private void assertSameOutput(String program)
+        throws IOException
+    {
+        File file = File.createTempFile("tiered", ".pas");
+        try {
+            try (Writer writer = new FileWriter(file)) {
+                writer.write(program);
+            }
+
+            assertEquals(run("execute", file), run("tieredexecute", file));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Run a program and return its output without the timing and the
+     * statement count, which differ between the two back ends.
+     * @param operation the operation.
+     * @param file the source file.
+     * @return the output.
+     */
+    private String run(String operation, File file)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            SubC.translate(new String[] {operation, file.getPath(), "Pascal"},
+                           new BackendContext());
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        StringBuilder output = new StringBuilder();
+        for (String line : bytes.toString().split("\n")) {
+            if (   !line.contains("seconds")
+                && !line.contains("statements executed")) {
+                output.append(line).append('\n');
+            }
+        }
+
+        return output.toString();
+    }
+}
@@ -0,0 +1,219 @@
+package src.wci.backend.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import src.SubC;
+import src.wci.backend.BackendContext;
+
+/**
+ * <h1>BuildCacheTest</h1>
+ *
+ * <p>Store generated files in a build cache, restore them, and check
+ * that a second compilation of an unchanged source file reuses them.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class BuildCacheTest
+{
+    private static final String PROGRAM =
+        "PROGRAM cached (output);\n" +
+        "VAR i : integer;\n" +
+        "BEGIN\n" +
+        "    i := %d;\n" +
+        "    writeln('i=', i)\n" +
+        "END.\n";
+
+    private static final String RESTORED =
+        "Restored cached.j from the build cache.";
+
+    private File directory;  // the source files, the cache and the output
+    private File cacheDirectory;
+
+    @Before
+    public void createDirectories()
+        throws IOException
+    {
+        directory = Files.createTempDirectory("cache").toFile();
+        cacheDirectory = new File(directory, "cache");
+    }
+
+    @After
+    public void deleteDirectories()
+    {
+        System.clearProperty("wci.cache");
+        delete(directory);
+    }
+
+    @Test
+    public void keys()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache(cacheDirectory, 1024);
+        File source = write("cached.pas", String.format(PROGRAM, 1));
+        String key = cache.key(source, "Pascal", "compile ");
+
+        assertEquals(key, cache.key(source, "Pascal", "compile "));
+        assertNotEquals(key, cache.key(source, "SubC", "compile "));
+        assertNotEquals(key, cache.key(source, "Pascal", "compile i"));
+
+        write("cached.pas", String.format(PROGRAM, 2));
+        assertNotEquals(key, cache.key(source, "Pascal", "compile "));
+    }
+
+    @Test
+    public void storeAndRestore()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache(cacheDirectory, 1024*1024);
+        File source = write("cached.pas", String.format(PROGRAM, 1));
+        File generated = write("cached.j", "; generated\n");
+        String key = cache.key(source, "Pascal", "compile ");
+        Properties info = new Properties();
+
+        info.setProperty("instructions", "42");
+        assertNull(cache.lookup(key));
+
+        cache.store(key, "cached", directory, info);
+        assertEquals("cached", cache.lookup(key));
+        assertEquals("42", cache.info(key).getProperty("instructions"));
+
+        File output = new File(directory, "out");
+        output.mkdir();
+
+        assertEquals("cached", cache.restore(key, output));
+        assertEquals(Arrays.asList("cached.j"),
+                     Arrays.asList(output.list()));
+        assertTrue(Arrays.equals(Files.readAllBytes(generated.toPath()),
+                                 Files.readAllBytes(
+                                     new File(output, "cached.j").toPath())));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed()
+        throws IOException
+    {
+        BuildCache cache = new BuildCache(cacheDirectory, 150);
+        char text[] = new char[100];
+        Arrays.fill(text, ';');
+
+        write("cached.j", new String(text));
+        File first = write("first.pas", String.format(PROGRAM, 1));
+        File second = write("second.pas", String.format(PROGRAM, 2));
+        String firstKey = cache.key(first, "Pascal", "compile ");
+        String secondKey = cache.key(second, "Pascal", "compile ");
+
+        cache.store(firstKey, "cached", directory);
+        new File(cacheDirectory, firstKey).setLastModified(
+            System.currentTimeMillis() - 60000);
+        cache.store(secondKey, "cached", directory);
+
+        assertNull(cache.lookup(firstKey));
+        assertEquals("cached", cache.lookup(secondKey));
+    }
+
+    @Test
+    public void compileTwice()
+        throws IOException
+    {
+        File source = write("cached.pas", String.format(PROGRAM, 1));
+        File firstOutput = new File(directory, "first");
+        File secondOutput = new File(directory, "second");
+        File thirdOutput = new File(directory, "third");
+
+        System.setProperty("wci.cache", cacheDirectory.getPath());
+
+        assertFalse(compile(source, firstOutput).contains(RESTORED));
+        assertTrue(compile(source, secondOutput).contains(RESTORED));
+        assertTrue(Arrays.equals(
+            Files.readAllBytes(new File(firstOutput, "cached.j").toPath()),
+            Files.readAllBytes(new File(secondOutput, "cached.j").toPath())));
+
+        // A changed source file is compiled again.
+        write("cached.pas", String.format(PROGRAM, 2));
+        assertFalse(compile(source, thirdOutput).contains(RESTORED));
+    }
+
+    /**
+     * Compile a source file and return the output.
+     * @param source the source file.
+     * @param output the directory of the generated files.
+     * @return the output.
+     */
+    private String compile(File source, File output)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        BackendContext context = new BackendContext();
+
+        output.mkdir();
+        context.outputDirectory = output;
+
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            SubC.translate(new String[] {"compile", source.getPath(),
+                                         "Pascal"},
+                           context);
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        assertTrue(new File(output, "cached.j").isFile());
+
+        return bytes.toString();
+    }
+
+    /**
+     * Write a file into the directory.
+     * @param name the file name.
+     * @param text the text.
+     * @return the file.
+     * @throws IOException if an I/O error occurred.
+     */
+    private File write(String name, String text)
+        throws IOException
+    {
+        File file = new File(directory, name);
+
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(text);
+        }
+
+        return file;
+    }
+
+    /**
+     * Delete a file, or a directory and everything in it.
+     * @param file the file or directory.
+     */
+    private void delete(File file)
+    {
+        File entries[] = file.listFiles();
+
+        if (entries != null) {
+            for (File entry : entries) {
+                delete(entry);
+            }
+        }
+
+        file.delete();
+    }
+}
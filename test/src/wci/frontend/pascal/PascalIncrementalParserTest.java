@@ -0,0 +1,176 @@
+package src.wci.frontend.pascal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import src.wci.intermediate.*;
+import src.wci.message.Message;
+import src.wci.util.CrossReferencer;
+import src.wci.util.ParseTreePrinter;
+
+/**
+ * <h1>PascalIncrementalParserTest</h1>
+ *
+ * <p>Edit a program with the incremental parser and check that its
+ * cross-reference listing, its parse tree and its syntax errors are the
+ * same as the ones of a whole parse of the edited text.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class PascalIncrementalParserTest
+{
+    private static final String PROGRAM =
+        "PROGRAM edited (output);\n" +
+        "VAR i, total : integer;\n" +
+        "\n" +
+        "PROCEDURE add(VAR s : integer; n : integer);\n" +
+        "VAR k : integer;\n" +
+        "BEGIN\n" +
+        "    FOR k := 1 TO n DO s := s + k\n" +
+        "END;\n" +
+        "\n" +
+        "FUNCTION twice(n : integer) : integer;\n" +
+        "BEGIN\n" +
+        "    twice := 2*n\n" +
+        "END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    total := 0;\n" +
+        "    FOR i := 1 TO 3 DO add(total, twice(i));\n" +
+        "    writeln('total=', total)\n" +
+        "END.\n";
+
+    @Test
+    public void editBody()
+        throws Exception
+    {
+        String add = "s := s + k";
+        String replacement = "BEGIN\n" +
+                             "        s := s + k;\n" +
+                             "        s := s - n\n" +
+                             "    END";
+        PascalIncrementalParser parser = new PascalIncrementalParser(PROGRAM);
+        parser.parse();
+
+        int start = PROGRAM.indexOf(add);
+        ArrayList<SymTabEntry> routineIds =
+            parser.edit(start, start + add.length(), replacement);
+
+        // Only the body of add is parsed again.
+        assertEquals(1, routineIds.size());
+        assertEquals("add", routineIds.get(0).getName());
+
+        String text = PROGRAM.substring(0, start) + replacement +
+                      PROGRAM.substring(start + add.length());
+        assertSameParse(text, parser);
+    }
+
+    @Test
+    public void editSyntaxError()
+        throws Exception
+    {
+        String twice = "2*n";
+        PascalIncrementalParser parser = new PascalIncrementalParser(PROGRAM);
+        parser.parse();
+
+        // Introduce a syntax error.
+        int start = PROGRAM.indexOf(twice);
+        parser.edit(start, start + twice.length(), "2*");
+
+        String text = PROGRAM.substring(0, start) + "2*" +
+                      PROGRAM.substring(start + twice.length());
+        assertFalse(parser.getErrors().isEmpty());
+        assertSameParse(text, parser);
+
+        // Correct it.
+        parser.edit(start, start + 2, "n*n");
+
+        text = PROGRAM.substring(0, start) + "n*n" +
+               PROGRAM.substring(start + twice.length());
+        assertTrue(errors(parser).toString(), parser.getErrors().isEmpty());
+        assertSameParse(text, parser);
+    }
+
+    @Test
+    public void editDeclarations()
+        throws Exception
+    {
+        String declaration = "VAR k : integer;";
+        String replacement = "VAR k, unused : integer;";
+        PascalIncrementalParser parser = new PascalIncrementalParser(PROGRAM);
+        parser.parse();
+
+        int start = PROGRAM.indexOf(declaration);
+        ArrayList<SymTabEntry> routineIds =
+            parser.edit(start, start + declaration.length(), replacement);
+
+        // The program and all its routines are parsed again.
+        assertEquals(3, routineIds.size());
+
+        String text = PROGRAM.substring(0, start) + replacement +
+                      PROGRAM.substring(start + declaration.length());
+        assertSameParse(text, parser);
+    }
+
+    /**
+     * Check that an edited program was parsed like its whole text.
+     * @param text the edited text.
+     * @param parser the incremental parser that parsed the edits.
+     * @throws Exception if an error occurred.
+     */
+    private void assertSameParse(String text, PascalIncrementalParser parser)
+        throws Exception
+    {
+        PascalIncrementalParser whole = new PascalIncrementalParser(text);
+        whole.parse();
+
+        assertEquals(errors(whole), errors(parser));
+        assertEquals(print(whole.getSymTabStack()),
+                     print(parser.getSymTabStack()));
+    }
+
+    /**
+     * @param parser a parser.
+     * @return the bodies of its syntax error messages.
+     */
+    private ArrayList<String> errors(PascalIncrementalParser parser)
+    {
+        ArrayList<String> errors = new ArrayList<String>();
+
+        for (Message message : parser.getErrors()) {
+            errors.add(Arrays.deepToString((Object[]) message.getBody()));
+        }
+
+        return errors;
+    }
+
+    /**
+     * Print the cross-reference listing and the parse tree of a program.
+     * @param symTabStack the symbol table stack.
+     * @return what was printed.
+     */
+    private String print(SymTabStack symTabStack)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            new CrossReferencer().print(symTabStack);
+            new ParseTreePrinter(System.out).print(symTabStack);
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        return bytes.toString();
+    }
+}
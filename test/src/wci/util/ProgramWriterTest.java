@@ -0,0 +1,163 @@
+package src.wci.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import src.SubC;
+import src.wci.backend.BackendContext;
+
+/**
+ * <h1>ProgramWriterTest</h1>
+ *
+ * <p>Save a parsed program in a .wci file, read it back, and check that
+ * its cross-reference listing, its parse tree and its output are the
+ * same as the ones of the program that was parsed from the source.</p>
+ *
+ * <p>Copyright (c) 2009 by Ronald Mak</p>
+ * <p>For instructional purposes only.  No warranties.</p>
+ */
+public class ProgramWriterTest
+{
+    private static final String PROGRAM =
+        "PROGRAM saved (output);\n" +
+        "CONST limit = 5;\n" +
+        "TYPE\n" +
+        "    colour = (red, green, blue);\n" +
+        "    point = RECORD\n" +
+        "                x, y : real;\n" +
+        "                c : colour;\n" +
+        "            END;\n" +
+        "    points = ARRAY [1..limit] OF point;\n" +
+        "VAR\n" +
+        "    pts : points;\n" +
+        "    i : integer;\n" +
+        "    name : ARRAY [1..5] OF char;\n" +
+        "\n" +
+        "PROCEDURE shift(VAR p : point; d : real);\n" +
+        "BEGIN\n" +
+        "    p.x := p.x + d;\n" +
+        "    p.y := p.y - d\n" +
+        "END;\n" +
+        "\n" +
+        "FUNCTION total(n : integer) : real;\n" +
+        "VAR k : integer; s : real;\n" +
+        "\n" +
+        "    FUNCTION len(p : point) : real;\n" +
+        "    BEGIN\n" +
+        "        len := sqrt(sqr(p.x) + sqr(p.y))\n" +
+        "    END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    s := 0;\n" +
+        "    FOR k := 1 TO n DO s := s + len(pts[k]);\n" +
+        "    total := s\n" +
+        "END;\n" +
+        "\n" +
+        "BEGIN\n" +
+        "    name := 'saved';\n" +
+        "    FOR i := 1 TO limit DO BEGIN\n" +
+        "        pts[i].x := i;\n" +
+        "        pts[i].y := 2*i;\n" +
+        "        pts[i].c := green\n" +
+        "    END;\n" +
+        "    shift(pts[2], 0.5);\n" +
+        "    IF pts[2].c = green THEN writeln('> ', name, ' green');\n" +
+        "    writeln('> x=', pts[2].x:6:2, ' y=', pts[2].y:6:2);\n" +
+        "    writeln('> total=', total(limit):10:4)\n" +
+        "END.\n";
+
+    private static final String SAVED = "Saved the parsed program in ";
+
+    private File directory;  // the source file and the saved program
+
+    @Before
+    public void createDirectory()
+        throws IOException
+    {
+        directory = Files.createTempDirectory("saved").toFile();
+    }
+
+    @After
+    public void deleteDirectory()
+    {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void roundTrip()
+        throws IOException
+    {
+        File source = new File(directory, "saved.pas");
+        try (Writer writer = new FileWriter(source)) {
+            writer.write(PROGRAM);
+        }
+
+        // Parse, save and execute the program.  Only what is printed after
+        // the source listing and the saved message is compared.
+        String parsed = run("-isx", source);
+        int start = parsed.indexOf(SAVED);
+
+        assertTrue(parsed, start >= 0);
+        parsed = parsed.substring(parsed.indexOf('\n', start) + 1);
+
+        File saved = new File(directory, "saved" + ProgramWriter.EXTENSION);
+        assertTrue(saved.isFile());
+
+        // Read back and execute the saved program.
+        String loaded = run("-ix", saved);
+
+        assertTrue(parsed, parsed.contains("> saved green\n"));
+        assertTrue(parsed, parsed.contains("> x=  2.50 y=  3.50\n"));
+        assertTrue(parsed, parsed.contains("===== INTERMEDIATE CODE ====="));
+        assertEquals(parsed, loaded);
+    }
+
+    /**
+     * Execute a source file or a saved program and return the output
+     * without the timing lines.
+     * @param flags the flags.
+     * @param file the source file or the saved program.
+     * @return the output.
+     */
+    private String run(String flags, File file)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        BackendContext context = new BackendContext();
+
+        context.outputDirectory = directory;
+
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            SubC.translate(new String[] {"execute", flags, file.getPath(),
+                                         "Pascal"},
+                           context);
+        }
+        finally {
+            System.setOut(out);
+        }
+
+        StringBuilder output = new StringBuilder();
+        for (String line : bytes.toString().split("\r?\n")) {
+            if (!line.contains("seconds")) {
+                output.append(line).append('\n');
+            }
+        }
+
+        return output.toString();
+    }
+}